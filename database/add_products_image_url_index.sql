@@ -0,0 +1,12 @@
+-- ====================================
+-- 为产品图片URL添加索引
+-- 内容寻址存储按 image_url 统计引用计数（删除文件前检查是否仍被引用）
+-- 执行日期：2026-10-19
+-- ====================================
+
+USE product_management_system;
+
+ALTER TABLE `products` ADD INDEX `idx_image_url` (`image_url`);
+
+-- 验证索引是否创建成功
+SHOW INDEX FROM `products` WHERE Key_name = 'idx_image_url';
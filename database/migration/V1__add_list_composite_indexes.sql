@@ -0,0 +1,38 @@
+-- ====================================
+-- 列表查询复合索引
+-- 产品列表与用户列表都按 created_time 降序分页，并带可选的等值筛选（分类、状态）
+-- 原有单列索引只能过滤不能排序，每页都要文件排序；改为"等值列 + created_time + id"的复合索引后，
+-- 按索引顺序读取并由LIMIT提前结束，COUNT也可只扫描索引
+-- 以"等值列"开头的复合索引覆盖原单列索引的用途，原索引删除
+-- 执行前后可调用 GET /api/admin/index-advisor?iterations=10 对比执行计划与耗时
+-- 执行日期：2026-10-19
+-- ====================================
+
+USE product_management_system;
+
+-- 产品表
+-- idx_created_time：无筛选 / 仅价格区间（按索引顺序读取后过滤价格）
+-- idx_category_created：分类筛选（可再过滤状态、价格）
+-- idx_status_created：状态筛选
+-- idx_status_price：状态 + 价格区间的COUNT（覆盖索引）
+ALTER TABLE `products`
+    DROP INDEX `idx_category`,
+    DROP INDEX `idx_status`,
+    ADD INDEX `idx_created_time` (`created_time`, `id`),
+    ADD INDEX `idx_category_created` (`category`, `created_time`, `id`),
+    ADD INDEX `idx_status_created` (`status`, `created_time`, `id`),
+    ADD INDEX `idx_status_price` (`status`, `price`),
+    ALGORITHM = INPLACE, LOCK = NONE;
+
+-- 用户表
+-- idx_created_time：无筛选 / 用户名、邮箱模糊查询（前置通配符无法使用索引，按索引顺序读取后过滤）
+-- idx_status_created：状态筛选
+ALTER TABLE `users`
+    DROP INDEX `idx_status`,
+    ADD INDEX `idx_created_time` (`created_time`, `id`),
+    ADD INDEX `idx_status_created` (`status`, `created_time`, `id`),
+    ALGORITHM = INPLACE, LOCK = NONE;
+
+-- 验证索引是否创建成功
+SHOW INDEX FROM `products` WHERE Key_name IN ('idx_created_time', 'idx_category_created', 'idx_status_created', 'idx_status_price');
+SHOW INDEX FROM `users` WHERE Key_name IN ('idx_created_time', 'idx_status_created');
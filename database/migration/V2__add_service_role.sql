@@ -0,0 +1,16 @@
+-- ====================================
+-- 添加下单服务角色 (ROLE_SERVICE)
+-- 库存预占、确认、释放接口只允许管理员和持有该角色的服务账号调用
+-- 服务账号按普通用户创建后在 user_roles 中分配该角色
+-- 执行日期：2026-10-19
+-- ====================================
+
+USE product_management_system;
+
+INSERT INTO `roles` (`role_name`, `role_code`, `description`, `created_time`, `updated_time`)
+SELECT '下单服务', 'ROLE_SERVICE', '下单服务账号，可预占、确认和释放库存', NOW(), NOW()
+FROM DUAL
+WHERE NOT EXISTS (SELECT 1 FROM `roles` WHERE `role_code` = 'ROLE_SERVICE');
+
+-- 验证
+SELECT * FROM `roles` WHERE `role_code` = 'ROLE_SERVICE';
@@ -0,0 +1,50 @@
+-- ====================================
+-- 列表查询基准数据（仅用于测试环境）
+-- 生成20万条产品和5万条用户，用于对比 V1__add_list_composite_indexes.sql 执行前后的执行计划与耗时
+-- 产品编码前缀 BENCH-、用户名前缀 bench_，可用文末的DELETE语句清理
+-- 需要 MySQL 8.0（WITH RECURSIVE）
+-- ====================================
+
+USE product_management_system;
+
+SET SESSION cte_max_recursion_depth = 1000000;
+
+-- 产品：8个分类，约80%上架，价格0.01~999.99，创建时间分布在近两年内
+INSERT INTO `products` (`product_name`, `product_code`, `category`, `price`, `stock`, `status`,
+                        `created_by_username`, `created_time`, `updated_time`)
+WITH RECURSIVE seq (n) AS (
+    SELECT 1
+    UNION ALL
+    SELECT n + 1 FROM seq WHERE n < 200000
+)
+SELECT CONCAT('基准产品', n),
+       CONCAT('BENCH-', LPAD(n, 8, '0')),
+       ELT(1 + n % 8, '电子产品', '家居用品', '服装鞋帽', '食品饮料', '图书音像', '运动户外', '美妆个护', '母婴用品'),
+       ROUND(0.01 + (n * 7919 % 99999) / 100, 2),
+       n % 1000,
+       IF(n % 5 = 0, 0, 1),
+       'admin',
+       NOW() - INTERVAL (n * 313 % 63072000) SECOND,
+       NOW()
+FROM seq;
+
+-- 用户：约90%启用，创建时间分布在近两年内
+INSERT INTO `users` (`username`, `password`, `email`, `status`, `created_time`, `updated_time`)
+WITH RECURSIVE seq (n) AS (
+    SELECT 1
+    UNION ALL
+    SELECT n + 1 FROM seq WHERE n < 50000
+)
+SELECT CONCAT('bench_', n),
+       '$2a$10$N.zmdr9k7uOCQb376NoUnuTJ8iAt6Z5EHsM8lE9lBOsl7iKTVKIUi',
+       CONCAT('bench_', n, '@example.com'),
+       IF(n % 10 = 0, 0, 1),
+       NOW() - INTERVAL (n * 313 % 63072000) SECOND,
+       NOW()
+FROM seq;
+
+ANALYZE TABLE `products`, `users`;
+
+-- 清理基准数据
+-- DELETE FROM `products` WHERE `product_code` LIKE 'BENCH-%';
+-- DELETE FROM `users` WHERE `username` LIKE 'bench\_%';
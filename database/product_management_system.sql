@@ -76,9 +76,12 @@ CREATE TABLE `products`  (
   `updated_time` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
   PRIMARY KEY (`id`) USING BTREE,
   UNIQUE INDEX `uk_product_code`(`product_code` ASC) USING BTREE,
-  INDEX `idx_category`(`category` ASC) USING BTREE,
-  INDEX `idx_status`(`status` ASC) USING BTREE,
-  INDEX `idx_created_by_username`(`created_by_username` ASC) USING BTREE
+  INDEX `idx_created_time`(`created_time` ASC, `id` ASC) USING BTREE,
+  INDEX `idx_category_created`(`category` ASC, `created_time` ASC, `id` ASC) USING BTREE,
+  INDEX `idx_status_created`(`status` ASC, `created_time` ASC, `id` ASC) USING BTREE,
+  INDEX `idx_status_price`(`status` ASC, `price` ASC) USING BTREE,
+  INDEX `idx_created_by_username`(`created_by_username` ASC) USING BTREE,
+  INDEX `idx_image_url`(`image_url` ASC) USING BTREE
 ) ENGINE = InnoDB AUTO_INCREMENT = 14 CHARACTER SET = utf8mb4 COLLATE = utf8mb4_unicode_ci COMMENT = '产品表（使用业务字段关联）' ROW_FORMAT = DYNAMIC;
 
 -- ----------------------------
@@ -156,7 +159,8 @@ CREATE TABLE `users`  (
   PRIMARY KEY (`id`) USING BTREE,
   UNIQUE INDEX `uk_username`(`username` ASC) USING BTREE,
   UNIQUE INDEX `uk_email`(`email` ASC) USING BTREE,
-  INDEX `idx_status`(`status` ASC) USING BTREE
+  INDEX `idx_created_time`(`created_time` ASC, `id` ASC) USING BTREE,
+  INDEX `idx_status_created`(`status` ASC, `created_time` ASC, `id` ASC) USING BTREE
 ) ENGINE = InnoDB AUTO_INCREMENT = 12 CHARACTER SET = utf8mb4 COLLATE = utf8mb4_unicode_ci COMMENT = '用户表' ROW_FORMAT = DYNAMIC;
 
 -- ----------------------------
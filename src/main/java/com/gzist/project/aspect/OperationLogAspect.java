@@ -24,6 +24,8 @@ import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -105,6 +107,7 @@ public class OperationLogAspect {
      * 4. BindingResult - 数据绑定结果
      * 5. WebRequest - Web请求对象
      * 6. HttpSession - 会话对象
+     * 7. InputStream/OutputStream - 流式导入导出的数据流
      * 
      * @param args 方法参数数组
      * @return JSON格式的参数字符串
@@ -144,6 +147,10 @@ public class OperationLogAspect {
                     // 忽略Model、BindingResult、WebRequest、Session对象
                     continue;
                 }
+                // 过滤数据流（流式导入导出）
+                else if (arg instanceof InputStream || arg instanceof OutputStream) {
+                    continue;
+                }
                 // 过滤Authentication对象
                 else if (arg instanceof Authentication) {
                     // 忽略Spring Security认证对象
@@ -5,6 +5,7 @@ import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.interceptor.KeyGenerator;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
@@ -32,23 +33,9 @@ public class CacheConfig {
      */
     @Bean
     public CacheManager cacheManager(RedisConnectionFactory connectionFactory) {
-        // 配置自定义ObjectMapper处理Java 8时间类型和多态类型
-        ObjectMapper objectMapper = new ObjectMapper();
-        
-        // 注册Java 8时间模块
-        objectMapper.registerModule(new JavaTimeModule());
-        objectMapper.disable(com.fasterxml.jackson.databind.SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
-        
-        // 启用默认类型信息，解决接口/抽象类反序列化问题
-        // 这样序列化时会保存类型信息，反序列化时能正确还原为具体类型（如IPage -> Page）
-        objectMapper.activateDefaultTyping(
-                LaissezFaireSubTypeValidator.instance,
-                ObjectMapper.DefaultTyping.NON_FINAL
-        );
-        
         // 配置序列化器
         GenericJackson2JsonRedisSerializer jsonRedisSerializer = 
-                new GenericJackson2JsonRedisSerializer(objectMapper);
+                new GenericJackson2JsonRedisSerializer(cacheObjectMapper());
         
         // 配置缓存策略
         RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
@@ -72,4 +59,33 @@ public class CacheConfig {
                 .transactionAware()
                 .build();
     }
+
+    /**
+     * 产品列表缓存key生成器
+     * 按规范化后的查询条件生成key，语义相同的查询共用缓存项
+     */
+    @Bean(ProductQueryKeyGenerator.BEAN_NAME)
+    public KeyGenerator productQueryKeyGenerator() {
+        return new ProductQueryKeyGenerator();
+    }
+
+    /**
+     * 缓存值序列化使用的ObjectMapper
+     * 处理Java 8时间类型和多态类型
+     */
+    public static ObjectMapper cacheObjectMapper() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        
+        // 注册Java 8时间模块
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.disable(com.fasterxml.jackson.databind.SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        
+        // 启用默认类型信息，解决接口/抽象类反序列化问题
+        // 这样序列化时会保存类型信息，反序列化时能正确还原为具体类型（如IPage -> Page）
+        objectMapper.activateDefaultTyping(
+                LaissezFaireSubTypeValidator.instance,
+                ObjectMapper.DefaultTyping.NON_FINAL
+        );
+        return objectMapper;
+    }
 }
@@ -0,0 +1,37 @@
+package com.gzist.project.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 分片上传配置类
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "file.chunked")
+public class ChunkedUploadConfig {
+
+    /**
+     * 上传会话文件目录（未完成的文件，不对外提供访问）
+     */
+    private String sessionPath = "uploads-sessions/";
+
+    /**
+     * 分片上传的单个文件最大大小（字节）默认50MB
+     */
+    private Long maxFileSize = 50 * 1024 * 1024L;
+
+    /**
+     * 分片大小（字节）默认2MB，除最后一片外每片必须等于该大小
+     */
+    private Integer chunkSize = 2 * 1024 * 1024;
+
+    /**
+     * 会话有效期（小时），超时未完成的会话被清理
+     */
+    private Integer sessionTtlHours = 24;
+}
@@ -0,0 +1,119 @@
+package com.gzist.project.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 线程池配置类
+ * 集中定义后台任务使用的线程池，避免占用公共ForkJoinPool和Tomcat请求线程；
+ * 同时启用定时任务：上传回收等长耗时任务由定时方法提交到线程池执行，
+ * 快照/联想词刷新、库存写回等周期任务直接在调度线程上执行，
+ * 调度线程数由spring.task.scheduling.pool.size配置（不少于定时方法数，互不排队）
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+@EnableScheduling
+@Configuration
+public class ExecutorConfig {
+
+    @Autowired
+    private UserBulkConfig userBulkConfig;
+
+    @Autowired
+    private ImageVariantConfig imageVariantConfig;
+
+    @Autowired
+    private FileUploadConfig fileUploadConfig;
+
+    @Autowired
+    private ProductBulkConfig productBulkConfig;
+
+    /**
+     * 密码加密线程池（BCrypt为CPU密集型，按核数并行）
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ForkJoinPool passwordHashPool() {
+        int parallelism = userBulkConfig.getHashParallelism();
+        if (parallelism <= 0) {
+            parallelism = Runtime.getRuntime().availableProcessors();
+        }
+        return new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * 批量后台任务线程池（产品归属迁移等长耗时任务，队列满时拒绝提交）
+     */
+    @Bean
+    public ThreadPoolTaskExecutor bulkJobExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("bulk-job-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+
+    /**
+     * 图片变体生成线程池（解码缩放占用CPU和内存，固定线程数，队列满时拒绝提交）
+     */
+    @Bean
+    public ThreadPoolTaskExecutor imageVariantExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(imageVariantConfig.getWorkerThreads());
+        executor.setMaxPoolSize(imageVariantConfig.getWorkerThreads());
+        executor.setQueueCapacity(imageVariantConfig.getQueueCapacity());
+        executor.setThreadNamePrefix("image-variant-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+
+    /**
+     * 上传IO线程池（批量上传时并发校验、写入文件，队列满时拒绝提交以形成背压）
+     */
+    @Bean
+    public ThreadPoolTaskExecutor uploadExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(fileUploadConfig.getUploadThreads());
+        executor.setMaxPoolSize(fileUploadConfig.getUploadThreads());
+        executor.setQueueCapacity(fileUploadConfig.getUploadQueueCapacity());
+        executor.setThreadNamePrefix("upload-io-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+
+    /**
+     * 存储后台任务线程池（异步删除对象等，删除失败不影响请求；关闭时等待已提交的删除完成）
+     */
+    @Bean
+    public ThreadPoolTaskExecutor storageExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(1000);
+        executor.setThreadNamePrefix("storage-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    /**
+     * 流式响应线程池（产品导出等StreamingResponseBody在此执行，线程数即同时导出数，队列满时拒绝）
+     */
+    @Bean
+    public ThreadPoolTaskExecutor streamingExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(productBulkConfig.getExportThreads());
+        executor.setMaxPoolSize(productBulkConfig.getExportThreads());
+        executor.setQueueCapacity(productBulkConfig.getExportQueueCapacity());
+        executor.setThreadNamePrefix("streaming-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+}
@@ -36,4 +36,29 @@ public class FileUploadConfig {
      * 产品图片存储路径
      */
     private String productImagePath = "products/";
+
+    /**
+     * 内容寻址存储子目录（位于产品图片目录下，文件名为内容SHA-256，内容不可变）
+     */
+    private String casPath = "cas/";
+
+    /**
+     * 内容寻址文件的浏览器缓存时间（秒）默认一年
+     */
+    private Long casCacheSeconds = 365 * 24 * 3600L;
+
+    /**
+     * 批量上传单次请求最多文件数
+     */
+    private Integer maxBatchFiles = 10;
+
+    /**
+     * 上传IO线程数（批量上传的各文件在该线程池中并发校验写入）
+     */
+    private Integer uploadThreads = 4;
+
+    /**
+     * 上传IO线程池等待队列长度，队列满时拒绝新文件（返回503，由客户端稍后重试）
+     */
+    private Integer uploadQueueCapacity = 32;
 }
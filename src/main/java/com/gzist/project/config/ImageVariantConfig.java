@@ -0,0 +1,52 @@
+package com.gzist.project.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 图片变体（缩略图/转码）配置类
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "file.variant")
+public class ImageVariantConfig {
+
+    /**
+     * 变体磁盘缓存目录（不在上传目录下，避免被静态资源直接访问）
+     */
+    private String cachePath = "cache/variants/";
+
+    /**
+     * 变体磁盘缓存容量上限（字节）默认512MB，超出后按最近最少使用淘汰
+     */
+    private Long maxCacheSize = 512 * 1024 * 1024L;
+
+    /**
+     * 允许生成的宽度（像素），限制取值避免任意尺寸撑满缓存
+     */
+    private Integer[] allowedWidths = {160, 320, 640, 1024};
+
+    /**
+     * JPEG输出质量（0-1）
+     */
+    private Float jpegQuality = 0.8f;
+
+    /**
+     * 生成变体的工作线程数
+     */
+    private Integer workerThreads = 2;
+
+    /**
+     * 等待生成的任务队列长度，队列满时拒绝请求
+     */
+    private Integer queueCapacity = 64;
+
+    /**
+     * 请求等待生成完成的超时时间（毫秒）
+     */
+    private Long waitTimeoutMillis = 10000L;
+}
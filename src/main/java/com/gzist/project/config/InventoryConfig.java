@@ -0,0 +1,42 @@
+package com.gzist.project.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 库存预占配置类
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "product.inventory")
+public class InventoryConfig {
+
+    /**
+     * 每个产品的库存计数器分段数（热点产品的并发扣减分散到各段）
+     */
+    private Integer stripes = 16;
+
+    /**
+     * 单次预占的最大数量
+     */
+    private Integer maxQuantity = 10000;
+
+    /**
+     * 预占有效期（分钟），超时未确认的预占自动释放
+     */
+    private Integer reservationTtlMinutes = 15;
+
+    /**
+     * 已确认扣减写回数据库的间隔（毫秒）
+     */
+    private Long flushIntervalMillis = 1000L;
+
+    /**
+     * 内存计数器与数据库库存对账的间隔（毫秒）
+     */
+    private Long reconcileIntervalMillis = 60000L;
+}
@@ -0,0 +1,57 @@
+package com.gzist.project.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 产品批量操作配置类
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "product.bulk")
+public class ProductBulkConfig {
+
+    /**
+     * 导入时每个事务写入的产品数（一条多行INSERT）
+     */
+    private Integer importChunkSize = 1000;
+
+    /**
+     * 导入结果中保留的失败明细上限
+     */
+    private Integer maxReportedErrors = 1000;
+
+    /**
+     * 批量更新时每个事务更新的产品数（一条UPDATE ... CASE）
+     */
+    private Integer updateChunkSize = 500;
+
+    /**
+     * 单次批量更新请求的修改项上限
+     */
+    private Integer updateMaxItems = 10000;
+
+    /**
+     * 同时执行的导出数（每个导出在整个过程中占用一个数据库连接）
+     */
+    private Integer exportThreads = 2;
+
+    /**
+     * 等待执行的导出请求数，超出时拒绝
+     */
+    private Integer exportQueueCapacity = 8;
+
+    /**
+     * 单次导出的最长时间（分钟）
+     */
+    private Integer exportTimeoutMinutes = 30;
+
+    /**
+     * 单次批量查询详情的产品ID上限
+     */
+    private Integer detailMaxIds = 100;
+}
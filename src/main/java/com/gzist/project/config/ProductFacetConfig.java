@@ -0,0 +1,29 @@
+package com.gzist.project.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 产品分面统计配置类
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "product.facets")
+public class ProductFacetConfig {
+
+    /**
+     * 价格直方图的分段边界（升序，单位元），第i段为[第i个边界, 第i+1个边界)，最后一段无上限
+     */
+    private List<BigDecimal> priceBands = new ArrayList<>(Arrays.asList(
+            new BigDecimal("0"), new BigDecimal("50"), new BigDecimal("100"), new BigDecimal("200"),
+            new BigDecimal("500"), new BigDecimal("1000"), new BigDecimal("2000"), new BigDecimal("5000")));
+}
@@ -0,0 +1,32 @@
+package com.gzist.project.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 产品详情微批量加载配置类
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "product.loader")
+public class ProductLoaderConfig {
+
+    /**
+     * 是否合并并发的详情查询（关闭时每次按主键单独查询）
+     */
+    private Boolean enabled = true;
+
+    /**
+     * 等待窗口（微秒），单次查询最多额外等待一个窗口加上一次批量查询的耗时
+     */
+    private Long windowMicros = 1000L;
+
+    /**
+     * 每批最多的产品数（凑满立即查询）
+     */
+    private Integer maxBatchSize = 100;
+}
@@ -0,0 +1,33 @@
+package com.gzist.project.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 产品列表负缓存配置类（空结果与超出末页的页码）
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "product.negative-cache")
+public class ProductNegativeCacheConfig {
+
+    /**
+     * 是否启用（关闭时每次查询都访问数据库或快照）
+     */
+    private Boolean enabled = true;
+
+    /**
+     * 记录的有效期（毫秒），远短于列表缓存
+     * 记录只在本实例内，其他实例的写入不会清除，有效期即多实例部署时空页结果的最大延迟
+     */
+    private Long ttlMillis = 60000L;
+
+    /**
+     * 最多记录的筛选条件数（超出时淘汰最久未使用的）
+     */
+    private Integer maxEntries = 10000;
+}
@@ -0,0 +1,41 @@
+package com.gzist.project.config;
+
+import com.gzist.project.dto.ProductQueryKey;
+import com.gzist.project.vo.request.ProductQueryRequest;
+import com.gzist.project.vo.request.ProductView;
+import org.springframework.cache.interceptor.KeyGenerator;
+
+import java.lang.reflect.Method;
+
+/**
+ * 产品列表缓存key生成器
+ * 从方法参数中取出查询请求和视图（未传视图的方法按卡片视图），生成规范化的 {@link ProductQueryKey}，
+ * 代替逐次求值的SpEL字符串拼接；返回同一列表的方法共用缓存项
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+public class ProductQueryKeyGenerator implements KeyGenerator {
+
+    /**
+     * Bean名称（@Cacheable的keyGenerator属性使用）
+     */
+    public static final String BEAN_NAME = "productQueryKeyGenerator";
+
+    @Override
+    public Object generate(Object target, Method method, Object... params) {
+        ProductQueryRequest queryRequest = null;
+        ProductView view = ProductView.CARD;
+        for (Object param : params) {
+            if (param instanceof ProductQueryRequest) {
+                queryRequest = (ProductQueryRequest) param;
+            } else if (param instanceof ProductView) {
+                view = (ProductView) param;
+            }
+        }
+        if (queryRequest == null) {
+            throw new IllegalArgumentException("方法参数中没有产品查询请求：" + method);
+        }
+        return ProductQueryKey.of(view, queryRequest);
+    }
+}
@@ -0,0 +1,32 @@
+package com.gzist.project.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 产品内存列式快照配置类
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "product.snapshot")
+public class ProductSnapshotConfig {
+
+    /**
+     * 是否启用快照（关闭时列表查询全部走数据库）
+     */
+    private Boolean enabled = false;
+
+    /**
+     * 应用增量变更的间隔（毫秒）
+     */
+    private Long refreshIntervalMillis = 500L;
+
+    /**
+     * 全量重建的间隔（毫秒）
+     */
+    private Long rebuildIntervalMillis = 600000L;
+}
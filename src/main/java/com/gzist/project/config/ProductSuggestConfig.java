@@ -0,0 +1,37 @@
+package com.gzist.project.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 产品名称/编码前缀补全配置类
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "product.suggest")
+public class ProductSuggestConfig {
+
+    /**
+     * 是否启用补全（关闭时补全接口返回空结果）
+     */
+    private Boolean enabled = true;
+
+    /**
+     * 单次补全的最大返回数
+     */
+    private Integer maxLimit = 20;
+
+    /**
+     * 应用增量变更的间隔（毫秒）
+     */
+    private Long refreshIntervalMillis = 500L;
+
+    /**
+     * 全量重建的间隔（毫秒）
+     */
+    private Long rebuildIntervalMillis = 1800000L;
+}
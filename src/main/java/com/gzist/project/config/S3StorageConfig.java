@@ -0,0 +1,54 @@
+package com.gzist.project.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * S3兼容对象存储配置类（file.storage.type=s3 时生效）
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "file.storage.s3")
+public class S3StorageConfig {
+
+    /**
+     * 服务地址（MinIO等S3兼容服务填写，如 http://localhost:9000；AWS S3留空）
+     */
+    private String endpoint;
+
+    /**
+     * 区域
+     */
+    private String region = "us-east-1";
+
+    /**
+     * 存储桶
+     */
+    private String bucket;
+
+    /**
+     * 访问密钥（留空时使用默认凭证链：环境变量、实例角色等）
+     */
+    private String accessKey;
+
+    private String secretKey;
+
+    /**
+     * 是否使用路径风格访问（MinIO需要开启）
+     */
+    private Boolean pathStyleAccess = true;
+
+    /**
+     * 超过该大小（字节）使用分片上传，默认16MB
+     */
+    private Long multipartThreshold = 16 * 1024 * 1024L;
+
+    /**
+     * 分片上传的分片大小（字节），最小5MB，默认8MB
+     */
+    private Long partSize = 8 * 1024 * 1024L;
+}
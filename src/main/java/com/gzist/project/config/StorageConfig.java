@@ -0,0 +1,32 @@
+package com.gzist.project.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 上传文件存储后端配置类
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "file.storage")
+public class StorageConfig {
+
+    /**
+     * 存储后端：local（本地文件系统，根目录为file.upload.path）或 s3（S3兼容对象存储）
+     */
+    private String type = "local";
+
+    /**
+     * 远程存储的本地读穿缓存目录
+     */
+    private String cachePath = "cache/objects/";
+
+    /**
+     * 本地读穿缓存容量上限（字节）默认1GB，超出后按最近最少使用淘汰
+     */
+    private Long cacheMaxSize = 1024 * 1024 * 1024L;
+}
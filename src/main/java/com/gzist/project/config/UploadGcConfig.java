@@ -0,0 +1,57 @@
+package com.gzist.project.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 上传文件垃圾回收配置类
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "file.gc")
+public class UploadGcConfig {
+
+    /**
+     * 是否启用定时回收
+     */
+    private Boolean enabled = true;
+
+    /**
+     * 定时回收的cron表达式，默认每天凌晨3:30
+     */
+    private String cron = "0 30 3 * * ?";
+
+    /**
+     * 定时回收是否只生成报告不删除文件
+     */
+    private Boolean dryRun = false;
+
+    /**
+     * 宽限期（小时）：修改时间在宽限期内的文件视为上传中或尚未保存到产品，不回收
+     */
+    private Integer gracePeriodHours = 24;
+
+    /**
+     * 单次运行最多检查的文件数，超出后记录游标，下次运行从游标处继续
+     */
+    private Integer maxFilesPerRun = 200000;
+
+    /**
+     * 每批删除的文件数
+     */
+    private Integer deleteBatchSize = 200;
+
+    /**
+     * 每批删除后的暂停时间（毫秒），限制对磁盘和数据库的压力
+     */
+    private Long batchPauseMillis = 200L;
+
+    /**
+     * 报告中保留的孤儿文件样例数量
+     */
+    private Integer maxReportedFiles = 100;
+}
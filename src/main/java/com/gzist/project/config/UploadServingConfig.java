@@ -0,0 +1,38 @@
+package com.gzist.project.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 上传文件访问配置类
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "file.serving")
+public class UploadServingConfig {
+
+    /**
+     * 是否启用专用的上传文件访问过滤器（关闭时回退到Spring MVC静态资源处理）
+     * 启用后 /uploads/** 作为公开图片地址直接返回，不经过Spring Security等后续过滤器
+     */
+    private Boolean enabled = true;
+
+    /**
+     * 缓存的打开文件句柄数量上限
+     */
+    private Integer openFileCacheSize = 256;
+
+    /**
+     * 超过该大小（字节）的文件交给Tomcat sendfile零拷贝发送，默认48KB
+     */
+    private Long sendfileThreshold = 48 * 1024L;
+
+    /**
+     * 非内容寻址文件的浏览器缓存时间（秒）默认1天
+     */
+    private Long cacheSeconds = 86400L;
+}
@@ -0,0 +1,47 @@
+package com.gzist.project.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 用户批量操作配置类
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "user.bulk")
+public class UserBulkConfig {
+
+    /**
+     * 导入时每个事务写入的用户数
+     */
+    private Integer importChunkSize = 500;
+
+    /**
+     * 密码加密并行度，小于等于0时使用CPU核数
+     */
+    private Integer hashParallelism = 0;
+
+    /**
+     * 导入结果中保留的失败明细上限
+     */
+    private Integer maxReportedErrors = 1000;
+
+    /**
+     * 批量启用、禁用、删除时每个事务处理的用户数
+     */
+    private Integer operationChunkSize = 200;
+
+    /**
+     * 产品归属迁移任务每条UPDATE影响的最大行数
+     */
+    private Integer reassignBatchSize = 1000;
+
+    /**
+     * 后台任务状态保留时长（小时）
+     */
+    private Integer jobTtlHours = 24;
+}
@@ -1,10 +1,21 @@
 package com.gzist.project.config;
 
+import com.gzist.project.filter.UploadResourceFilter;
+import com.gzist.project.service.IFileUploadService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.http.CacheControl;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * Web MVC配置 - 静态资源访问
  *
@@ -17,12 +28,51 @@ public class WebMvcConfig implements WebMvcConfigurer {
     @Autowired
     private FileUploadConfig fileUploadConfig;
 
+    @Autowired
+    private UploadServingConfig uploadServingConfig;
+
+    @Autowired
+    private ProductBulkConfig productBulkConfig;
+
+    @Autowired
+    @Qualifier("streamingExecutor")
+    private ThreadPoolTaskExecutor streamingExecutor;
+
+    /**
+     * 异步请求配置
+     * StreamingResponseBody在专用线程池中执行（默认的SimpleAsyncTaskExecutor每个请求新建线程且不限数量），
+     * 超时时间放宽到一次完整导出所需
+     */
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(streamingExecutor);
+        configurer.setDefaultTimeout(TimeUnit.MINUTES.toMillis(productBulkConfig.getExportTimeoutMinutes()));
+    }
+
+    /**
+     * 注册上传文件访问过滤器
+     * 排在所有过滤器（含Spring Security）之前，/uploads/** 请求在此直接返回文件
+     */
+    @Bean
+    public FilterRegistrationBean<UploadResourceFilter> uploadResourceFilter(IFileUploadService fileUploadService) {
+        FilterRegistrationBean<UploadResourceFilter> registration = new FilterRegistrationBean<>(
+                new UploadResourceFilter(fileUploadService, fileUploadConfig, uploadServingConfig));
+        registration.addUrlPatterns("/uploads/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        registration.setEnabled(uploadServingConfig.getEnabled());
+        return registration;
+    }
+
     /**
      * 配置静态资源映射
-     * 使上传的文件可以通过URL访问
+     * 使上传的文件可以通过URL访问（仅在未启用上传文件访问过滤器时生效）
      */
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        if (uploadServingConfig.getEnabled()) {
+            return;
+        }
+
         // 映射上传文件的访问路径
         String uploadPath = fileUploadConfig.getPath();
         // 确保路径以/结尾
@@ -30,6 +80,14 @@ public class WebMvcConfig implements WebMvcConfigurer {
             uploadPath += "/";
         }
         
+        // 内容寻址文件的URL随内容变化，可长期缓存
+        String casPattern = "/uploads/" + fileUploadConfig.getProductImagePath() + fileUploadConfig.getCasPath() + "**";
+        registry.addResourceHandler(casPattern)
+                .addResourceLocations("file:" + uploadPath + fileUploadConfig.getProductImagePath()
+                        + fileUploadConfig.getCasPath())
+                .setCacheControl(CacheControl.maxAge(fileUploadConfig.getCasCacheSeconds(), TimeUnit.SECONDS)
+                        .cachePublic());
+
         registry.addResourceHandler("/uploads/**")
                 .addResourceLocations("file:" + uploadPath);
     }
@@ -1,17 +1,38 @@
 package com.gzist.project.controller;
 
 import com.gzist.project.common.Result;
+import com.gzist.project.config.FileUploadConfig;
+import com.gzist.project.dto.ImageVariantDTO;
+import com.gzist.project.service.IChunkedUploadService;
 import com.gzist.project.service.IFileUploadService;
+import com.gzist.project.service.IImageVariantService;
+import com.gzist.project.service.IUploadGcService;
+import com.gzist.project.vo.request.ChunkedUploadInitRequest;
+import com.gzist.project.vo.response.BatchUploadResponse;
+import com.gzist.project.vo.response.ChunkedUploadResponse;
+import com.gzist.project.vo.response.UploadGcReport;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import javax.validation.Valid;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
 /**
  * 文件上传控制器
- * 负责处理文件上传、删除等操作
- * 遵循RESTful设计，所有方法返回JSON格式数据
+ * 负责处理文件上传、删除、图片变体等操作
+ * 遵循RESTful设计，除图片变体返回文件内容外，其余方法返回JSON格式数据
  *
  * @author GZIST
  * @since 2025-12-25
@@ -24,6 +45,18 @@ public class FileUploadController {
     @Autowired
     private IFileUploadService fileUploadService;
 
+    @Autowired
+    private IImageVariantService imageVariantService;
+
+    @Autowired
+    private IUploadGcService uploadGcService;
+
+    @Autowired
+    private IChunkedUploadService chunkedUploadService;
+
+    @Autowired
+    private FileUploadConfig fileUploadConfig;
+
     /**
      * 上传产品图片
      * 支持jpg、jpeg、png、gif、webp格式，最大5MB
@@ -35,6 +68,72 @@ public class FileUploadController {
         return Result.success(imageUrl);
     }
 
+    /**
+     * 批量上传产品图片（一次请求多个文件，字段名files）
+     * 各文件并发处理并逐个返回结果；上传线程池繁忙时被拒绝的文件状态码为503，
+     * 此时整体返回HTTP 503和Retry-After，客户端可只重试被拒绝的文件
+     */
+    @PostMapping("/upload/product-images")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public ResponseEntity<Result<BatchUploadResponse>> uploadProductImages(@RequestParam("files") List<MultipartFile> files) {
+        BatchUploadResponse response = fileUploadService.uploadProductImages(files);
+        if (response.getRejected() > 0) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(new Result<>(503, "上传繁忙，部分文件未处理，请稍后重试", response, false));
+        }
+        return ResponseEntity.ok(Result.success(response));
+    }
+
+    /**
+     * 初始化分片上传会话
+     */
+    @PostMapping("/chunked")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public Result<ChunkedUploadResponse> initChunkedUpload(@Valid @RequestBody ChunkedUploadInitRequest initRequest) {
+        return Result.success(chunkedUploadService.initUpload(initRequest));
+    }
+
+    /**
+     * 上传分片
+     * 请求体为分片原始字节（application/octet-stream），不经过multipart解析
+     */
+    @PutMapping("/chunked/{uploadId}")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public Result<ChunkedUploadResponse> uploadChunk(@PathVariable String uploadId,
+                                                     @RequestParam("offset") long offset,
+                                                     InputStream inputStream) {
+        return Result.success(chunkedUploadService.uploadChunk(uploadId, offset, inputStream));
+    }
+
+    /**
+     * 查询分片上传进度（断点续传）
+     */
+    @GetMapping("/chunked/{uploadId}")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public Result<ChunkedUploadResponse> getChunkedUpload(@PathVariable String uploadId) {
+        return Result.success(chunkedUploadService.getUpload(uploadId));
+    }
+
+    /**
+     * 完成分片上传
+     */
+    @PostMapping("/chunked/{uploadId}/complete")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public Result<ChunkedUploadResponse> completeChunkedUpload(@PathVariable String uploadId) {
+        return Result.success(chunkedUploadService.completeUpload(uploadId));
+    }
+
+    /**
+     * 取消分片上传
+     */
+    @DeleteMapping("/chunked/{uploadId}")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public Result<String> abortChunkedUpload(@PathVariable String uploadId) {
+        chunkedUploadService.abortUpload(uploadId);
+        return Result.success("上传已取消");
+    }
+
     /**
      * 删除文件
      */
@@ -44,4 +143,45 @@ public class FileUploadController {
         fileUploadService.deleteFileWithValidation(fileUrl);
         return Result.success("文件删除成功");
     }
+
+    /**
+     * 获取图片变体（缩略图/转码）
+     * 首次请求时生成并缓存到磁盘，之后直接返回缓存文件；源图位于内容寻址存储时可长期缓存
+     *
+     * @param src 源图URL
+     * @param width 目标宽度
+     * @param format 输出格式（jpg/png），可选
+     */
+    @GetMapping("/variant")
+    public ResponseEntity<Resource> getImageVariant(@RequestParam("src") String src,
+                                                    @RequestParam("width") Integer width,
+                                                    @RequestParam(value = "format", required = false) String format) {
+        ImageVariantDTO variant = imageVariantService.getVariant(src, width, format);
+        CacheControl cacheControl = variant.isImmutable()
+                ? CacheControl.maxAge(fileUploadConfig.getCasCacheSeconds(), TimeUnit.SECONDS).cachePublic()
+                : CacheControl.maxAge(1, TimeUnit.HOURS);
+        return ResponseEntity.ok()
+                .cacheControl(cacheControl)
+                .contentType(MediaType.parseMediaType(variant.getContentType()))
+                .body(new FileSystemResource(variant.getPath()));
+    }
+
+    /**
+     * 提交孤儿文件回收任务（默认演练，只生成报告不删除）
+     */
+    @PostMapping("/gc")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public Result<String> submitGc(@RequestParam(value = "dryRun", defaultValue = "true") boolean dryRun) {
+        uploadGcService.submitGc(dryRun);
+        return Result.success(dryRun ? "回收演练任务已提交" : "回收任务已提交");
+    }
+
+    /**
+     * 查看最近一次回收报告
+     */
+    @GetMapping("/gc/report")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public Result<UploadGcReport> gcReport(@RequestParam(value = "dryRun", defaultValue = "true") boolean dryRun) {
+        return Result.success(uploadGcService.getLastReport(dryRun));
+    }
 }
@@ -0,0 +1,36 @@
+package com.gzist.project.controller;
+
+import com.gzist.project.common.Result;
+import com.gzist.project.service.IIndexAdvisorService;
+import com.gzist.project.vo.response.IndexAdvisorReport;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 索引分析控制器
+ * 在有代表性数据量的库上对列表查询执行EXPLAIN，核对索引迁移前后的执行计划与耗时
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+@RestController
+@RequestMapping("/api/admin")
+public class IndexAdvisorController {
+
+    @Autowired
+    private IIndexAdvisorService indexAdvisorService;
+
+    /**
+     * 分析列表查询的执行计划
+     * iterations大于0时每条语句额外执行指定次数并统计平均耗时
+     */
+    @GetMapping("/index-advisor")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public Result<IndexAdvisorReport> analyze(@RequestParam(value = "iterations", defaultValue = "0") int iterations) {
+        return Result.success(indexAdvisorService.analyze(iterations));
+    }
+}
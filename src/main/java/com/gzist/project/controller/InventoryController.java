@@ -0,0 +1,71 @@
+package com.gzist.project.controller;
+
+import com.gzist.project.common.Result;
+import com.gzist.project.service.IInventoryService;
+import com.gzist.project.utils.UserContext;
+import com.gzist.project.vo.request.InventoryReserveRequest;
+import com.gzist.project.vo.response.InventoryReservationResponse;
+import com.gzist.project.vo.response.InventoryStockResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import javax.validation.Valid;
+
+/**
+ * 库存预占控制器
+ * 预占成功后需在有效期内确认或释放，超时自动释放
+ * 预占、确认、释放会改变库存，只允许管理员和下单服务账号（ROLE_SERVICE）调用，且只能确认或释放自己的预占
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+@RestController
+@RequestMapping("/api/inventory")
+public class InventoryController {
+
+    @Autowired
+    private IInventoryService inventoryService;
+
+    @Autowired
+    private UserContext userContext;
+
+    /**
+     * 预占库存，库存不足返回409
+     */
+    @PostMapping("/reservations")
+    @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_SERVICE')")
+    public Result<InventoryReservationResponse> reserve(@Valid @RequestBody InventoryReserveRequest reserveRequest) {
+        InventoryReservationResponse response = inventoryService.reserve(reserveRequest.getProductId(),
+                reserveRequest.getQuantity(), userContext.getCurrentUsername());
+        return Result.success(response);
+    }
+
+    /**
+     * 确认预占（扣减库存）
+     */
+    @PostMapping("/reservations/{reservationId}/commit")
+    @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_SERVICE')")
+    public Result<String> commit(@PathVariable String reservationId) {
+        inventoryService.commit(reservationId, userContext.getCurrentUsername());
+        return Result.success("库存扣减成功");
+    }
+
+    /**
+     * 释放预占
+     */
+    @DeleteMapping("/reservations/{reservationId}")
+    @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_SERVICE')")
+    public Result<String> release(@PathVariable String reservationId) {
+        inventoryService.release(reservationId, userContext.getCurrentUsername());
+        return Result.success("预占已释放");
+    }
+
+    /**
+     * 查询产品库存状态
+     */
+    @GetMapping("/products/{productId}")
+    public Result<InventoryStockResponse> stock(@PathVariable Long productId) {
+        return Result.success(inventoryService.getStock(productId));
+    }
+}
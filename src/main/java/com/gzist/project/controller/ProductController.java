@@ -4,18 +4,36 @@ import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.gzist.project.common.Result;
 import com.gzist.project.entity.Product;
 import com.gzist.project.service.IProductService;
+import com.gzist.project.service.IProductSuggestService;
+import com.gzist.project.utils.ImportRecordReader;
 import com.gzist.project.utils.UserContext;
 import com.gzist.project.vo.request.BatchDeleteRequest;
+import com.gzist.project.vo.request.ProductBatchUpdateRequest;
 import com.gzist.project.vo.request.ProductQueryRequest;
 import com.gzist.project.vo.request.ProductSaveRequest;
+import com.gzist.project.vo.request.ProductView;
+import com.gzist.project.vo.response.BatchUpdateResponse;
+import com.gzist.project.vo.response.ImportResultResponse;
+import com.gzist.project.vo.response.ProductDetailBatchResponse;
+import com.gzist.project.vo.response.ProductFacetResponse;
+import com.gzist.project.vo.response.ProductSuggestResponse;
+import com.gzist.project.vo.response.ProductSummaryResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
+import java.io.InputStream;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 
 @Slf4j
@@ -26,6 +44,9 @@ public class ProductController {
     @Autowired
     private IProductService productService;
 
+    @Autowired
+    private IProductSuggestService productSuggestService;
+
     @Autowired
     private UserContext userContext;
 
@@ -34,7 +55,7 @@ public class ProductController {
      */
     @GetMapping("/list")
     public String listPage(ProductQueryRequest queryRequest, Model model) {
-        IPage<Product> page = productService.getProductPage(queryRequest);
+        IPage<ProductSummaryResponse> page = productService.getProductPage(queryRequest, ProductView.CARD);
 
         model.addAttribute("page", page);
         model.addAttribute("productName", queryRequest.getProductName());
@@ -70,14 +91,87 @@ public class ProductController {
 
     /**
      * 查询产品列表（API）
+     * view=card（默认）包含图片，view=list只含基本字段；描述等完整信息通过详情接口获取
      */
     @GetMapping("/api/list")
     @ResponseBody
-    public Result<IPage<Product>> list(@Valid ProductQueryRequest queryRequest) {
-        IPage<Product> page = productService.getProductPage(queryRequest);
+    public Result<IPage<ProductSummaryResponse>> list(@Valid ProductQueryRequest queryRequest,
+                                                      @RequestParam(value = "view", required = false) String view) {
+        IPage<ProductSummaryResponse> page = productService.getProductPage(queryRequest,
+                ProductView.resolve(view, ProductView.CARD));
         return Result.success(page);
     }
 
+    /**
+     * 产品名称/编码前缀补全（API）
+     * 只读内存字典树，用于搜索框输入时的下拉提示
+     */
+    @GetMapping("/api/suggest")
+    @ResponseBody
+    public Result<ProductSuggestResponse> suggest(@RequestParam("prefix") String prefix,
+                                                  @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        return Result.success(productSuggestService.suggest(prefix, limit));
+    }
+
+    /**
+     * 统计产品分面（API）
+     * 查询条件与列表接口相同（分页参数忽略），返回各分类的产品数和价格直方图，
+     * 分类计数不受分类条件影响、价格直方图不受价格条件影响，用于展示可选分类和各价格段的结果数
+     */
+    @GetMapping("/api/facets")
+    @ResponseBody
+    public Result<ProductFacetResponse> facets(@Valid ProductQueryRequest queryRequest) {
+        return Result.success(productService.getProductFacets(queryRequest));
+    }
+
+    /**
+     * 导出产品（CSV / NDJSON，可选gzip压缩）
+     * 查询条件与列表接口相同（分页参数忽略），数据边查边写，不受每页100条限制
+     */
+    @GetMapping("/api/export")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public ResponseEntity<StreamingResponseBody> export(@Valid ProductQueryRequest queryRequest,
+                                                        @RequestParam(value = "format", required = false) String format,
+                                                        @RequestParam(value = "gzip", defaultValue = "false") boolean gzip) {
+        ImportRecordReader.Format exportFormat = ImportRecordReader.Format.resolve(format, null);
+        String fileName = "products" + (exportFormat == ImportRecordReader.Format.NDJSON ? ".ndjson" : ".csv")
+                + (gzip ? ".gz" : "");
+        MediaType contentType = gzip ? MediaType.parseMediaType("application/gzip")
+                : exportFormat == ImportRecordReader.Format.NDJSON ? MediaType.parseMediaType("application/x-ndjson;charset=UTF-8")
+                : MediaType.parseMediaType("text/csv;charset=UTF-8");
+
+        StreamingResponseBody body = outputStream -> {
+            if (gzip) {
+                GZIPOutputStream gzipStream = new GZIPOutputStream(outputStream, 64 * 1024);
+                productService.exportProducts(queryRequest, exportFormat, gzipStream);
+                gzipStream.finish();
+            } else {
+                productService.exportProducts(queryRequest, exportFormat, outputStream);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString())
+                .body(body);
+    }
+
+    /**
+     * 批量导入产品
+     * 请求体为CSV或NDJSON原始数据（format参数或Content-Type指定格式），
+     * 按产品编码新增或更新，返回逐行失败明细
+     */
+    @PostMapping("/api/import")
+    @ResponseBody
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public Result<ImportResultResponse> importProducts(@RequestParam(value = "format", required = false) String format,
+                                                       @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+                                                       InputStream inputStream) {
+        String username = userContext.getCurrentUsername();
+        ImportResultResponse result = productService.importProducts(inputStream,
+                ImportRecordReader.Format.resolve(format, contentType), username);
+        return Result.success(result);
+    }
+
     /**
      * 新增产品
      */
@@ -101,6 +195,18 @@ public class ProductController {
         return Result.success("产品更新成功");
     }
 
+    /**
+     * 批量更新产品价格、库存、状态
+     * 支持绝对值或增量，返回逐项失败明细
+     */
+    @PutMapping("/api/batch-update")
+    @ResponseBody
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public Result<BatchUpdateResponse> batchUpdate(@Valid @RequestBody ProductBatchUpdateRequest updateRequest) {
+        BatchUpdateResponse result = productService.batchUpdateProducts(updateRequest.getItems());
+        return Result.success(result);
+    }
+
     /**
      * 删除产品
      */
@@ -132,4 +238,14 @@ public class ProductController {
         Product product = productService.getProductDetail(id);
         return Result.success(product);
     }
+
+    /**
+     * 批量查看产品详情（ids=1,2,3）
+     * 结果与请求ID顺序一致，不存在的产品标记为未找到，不影响其他产品
+     */
+    @GetMapping("/api/details")
+    @ResponseBody
+    public Result<ProductDetailBatchResponse> details(@RequestParam("ids") List<Long> ids) {
+        return Result.success(productService.getProductDetails(ids));
+    }
 }
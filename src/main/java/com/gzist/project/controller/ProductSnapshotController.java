@@ -0,0 +1,45 @@
+package com.gzist.project.controller;
+
+import com.gzist.project.common.Result;
+import com.gzist.project.service.IProductSnapshotService;
+import com.gzist.project.vo.response.ProductSnapshotStatusResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 产品内存快照控制器
+ * 查看快照是否可用、落后多少，必要时手动触发全量重建
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+@RestController
+@RequestMapping("/api/admin/product-snapshot")
+public class ProductSnapshotController {
+
+    @Autowired
+    private IProductSnapshotService productSnapshotService;
+
+    /**
+     * 查询快照状态
+     */
+    @GetMapping
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public Result<ProductSnapshotStatusResponse> status() {
+        return Result.success(productSnapshotService.getStatus());
+    }
+
+    /**
+     * 请求全量重建（下一次刷新时执行，重建完成前查询回退到数据库）
+     */
+    @PostMapping("/rebuild")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public Result<String> rebuild() {
+        productSnapshotService.requestRebuild();
+        return Result.success("已请求重建");
+    }
+}
@@ -6,17 +6,26 @@ import lombok.extern.slf4j.Slf4j;
 import com.gzist.project.dto.UserManageDTO;
 import com.gzist.project.entity.Role;
 import com.gzist.project.entity.User;
+import com.gzist.project.service.IUserBulkJobService;
 import com.gzist.project.service.IUserService;
+import com.gzist.project.utils.ImportRecordReader;
 import com.gzist.project.vo.request.BatchDeleteRequest;
+import com.gzist.project.vo.request.UserBatchStatusRequest;
+import com.gzist.project.vo.request.UserProductReassignRequest;
 import com.gzist.project.vo.request.UserQueryRequest;
+import com.gzist.project.vo.response.BulkJobResponse;
+import com.gzist.project.vo.response.BulkOperationResponse;
+import com.gzist.project.vo.response.ImportResultResponse;
 import com.gzist.project.vo.response.UserDetailResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
+import java.io.InputStream;
 import java.util.List;
 
 /**
@@ -35,6 +44,9 @@ public class UserManagementController {
     @Autowired
     private IUserService userService;
 
+    @Autowired
+    private IUserBulkJobService userBulkJobService;
+
     /**
      * 用户管理页面
      */
@@ -112,6 +124,21 @@ public class UserManagementController {
         return Result.success("用户添加成功");
     }
 
+    /**
+     * 批量导入用户
+     * 请求体直接为CSV（text/csv）或NDJSON（application/x-ndjson）数据，服务端流式读取，
+     * 不受multipart文件大小限制；也可通过format参数显式指定格式
+     */
+    @PostMapping("/api/import")
+    @ResponseBody
+    public Result<ImportResultResponse> importUsers(@RequestParam(value = "format", required = false) String format,
+                                                    @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+                                                    InputStream inputStream) {
+        ImportResultResponse result = userService.importUsers(inputStream,
+                ImportRecordReader.Format.resolve(format, contentType));
+        return Result.success(result);
+    }
+
     /**
      * 更新用户
      */
@@ -134,12 +161,52 @@ public class UserManagementController {
 
     /**
      * 批量删除用户
+     * 用户分块删除；产品归属清除在后台执行，可通过返回的jobId查询进度
      */
     @DeleteMapping("/api/batch-delete")
     @ResponseBody
-    public Result<String> batchDelete(@Valid @RequestBody BatchDeleteRequest deleteRequest) {
-        userService.batchDeleteUsers(deleteRequest.getIds());
-        return Result.success("批量删除成功");
+    public Result<BulkOperationResponse> batchDelete(@Valid @RequestBody BatchDeleteRequest deleteRequest) {
+        BulkOperationResponse response = userService.batchDeleteUsers(deleteRequest.getIds());
+        return Result.success("批量删除成功", response);
+    }
+
+    /**
+     * 批量启用/禁用用户
+     */
+    @PutMapping("/api/batch-status")
+    @ResponseBody
+    public Result<BulkOperationResponse> batchStatus(@Valid @RequestBody UserBatchStatusRequest statusRequest) {
+        BulkOperationResponse response = userService.batchUpdateStatus(statusRequest.getIds(), statusRequest.getStatus());
+        return Result.success("批量更新状态成功", response);
+    }
+
+    /**
+     * 批量迁移用户创建的产品（后台任务）
+     */
+    @PostMapping("/api/batch-reassign-products")
+    @ResponseBody
+    public Result<BulkOperationResponse> batchReassignProducts(@Valid @RequestBody UserProductReassignRequest reassignRequest) {
+        BulkOperationResponse response = userService.reassignProducts(
+                reassignRequest.getIds(), reassignRequest.getTargetUsername());
+        return Result.success("产品迁移任务已提交", response);
+    }
+
+    /**
+     * 查询后台任务进度
+     */
+    @GetMapping("/api/jobs/{jobId}")
+    @ResponseBody
+    public Result<BulkJobResponse> job(@PathVariable String jobId) {
+        return Result.success(userBulkJobService.getJob(jobId));
+    }
+
+    /**
+     * 恢复失败或中断的后台任务
+     */
+    @PostMapping("/api/jobs/{jobId}/resume")
+    @ResponseBody
+    public Result<BulkJobResponse> resumeJob(@PathVariable String jobId) {
+        return Result.success(userBulkJobService.resumeJob(jobId));
     }
 
     /**
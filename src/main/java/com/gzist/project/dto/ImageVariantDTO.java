@@ -0,0 +1,33 @@
+package com.gzist.project.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.file.Path;
+
+/**
+ * 图片变体DTO
+ * 描述一次变体请求最终要返回的磁盘文件
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+@Data
+@AllArgsConstructor
+public class ImageVariantDTO {
+
+    /**
+     * 磁盘文件路径（变体缓存文件，无法生成变体时为原图）
+     */
+    private Path path;
+
+    /**
+     * 文件Content-Type
+     */
+    private String contentType;
+
+    /**
+     * 内容是否不可变（源图位于内容寻址存储时为true，可长期缓存）
+     */
+    private boolean immutable;
+}
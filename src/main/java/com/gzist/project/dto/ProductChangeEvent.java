@@ -0,0 +1,48 @@
+package com.gzist.project.dto;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 产品变更事件
+ * 产品数据写入数据库后发布，供内存中的产品数据副本（如列式快照）同步；
+ * 无法确定变更范围（如按编码导入）时发布全量变更
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+public class ProductChangeEvent {
+
+    private final Set<Long> productIds;
+
+    private final boolean fullRefresh;
+
+    private ProductChangeEvent(Set<Long> productIds, boolean fullRefresh) {
+        this.productIds = productIds;
+        this.fullRefresh = fullRefresh;
+    }
+
+    /**
+     * 指定产品发生变更（新增、修改或删除）
+     */
+    public static ProductChangeEvent of(Collection<Long> productIds) {
+        return new ProductChangeEvent(Collections.unmodifiableSet(new HashSet<>(productIds)), false);
+    }
+
+    /**
+     * 变更范围未知，需要全量刷新
+     */
+    public static ProductChangeEvent fullRefresh() {
+        return new ProductChangeEvent(Collections.emptySet(), true);
+    }
+
+    public Set<Long> getProductIds() {
+        return productIds;
+    }
+
+    public boolean isFullRefresh() {
+        return fullRefresh;
+    }
+}
@@ -0,0 +1,136 @@
+package com.gzist.project.dto;
+
+import com.gzist.project.vo.request.ProductQueryRequest;
+import com.gzist.project.vo.request.ProductView;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+
+/**
+ * 产品列表缓存key
+ * 由规范化后的查询条件生成，语义相同的查询得到相同的key：
+ * 名称、分类去掉首尾空白，空串视为未填写，并转小写（数据库排序规则和内存快照都不区分大小写）；
+ * 价格去掉多余的0（10与10.00相同）；页码、每页大小未填写时取默认值
+ *
+ * key文本和哈希值在创建时算好，Redis缓存使用文本（toString），内存缓存使用equals/hashCode
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+public final class ProductQueryKey {
+
+    private static final int DEFAULT_CURRENT = 1;
+
+    private static final int DEFAULT_SIZE = 10;
+
+    private final String text;
+
+    private final int hash;
+
+    private ProductQueryKey(String text) {
+        this.text = text;
+        this.hash = text.hashCode();
+    }
+
+    /**
+     * 生成列表查询的缓存key
+     *
+     * @param view 列表视图
+     * @param queryRequest 查询请求（不修改）
+     * @return 缓存key
+     */
+    public static ProductQueryKey of(ProductView view, ProductQueryRequest queryRequest) {
+        ProductQueryRequest normalized = normalize(queryRequest);
+        StringBuilder text = new StringBuilder(64).append("page:").append(view.name())
+                .append(':').append(normalized.getCurrent())
+                .append(':').append(normalized.getSize());
+        return new ProductQueryKey(appendFilters(text, normalized).toString());
+    }
+
+    /**
+     * 生成筛选条件的key（不含视图和分页参数，同一筛选的各页相同）
+     *
+     * @param queryRequest 查询请求（不修改）
+     * @return 筛选条件key
+     */
+    public static ProductQueryKey filter(ProductQueryRequest queryRequest) {
+        StringBuilder text = new StringBuilder(48).append("filter");
+        return new ProductQueryKey(appendFilters(text, normalize(queryRequest)).toString());
+    }
+
+    private static StringBuilder appendFilters(StringBuilder text, ProductQueryRequest normalized) {
+        appendText(text, normalized.getProductName());
+        appendText(text, normalized.getCategory());
+        text.append(':').append(normalized.getStatus());
+        appendPrice(text, normalized.getMinPrice());
+        appendPrice(text, normalized.getMaxPrice());
+        return text;
+    }
+
+    /**
+     * 规范化查询请求（返回新对象）：去掉名称、分类首尾空白，空串置为null，补齐默认页码和每页大小
+     * 缓存未命中时按规范化后的条件查询，保证共用同一缓存项的查询结果相同
+     *
+     * @param queryRequest 查询请求
+     * @return 规范化后的查询请求
+     */
+    public static ProductQueryRequest normalize(ProductQueryRequest queryRequest) {
+        ProductQueryRequest normalized = new ProductQueryRequest();
+        normalized.setCurrent(queryRequest.getCurrent() == null ? DEFAULT_CURRENT : queryRequest.getCurrent());
+        normalized.setSize(queryRequest.getSize() == null ? DEFAULT_SIZE : queryRequest.getSize());
+        normalized.setProductName(trimToNull(queryRequest.getProductName()));
+        normalized.setCategory(trimToNull(queryRequest.getCategory()));
+        normalized.setStatus(queryRequest.getStatus());
+        normalized.setMinPrice(queryRequest.getMinPrice());
+        normalized.setMaxPrice(queryRequest.getMaxPrice());
+        return normalized;
+    }
+
+    private static String trimToNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    /**
+     * 追加文本条件（转小写，转义分隔符避免不同条件拼出相同的key）
+     */
+    private static void appendText(StringBuilder text, String value) {
+        text.append(':');
+        if (value == null) {
+            text.append("null");
+            return;
+        }
+        String folded = value.toLowerCase(Locale.ROOT);
+        text.append(folded.indexOf(':') < 0 && folded.indexOf('\\') < 0 ? folded
+                : folded.replace("\\", "\\\\").replace(":", "\\:"));
+    }
+
+    private static void appendPrice(StringBuilder text, BigDecimal price) {
+        text.append(':').append(price == null ? "null" : price.stripTrailingZeros().toPlainString());
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof ProductQueryKey)) {
+            return false;
+        }
+        ProductQueryKey that = (ProductQueryKey) other;
+        return hash == that.hash && text.equals(that.text);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+}
@@ -2,6 +2,7 @@ package com.gzist.project.exception;
 
 import com.gzist.project.common.Result;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.validation.BindException;
 import org.springframework.validation.FieldError;
@@ -32,6 +33,15 @@ public class GlobalExceptionHandler {
         return Result.error(e.getCode(), e.getMessage());
     }
 
+    /**
+     * 处理线程池拒绝异常（如同时导出数已满时的流式响应）
+     */
+    @ExceptionHandler(TaskRejectedException.class)
+    public Result<Void> handleTaskRejectedException(TaskRejectedException e) {
+        log.warn("后台线程池繁忙: {}", e.getMessage());
+        return Result.error(503, "服务繁忙，请稍后重试");
+    }
+
     /**
      * 处理参数校验异常（@RequestBody参数校验）
      */
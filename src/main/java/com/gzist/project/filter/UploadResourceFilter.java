@@ -0,0 +1,372 @@
+package com.gzist.project.filter;
+
+import com.gzist.project.config.FileUploadConfig;
+import com.gzist.project.config.UploadServingConfig;
+import com.gzist.project.service.IFileUploadService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 上传文件访问过滤器
+ * 在过滤器链最前端直接返回 /uploads/** 下的文件，不再经过Spring Security、Druid统计和DispatcherServlet：
+ * - 大文件交给Tomcat sendfile零拷贝发送，不支持时通过FileChannel.transferTo写出
+ * - 支持单段Range请求（含If-Range）
+ * - 强ETag（内容寻址文件取SHA-256，其余取文件标识+大小+修改时间）与Last-Modified条件请求
+ * - 内容寻址文件返回一年期immutable缓存头
+ * - 热点小文件的打开句柄按LRU缓存复用
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+@Slf4j
+public class UploadResourceFilter extends OncePerRequestFilter {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final IFileUploadService fileUploadService;
+
+    private final FileUploadConfig fileUploadConfig;
+
+    private final UploadServingConfig uploadServingConfig;
+
+    private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+    private final OpenFileCache openFileCache;
+
+    public UploadResourceFilter(IFileUploadService fileUploadService, FileUploadConfig fileUploadConfig,
+                                UploadServingConfig uploadServingConfig) {
+        this.fileUploadService = fileUploadService;
+        this.fileUploadConfig = fileUploadConfig;
+        this.uploadServingConfig = uploadServingConfig;
+        this.openFileCache = new OpenFileCache(uploadServingConfig.getOpenFileCacheSize());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String method = request.getMethod();
+        boolean head = "HEAD".equals(method);
+        if (!head && !"GET".equals(method)) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        // 1. 解析文件路径并读取属性
+        String url = urlPathHelper.getPathWithinApplication(request);
+        Path path = fileUploadService.resolveFile(url);
+        BasicFileAttributes attributes = path == null ? null : readAttributes(path);
+        if (attributes == null || !attributes.isRegularFile()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        long length = attributes.size();
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        boolean immutable = url.startsWith("/uploads/" + fileUploadConfig.getProductImagePath() + fileUploadConfig.getCasPath());
+        String etag = buildEtag(path, attributes, immutable);
+
+        // 2. 公共响应头
+        String contentType = request.getServletContext().getMimeType(path.getFileName().toString());
+        response.setContentType(contentType != null ? contentType : "application/octet-stream");
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader("X-Content-Type-Options", "nosniff");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, immutable
+                ? "public, max-age=" + fileUploadConfig.getCasCacheSeconds() + ", immutable"
+                : "public, max-age=" + uploadServingConfig.getCacheSeconds());
+
+        // 3. 条件请求
+        if (notModified(request, etag, lastModified)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        // 4. Range请求
+        long start = 0;
+        long end = length;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (range != null && rangeApplies(request, etag, lastModified)) {
+            long[] parsed = parseRange(range, length);
+            if (parsed == null) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            if (parsed.length == 2) {
+                start = parsed[0];
+                end = parsed[1];
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + (end - 1) + "/" + length);
+            }
+        }
+        response.setContentLengthLong(end - start);
+        if (head || end == start) {
+            return;
+        }
+
+        // 5. 发送内容：大文件优先sendfile，否则复用缓存的文件句柄
+        if (end - start >= uploadServingConfig.getSendfileThreshold()
+                && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, path.toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end);
+            return;
+        }
+        OpenFileCache.Handle handle = openFileCache.acquire(path, length, lastModified);
+        try {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position < end) {
+                long transferred = handle.channel.transferTo(position, end - position, out);
+                if (transferred <= 0) {
+                    break;
+                }
+                position += transferred;
+            }
+        } finally {
+            openFileCache.release(handle);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        openFileCache.clear();
+    }
+
+    private static BasicFileAttributes readAttributes(Path path) throws IOException {
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 强ETag：内容寻址文件名即内容摘要；其余文件由文件标识、大小和修改时间组成
+     */
+    private static String buildEtag(Path path, BasicFileAttributes attributes, boolean immutable) {
+        if (immutable) {
+            String fileName = path.getFileName().toString();
+            int dot = fileName.lastIndexOf('.');
+            return "\"" + (dot > 0 ? fileName.substring(0, dot) : fileName) + "\"";
+        }
+        Object fileKey = attributes.fileKey();
+        return "\"" + Long.toHexString(attributes.lastModifiedTime().toMillis())
+                + "-" + Long.toHexString(attributes.size())
+                + (fileKey != null ? "-" + Integer.toHexString(fileKey.hashCode()) : "") + "\"";
+    }
+
+    private static boolean notModified(HttpServletRequest request, String etag, long lastModified) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            return matchesEtag(ifNoneMatch, etag);
+        }
+        long ifModifiedSince = parseDateHeader(request, HttpHeaders.IF_MODIFIED_SINCE);
+        return ifModifiedSince >= 0 && lastModified / 1000 <= ifModifiedSince / 1000;
+    }
+
+    /**
+     * If-Range校验：未携带时Range有效；携带时必须与当前ETag或修改时间一致，否则返回完整文件
+     */
+    private static boolean rangeApplies(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(etag);
+        }
+        long date = parseDateHeader(request, HttpHeaders.IF_RANGE);
+        return date >= 0 && lastModified / 1000 == date / 1000;
+    }
+
+    private static boolean matchesEtag(String header, String etag) {
+        for (String candidate : StringUtils.commaDelimitedListToStringArray(header)) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if ("*".equals(value) || value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long parseDateHeader(HttpServletRequest request, String name) {
+        try {
+            return request.getDateHeader(name);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * 解析单段Range（bytes=a-b、bytes=a-、bytes=-n）
+     *
+     * @return [start, end)；多段或格式无法识别时返回空数组（按完整文件响应）；范围不可满足时返回null
+     */
+    static long[] parseRange(String header, long length) {
+        if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return new long[0];
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return new long[0];
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            long start;
+            long end;
+            if (first.isEmpty()) {
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0) {
+                    return null;
+                }
+                start = Math.max(0, length - suffix);
+                end = length;
+            } else {
+                start = Long.parseLong(first);
+                end = last.isEmpty() ? length : Math.min(length, Long.parseLong(last) + 1);
+            }
+            if (start >= length || end <= start) {
+                return null;
+            }
+            return new long[]{start, end};
+        } catch (NumberFormatException e) {
+            return new long[0];
+        }
+    }
+
+    /**
+     * 打开文件句柄缓存（LRU）
+     * FileChannel的定位读取线程安全，多个请求共享同一句柄；
+     * 句柄被淘汰或文件已变化时，待所有使用者释放后再关闭
+     */
+    static class OpenFileCache {
+
+        private final int maxSize;
+
+        private final LinkedHashMap<Path, Handle> handles;
+
+        OpenFileCache(int maxSize) {
+            this.maxSize = maxSize;
+            this.handles = new LinkedHashMap<>(64, 0.75f, true);
+        }
+
+        /**
+         * 获取文件句柄，缓存的句柄与当前文件大小或修改时间不一致时重新打开
+         */
+        Handle acquire(Path path, long length, long lastModified) throws IOException {
+            synchronized (handles) {
+                Handle handle = handles.get(path);
+                if (handle != null && handle.length == length && handle.lastModified == lastModified) {
+                    handle.references++;
+                    return handle;
+                }
+                if (handle != null) {
+                    handles.remove(path);
+                    retire(handle);
+                }
+            }
+            Handle opened = new Handle(FileChannel.open(path, StandardOpenOption.READ), length, lastModified);
+            synchronized (handles) {
+                opened.references++;
+                Handle previous = handles.put(path, opened);
+                if (previous != null) {
+                    retire(previous);
+                }
+                Iterator<Map.Entry<Path, Handle>> iterator = handles.entrySet().iterator();
+                while (handles.size() > maxSize && iterator.hasNext()) {
+                    Handle eldest = iterator.next().getValue();
+                    iterator.remove();
+                    retire(eldest);
+                }
+            }
+            return opened;
+        }
+
+        void release(Handle handle) {
+            synchronized (handles) {
+                handle.references--;
+                if (handle.retired && handle.references == 0) {
+                    closeQuietly(handle);
+                }
+            }
+        }
+
+        void clear() {
+            synchronized (handles) {
+                for (Handle handle : handles.values()) {
+                    retire(handle);
+                }
+                handles.clear();
+            }
+        }
+
+        /**
+         * 标记句柄淘汰，没有使用者时立即关闭（调用方持有锁）
+         */
+        private static void retire(Handle handle) {
+            handle.retired = true;
+            if (handle.references == 0) {
+                closeQuietly(handle);
+            }
+        }
+
+        private static void closeQuietly(Handle handle) {
+            try {
+                handle.channel.close();
+            } catch (IOException e) {
+                log.warn("文件句柄关闭失败", e);
+            }
+        }
+
+        static class Handle {
+
+            final FileChannel channel;
+
+            final long length;
+
+            final long lastModified;
+
+            int references;
+
+            boolean retired;
+
+            Handle(FileChannel channel, long length, long lastModified) {
+                this.channel = channel;
+                this.length = length;
+                this.lastModified = lastModified;
+            }
+        }
+    }
+}
@@ -1,8 +1,25 @@
 package com.gzist.project.mapper;
 
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.baomidou.mybatisplus.core.toolkit.Constants;
 import com.gzist.project.entity.Product;
+import com.gzist.project.vo.request.ProductBatchUpdateItem;
+import com.gzist.project.vo.response.ProductFacetResponse;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.ResultType;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.session.ResultHandler;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 /**
  * 产品Mapper接口
@@ -12,4 +29,243 @@ import org.apache.ibatis.annotations.Mapper;
  */
 @Mapper
 public interface ProductMapper extends BaseMapper<Product> {
+
+    /**
+     * 将指定用户创建的产品迁移给目标用户（每次最多limit行，循环调用直至返回值小于limit）
+     *
+     * @param usernames 原创建人用户名列表
+     * @param targetUsername 目标用户名，null表示清除归属
+     * @param limit 本次最多更新的行数
+     * @return 更新行数
+     */
+    @Update("<script>" +
+            "UPDATE products SET created_by_username = #{targetUsername} " +
+            "WHERE created_by_username IN " +
+            "<foreach collection='usernames' item='username' open='(' separator=',' close=')'>#{username}</foreach>" +
+            " LIMIT #{limit}" +
+            "</script>")
+    int reassignCreatedBy(@Param("usernames") List<String> usernames,
+                          @Param("targetUsername") String targetUsername,
+                          @Param("limit") int limit);
+
+    /**
+     * 流式扫描全部产品图片URL（MySQL逐行返回，不在内存中构建结果集）
+     *
+     * @param handler 逐行回调
+     */
+    @Select("SELECT image_url FROM products WHERE image_url IS NOT NULL AND image_url <> ''")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+    @ResultType(String.class)
+    void scanImageUrls(ResultHandler<String> handler);
+
+    /**
+     * 查询给定URL中仍被产品引用的部分
+     *
+     * @param imageUrls 图片URL列表
+     * @return 被引用的URL
+     */
+    @Select("<script>" +
+            "SELECT DISTINCT image_url FROM products WHERE image_url IN " +
+            "<foreach collection='imageUrls' item='imageUrl' open='(' separator=',' close=')'>#{imageUrl}</foreach>" +
+            "</script>")
+    List<String> selectReferencedImageUrls(@Param("imageUrls") Collection<String> imageUrls);
+
+    /**
+     * 按条件流式扫描产品（MySQL逐行返回，不在内存中构建结果集，用于导出）
+     *
+     * @param wrapper 查询条件（含排序）
+     * @param handler 逐行回调
+     */
+    @Select("SELECT * FROM products ${ew.customSqlSegment}")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+    @ResultType(Product.class)
+    void scanProducts(@Param(Constants.WRAPPER) Wrapper<Product> wrapper, ResultHandler<Product> handler);
+
+    /**
+     * 按条件统计各分类的产品数（快照不可用时的分面统计）
+     *
+     * @param wrapper 查询条件（不含排序）
+     * @return 分类及产品数（未分类产品不计入）
+     */
+    @Select("SELECT category, COUNT(*) AS count FROM products ${ew.customSqlSegment} GROUP BY category")
+    List<ProductFacetResponse.CategoryCount> countByCategory(@Param(Constants.WRAPPER) Wrapper<Product> wrapper);
+
+    /**
+     * 按条件统计各价格段的产品数（快照不可用时的分面统计）
+     * INTERVAL(price, b0, b1, ...)返回价格所在段号：小于b0为0，[b0, b1)为1，依此类推
+     *
+     * @param wrapper 查询条件（不含排序）
+     * @param bounds 价格段边界（升序）
+     * @return 每行包含band（段号）和count
+     */
+    @Select("<script>" +
+            "SELECT INTERVAL(price, " +
+            "<foreach collection='bounds' item='bound' separator=','>#{bound}</foreach>" +
+            ") AS band, COUNT(*) AS count FROM products ${ew.customSqlSegment} GROUP BY band" +
+            "</script>")
+    List<Map<String, Object>> countByPriceBand(@Param(Constants.WRAPPER) Wrapper<Product> wrapper,
+                                               @Param("bounds") List<BigDecimal> bounds);
+
+    /**
+     * 流式扫描列表查询用到的列（按创建时间降序、ID降序，用于构建内存列式快照）
+     *
+     * @param handler 逐行回调
+     */
+    @Select("SELECT id, product_name, category, price, status, created_time FROM products " +
+            "ORDER BY created_time DESC, id DESC")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+    @ResultType(Product.class)
+    void scanSnapshotColumns(ResultHandler<Product> handler);
+
+    /**
+     * 按ID查询列表查询用到的列（用于增量更新内存列式快照）
+     *
+     * @param ids 产品ID
+     * @return 仍存在的产品
+     */
+    @Select("<script>" +
+            "SELECT id, product_name, category, price, status, created_time FROM products WHERE id IN " +
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    List<Product> selectSnapshotColumns(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 流式扫描产品ID、编码和名称（用于构建补全字典树）
+     *
+     * @param handler 逐行回调
+     */
+    @Select("SELECT id, product_code, product_name FROM products")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+    @ResultType(Product.class)
+    void scanSuggestColumns(ResultHandler<Product> handler);
+
+    /**
+     * 按ID查询产品ID、编码和名称（用于增量更新补全字典树）
+     *
+     * @param ids 产品ID
+     * @return 仍存在的产品
+     */
+    @Select("<script>" +
+            "SELECT id, product_code, product_name FROM products WHERE id IN " +
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    List<Product> selectSuggestColumns(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 查询给定产品编码中已存在的部分
+     *
+     * @param productCodes 产品编码列表
+     * @return 已存在的产品编码
+     */
+    @Select("<script>" +
+            "SELECT product_code FROM products WHERE product_code IN " +
+            "<foreach collection='productCodes' item='productCode' open='(' separator=',' close=')'>#{productCode}</foreach>" +
+            "</script>")
+    List<String> selectExistingCodes(@Param("productCodes") Collection<String> productCodes);
+
+    /**
+     * 多行插入产品，产品编码已存在时更新该行（创建人和创建时间保持不变）
+     *
+     * @param products 产品列表
+     * @return MySQL影响行数（插入计1，更新计2，内容未变计0）
+     */
+    @Insert("<script>" +
+            "INSERT INTO products (product_code, product_name, category, price, stock, description, image_url, status, " +
+            "created_by_username, created_time, updated_time) VALUES " +
+            "<foreach collection='products' item='p' separator=','>" +
+            "(#{p.productCode}, #{p.productName}, #{p.category}, #{p.price}, #{p.stock}, #{p.description}, " +
+            "#{p.imageUrl}, #{p.status}, #{p.createdByUsername}, NOW(), NOW())" +
+            "</foreach>" +
+            " ON DUPLICATE KEY UPDATE product_name = VALUES(product_name), category = VALUES(category), " +
+            "price = VALUES(price), stock = VALUES(stock), description = VALUES(description), " +
+            "image_url = VALUES(image_url), status = VALUES(status), updated_time = NOW()" +
+            "</script>")
+    int upsertBatch(@Param("products") List<Product> products);
+
+    /**
+     * 按ID或产品编码查询产品定位信息（仅返回id和product_code）
+     *
+     * @param ids 产品ID列表（可为空）
+     * @param productCodes 产品编码列表（可为空）
+     * @return 匹配的产品
+     */
+    @Select("<script>" +
+            "SELECT id, product_code FROM products WHERE " +
+            "<trim prefixOverrides='OR'>" +
+            "<if test='ids != null and !ids.isEmpty()'>" +
+            "id IN <foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</if>" +
+            "<if test='productCodes != null and !productCodes.isEmpty()'>" +
+            " OR product_code IN " +
+            "<foreach collection='productCodes' item='productCode' open='(' separator=',' close=')'>#{productCode}</foreach>" +
+            "</if>" +
+            "</trim>" +
+            "</script>")
+    List<Product> selectUpdateKeys(@Param("ids") Collection<Long> ids,
+                                   @Param("productCodes") Collection<String> productCodes);
+
+    /**
+     * 按修改项批量更新价格、库存、状态（每列一个CASE表达式，只出现有修改的列）
+     * 增量更新在数据库内计算，价格不低于0.01、库存不低于0
+     *
+     * @param items 修改项（id已解析）
+     * @param updatePrice 是否有修改项涉及价格
+     * @param updateStock 是否有修改项涉及库存
+     * @param updateStatus 是否有修改项涉及状态
+     * @return 匹配行数
+     */
+    @Update("<script>" +
+            "UPDATE products <set>" +
+            "<if test='updatePrice'>price = CASE id" +
+            "<foreach collection='items' item='i'>" +
+            "<if test='i.price != null'> WHEN #{i.id} THEN #{i.price}</if>" +
+            "<if test='i.priceDelta != null'> WHEN #{i.id} THEN LEAST(GREATEST(price + #{i.priceDelta}, 0.01), 99999999.99)</if>" +
+            "</foreach> ELSE price END, </if>" +
+            "<if test='updateStock'>stock = CASE id" +
+            "<foreach collection='items' item='i'>" +
+            "<if test='i.stock != null'> WHEN #{i.id} THEN #{i.stock}</if>" +
+            "<if test='i.stockDelta != null'> WHEN #{i.id} THEN LEAST(GREATEST(stock + #{i.stockDelta}, 0), 2147483647)</if>" +
+            "</foreach> ELSE stock END, </if>" +
+            "<if test='updateStatus'>status = CASE id" +
+            "<foreach collection='items' item='i'>" +
+            "<if test='i.status != null'> WHEN #{i.id} THEN #{i.status}</if>" +
+            "</foreach> ELSE status END, </if>" +
+            "updated_time = NOW()" +
+            "</set>" +
+            " WHERE id IN <foreach collection='items' item='i' open='(' separator=',' close=')'>#{i.id}</foreach>" +
+            "</script>")
+    int batchUpdate(@Param("items") List<ProductBatchUpdateItem> items,
+                    @Param("updatePrice") boolean updatePrice,
+                    @Param("updateStock") boolean updateStock,
+                    @Param("updateStatus") boolean updateStatus);
+
+    /**
+     * 查询产品库存
+     *
+     * @param id 产品ID
+     * @return 库存，产品不存在返回null
+     */
+    @Select("SELECT stock FROM products WHERE id = #{id}")
+    Integer selectStock(@Param("id") Long id);
+
+    /**
+     * 条件扣减库存，库存不足时不更新
+     *
+     * @param id 产品ID
+     * @param quantity 扣减数量
+     * @return 更新行数（0表示库存不足或产品不存在）
+     */
+    @Update("UPDATE products SET stock = stock - #{quantity}, updated_time = NOW() " +
+            "WHERE id = #{id} AND stock >= #{quantity}")
+    int decrementStock(@Param("id") Long id, @Param("quantity") long quantity);
+
+    /**
+     * 扣减库存，不足时扣到0（仅用于对账时处理已确认但数据库库存不足的扣减）
+     *
+     * @param id 产品ID
+     * @param quantity 扣减数量
+     * @return 更新行数
+     */
+    @Update("UPDATE products SET stock = GREATEST(stock - #{quantity}, 0), updated_time = NOW() WHERE id = #{id}")
+    int decrementStockToZero(@Param("id") Long id, @Param("quantity") long quantity);
 }
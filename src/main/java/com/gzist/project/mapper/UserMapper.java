@@ -2,9 +2,16 @@ package com.gzist.project.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.gzist.project.entity.User;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.ResultType;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.session.ResultHandler;
+
+import java.util.List;
 
 /**
  * 用户Mapper接口
@@ -32,4 +39,28 @@ public interface UserMapper extends BaseMapper<User> {
      */
     @Select("SELECT * FROM users WHERE email = #{email}")
     User selectByEmail(@Param("email") String email);
+
+    /**
+     * 流式扫描全部用户名和邮箱（MySQL逐行返回，不在内存中构建结果集）
+     *
+     * @param handler 逐行回调
+     */
+    @Select("SELECT username, email FROM users")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+    @ResultType(User.class)
+    void scanUsernamesAndEmails(ResultHandler<User> handler);
+
+    /**
+     * 多行插入用户（创建时间、更新时间使用数据库默认值）
+     *
+     * @param users 用户列表
+     * @return 插入行数
+     */
+    @Insert("<script>" +
+            "INSERT INTO users (username, password, email, phone, real_name, status) VALUES " +
+            "<foreach collection='users' item='u' separator=','>" +
+            "(#{u.username}, #{u.password}, #{u.email}, #{u.phone}, #{u.realName}, #{u.status})" +
+            "</foreach>" +
+            "</script>")
+    int insertBatch(@Param("users") List<User> users);
 }
@@ -2,7 +2,11 @@ package com.gzist.project.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.gzist.project.entity.UserRole;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
 
 /**
  * 用户角色关联Mapper接口
@@ -12,4 +16,18 @@ import org.apache.ibatis.annotations.Mapper;
  */
 @Mapper
 public interface UserRoleMapper extends BaseMapper<UserRole> {
+
+    /**
+     * 多行插入用户角色关联
+     *
+     * @param userRoles 用户角色关联列表
+     * @return 插入行数
+     */
+    @Insert("<script>" +
+            "INSERT INTO user_roles (username, role_code) VALUES " +
+            "<foreach collection='userRoles' item='ur' separator=','>" +
+            "(#{ur.username}, #{ur.roleCode})" +
+            "</foreach>" +
+            "</script>")
+    int insertBatch(@Param("userRoles") List<UserRole> userRoles);
 }
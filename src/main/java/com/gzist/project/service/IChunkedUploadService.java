@@ -0,0 +1,57 @@
+package com.gzist.project.service;
+
+import com.gzist.project.vo.request.ChunkedUploadInitRequest;
+import com.gzist.project.vo.response.ChunkedUploadResponse;
+
+import java.io.InputStream;
+
+/**
+ * 分片上传Service接口
+ * 协议：初始化会话 -> 按偏移量上传分片（可并行、可乱序、可重传）-> 完成合并并校验
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+public interface IChunkedUploadService {
+
+    /**
+     * 初始化上传会话，按文件大小预分配会话文件
+     *
+     * @param initRequest 初始化请求
+     * @return 会话信息
+     */
+    ChunkedUploadResponse initUpload(ChunkedUploadInitRequest initRequest);
+
+    /**
+     * 写入一个分片
+     *
+     * @param uploadId 会话ID
+     * @param offset 分片在文件中的偏移量（分片大小的整数倍）
+     * @param inputStream 分片数据流
+     * @return 会话信息（含已接收分片）
+     */
+    ChunkedUploadResponse uploadChunk(String uploadId, long offset, InputStream inputStream);
+
+    /**
+     * 查询会话状态（用于断点续传）
+     *
+     * @param uploadId 会话ID
+     * @return 会话信息
+     */
+    ChunkedUploadResponse getUpload(String uploadId);
+
+    /**
+     * 完成上传：校验分片完整性和SHA-256，存入产品图片存储
+     *
+     * @param uploadId 会话ID
+     * @return 会话信息（含文件访问URL）
+     */
+    ChunkedUploadResponse completeUpload(String uploadId);
+
+    /**
+     * 取消上传并删除会话文件
+     *
+     * @param uploadId 会话ID
+     */
+    void abortUpload(String uploadId);
+}
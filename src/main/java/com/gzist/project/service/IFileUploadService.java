@@ -1,7 +1,11 @@
 package com.gzist.project.service;
 
+import com.gzist.project.vo.response.BatchUploadResponse;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.nio.file.Path;
+import java.util.List;
+
 /**
  * 文件上传Service接口
  *
@@ -12,14 +16,51 @@ public interface IFileUploadService {
 
     /**
      * 上传产品图片
+     * 按内容寻址存储，相同内容返回已有URL
      *
      * @param file 上传的文件
      * @return 文件访问URL
      */
     String uploadProductImage(MultipartFile file);
 
+    /**
+     * 批量上传产品图片
+     * 各文件在上传IO线程池中并发校验写入，逐个报告结果；线程池繁忙时多出的文件被拒绝（状态码503）
+     *
+     * @param files 上传的文件
+     * @return 各文件上传结果
+     */
+    BatchUploadResponse uploadProductImages(List<MultipartFile> files);
+
+    /**
+     * 将已完整写入磁盘的图片文件存入产品图片存储（分片上传合并后使用）
+     * 识别真实类型并按内容寻址存储；存储成功后源文件被移走，内容已存在时源文件保留由调用方清理
+     *
+     * @param file 本地文件
+     * @param expectedSha256 期望的SHA-256（小写十六进制），不一致时抛出BusinessException；为null时不校验
+     * @return 文件访问URL
+     */
+    String storeProductImage(Path file, String expectedSha256);
+
+    /**
+     * 将上传文件URL解析为磁盘路径
+     *
+     * @param fileUrl 文件URL（/uploads/开头）
+     * @return 上传根目录下的规范化路径，URL非法或越出上传目录时返回null
+     */
+    Path resolveFile(String fileUrl);
+
+    /**
+     * 统计引用该文件URL的产品数量（引用计数）
+     *
+     * @param fileUrl 文件URL
+     * @return 引用该URL的产品数
+     */
+    long countReferences(String fileUrl);
+
     /**
      * 删除文件
+     * 文件仍被产品引用时保留文件，视为成功
      *
      * @param fileUrl 文件URL
      * @return 是否成功
@@ -0,0 +1,24 @@
+package com.gzist.project.service;
+
+import com.gzist.project.dto.ImageVariantDTO;
+
+/**
+ * 图片变体Service接口
+ * 按需生成缩略图/转码图片并缓存到磁盘
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+public interface IImageVariantService {
+
+    /**
+     * 获取图片变体，首次请求时生成并写入磁盘缓存
+     * 并发请求同一变体时只生成一次；源图无法解码（如webp）时返回原图
+     *
+     * @param src 源图URL（/uploads/开头）
+     * @param width 目标宽度，必须为配置允许的宽度
+     * @param format 输出格式（jpg/png），为空时保持源图格式
+     * @return 变体文件信息
+     */
+    ImageVariantDTO getVariant(String src, Integer width, String format);
+}
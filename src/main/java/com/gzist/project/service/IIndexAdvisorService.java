@@ -0,0 +1,21 @@
+package com.gzist.project.service;
+
+import com.gzist.project.vo.response.IndexAdvisorReport;
+
+/**
+ * 索引分析Service接口
+ * 对列表查询的每种筛选组合执行EXPLAIN，用于在有代表性数据量的库上验证索引是否生效
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+public interface IIndexAdvisorService {
+
+    /**
+     * 分析所有列表查询形态
+     *
+     * @param iterations 每条语句的计时执行次数，0表示只分析执行计划
+     * @return 分析报告
+     */
+    IndexAdvisorReport analyze(int iterations);
+}
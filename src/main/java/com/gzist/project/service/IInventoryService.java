@@ -0,0 +1,48 @@
+package com.gzist.project.service;
+
+import com.gzist.project.vo.response.InventoryReservationResponse;
+import com.gzist.project.vo.response.InventoryStockResponse;
+
+/**
+ * 库存预占Service接口
+ * 下单流程先预占库存，支付成功后确认扣减，取消或超时则释放
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+public interface IInventoryService {
+
+    /**
+     * 预占库存
+     *
+     * @param productId 产品ID
+     * @param quantity 预占数量
+     * @param owner 预占人（用户名），只有预占人可以确认或释放
+     * @return 预占信息
+     */
+    InventoryReservationResponse reserve(Long productId, int quantity, String owner);
+
+    /**
+     * 确认预占，扣减随后批量写回数据库
+     *
+     * @param reservationId 预占ID
+     * @param owner 操作人（用户名），必须是预占人
+     */
+    void commit(String reservationId, String owner);
+
+    /**
+     * 释放预占，数量归还可预占库存
+     *
+     * @param reservationId 预占ID
+     * @param owner 操作人（用户名），必须是预占人
+     */
+    void release(String reservationId, String owner);
+
+    /**
+     * 查询产品库存状态
+     *
+     * @param productId 产品ID
+     * @return 库存状态
+     */
+    InventoryStockResponse getStock(Long productId);
+}
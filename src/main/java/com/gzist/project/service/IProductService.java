@@ -3,10 +3,21 @@ package com.gzist.project.service;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.service.IService;
 import com.gzist.project.entity.Product;
+import com.gzist.project.utils.ImportRecordReader;
+import com.gzist.project.vo.request.ProductBatchUpdateItem;
 import com.gzist.project.vo.request.ProductQueryRequest;
 import com.gzist.project.vo.request.ProductSaveRequest;
+import com.gzist.project.vo.request.ProductView;
+import com.gzist.project.vo.response.BatchUpdateResponse;
+import com.gzist.project.vo.response.ImportResultResponse;
+import com.gzist.project.vo.response.ProductDetailBatchResponse;
+import com.gzist.project.vo.response.ProductFacetResponse;
+import com.gzist.project.vo.response.ProductSummaryResponse;
 
-import java.math.BigDecimal;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
 
 /**
  * 产品Service接口
@@ -17,26 +28,53 @@ import java.math.BigDecimal;
 public interface IProductService extends IService<Product> {
 
     /**
-     * 分页查询产品（支持条件查询）
+     * 分页查询产品列表（按视图只查询需要的列，不含描述）
      *
-     * @param current 当前页
-     * @param size 每页大小
-     * @param productName 产品名称（模糊查询）
-     * @param category 产品分类
-     * @param minPrice 最低价格
-     * @param maxPrice 最高价格
+     * @param queryRequest 查询请求对象
+     * @param view 列表视图
      * @return 分页结果
      */
-    IPage<Product> getProductPage(Integer current, Integer size, String productName,
-                                   String category, BigDecimal minPrice, BigDecimal maxPrice);
+    IPage<ProductSummaryResponse> getProductPage(ProductQueryRequest queryRequest, ProductView view);
 
     /**
-     * 分页查询产品（使用请求VO）
+     * 统计产品分面：当前筛选下各分类的产品数和价格直方图
      *
-     * @param queryRequest 查询请求对象
-     * @return 分页结果
+     * @param queryRequest 查询请求对象（分页参数忽略）
+     * @return 分面统计
+     */
+    ProductFacetResponse getProductFacets(ProductQueryRequest queryRequest);
+
+    /**
+     * 按查询条件流式导出产品（忽略分页参数）
+     *
+     * @param queryRequest 查询条件
+     * @param format 导出格式（CSV / NDJSON）
+     * @param outputStream 输出流（不关闭）
+     * @return 导出行数
+     * @throws IOException 写出失败（如客户端断开）
      */
-    IPage<Product> getProductPage(ProductQueryRequest queryRequest);
+    long exportProducts(ProductQueryRequest queryRequest, ImportRecordReader.Format format,
+                        OutputStream outputStream) throws IOException;
+
+    /**
+     * 批量导入产品（CSV / NDJSON）
+     * 按产品编码新增或更新，逐行报告失败原因
+     *
+     * @param inputStream 导入数据流
+     * @param format 导入格式
+     * @param username 创建人用户名（仅新增的产品使用）
+     * @return 导入结果
+     */
+    ImportResultResponse importProducts(InputStream inputStream, ImportRecordReader.Format format, String username);
+
+    /**
+     * 批量更新产品价格、库存、状态
+     * 修改项分块执行集合式UPDATE，逐项报告失败原因
+     *
+     * @param items 修改项
+     * @return 更新结果
+     */
+    BatchUpdateResponse batchUpdateProducts(List<ProductBatchUpdateItem> items);
 
     /**
      * 获取产品详情
@@ -47,6 +85,15 @@ public interface IProductService extends IService<Product> {
      */
     Product getProductDetail(Long id);
 
+    /**
+     * 批量获取产品详情
+     * 先批量读取缓存，未命中的用一次IN查询读取并批量写回缓存
+     *
+     * @param ids 产品ID（可重复，数量不超过配置上限）
+     * @return 与请求ID顺序一致的详情项，不存在的产品标记为未找到
+     */
+    ProductDetailBatchResponse getProductDetails(List<Long> ids);
+
     /**
      * 获取产品用于编辑
      * 如果产品不存在，返回null
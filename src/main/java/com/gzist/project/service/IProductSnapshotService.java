@@ -0,0 +1,46 @@
+package com.gzist.project.service;
+
+import com.gzist.project.utils.ProductColumnSnapshot;
+import com.gzist.project.vo.request.ProductQueryRequest;
+import com.gzist.project.vo.response.ProductSnapshotStatusResponse;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * 产品内存快照Service接口
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+public interface IProductSnapshotService {
+
+    /**
+     * 用快照执行列表查询
+     *
+     * @param queryRequest 查询请求VO
+     * @return 当前页的产品ID和总数；快照未启用、未构建或未追上写入时返回null，由调用方查询数据库
+     */
+    ProductColumnSnapshot.QueryResult query(ProductQueryRequest queryRequest);
+
+    /**
+     * 用快照统计分面（分类计数与价格直方图）
+     *
+     * @param queryRequest 查询请求VO（分页参数忽略）
+     * @param bandBounds 价格段边界（升序）
+     * @return 分面统计；快照不可用时返回null，由调用方查询数据库
+     */
+    ProductColumnSnapshot.Facets facets(ProductQueryRequest queryRequest, List<BigDecimal> bandBounds);
+
+    /**
+     * 获取快照状态
+     *
+     * @return 快照状态
+     */
+    ProductSnapshotStatusResponse getStatus();
+
+    /**
+     * 请求全量重建（在下一次刷新时执行）
+     */
+    void requestRebuild();
+}
@@ -0,0 +1,21 @@
+package com.gzist.project.service;
+
+import com.gzist.project.vo.response.ProductSuggestResponse;
+
+/**
+ * 产品名称/编码前缀补全Service接口
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+public interface IProductSuggestService {
+
+    /**
+     * 按前缀补全产品名称和产品编码（不区分大小写）
+     *
+     * @param prefix 输入的前缀
+     * @param limit 名称和编码各自的最多返回数
+     * @return 补全结果；前缀为空、补全未启用或字典树尚未构建时返回空结果
+     */
+    ProductSuggestResponse suggest(String prefix, int limit);
+}
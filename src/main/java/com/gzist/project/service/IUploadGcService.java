@@ -0,0 +1,36 @@
+package com.gzist.project.service;
+
+import com.gzist.project.vo.response.UploadGcReport;
+
+/**
+ * 上传文件垃圾回收Service接口
+ * 回收不再被任何产品引用的产品图片（产品删除、更换图片后遗留的文件）
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+public interface IUploadGcService {
+
+    /**
+     * 执行一次增量回收（从上次游标处继续，检查文件数达到上限后停止）
+     *
+     * @param dryRun 是否只生成报告不删除
+     * @return 回收报告，其他线程或实例正在执行时返回null
+     */
+    UploadGcReport runGc(boolean dryRun);
+
+    /**
+     * 提交后台回收任务
+     *
+     * @param dryRun 是否只生成报告不删除
+     */
+    void submitGc(boolean dryRun);
+
+    /**
+     * 获取最近一次回收报告
+     *
+     * @param dryRun 演练报告或实际回收报告
+     * @return 回收报告，尚未执行过时返回null
+     */
+    UploadGcReport getLastReport(boolean dryRun);
+}
@@ -0,0 +1,40 @@
+package com.gzist.project.service;
+
+import com.gzist.project.vo.response.BulkJobResponse;
+
+import java.util.List;
+
+/**
+ * 用户批量后台任务Service接口
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+public interface IUserBulkJobService {
+
+    /**
+     * 提交产品归属迁移任务（异步执行，按用户分块、按行数分批更新）
+     *
+     * @param usernames 原创建人用户名列表
+     * @param targetUsername 目标用户名，null表示清除归属
+     * @return 任务状态
+     */
+    BulkJobResponse submitProductReassignJob(List<String> usernames, String targetUsername);
+
+    /**
+     * 查询任务状态
+     * 如果任务不存在或已过期，抛出BusinessException
+     *
+     * @param jobId 任务ID
+     * @return 任务状态
+     */
+    BulkJobResponse getJob(String jobId);
+
+    /**
+     * 恢复未完成的任务（从最后完成的分块继续）
+     *
+     * @param jobId 任务ID
+     * @return 任务状态
+     */
+    BulkJobResponse resumeJob(String jobId);
+}
@@ -5,7 +5,11 @@ import com.baomidou.mybatisplus.extension.service.IService;
 import com.gzist.project.dto.UserManageDTO;
 import com.gzist.project.entity.Role;
 import com.gzist.project.entity.User;
+import com.gzist.project.utils.ImportRecordReader;
+import com.gzist.project.vo.response.BulkOperationResponse;
+import com.gzist.project.vo.response.ImportResultResponse;
 
+import java.io.InputStream;
 import java.util.List;
 
 /**
@@ -85,6 +89,16 @@ public interface IUserService extends IService<User> {
      */
     boolean createUser(UserManageDTO userDTO);
 
+    /**
+     * 批量导入用户（管理员功能）
+     * 流式读取CSV/NDJSON，校验规则与新增用户一致，密码并行加密后分块多行写入
+     *
+     * @param inputStream 导入数据流
+     * @param format 导入格式
+     * @return 导入结果（含逐行失败原因）
+     */
+    ImportResultResponse importUsers(InputStream inputStream, ImportRecordReader.Format format);
+
     /**
      * 更新用户信息（管理员功能）
      *
@@ -103,11 +117,31 @@ public interface IUserService extends IService<User> {
 
     /**
      * 批量删除用户（管理员功能）
+     * 按分块在各自的短事务中删除用户及角色关联，产品归属清除作为后台任务异步执行
      *
      * @param ids 用户ID数组
-     * @return 是否成功
+     * @return 操作结果（含产品归属清除任务ID）
+     */
+    BulkOperationResponse batchDeleteUsers(Long[] ids);
+
+    /**
+     * 批量启用/禁用用户（管理员功能）
+     *
+     * @param ids 用户ID数组
+     * @param status 目标状态（1:启用 0:禁用）
+     * @return 操作结果
+     */
+    BulkOperationResponse batchUpdateStatus(Long[] ids, Integer status);
+
+    /**
+     * 批量迁移用户创建的产品（管理员功能）
+     * 迁移在后台任务中执行，可通过任务ID查询进度
+     *
+     * @param ids 原归属用户ID数组
+     * @param targetUsername 目标用户名，为空表示清除归属
+     * @return 操作结果（含迁移任务ID）
      */
-    boolean batchDeleteUsers(Long[] ids);
+    BulkOperationResponse reassignProducts(Long[] ids, String targetUsername);
 
     /**
      * 获取用户的角色列表
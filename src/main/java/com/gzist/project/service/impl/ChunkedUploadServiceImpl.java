@@ -0,0 +1,311 @@
+package com.gzist.project.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.gzist.project.config.ChunkedUploadConfig;
+import com.gzist.project.exception.BusinessException;
+import com.gzist.project.service.IChunkedUploadService;
+import com.gzist.project.service.IFileUploadService;
+import com.gzist.project.utils.JsonUtils;
+import com.gzist.project.vo.request.ChunkedUploadInitRequest;
+import com.gzist.project.vo.response.ChunkedUploadResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * 分片上传Service实现类
+ * 初始化时按文件大小预分配会话文件，各分片通过FileChannel定位写入各自的偏移区间，
+ * 因此分片可并行、乱序、重复上传；每个请求只占用一个64KB缓冲区。
+ * 会话元数据与已接收分片集合保存在Redis，完成时校验分片齐全和整体SHA-256后存入内容寻址存储；
+ * 合并期间持有会话锁，此时拒绝分片写入，避免重试的分片写入正在校验或移动的会话文件
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+@Slf4j
+@Service
+public class ChunkedUploadServiceImpl implements IChunkedUploadService {
+
+    private static final String KEY_PREFIX = "product-system:chunked-upload:";
+
+    private static final Pattern UPLOAD_ID_PATTERN = Pattern.compile("^[0-9a-f]{32}$");
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * 完成合并的锁有效期
+     */
+    private static final Duration COMPLETE_LOCK_TTL = Duration.ofMinutes(10);
+
+    @Autowired
+    private ChunkedUploadConfig chunkedUploadConfig;
+
+    @Autowired
+    private IFileUploadService fileUploadService;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Override
+    public ChunkedUploadResponse initUpload(ChunkedUploadInitRequest initRequest) {
+        long fileSize = initRequest.getFileSize();
+        if (fileSize > chunkedUploadConfig.getMaxFileSize()) {
+            throw new BusinessException("文件大小不能超过" + (chunkedUploadConfig.getMaxFileSize() / 1024 / 1024) + "MB");
+        }
+        int chunkSize = chunkedUploadConfig.getChunkSize();
+
+        ChunkedUploadResponse session = new ChunkedUploadResponse();
+        session.setUploadId(UUID.randomUUID().toString().replace("-", ""));
+        session.setFileName(initRequest.getFileName());
+        session.setFileSize(fileSize);
+        session.setChunkSize(chunkSize);
+        session.setTotalChunks((int) ((fileSize + chunkSize - 1) / chunkSize));
+        session.setSha256(initRequest.getSha256().toLowerCase(Locale.ROOT));
+        session.setCreatedTime(LocalDateTime.now());
+
+        // 预分配会话文件（稀疏文件，各分片写入各自区间）
+        Path file = sessionFile(session.getUploadId());
+        try {
+            Files.createDirectories(file.getParent());
+            if (Files.getFileStore(file.getParent()).getUsableSpace() < fileSize) {
+                throw new BusinessException(503, "服务器磁盘空间不足");
+            }
+            try (RandomAccessFile randomAccessFile = new RandomAccessFile(file.toFile(), "rw")) {
+                randomAccessFile.setLength(fileSize);
+            }
+        } catch (IOException e) {
+            log.error("分片上传会话创建失败", e);
+            throw new BusinessException("分片上传会话创建失败：" + e.getMessage());
+        }
+
+        saveSession(session);
+        session.setReceivedChunks(Collections.emptyList());
+        log.info("分片上传会话创建 - uploadId: {}, 文件: {}, 大小: {}, 分片数: {}",
+                session.getUploadId(), session.getFileName(), fileSize, session.getTotalChunks());
+        return session;
+    }
+
+    @Override
+    public ChunkedUploadResponse uploadChunk(String uploadId, long offset, InputStream inputStream) {
+        ChunkedUploadResponse session = loadSession(uploadId);
+        if (session.getFileUrl() != null) {
+            throw new BusinessException(400, "上传已完成");
+        }
+        // 合并期间会话文件正在校验和移动，不再接受写入
+        if (Boolean.TRUE.equals(stringRedisTemplate.hasKey(lockKey(uploadId)))) {
+            throw new BusinessException(409, "上传正在合并中，请稍后查询");
+        }
+        int chunkSize = session.getChunkSize();
+        if (offset < 0 || offset >= session.getFileSize() || offset % chunkSize != 0) {
+            throw new BusinessException(400, "分片偏移量必须是" + chunkSize + "的整数倍且小于文件大小");
+        }
+        int index = (int) (offset / chunkSize);
+        long expected = Math.min(chunkSize, session.getFileSize() - offset);
+
+        // 定位写入分片区间，写入量超过分片大小时立即拒绝
+        long written = 0;
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        try (FileChannel channel = FileChannel.open(sessionFile(uploadId), StandardOpenOption.WRITE);
+             ReadableByteChannel in = Channels.newChannel(inputStream)) {
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                if (written + read > expected) {
+                    throw new BusinessException(400, "分片大小超过" + expected + "字节");
+                }
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    written += channel.write(buffer, offset + written);
+                }
+                buffer.clear();
+            }
+        } catch (NoSuchFileException e) {
+            throw new BusinessException(404, "上传会话不存在或已过期");
+        } catch (IOException e) {
+            log.error("分片写入失败 - uploadId: {}, offset: {}", uploadId, offset, e);
+            throw new BusinessException("分片写入失败：" + e.getMessage());
+        }
+        if (written != expected) {
+            throw new BusinessException(400, "分片不完整，期望" + expected + "字节，实际" + written + "字节");
+        }
+
+        // 记录已接收分片并续期会话
+        stringRedisTemplate.opsForSet().add(chunksKey(uploadId), String.valueOf(index));
+        stringRedisTemplate.expire(sessionKey(uploadId), sessionTtl());
+        stringRedisTemplate.expire(chunksKey(uploadId), sessionTtl());
+        session.setReceivedChunks(receivedChunks(uploadId));
+        return session;
+    }
+
+    @Override
+    public ChunkedUploadResponse getUpload(String uploadId) {
+        ChunkedUploadResponse session = loadSession(uploadId);
+        session.setReceivedChunks(receivedChunks(uploadId));
+        return session;
+    }
+
+    @Override
+    public ChunkedUploadResponse completeUpload(String uploadId) {
+        ChunkedUploadResponse session = loadSession(uploadId);
+        if (session.getFileUrl() != null) {
+            return session;
+        }
+
+        String lockKey = lockKey(uploadId);
+        Boolean locked = stringRedisTemplate.opsForValue().setIfAbsent(lockKey, "1", COMPLETE_LOCK_TTL);
+        if (!Boolean.TRUE.equals(locked)) {
+            throw new BusinessException(409, "上传正在合并中，请稍后查询");
+        }
+        try {
+            // 1. 校验分片齐全
+            Long received = stringRedisTemplate.opsForSet().size(chunksKey(uploadId));
+            if (received == null || received < session.getTotalChunks()) {
+                throw new BusinessException(400, "分片未上传完整：已接收" + (received == null ? 0 : received)
+                        + "/" + session.getTotalChunks());
+            }
+
+            // 2. 校验SHA-256并存入内容寻址存储
+            Path file = sessionFile(uploadId);
+            String fileUrl;
+            try {
+                fileUrl = fileUploadService.storeProductImage(file, session.getSha256());
+            } catch (BusinessException e) {
+                // 内容错误时清空已接收分片，需要重新上传
+                stringRedisTemplate.delete(chunksKey(uploadId));
+                throw e;
+            }
+
+            // 3. 记录结果并清理会话文件
+            session.setFileUrl(fileUrl);
+            saveSession(session);
+            stringRedisTemplate.delete(chunksKey(uploadId));
+            deleteQuietly(file);
+            session.setReceivedChunks(Collections.emptyList());
+            log.info("分片上传完成 - uploadId: {}, url: {}", uploadId, fileUrl);
+            return session;
+        } finally {
+            stringRedisTemplate.delete(lockKey);
+        }
+    }
+
+    @Override
+    public void abortUpload(String uploadId) {
+        loadSession(uploadId);
+        stringRedisTemplate.delete(sessionKey(uploadId));
+        stringRedisTemplate.delete(chunksKey(uploadId));
+        deleteQuietly(sessionFile(uploadId));
+        log.info("分片上传已取消 - uploadId: {}", uploadId);
+    }
+
+    /**
+     * 定时清理超过有效期的会话文件（Redis中的会话信息随TTL自动过期）
+     */
+    @Scheduled(fixedDelayString = "PT1H", initialDelayString = "PT5M")
+    public void cleanupAbandonedSessions() {
+        Path root = Paths.get(chunkedUploadConfig.getSessionPath());
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        long cutoff = System.currentTimeMillis() - sessionTtl().toMillis();
+        int removed = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(root, "*.part")) {
+            for (Path file : stream) {
+                if (Files.getLastModifiedTime(file).toMillis() < cutoff && Files.deleteIfExists(file)) {
+                    removed++;
+                }
+            }
+        } catch (IOException e) {
+            log.warn("清理分片上传会话失败", e);
+        }
+        if (removed > 0) {
+            log.info("已清理过期分片上传会话: {}", removed);
+        }
+    }
+
+    private ChunkedUploadResponse loadSession(String uploadId) {
+        if (uploadId == null || !UPLOAD_ID_PATTERN.matcher(uploadId).matches()) {
+            throw new BusinessException(400, "上传会话ID格式错误");
+        }
+        String json = stringRedisTemplate.opsForValue().get(sessionKey(uploadId));
+        if (json == null) {
+            throw new BusinessException(404, "上传会话不存在或已过期");
+        }
+        try {
+            return JsonUtils.fromJson(json, ChunkedUploadResponse.class);
+        } catch (JsonProcessingException e) {
+            throw new BusinessException("上传会话解析失败", e);
+        }
+    }
+
+    private void saveSession(ChunkedUploadResponse session) {
+        try {
+            stringRedisTemplate.opsForValue().set(sessionKey(session.getUploadId()), JsonUtils.toJson(session), sessionTtl());
+        } catch (JsonProcessingException e) {
+            throw new BusinessException("上传会话序列化失败", e);
+        }
+    }
+
+    private List<Integer> receivedChunks(String uploadId) {
+        Set<String> members = stringRedisTemplate.opsForSet().members(chunksKey(uploadId));
+        List<Integer> chunks = new ArrayList<>();
+        if (members != null) {
+            for (String member : members) {
+                chunks.add(Integer.valueOf(member));
+            }
+        }
+        Collections.sort(chunks);
+        return chunks;
+    }
+
+    private Path sessionFile(String uploadId) {
+        return Paths.get(chunkedUploadConfig.getSessionPath(), uploadId + ".part");
+    }
+
+    private Duration sessionTtl() {
+        return Duration.ofHours(chunkedUploadConfig.getSessionTtlHours());
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("会话文件删除失败: {}", file);
+        }
+    }
+
+    private static String sessionKey(String uploadId) {
+        return KEY_PREFIX + uploadId;
+    }
+
+    private static String chunksKey(String uploadId) {
+        return KEY_PREFIX + uploadId + ":chunks";
+    }
+
+    private static String lockKey(String uploadId) {
+        return KEY_PREFIX + uploadId + ":lock";
+    }
+}
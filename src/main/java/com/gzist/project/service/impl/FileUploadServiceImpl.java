@@ -1,25 +1,57 @@
 package com.gzist.project.service.impl;
 
+import cn.hutool.core.util.HexUtil;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.gzist.project.config.FileUploadConfig;
+import com.gzist.project.config.UploadGcConfig;
+import com.gzist.project.entity.Product;
 import com.gzist.project.exception.BusinessException;
+import com.gzist.project.mapper.ProductMapper;
 import com.gzist.project.service.IFileUploadService;
+import com.gzist.project.storage.ObjectStorage;
+import com.gzist.project.storage.StoredObject;
+import com.gzist.project.utils.ImageType;
+import com.gzist.project.vo.response.BatchUploadResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.UUID;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 /**
  * 文件上传Service实现类
+ * 上传内容从multipart数据流直接经NIO通道写入目标目录的临时文件，
+ * 复制过程中同时计算SHA-256，完成后原子重命名到最终位置；
+ * 单次上传的堆内存占用为固定的几KB缓冲区，与文件大小无关
+ *
+ * 产品图片按内容寻址存储：文件名为内容的SHA-256，目录按摘要前两级分片
+ * （products/cas/ab/cd/abcd....png），相同内容只保存一份，重复上传直接返回已有URL；
+ * 文件的引用计数即products.image_url中引用该URL的产品数，仍被引用的文件不会被删除
+ *
+ * 文件最终保存到ObjectStorage（本地文件系统或S3兼容存储，由file.storage.type选择），
+ * 对象键即URL去掉/uploads/前缀后的路径；临时文件始终写在本地上传目录下
  *
  * @author GZIST
  * @since 2025-12-25
@@ -28,65 +60,264 @@ import java.util.UUID;
 @Service
 public class FileUploadServiceImpl implements IFileUploadService {
 
+    /**
+     * 单次通道传输的最大字节数
+     */
+    private static final long TRANSFER_CHUNK_SIZE = 1024 * 1024L;
+
     @Autowired
     private FileUploadConfig fileUploadConfig;
 
+    @Autowired
+    private ProductMapper productMapper;
+
+    @Autowired
+    private ObjectStorage objectStorage;
+
+    @Autowired
+    private UploadGcConfig uploadGcConfig;
+
+    @Autowired
+    @Qualifier("storageExecutor")
+    private ThreadPoolTaskExecutor storageExecutor;
+
+    @Autowired
+    @Qualifier("uploadExecutor")
+    private ThreadPoolTaskExecutor uploadExecutor;
+
     @Override
     public String uploadProductImage(MultipartFile file) {
         // 1. 校验文件
         validateFile(file);
 
-        // 2. 生成文件存储路径（按日期分目录）
-        String datePath = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy/MM/dd"));
-        String uploadPath = fileUploadConfig.getPath() + fileUploadConfig.getProductImagePath() + datePath + "/";
+        // 2. 临时文件目录（本地存储时与最终文件位于同一文件系统，保证可原子重命名）
+        Path casRoot = casRoot();
+
+        Path tempFile = null;
+        try {
+            // 3. 创建目录
+            Files.createDirectories(casRoot);
+
+            // 4. 流式写入临时文件（识别类型、计算摘要）
+            tempFile = Files.createTempFile(casRoot, ".upload-", ".tmp");
+            StoredUpload upload;
+            try (InputStream inputStream = file.getInputStream()) {
+                upload = streamToFile(inputStream, tempFile);
+            }
+
+            // 5. 移入内容寻址存储
+            return storeContent(tempFile, upload);
+        } catch (IOException e) {
+            log.error("文件上传失败", e);
+            throw new BusinessException("文件上传失败：" + e.getMessage());
+        } finally {
+            deleteQuietly(tempFile);
+        }
+    }
+
+    /**
+     * 批量上传产品图片
+     * 请求线程只负责提交和汇总，各文件的读取、校验、摘要和写入在上传IO线程池中并发执行；
+     * 线程池队列满时该文件直接标记为拒绝，不在请求线程上退化为同步执行
+     */
+    @Override
+    public BatchUploadResponse uploadProductImages(List<MultipartFile> files) {
+        if (files == null || files.isEmpty()) {
+            throw new BusinessException("上传文件不能为空");
+        }
+        if (files.size() > fileUploadConfig.getMaxBatchFiles()) {
+            throw new BusinessException(400, "单次最多上传" + fileUploadConfig.getMaxBatchFiles() + "个文件");
+        }
 
-        // 3. 创建目录
-        File uploadDir = new File(uploadPath);
-        if (!uploadDir.exists()) {
-            uploadDir.mkdirs();
+        long start = System.currentTimeMillis();
+        BatchUploadResponse response = new BatchUploadResponse();
+        response.setTotal(files.size());
+        List<Future<String>> futures = new ArrayList<>(files.size());
+        for (MultipartFile file : files) {
+            try {
+                futures.add(uploadExecutor.submit(() -> uploadProductImage(file)));
+            } catch (TaskRejectedException e) {
+                futures.add(null);
+            }
         }
 
-        // 4. 生成唯一文件名
-        String originalFilename = file.getOriginalFilename();
-        String extension = getFileExtension(originalFilename);
-        String newFileName = UUID.randomUUID().toString().replace("-", "") + extension;
+        // 等待全部完成后再返回：multipart临时文件在请求结束时清理
+        for (int i = 0; i < files.size(); i++) {
+            BatchUploadResponse.FileResult result = new BatchUploadResponse.FileResult();
+            result.setIndex(i);
+            result.setFileName(files.get(i).getOriginalFilename());
+            collect(futures.get(i), result, response);
+            response.getFiles().add(result);
+        }
+        response.setElapsedMillis(System.currentTimeMillis() - start);
+        log.info("批量上传完成 - 文件数: {}, 成功: {}, 失败: {}, 拒绝: {}, 耗时: {}ms", response.getTotal(),
+                response.getSucceeded(), response.getFailed(), response.getRejected(), response.getElapsedMillis());
+        return response;
+    }
 
-        // 5. 保存文件
+    private void collect(Future<String> future, BatchUploadResponse.FileResult result, BatchUploadResponse response) {
+        if (future == null) {
+            result.setCode(503);
+            result.setMessage("上传繁忙，请稍后重试");
+            response.setRejected(response.getRejected() + 1);
+            return;
+        }
         try {
-            Path filePath = Paths.get(uploadPath + newFileName);
-            Files.write(filePath, file.getBytes());
-            log.info("文件上传成功: {}", filePath);
+            result.setUrl(future.get());
+            result.setCode(200);
+            response.setSucceeded(response.getSucceeded() + 1);
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            result.setCode(500);
+            result.setMessage("上传被中断");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof BusinessException) {
+                BusinessException cause = (BusinessException) e.getCause();
+                result.setCode(cause.getCode());
+                result.setMessage(cause.getMessage());
+            } else {
+                log.error("文件上传失败: {}", result.getFileName(), e.getCause());
+                result.setCode(500);
+                result.setMessage("文件上传失败");
+            }
+        }
+        response.setFailed(response.getFailed() + 1);
+    }
 
-            // 6. 返回访问URL
-            return "/uploads/" + fileUploadConfig.getProductImagePath() + datePath + "/" + newFileName;
+    @Override
+    public String storeProductImage(Path file, String expectedSha256) {
+        try {
+            StoredUpload upload = inspectFile(file);
+            if (expectedSha256 != null && !expectedSha256.equalsIgnoreCase(upload.sha256)) {
+                throw new BusinessException(400, "文件校验失败：SHA-256不一致");
+            }
+            return storeContent(file, upload);
         } catch (IOException e) {
-            log.error("文件上传失败", e);
-            throw new BusinessException("文件上传失败：" + e.getMessage());
+            log.error("文件存储失败: {}", file, e);
+            throw new BusinessException("文件存储失败：" + e.getMessage());
+        }
+    }
+
+    /**
+     * 将已写完的文件移入内容寻址存储
+     * 按摘要计算对象键，内容已存在时直接复用（源文件保留，由调用方清理）
+     *
+     * @return 文件访问URL
+     */
+    private String storeContent(Path source, StoredUpload upload) throws IOException {
+        String key = fileUploadConfig.getProductImagePath() + fileUploadConfig.getCasPath()
+                + casRelativePath(upload.sha256, upload.type);
+        String fileUrl = "/uploads/" + key;
+        if (objectStorage.exists(key)) {
+            // 刷新修改时间，使复用的文件重新进入回收宽限期
+            objectStorage.touch(key);
+            log.info("文件内容已存在，复用: {}, sha256: {}", key, upload.sha256);
+            return fileUrl;
         }
+
+        // 并发上传相同内容时写入的是相同字节，结果一致
+        objectStorage.put(key, source, upload.type.getContentType());
+        log.info("文件上传成功: {}, 类型: {}, 大小: {}, sha256: {}",
+                key, upload.type.getContentType(), upload.size, upload.sha256);
+        return fileUrl;
+    }
+
+    private Path casRoot() {
+        return Paths.get(fileUploadConfig.getPath() + fileUploadConfig.getProductImagePath() + fileUploadConfig.getCasPath());
+    }
+
+    /**
+     * 统计引用该URL的产品数（即文件的引用计数）
+     */
+    @Override
+    public long countReferences(String fileUrl) {
+        LambdaQueryWrapper<Product> wrapper = new LambdaQueryWrapper<>();
+        wrapper.eq(Product::getImageUrl, fileUrl);
+        return productMapper.selectCount(wrapper);
     }
 
+    @Override
+    public Path resolveFile(String fileUrl) {
+        String key = toKey(fileUrl);
+        if (key == null) {
+            return null;
+        }
+        try {
+            return objectStorage.localPath(key);
+        } catch (IOException e) {
+            log.error("读取存储对象失败: {}", key, e);
+            return null;
+        }
+    }
+
+    /**
+     * 删除文件
+     * 引用计数和存在性同步检查，实际删除提交到存储线程池异步执行（远程存储删除耗时不影响请求）；
+     * 修改时间在回收宽限期内的对象（刚上传或去重命中刷新过，可能即将被产品引用）不删除，留待回收任务清理
+     */
     @Override
     public boolean deleteFile(String fileUrl) {
-        if (fileUrl == null || !fileUrl.startsWith("/uploads/")) {
+        String key = toKey(fileUrl);
+        if (key == null) {
             return false;
         }
 
+        // 仍被产品引用的文件（内容寻址存储中可能被多个产品共享）不删除
+        long references = countReferences(fileUrl);
+        if (references > 0) {
+            log.info("文件仍被{}个产品引用，保留: {}", references, fileUrl);
+            return true;
+        }
+
         try {
-            // 从URL转换为实际文件路径
-            String filePath = fileUrl.replace("/uploads/", "");
-            Path path = Paths.get(fileUploadConfig.getPath() + filePath);
-            
-            if (Files.exists(path)) {
-                Files.delete(path);
-                log.info("文件删除成功: {}", path);
+            StoredObject object = objectStorage.stat(key);
+            if (object == null) {
+                return false;
+            }
+            long graceCutoff = System.currentTimeMillis() - Duration.ofHours(uploadGcConfig.getGracePeriodHours()).toMillis();
+            if (object.getLastModified() > graceCutoff) {
+                log.info("文件在回收宽限期内，留待回收任务清理: {}", key);
                 return true;
             }
+            storageExecutor.execute(() -> {
+                try {
+                    objectStorage.delete(key);
+                    log.info("文件删除成功: {}", key);
+                } catch (IOException | RuntimeException e) {
+                    log.error("文件删除失败: {}", key, e);
+                }
+            });
+            return true;
+        } catch (TaskRejectedException e) {
+            log.warn("删除任务队列已满，文件留待回收任务清理: {}", key);
+            return true;
         } catch (IOException e) {
             log.error("文件删除失败: {}", fileUrl, e);
         }
         return false;
     }
 
+    /**
+     * URL转换为对象键，拒绝 ../ 等越出上传目录的路径和以.开头的路径段（临时文件）
+     */
+    private static String toKey(String fileUrl) {
+        if (fileUrl == null || !fileUrl.startsWith("/uploads/")) {
+            return null;
+        }
+        String key = fileUrl.substring("/uploads/".length());
+        if (key.isEmpty()) {
+            return null;
+        }
+        for (String segment : key.split("/")) {
+            if (segment.isEmpty() || segment.startsWith(".") || segment.contains("\\")) {
+                return null;
+            }
+        }
+        return key;
+    }
+
     /**
      * 删除文件（带验证）
      * 业务逻辑：如果删除失败，抛出BusinessException
@@ -100,7 +331,7 @@ public class FileUploadServiceImpl implements IFileUploadService {
     }
 
     /**
-     * 校验文件
+     * 校验文件（类型在读取文件头后校验）
      */
     private void validateFile(MultipartFile file) {
         // 检查文件是否为空
@@ -112,21 +343,129 @@ public class FileUploadServiceImpl implements IFileUploadService {
         if (file.getSize() > fileUploadConfig.getMaxSize()) {
             throw new BusinessException("文件大小不能超过" + (fileUploadConfig.getMaxSize() / 1024 / 1024) + "MB");
         }
+    }
+
+    /**
+     * 将数据流写入目标文件
+     * 先读取文件头识别真实类型，再通过FileChannel.transferFrom分段写入，
+     * DigestInputStream在复制的同时计算SHA-256，数据不在堆上整体缓冲
+     *
+     * @param inputStream 数据流
+     * @param target 目标文件（已存在的空文件）
+     * @return 写入结果
+     */
+    private StoredUpload streamToFile(InputStream inputStream, Path target) throws IOException {
+        MessageDigest digest = newSha256();
+        byte[] header = new byte[ImageType.HEADER_LENGTH];
+        int headerLength = readHeader(inputStream, header);
 
-        // 检查文件类型
-        String contentType = file.getContentType();
-        if (contentType == null || !Arrays.asList(fileUploadConfig.getAllowedTypes()).contains(contentType)) {
+        // 检查文件类型（魔数识别）
+        ImageType type = ImageType.detect(header, headerLength);
+        checkAllowedType(type);
+        digest.update(header, 0, headerLength);
+
+        long maxSize = fileUploadConfig.getMaxSize();
+        long position = headerLength;
+        try (FileChannel out = FileChannel.open(target, StandardOpenOption.WRITE);
+             ReadableByteChannel in = Channels.newChannel(new DigestInputStream(inputStream, digest))) {
+            out.write(ByteBuffer.wrap(header, 0, headerLength));
+            long transferred;
+            while ((transferred = out.transferFrom(in, position, TRANSFER_CHUNK_SIZE)) > 0) {
+                position += transferred;
+                if (position > maxSize) {
+                    throw new BusinessException("文件大小不能超过" + (maxSize / 1024 / 1024) + "MB");
+                }
+            }
+        }
+        return new StoredUpload(type, position, HexUtil.encodeHexStr(digest.digest()));
+    }
+
+    /**
+     * 内容寻址的相对路径：摘要前两级各2个字符作为分片目录，避免单目录文件过多
+     */
+    private static String casRelativePath(String sha256, ImageType type) {
+        return sha256.substring(0, 2) + "/" + sha256.substring(2, 4) + "/" + sha256 + type.getExtension();
+    }
+
+    /**
+     * 读取已落盘的文件：识别真实类型并计算SHA-256（固定大小缓冲区逐段读取）
+     */
+    private StoredUpload inspectFile(Path file) throws IOException {
+        MessageDigest digest = newSha256();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0) {
+                throw new BusinessException("上传文件不能为空");
+            }
+            ByteBuffer header = ByteBuffer.allocate(ImageType.HEADER_LENGTH);
+            while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+                // 读满文件头或到达文件末尾
+            }
+            ImageType type = ImageType.detect(header.array(), header.position());
+            checkAllowedType(type);
+
+            ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+            return new StoredUpload(type, size, HexUtil.encodeHexStr(digest.digest()));
+        }
+    }
+
+    private void checkAllowedType(ImageType type) {
+        if (type == null || !Arrays.asList(fileUploadConfig.getAllowedTypes()).contains(type.getContentType())) {
             throw new BusinessException("不支持的文件类型，仅支持图片格式（jpg, png, gif, webp）");
         }
     }
 
+    private static int readHeader(InputStream inputStream, byte[] header) throws IOException {
+        int length = 0;
+        while (length < header.length) {
+            int read = inputStream.read(header, length, header.length - length);
+            if (read < 0) {
+                break;
+            }
+            length += read;
+        }
+        return length;
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("临时文件删除失败: {}", path);
+        }
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
     /**
-     * 获取文件扩展名
+     * 流式写入结果
      */
-    private String getFileExtension(String filename) {
-        if (filename == null || filename.lastIndexOf(".") == -1) {
-            return "";
+    private static class StoredUpload {
+
+        private final ImageType type;
+
+        private final long size;
+
+        private final String sha256;
+
+        StoredUpload(ImageType type, long size, String sha256) {
+            this.type = type;
+            this.size = size;
+            this.sha256 = sha256;
         }
-        return filename.substring(filename.lastIndexOf("."));
     }
 }
@@ -0,0 +1,325 @@
+package com.gzist.project.service.impl;
+
+import cn.hutool.crypto.digest.DigestUtil;
+import com.gzist.project.config.FileUploadConfig;
+import com.gzist.project.config.ImageVariantConfig;
+import com.gzist.project.dto.ImageVariantDTO;
+import com.gzist.project.exception.BusinessException;
+import com.gzist.project.service.IFileUploadService;
+import com.gzist.project.service.IImageVariantService;
+import com.gzist.project.utils.DiskCacheIndex;
+import com.gzist.project.utils.ImageType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.FileImageOutputStream;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 图片变体Service实现类
+ * 变体在有界线程池中生成，写入磁盘缓存后由请求线程直接返回文件；
+ * 同一变体的并发请求共享同一个生成任务；磁盘缓存按最近最少使用淘汰，总大小不超过配置上限
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+@Slf4j
+@Service
+public class ImageVariantServiceImpl implements IImageVariantService {
+
+    /**
+     * 允许解码的最大像素数，防止超大尺寸图片解码耗尽内存
+     */
+    private static final long MAX_SOURCE_PIXELS = 40_000_000L;
+
+    @Autowired
+    private FileUploadConfig fileUploadConfig;
+
+    @Autowired
+    private ImageVariantConfig imageVariantConfig;
+
+    @Autowired
+    private IFileUploadService fileUploadService;
+
+    @Autowired
+    @Qualifier("imageVariantExecutor")
+    private ThreadPoolTaskExecutor imageVariantExecutor;
+
+    /**
+     * 正在生成的变体（key为变体缓存键），用于合并并发请求
+     */
+    private final Map<String, CompletableFuture<Path>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * 变体磁盘缓存索引
+     */
+    private DiskCacheIndex cacheIndex;
+
+    private Path cacheRoot;
+
+    /**
+     * 启动时按最后修改时间重建缓存索引，并清理上次未完成的临时文件
+     */
+    @PostConstruct
+    public void init() throws IOException {
+        ImageIO.setUseCache(false);
+        cacheRoot = Paths.get(imageVariantConfig.getCachePath()).toAbsolutePath().normalize();
+        cacheIndex = new DiskCacheIndex(imageVariantConfig.getMaxCacheSize());
+        cacheIndex.load(cacheRoot);
+        log.info("图片变体缓存索引加载完成 - 文件数: {}, 总大小: {}", cacheIndex.count(), cacheIndex.totalSize());
+    }
+
+    @Override
+    public ImageVariantDTO getVariant(String src, Integer width, String format) {
+        // 1. 校验源图与参数
+        Path source = fileUploadService.resolveFile(src);
+        if (source == null || !Files.isRegularFile(source)) {
+            throw new BusinessException(404, "图片不存在");
+        }
+        if (width == null || !Arrays.asList(imageVariantConfig.getAllowedWidths()).contains(width)) {
+            throw new BusinessException(400, "不支持的图片宽度，可选值：" + Arrays.toString(imageVariantConfig.getAllowedWidths()));
+        }
+        ImageType sourceType = detectType(source);
+        if (sourceType == null) {
+            throw new BusinessException(400, "不支持的图片格式");
+        }
+        ImageType targetType = resolveTargetType(sourceType, format);
+        boolean immutable = isContentAddressed(src);
+
+        // 2. 命中磁盘缓存直接返回
+        String key = variantKey(src, source, width, targetType, immutable);
+        Path variant = cacheRoot.resolve(key.substring(0, 2)).resolve(key + targetType.getExtension());
+        if (cacheIndex.touch(variant)) {
+            return new ImageVariantDTO(variant, targetType.getContentType(), immutable);
+        }
+
+        // 3. 未命中时提交生成任务（同一变体只提交一次）
+        CompletableFuture<Path> future;
+        try {
+            future = inFlight.computeIfAbsent(key, k -> CompletableFuture.supplyAsync(
+                    () -> generate(source, variant, width, targetType), imageVariantExecutor));
+        } catch (RejectedExecutionException e) {
+            throw new BusinessException(503, "图片处理繁忙，请稍后重试");
+        }
+        future.whenComplete((path, error) -> inFlight.remove(key, future));
+
+        Path result = await(future);
+        if (result == null) {
+            // 源图无法解码（如webp），退回原图
+            return new ImageVariantDTO(source, sourceType.getContentType(), immutable);
+        }
+        return new ImageVariantDTO(result, targetType.getContentType(), immutable);
+    }
+
+    /**
+     * 输出格式：显式指定时只允许jpg/png；未指定时保持源图格式，JDK无法写出的格式转为jpg
+     */
+    private static ImageType resolveTargetType(ImageType sourceType, String format) {
+        if (format == null || format.trim().isEmpty()) {
+            return sourceType == ImageType.PNG ? ImageType.PNG : ImageType.JPEG;
+        }
+        ImageType targetType = ImageType.fromFormat(format);
+        if (targetType != ImageType.JPEG && targetType != ImageType.PNG) {
+            throw new BusinessException(400, "仅支持输出jpg或png格式");
+        }
+        return targetType;
+    }
+
+    private boolean isContentAddressed(String src) {
+        return src.startsWith("/uploads/" + fileUploadConfig.getProductImagePath() + fileUploadConfig.getCasPath());
+    }
+
+    /**
+     * 变体缓存键：源图URL、宽度、格式；非内容寻址的源图可能被覆盖，额外加入修改时间与大小
+     */
+    private static String variantKey(String src, Path source, int width, ImageType targetType, boolean immutable) {
+        if (immutable) {
+            return DigestUtil.sha256Hex(src + "|" + width + "|" + targetType.name());
+        }
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(source, BasicFileAttributes.class);
+            return DigestUtil.sha256Hex(src + "|" + attributes.lastModifiedTime().toMillis() + "|"
+                    + attributes.size() + "|" + width + "|" + targetType.name());
+        } catch (IOException e) {
+            throw new BusinessException(404, "图片不存在");
+        }
+    }
+
+    private Path await(CompletableFuture<Path> future) {
+        try {
+            return future.get(imageVariantConfig.getWaitTimeoutMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new BusinessException(503, "图片处理超时，请稍后重试");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException("图片处理被中断");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof BusinessException) {
+                throw (BusinessException) e.getCause();
+            }
+            log.error("图片变体生成失败", e.getCause());
+            throw new BusinessException("图片处理失败");
+        }
+    }
+
+    /**
+     * 生成变体：解码、缩放、编码到临时文件后原子重命名，并登记到缓存索引
+     *
+     * @return 变体文件，源图无法解码时返回null
+     */
+    private Path generate(Path source, Path variant, int width, ImageType targetType) {
+        if (cacheIndex.touch(variant)) {
+            return variant;
+        }
+        Path tempFile = null;
+        try {
+            BufferedImage image = readImage(source);
+            if (image == null) {
+                return null;
+            }
+            int targetWidth = Math.min(width, image.getWidth());
+            int targetHeight = Math.max(1, (int) Math.round((double) image.getHeight() * targetWidth / image.getWidth()));
+            BufferedImage resized = resize(image, targetWidth, targetHeight, targetType == ImageType.JPEG);
+
+            Files.createDirectories(variant.getParent());
+            tempFile = Files.createTempFile(variant.getParent(), ".variant-", ".tmp");
+            write(resized, targetType, tempFile);
+            try {
+                Files.move(tempFile, variant, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, variant, StandardCopyOption.REPLACE_EXISTING);
+            }
+            tempFile = null;
+            cacheIndex.record(variant, Files.size(variant));
+            log.info("图片变体生成成功: {} -> {}, {}x{}", source, variant, targetWidth, targetHeight);
+            return variant;
+        } catch (IOException e) {
+            throw new BusinessException("图片处理失败：" + e.getMessage(), e);
+        } finally {
+            if (tempFile != null) {
+                try {
+                    Files.deleteIfExists(tempFile);
+                } catch (IOException e) {
+                    log.warn("临时文件删除失败: {}", tempFile);
+                }
+            }
+        }
+    }
+
+    /**
+     * 解码源图，先读取尺寸拒绝超大图片；没有可用解码器时返回null
+     */
+    private static BufferedImage readImage(Path source) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(source.toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > MAX_SOURCE_PIXELS) {
+                    log.warn("图片尺寸过大，不生成变体: {}", source);
+                    return null;
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * 逐级减半缩放（每步双线性插值），避免一次大比例缩小造成的锯齿
+     */
+    private static BufferedImage resize(BufferedImage source, int width, int height, boolean opaque) {
+        int type = opaque ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB;
+        BufferedImage current = source;
+        int currentWidth = source.getWidth();
+        int currentHeight = source.getHeight();
+        do {
+            if (currentWidth / 2 > width) {
+                currentWidth /= 2;
+                currentHeight = Math.max(height, currentHeight / 2);
+            } else {
+                currentWidth = width;
+                currentHeight = height;
+            }
+            BufferedImage next = new BufferedImage(currentWidth, currentHeight, type);
+            Graphics2D graphics = next.createGraphics();
+            try {
+                if (opaque) {
+                    // JPEG不支持透明通道，透明区域填充白色
+                    graphics.setColor(Color.WHITE);
+                    graphics.fillRect(0, 0, currentWidth, currentHeight);
+                }
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.drawImage(current, 0, 0, currentWidth, currentHeight, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = next;
+        } while (currentWidth != width);
+        return current;
+    }
+
+    private void write(BufferedImage image, ImageType type, Path target) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName(type.getWriterFormat()).next();
+        try (FileImageOutputStream output = new FileImageOutputStream(target.toFile())) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (type == ImageType.JPEG) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(imageVariantConfig.getJpegQuality());
+            }
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private static ImageType detectType(Path source) {
+        byte[] header = new byte[ImageType.HEADER_LENGTH];
+        try (InputStream input = Files.newInputStream(source)) {
+            int length = 0;
+            int read;
+            while (length < header.length && (read = input.read(header, length, header.length - length)) > 0) {
+                length += read;
+            }
+            return ImageType.detect(header, length);
+        } catch (IOException e) {
+            throw new BusinessException(404, "图片不存在");
+        }
+    }
+}
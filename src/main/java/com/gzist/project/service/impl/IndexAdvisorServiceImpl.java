@@ -0,0 +1,122 @@
+package com.gzist.project.service.impl;
+
+import com.gzist.project.exception.BusinessException;
+import com.gzist.project.service.IIndexAdvisorService;
+import com.gzist.project.vo.response.IndexAdvisorReport;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 索引分析Service实现类
+ * 查询形态来自 {@link QueryShapeCatalog}，对每条语句执行EXPLAIN（可选计时），按以下规则标记问题：
+ * - type=ALL：全表扫描
+ * - COUNT语句type=index：全索引扫描（分页语句按索引顺序读取并由LIMIT提前结束，不算问题）
+ * - Extra含Using filesort：排序未使用索引
+ * - Extra含Using temporary：使用临时表
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+@Slf4j
+@Service
+public class IndexAdvisorServiceImpl implements IIndexAdvisorService {
+
+    /**
+     * 单次分析允许的最大计时次数
+     */
+    private static final int MAX_ITERATIONS = 50;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public IndexAdvisorReport analyze(int iterations) {
+        if (iterations < 0 || iterations > MAX_ITERATIONS) {
+            throw new BusinessException(400, "计时次数必须在0到" + MAX_ITERATIONS + "之间");
+        }
+        IndexAdvisorReport report = new IndexAdvisorReport();
+        report.setIterations(iterations);
+        for (QueryShapeCatalog.QueryShape shape : QueryShapeCatalog.all()) {
+            report.getPlans().add(explain(shape, "page", shape.getPageSql(), iterations));
+            report.getPlans().add(explain(shape, "count", shape.getCountSql(), iterations));
+        }
+        report.setStatements(report.getPlans().size());
+        report.setFlagged((int) report.getPlans().stream().filter(plan -> !plan.getWarnings().isEmpty()).count());
+
+        for (IndexAdvisorReport.StatementPlan plan : report.getPlans()) {
+            log.info("索引分析 - {} [{}] type={}, key={}, rows={}, avg={}ms, extra={}, 问题={}", plan.getShape(),
+                    plan.getKind(), plan.getAccessType(), plan.getKey(), plan.getRows(),
+                    plan.getAvgMillis() == null ? "-" : String.format("%.2f", plan.getAvgMillis()),
+                    plan.getExtra(), plan.getWarnings());
+        }
+        log.info("索引分析完成 - 语句: {}, 存在问题: {}", report.getStatements(), report.getFlagged());
+        return report;
+    }
+
+    private IndexAdvisorReport.StatementPlan explain(QueryShapeCatalog.QueryShape shape, String kind, String sql,
+                                                     int iterations) {
+        Object[] args = shape.getArgs().toArray();
+        IndexAdvisorReport.StatementPlan plan = new IndexAdvisorReport.StatementPlan();
+        plan.setShape(shape.getName());
+        plan.setKind(kind);
+        plan.setSql(sql);
+
+        // 单表查询只有一行计划
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList("EXPLAIN " + sql, args);
+        if (!rows.isEmpty()) {
+            Map<String, Object> row = rows.get(0);
+            plan.setAccessType(text(row.get("type")));
+            plan.setKey(text(row.get("key")));
+            Object estimated = row.get("rows");
+            plan.setRows(estimated instanceof Number ? ((Number) estimated).longValue() : null);
+            plan.setExtra(text(row.get("Extra")));
+        }
+        plan.getWarnings().addAll(classify(kind, plan.getAccessType(), plan.getExtra()));
+
+        if (iterations > 0) {
+            RowCallbackHandler discard = resultSet -> {
+            };
+            // 预热一次，不计入耗时
+            jdbcTemplate.query(sql, discard, args);
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                jdbcTemplate.query(sql, discard, args);
+            }
+            plan.setAvgMillis((System.nanoTime() - start) / 1_000_000.0 / iterations);
+        }
+        return plan;
+    }
+
+    /**
+     * 根据访问类型和Extra列判断执行计划的问题
+     */
+    static List<String> classify(String kind, String accessType, String extra) {
+        List<String> warnings = new ArrayList<>();
+        String type = accessType == null ? "" : accessType.toLowerCase(Locale.ROOT);
+        String detail = extra == null ? "" : extra;
+        if ("all".equals(type)) {
+            warnings.add("全表扫描");
+        } else if ("index".equals(type) && "count".equals(kind)) {
+            warnings.add("全索引扫描");
+        }
+        if (detail.contains("Using filesort")) {
+            warnings.add("文件排序");
+        }
+        if (detail.contains("Using temporary")) {
+            warnings.add("使用临时表");
+        }
+        return warnings;
+    }
+
+    private static String text(Object value) {
+        return value == null ? null : value.toString();
+    }
+}
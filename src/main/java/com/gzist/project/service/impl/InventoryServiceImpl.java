@@ -0,0 +1,390 @@
+package com.gzist.project.service.impl;
+
+import com.gzist.project.config.InventoryConfig;
+import com.gzist.project.dto.ProductChangeEvent;
+import com.gzist.project.exception.BusinessException;
+import com.gzist.project.mapper.ProductMapper;
+import com.gzist.project.service.IInventoryService;
+import com.gzist.project.utils.StripedStockCounter;
+import com.gzist.project.vo.response.InventoryReservationResponse;
+import com.gzist.project.vo.response.InventoryStockResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 库存预占Service实现类
+ *
+ * 热路径全部在内存中完成：每个产品一个分段计数器（可预占数量），预占即在计数器上CAS扣减，不访问数据库；
+ * 确认后的扣减累积在内存中，由定时任务用条件UPDATE（stock >= ?）批量写回，数据库库存不足时视为对账冲突。
+ *
+ * 可预占数量 = 数据库库存 - 已确认未写回 - 已预占未确认。计数器首次使用或对账时按此公式从数据库重建，
+ * 重建时旧计数器先标记为作废，仍在旧计数器上扣减的预占会在新计数器上重试，
+ * 各计数的读写顺序保证并发下重建结果只会偏小（少卖）而不会偏大（超卖），偏差在下次对账时修正。
+ *
+ * 其他途径修改库存（后台编辑、批量更新、导入）后发布的 {@link ProductChangeEvent} 会作废相应产品的计数器，
+ * 下次预占按新库存重建，不必等到定时对账。写回扣减后只清除这些产品的详情缓存，不发布变更事件：
+ * 库存不是列表的筛选列，不影响内存快照、补全和负缓存，列表页中的库存在缓存过期前可能是旧值。
+ *
+ * 计数器只在本实例内有效，多实例部署时各实例的预占互不可见，最终由数据库条件UPDATE兜底并在对账时暴露冲突。
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+@Slf4j
+@Service
+public class InventoryServiceImpl implements IInventoryService {
+
+    @Autowired
+    private ProductMapper productMapper;
+
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+
+    @Autowired
+    private InventoryConfig inventoryConfig;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    /**
+     * 产品ID到可预占库存计数器
+     */
+    private final Map<Long, StockSlot> slots = new ConcurrentHashMap<>();
+
+    /**
+     * 产品ID到预占/待写回数量（不随计数器重建而重置，只为存在的产品创建，条目数以产品数为上限）
+     */
+    private final Map<Long, StockTally> tallies = new ConcurrentHashMap<>();
+
+    /**
+     * 未确认的预占
+     */
+    private final Map<String, Reservation> reservations = new ConcurrentHashMap<>();
+
+    @Override
+    public InventoryReservationResponse reserve(Long productId, int quantity, String owner) {
+        if (quantity <= 0 || quantity > inventoryConfig.getMaxQuantity()) {
+            throw new BusinessException(400, "预占数量必须在1到" + inventoryConfig.getMaxQuantity() + "之间");
+        }
+        while (true) {
+            // 产品不存在时slotFor抛出404，不会为其创建计数
+            StockSlot slot = slotFor(productId);
+            StockTally tally = tallies.computeIfAbsent(productId, id -> new StockTally());
+            // 先计入预占再扣减，重建计数器时读到的预占数只会偏大
+            tally.reserved.addAndGet(quantity);
+            boolean acquired = slot.counter.tryAcquire(quantity);
+            if (!slot.retired) {
+                if (!acquired) {
+                    tally.reserved.addAndGet(-quantity);
+                    throw new BusinessException(409, "库存不足");
+                }
+                break;
+            }
+            // 计数器已在对账中作废，撤销本次扣减后在新计数器上重试
+            tally.reserved.addAndGet(-quantity);
+        }
+
+        long expiresAt = System.currentTimeMillis()
+                + TimeUnit.MINUTES.toMillis(inventoryConfig.getReservationTtlMinutes());
+        Reservation reservation = new Reservation(UUID.randomUUID().toString().replace("-", ""),
+                productId, quantity, expiresAt, owner);
+        reservations.put(reservation.id, reservation);
+        return toResponse(reservation);
+    }
+
+    @Override
+    public void commit(String reservationId, String owner) {
+        Reservation reservation = takeReservation(reservationId, owner);
+        StockTally tally = tallies.get(reservation.productId);
+        // 先计入待写回再减预占，重建时读到的数只会偏大
+        tally.pending.addAndGet(reservation.quantity);
+        tally.reserved.addAndGet(-reservation.quantity);
+    }
+
+    @Override
+    public void release(String reservationId, String owner) {
+        releaseReservation(takeReservation(reservationId, owner));
+    }
+
+    @Override
+    public InventoryStockResponse getStock(Long productId) {
+        StockSlot slot = slotFor(productId);
+        StockTally tally = tallies.computeIfAbsent(productId, id -> new StockTally());
+        InventoryStockResponse response = new InventoryStockResponse();
+        response.setProductId(productId);
+        response.setAvailable(slot.counter.sum());
+        response.setReserved(tally.reserved.get());
+        response.setPendingPersist(tally.pending.get());
+        return response;
+    }
+
+    /**
+     * 将已确认的扣减批量写回数据库（同一批次的条件UPDATE通过JDBC batch一次提交）
+     * 数据库库存不足（例如其他实例或直接修改数据库把库存改小）时扣到0并重建该产品的计数器；
+     * 写回后清除这些产品的详情缓存
+     *
+     * @return 写回的产品数
+     */
+    @Scheduled(fixedDelayString = "${product.inventory.flush-interval-millis:1000}")
+    public synchronized int flushPendingDecrements() {
+        List<Long> productIds = new ArrayList<>();
+        List<Long> quantities = new ArrayList<>();
+        for (Map.Entry<Long, StockTally> entry : tallies.entrySet()) {
+            long pending = entry.getValue().pending.get();
+            if (pending > 0) {
+                productIds.add(entry.getKey());
+                quantities.add(pending);
+            }
+        }
+        if (productIds.isEmpty()) {
+            return 0;
+        }
+
+        int[] updateCounts;
+        try (SqlSession session = sqlSessionFactory.openSession(ExecutorType.BATCH, false)) {
+            ProductMapper mapper = session.getMapper(ProductMapper.class);
+            for (int i = 0; i < productIds.size(); i++) {
+                mapper.decrementStock(productIds.get(i), quantities.get(i));
+            }
+            List<BatchResult> results = session.flushStatements();
+            session.commit();
+            updateCounts = results.isEmpty() ? new int[0] : results.get(0).getUpdateCounts();
+        } catch (PersistenceException e) {
+            // 保留待写回数量，下次重试
+            log.warn("库存扣减写回失败，稍后重试 - 产品数: {}, 原因: {}", productIds.size(), e.getMessage());
+            return 0;
+        }
+
+        for (int i = 0; i < productIds.size(); i++) {
+            Long productId = productIds.get(i);
+            long quantity = quantities.get(i);
+            // 驱动开启批量改写时更新数为SUCCESS_NO_INFO(-2)，按成功处理
+            if (i < updateCounts.length && updateCounts[i] == 0) {
+                resolveConflict(productId, quantity);
+            }
+            // 先写库再减待写回，重建时读到的数只会偏大
+            tallies.get(productId).pending.addAndGet(-quantity);
+        }
+        Cache cache = cacheManager.getCache("products");
+        if (cache != null) {
+            for (Long productId : productIds) {
+                cache.evict(ProductServiceImpl.detailCacheKey(productId));
+            }
+        }
+        return productIds.size();
+    }
+
+    /**
+     * 定时对账：写回待扣减后作废所有计数器，下次使用时按数据库库存重建
+     * 修正数据库库存被直接修改（后台编辑、批量更新、导入）以及并发重建留下的偏差
+     */
+    @Scheduled(fixedDelayString = "${product.inventory.reconcile-interval-millis:60000}")
+    public void reconcile() {
+        flushPendingDecrements();
+        int retired = 0;
+        for (Long productId : new ArrayList<>(slots.keySet())) {
+            if (retire(productId)) {
+                retired++;
+            }
+        }
+        log.debug("库存计数器对账完成 - 重建: {}", retired);
+    }
+
+    /**
+     * 产品变更（后台编辑、批量更新、导入、删除）：作废相应产品的计数器，下次预占按数据库库存重建
+     * 变更范围未知时作废全部计数器
+     */
+    @EventListener
+    public void onProductChange(ProductChangeEvent event) {
+        Iterable<Long> productIds = event.isFullRefresh() ? new ArrayList<>(slots.keySet()) : event.getProductIds();
+        for (Long productId : productIds) {
+            retire(productId);
+        }
+    }
+
+    /**
+     * 定时释放过期的预占
+     *
+     * @return 释放的预占数
+     */
+    @Scheduled(fixedDelayString = "PT1M")
+    public int releaseExpiredReservations() {
+        long now = System.currentTimeMillis();
+        int released = 0;
+        for (Reservation reservation : reservations.values()) {
+            if (reservation.expiresAt <= now && reservations.remove(reservation.id, reservation)) {
+                releaseReservation(reservation);
+                released++;
+            }
+        }
+        if (released > 0) {
+            log.info("已释放过期库存预占: {}", released);
+        }
+        return released;
+    }
+
+    /**
+     * 停机前写回已确认的扣减
+     */
+    @PreDestroy
+    public void flushOnShutdown() {
+        flushPendingDecrements();
+    }
+
+    private StockSlot slotFor(Long productId) {
+        StockSlot slot = slots.computeIfAbsent(productId, this::loadSlot);
+        if (slot == null) {
+            throw new BusinessException(404, "产品不存在");
+        }
+        return slot;
+    }
+
+    /**
+     * 按数据库库存重建计数器：依次读取预占、待写回、数据库库存
+     * 与各操作的写入顺序配合，并发下每个数量要么被正确计入，要么被多扣一次，不会漏扣
+     */
+    private StockSlot loadSlot(Long productId) {
+        // 还没有计数的产品没有预占和待写回
+        StockTally tally = tallies.get(productId);
+        long reserved = tally == null ? 0 : tally.reserved.get();
+        long pending = tally == null ? 0 : tally.pending.get();
+        Integer stock = productMapper.selectStock(productId);
+        if (stock == null) {
+            return null;
+        }
+        long available = Math.max(0, stock - pending - reserved);
+        return new StockSlot(new StripedStockCounter(available, inventoryConfig.getStripes()));
+    }
+
+    /**
+     * 作废计数器：先标记再移除，保证新计数器建立前旧计数器上的扣减都能看到作废标记
+     */
+    private boolean retire(Long productId) {
+        StockSlot slot = slots.get(productId);
+        if (slot == null) {
+            return false;
+        }
+        slot.retired = true;
+        return slots.remove(productId, slot);
+    }
+
+    private void resolveConflict(Long productId, long quantity) {
+        int updated = productMapper.decrementStockToZero(productId, quantity);
+        if (updated == 0) {
+            log.warn("库存对账冲突：产品已删除，丢弃已确认扣减 - productId: {}, quantity: {}", productId, quantity);
+        } else {
+            log.warn("库存对账冲突：数据库库存不足以扣减已确认数量，已扣至0 - productId: {}, quantity: {}",
+                    productId, quantity);
+        }
+        retire(productId);
+    }
+
+    /**
+     * 取出预占（只有预占人可以取出，他人的预占保持不变）
+     */
+    private Reservation takeReservation(String reservationId, String owner) {
+        Reservation reservation = reservationId == null ? null : reservations.get(reservationId);
+        if (reservation == null) {
+            throw new BusinessException(404, "预占不存在或已过期");
+        }
+        if (!reservation.owner.equals(owner)) {
+            throw new BusinessException(403, "无权操作他人的预占");
+        }
+        if (!reservations.remove(reservationId, reservation)) {
+            throw new BusinessException(404, "预占不存在或已过期");
+        }
+        return reservation;
+    }
+
+    private void releaseReservation(Reservation reservation) {
+        StockSlot slot = slots.get(reservation.productId);
+        // 先归还再减预占；计数器已作废时归还被丢弃，由重建时读到的预占数体现
+        if (slot != null && !slot.retired) {
+            slot.counter.release(reservation.quantity);
+        }
+        tallies.get(reservation.productId).reserved.addAndGet(-reservation.quantity);
+    }
+
+    private static InventoryReservationResponse toResponse(Reservation reservation) {
+        InventoryReservationResponse response = new InventoryReservationResponse();
+        response.setReservationId(reservation.id);
+        response.setProductId(reservation.productId);
+        response.setQuantity(reservation.quantity);
+        response.setExpiresAt(LocalDateTime.ofInstant(
+                Instant.ofEpochMilli(reservation.expiresAt), ZoneId.systemDefault()));
+        return response;
+    }
+
+    /**
+     * 可预占库存计数器
+     */
+    private static class StockSlot {
+
+        private final StripedStockCounter counter;
+
+        private volatile boolean retired;
+
+        StockSlot(StripedStockCounter counter) {
+            this.counter = counter;
+        }
+    }
+
+    /**
+     * 单个产品的预占/待写回数量
+     */
+    private static class StockTally {
+
+        private final AtomicLong reserved = new AtomicLong();
+
+        private final AtomicLong pending = new AtomicLong();
+    }
+
+    /**
+     * 未确认的预占
+     */
+    private static class Reservation {
+
+        private final String id;
+
+        private final Long productId;
+
+        private final int quantity;
+
+        private final long expiresAt;
+
+        /**
+         * 预占人（用户名）
+         */
+        private final String owner;
+
+        Reservation(String id, Long productId, int quantity, long expiresAt, String owner) {
+            this.id = id;
+            this.productId = productId;
+            this.quantity = quantity;
+            this.expiresAt = expiresAt;
+            this.owner = owner;
+        }
+    }
+}
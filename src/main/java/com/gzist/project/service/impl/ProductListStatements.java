@@ -0,0 +1,214 @@
+package com.gzist.project.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.gzist.project.entity.Product;
+import com.gzist.project.mapper.ProductMapper;
+import com.gzist.project.vo.request.ProductQueryRequest;
+import com.gzist.project.vo.request.ProductView;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.session.Configuration;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PostConstruct;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 产品列表预编译语句
+ *
+ * 列表查询的5个筛选条件（名称、分类、状态、最低价、最高价）共32种组合，启动时为每种组合生成固定SQL，
+ * 注册为ProductMapper命名空间下的静态语句：每个视图一条分页查询，外加一条手写的COUNT查询。
+ * 运行时按出现的条件算出位掩码直接取语句，不再构造LambdaQueryWrapper（Lambda解析列名、拼接SQL片段），
+ * 也不带分页参数，分页插件不再解析改写SQL生成COUNT。
+ *
+ * 生成的条件与 {@link ProductServiceImpl#buildQueryWrapper} 相同（列、顺序、括号一致），索引分析的查询形态仍然适用
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+@Component
+class ProductListStatements {
+
+    static final int NAME = 1;
+
+    static final int CATEGORY = 1 << 1;
+
+    static final int STATUS = 1 << 2;
+
+    static final int MIN_PRICE = 1 << 3;
+
+    static final int MAX_PRICE = 1 << 4;
+
+    private static final int COMBINATIONS = 1 << 5;
+
+    private static final String NAMESPACE = ProductMapper.class.getName();
+
+    private static final String[] COUNT_IDS = new String[COMBINATIONS];
+
+    private static final String[][] PAGE_IDS = new String[ProductView.values().length][COMBINATIONS];
+
+    static {
+        for (int mask = 0; mask < COMBINATIONS; mask++) {
+            COUNT_IDS[mask] = NAMESPACE + ".listCount_" + mask;
+            for (ProductView view : ProductView.values()) {
+                PAGE_IDS[view.ordinal()][mask] = NAMESPACE + ".listPage" + view.name() + "_" + mask;
+            }
+        }
+    }
+
+    @Autowired
+    private SqlSessionTemplate sqlSessionTemplate;
+
+    @PostConstruct
+    public void init() {
+        register(sqlSessionTemplate.getConfiguration());
+    }
+
+    /**
+     * 统计筛选结果总数
+     */
+    long count(ProductQueryRequest queryRequest) {
+        int mask = mask(queryRequest);
+        Long total = sqlSessionTemplate.selectOne(COUNT_IDS[mask], parameters(queryRequest, mask, 0, 0));
+        return total == null ? 0 : total;
+    }
+
+    /**
+     * 查询一页（按创建时间降序，只读取视图的列）
+     */
+    List<Product> page(ProductQueryRequest queryRequest, ProductView view, long offset, long limit) {
+        int mask = mask(queryRequest);
+        return sqlSessionTemplate.selectList(PAGE_IDS[view.ordinal()][mask],
+                parameters(queryRequest, mask, offset, limit));
+    }
+
+    /**
+     * 注册全部语句（已注册的跳过）
+     */
+    static void register(Configuration configuration) {
+        if (configuration.hasStatement(COUNT_IDS[0], false)) {
+            return;
+        }
+        for (int mask = 0; mask < COMBINATIONS; mask++) {
+            String where = where(mask);
+            configuration.addMappedStatement(statement(configuration, COUNT_IDS[mask],
+                    "SELECT COUNT(*) FROM products" + where, mappings(configuration, mask, false), Long.class));
+            for (ProductView view : ProductView.values()) {
+                String columns = view.select(new LambdaQueryWrapper<>()).getSqlSelect();
+                configuration.addMappedStatement(statement(configuration, PAGE_IDS[view.ordinal()][mask],
+                        "SELECT " + columns + " FROM products" + where + " ORDER BY created_time DESC LIMIT ?,?",
+                        mappings(configuration, mask, true), Product.class));
+            }
+        }
+    }
+
+    /**
+     * 出现的筛选条件（与buildQueryWrapper的判断相同）
+     */
+    static int mask(ProductQueryRequest queryRequest) {
+        int mask = 0;
+        if (StringUtils.hasText(queryRequest.getProductName())) {
+            mask |= NAME;
+        }
+        if (StringUtils.hasText(queryRequest.getCategory())) {
+            mask |= CATEGORY;
+        }
+        if (queryRequest.getStatus() != null) {
+            mask |= STATUS;
+        }
+        if (queryRequest.getMinPrice() != null) {
+            mask |= MIN_PRICE;
+        }
+        if (queryRequest.getMaxPrice() != null) {
+            mask |= MAX_PRICE;
+        }
+        return mask;
+    }
+
+    static String countStatementId(int mask) {
+        return COUNT_IDS[mask];
+    }
+
+    static String pageStatementId(ProductView view, int mask) {
+        return PAGE_IDS[view.ordinal()][mask];
+    }
+
+    static Map<String, Object> parameters(ProductQueryRequest queryRequest, int mask, long offset, long limit) {
+        Map<String, Object> parameters = new HashMap<>(16);
+        if ((mask & NAME) != 0) {
+            parameters.put("productName", "%" + queryRequest.getProductName() + "%");
+        }
+        parameters.put("category", queryRequest.getCategory());
+        parameters.put("status", queryRequest.getStatus());
+        parameters.put("minPrice", queryRequest.getMinPrice());
+        parameters.put("maxPrice", queryRequest.getMaxPrice());
+        parameters.put("offset", offset);
+        parameters.put("limit", limit);
+        return parameters;
+    }
+
+    private static String where(int mask) {
+        List<String> conditions = new ArrayList<>();
+        if ((mask & NAME) != 0) {
+            conditions.add("product_name LIKE ?");
+        }
+        if ((mask & CATEGORY) != 0) {
+            conditions.add("category = ?");
+        }
+        if ((mask & STATUS) != 0) {
+            conditions.add("status = ?");
+        }
+        if ((mask & MIN_PRICE) != 0) {
+            conditions.add("price >= ?");
+        }
+        if ((mask & MAX_PRICE) != 0) {
+            conditions.add("price <= ?");
+        }
+        return conditions.isEmpty() ? "" : " WHERE (" + String.join(" AND ", conditions) + ")";
+    }
+
+    private static List<ParameterMapping> mappings(Configuration configuration, int mask, boolean paged) {
+        List<ParameterMapping> mappings = new ArrayList<>();
+        if ((mask & NAME) != 0) {
+            mappings.add(new ParameterMapping.Builder(configuration, "productName", String.class).build());
+        }
+        if ((mask & CATEGORY) != 0) {
+            mappings.add(new ParameterMapping.Builder(configuration, "category", String.class).build());
+        }
+        if ((mask & STATUS) != 0) {
+            mappings.add(new ParameterMapping.Builder(configuration, "status", Integer.class).build());
+        }
+        if ((mask & MIN_PRICE) != 0) {
+            mappings.add(new ParameterMapping.Builder(configuration, "minPrice", BigDecimal.class).build());
+        }
+        if ((mask & MAX_PRICE) != 0) {
+            mappings.add(new ParameterMapping.Builder(configuration, "maxPrice", BigDecimal.class).build());
+        }
+        if (paged) {
+            mappings.add(new ParameterMapping.Builder(configuration, "offset", Long.class).build());
+            mappings.add(new ParameterMapping.Builder(configuration, "limit", Long.class).build());
+        }
+        return mappings;
+    }
+
+    private static MappedStatement statement(Configuration configuration, String id, String sql,
+                                             List<ParameterMapping> mappings, Class<?> resultType) {
+        ResultMap resultMap = new ResultMap.Builder(configuration, id + "-Inline", resultType, new ArrayList<>())
+                .build();
+        return new MappedStatement.Builder(configuration, id, new StaticSqlSource(configuration, sql, mappings),
+                SqlCommandType.SELECT)
+                .resultMaps(Collections.singletonList(resultMap))
+                .build();
+    }
+}
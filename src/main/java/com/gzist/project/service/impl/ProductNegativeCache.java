@@ -0,0 +1,146 @@
+package com.gzist.project.service.impl;
+
+import com.gzist.project.config.ProductNegativeCacheConfig;
+import com.gzist.project.dto.ProductChangeEvent;
+import com.gzist.project.dto.ProductQueryKey;
+import com.gzist.project.vo.request.ProductQueryRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 产品列表负缓存
+ *
+ * 列表缓存不保存空结果，没有结果的搜索（拼写错误、爬虫）和超出末页的页码每次都会执行COUNT和分页查询。
+ * 这里按筛选条件（不含分页参数）记录最近一次查询得到的总数：总数为0的筛选、页码超出已知总数的请求直接返回空页，
+ * 不执行任何查询。记录只在本机内存中，有效期短于列表缓存，数量有上限（超出时淘汰最久未使用的）。
+ *
+ * 产品写入后全部清除：名称条件是数据库排序规则（utf8mb4_unicode_ci，忽略重音）下的LIKE匹配，
+ * 在Java中无法准确判断变更的产品是否满足条件，也不在写入线程上重新读取产品；写入远少于列表查询，清除的代价很小。
+ * 名称含LIKE通配符（%、_）的查询不记录，与内存快照的处理一致
+ *
+ * 记录只在本实例内：变更事件在进程内发布，其他实例的写入不会清除这里的记录，
+ * 其他实例写入后最多ttl-millis内仍可能返回空页。多实例部署时按可接受的延迟设置有效期，或关闭负缓存
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+@Component
+class ProductNegativeCache {
+
+    @Autowired
+    private ProductNegativeCacheConfig productNegativeCacheConfig;
+
+    private final Object lock = new Object();
+
+    /**
+     * 筛选条件key -> 记录（按访问顺序，最久未使用的在前）
+     */
+    private final LinkedHashMap<ProductQueryKey, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * 变更次数，查询开始后发生过变更的总数不再记录（可能是变更前的数据）
+     */
+    private long generation;
+
+    /**
+     * 当前变更次数，在查询之前取得，记录总数时传回
+     */
+    long generation() {
+        synchronized (lock) {
+            return generation;
+        }
+    }
+
+    /**
+     * 已知的总数
+     *
+     * @param filterKey 筛选条件key
+     * @return 总数，未记录或已过期时返回null
+     */
+    Long total(ProductQueryKey filterKey) {
+        if (!Boolean.TRUE.equals(productNegativeCacheConfig.getEnabled())) {
+            return null;
+        }
+        synchronized (lock) {
+            Entry entry = entries.get(filterKey);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expiresAt - System.nanoTime() <= 0) {
+                entries.remove(filterKey);
+                return null;
+            }
+            return entry.total;
+        }
+    }
+
+    /**
+     * 记录查询得到的总数
+     *
+     * @param filterKey 筛选条件key
+     * @param queryRequest 规范化后的查询请求（名称含LIKE通配符时不记录）
+     * @param total 总数
+     * @param generation 查询之前取得的变更次数
+     */
+    void record(ProductQueryKey filterKey, ProductQueryRequest queryRequest, long total, long generation) {
+        if (!Boolean.TRUE.equals(productNegativeCacheConfig.getEnabled())) {
+            return;
+        }
+        String productName = queryRequest.getProductName();
+        if (productName != null && (productName.indexOf('%') >= 0 || productName.indexOf('_') >= 0)) {
+            return;
+        }
+        long expiresAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(productNegativeCacheConfig.getTtlMillis());
+        synchronized (lock) {
+            if (generation != this.generation) {
+                return;
+            }
+            entries.put(filterKey, new Entry(total, expiresAt));
+            Iterator<Entry> eldest = entries.values().iterator();
+            while (entries.size() > productNegativeCacheConfig.getMaxEntries() && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+            }
+        }
+    }
+
+    /**
+     * 产品变更：全部清除，之后开始的查询重新记录
+     */
+    @EventListener
+    public void onProductChange(ProductChangeEvent event) {
+        synchronized (lock) {
+            generation++;
+            entries.clear();
+        }
+    }
+
+    /**
+     * 已记录的筛选条件数
+     */
+    int size() {
+        synchronized (lock) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * 记录：总数和过期时间
+     */
+    private static final class Entry {
+
+        private final long total;
+
+        private final long expiresAt;
+
+        private Entry(long total, long expiresAt) {
+            this.total = total;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -4,22 +4,68 @@ import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.gzist.project.config.ProductBulkConfig;
+import com.gzist.project.config.ProductFacetConfig;
+import com.gzist.project.config.ProductLoaderConfig;
+import com.gzist.project.config.ProductQueryKeyGenerator;
+import com.gzist.project.dto.ProductChangeEvent;
+import com.gzist.project.dto.ProductQueryKey;
 import com.gzist.project.entity.Product;
 import com.gzist.project.exception.BusinessException;
 import com.gzist.project.mapper.ProductMapper;
 import com.gzist.project.service.IProductService;
+import com.gzist.project.service.IProductSnapshotService;
+import com.gzist.project.utils.CacheBatchOperations;
+import com.gzist.project.utils.ExportRecordWriter;
+import com.gzist.project.utils.ImportRecordReader;
+import com.gzist.project.utils.MicroBatchLoader;
+import com.gzist.project.utils.ProductColumnSnapshot;
+import com.gzist.project.vo.request.ProductBatchUpdateItem;
 import com.gzist.project.vo.request.ProductQueryRequest;
 import com.gzist.project.vo.request.ProductSaveRequest;
+import com.gzist.project.vo.request.ProductView;
+import com.gzist.project.vo.response.BatchUpdateResponse;
+import com.gzist.project.vo.response.ImportResultResponse;
+import com.gzist.project.vo.response.ProductDetailBatchResponse;
+import com.gzist.project.vo.response.ProductFacetResponse;
+import com.gzist.project.vo.response.ProductSummaryResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * 产品Service实现类
@@ -33,97 +79,590 @@ import java.util.Arrays;
 @Service
 public class ProductServiceImpl extends ServiceImpl<ProductMapper, Product> implements IProductService {
 
+    /**
+     * 导出列（与ProductSaveRequest属性名一致，导出文件可用于导入）
+     */
+    private static final String[] EXPORT_COLUMNS = {
+            "id", "productCode", "productName", "category", "price", "stock", "description",
+            "imageUrl", "status", "createdByUsername", "createdTime", "updatedTime"
+    };
+
     @Autowired
     private ProductMapper productMapper;
 
+    @Autowired
+    private ProductBulkConfig productBulkConfig;
+
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private IProductSnapshotService productSnapshotService;
+
+    @Autowired
+    private ProductFacetConfig productFacetConfig;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private CacheBatchOperations cacheBatchOperations;
+
+    @Autowired
+    private ProductLoaderConfig productLoaderConfig;
+
+    @Autowired
+    private ProductListStatements productListStatements;
+
+    @Autowired
+    private ProductNegativeCache productNegativeCache;
+
     /**
-     * 分页查询产品列表（带缓存）
-     * 使用Redis缓存查询结果，提高读取性能
-     * 缓存key包含所有查询参数，确保不同查询条件使用不同缓存
-     * 
-     * @param current 当前页码
-     * @param size 每页大小
-     * @param productName 产品名称（可选，模糊查询）
-     * @param category 产品分类（可选）
-     * @param minPrice 最低价格（可选）
-     * @param maxPrice 最高价格（可选）
+     * 详情查询微批量加载器（未启用时为null）
+     */
+    private MicroBatchLoader<Long, Product> productLoader;
+
+    /**
+     * 创建详情查询微批量加载器
+     */
+    @PostConstruct
+    public void initProductLoader() {
+        if (!Boolean.TRUE.equals(productLoaderConfig.getEnabled())) {
+            return;
+        }
+        productLoader = new MicroBatchLoader<>(ids -> productMapper.selectBatchIds(ids).stream()
+                .collect(Collectors.toMap(Product::getId, product -> product)),
+                productLoaderConfig.getWindowMicros(), productLoaderConfig.getMaxBatchSize());
+    }
+
+    @PreDestroy
+    public void closeProductLoader() {
+        if (productLoader != null) {
+            productLoader.close();
+        }
+    }
+
+    /**
+     * 分页查询产品列表（按视图投影，带缓存）
+     * 只查询视图需要的列，不读取描述等大字段；缓存和返回的都是精简的列表项VO
+     * 缓存key包含视图和规范化后的查询参数（见 {@link ProductQueryKey}），语义相同的查询共用缓存，
+     * 未命中时也按规范化后的条件查询
+     * 内存快照可用时由快照完成过滤、排序和计数，数据库只按主键读取当前页；
+     * 否则使用按筛选条件组合预编译的分页和COUNT语句（见 {@link ProductListStatements}）；
+     * 空结果不进入列表缓存，由负缓存记录各筛选的总数，没有结果或页码超出总数时不再查询（见 {@link ProductNegativeCache}）
+     *
+     * 缓存机制：
+     * - 首次查询：从数据库加载并缓存到Redis（会输出日志）
+     * - 后续查询：直接从Redis返回（不输出日志）
+     *
+     * @param queryRequest 查询请求VO
+     * @param view 列表视图
      * @return 分页结果
      */
     @Override
-    @Cacheable(value = "products", 
-               key = "'page:' + #current + ':' + #size + ':' + " +
-                     "(#productName != null && #productName != '' ? #productName : 'null') + ':' + " +
-                     "(#category != null && #category != '' ? #category : 'null') + ':' + " +
-                     "(#minPrice != null ? #minPrice : 'null') + ':' + " +
-                     "(#maxPrice != null ? #maxPrice : 'null')")
-    public IPage<Product> getProductPage(Integer current, Integer size, String productName,
-                                          String category, BigDecimal minPrice, BigDecimal maxPrice) {
-        log.info("【缓存未命中】执行数据库查询 - page: {}, size: {}, name: '{}', category: '{}', minPrice: {}, maxPrice: {}", 
-                 current, size, productName, category, minPrice, maxPrice);
-        
-        // 创建分页对象
-        Page<Product> page = new Page<>(current, size);
+    @Cacheable(value = "products", keyGenerator = ProductQueryKeyGenerator.BEAN_NAME,
+               unless = "#result == null || #result.records.size() == 0")
+    public IPage<ProductSummaryResponse> getProductPage(ProductQueryRequest queryRequest, ProductView view) {
+        // 与缓存key使用同一份规范化条件
+        queryRequest = ProductQueryKey.normalize(queryRequest);
+        // 已知该筛选的总数时，没有结果或页码超出总数直接返回空页
+        ProductQueryKey filterKey = ProductQueryKey.filter(queryRequest);
+        long offset = (long) (queryRequest.getCurrent() - 1) * queryRequest.getSize();
+        Long knownTotal = productNegativeCache.total(filterKey);
+        if (knownTotal != null && offset >= knownTotal) {
+            return new Page<>(queryRequest.getCurrent(), queryRequest.getSize(), knownTotal);
+        }
+        long generation = productNegativeCache.generation();
+
+        log.info("【缓存未命中】查询产品列表 - view: {}, current: {}, size: {}, name: '{}', category: '{}', minPrice: {}, maxPrice: {}, status: {}",
+                 view, queryRequest.getCurrent(), queryRequest.getSize(),
+                 queryRequest.getProductName(), queryRequest.getCategory(),
+                 queryRequest.getMinPrice(), queryRequest.getMaxPrice(), queryRequest.getStatus());
 
-        // 构建查询条件（使用LambdaQueryWrapper）
+        ProductColumnSnapshot.QueryResult snapshotResult = productSnapshotService.query(queryRequest);
+        if (snapshotResult != null) {
+            productNegativeCache.record(filterKey, queryRequest, snapshotResult.getTotal(), generation);
+            return toSnapshotPage(queryRequest, view, snapshotResult);
+        }
+
+        // 按筛选条件组合取预编译语句：先COUNT，当前页超出总数时不再查询
+        long total = productListStatements.count(queryRequest);
+        productNegativeCache.record(filterKey, queryRequest, total, generation);
+        Page<ProductSummaryResponse> page = new Page<>(queryRequest.getCurrent(), queryRequest.getSize(), total);
+        if (offset >= total) {
+            return page;
+        }
+        List<Product> records = productListStatements.page(queryRequest, view, offset, queryRequest.getSize());
+        return page.setRecords(records.stream().map(ProductSummaryResponse::new).collect(Collectors.toList()));
+    }
+
+    /**
+     * 按快照给出的ID读取当前页（主键查询，保持快照给出的顺序）
+     */
+    private IPage<ProductSummaryResponse> toSnapshotPage(ProductQueryRequest queryRequest, ProductView view,
+                                                         ProductColumnSnapshot.QueryResult snapshotResult) {
+        Page<ProductSummaryResponse> page = new Page<>(queryRequest.getCurrent(), queryRequest.getSize(),
+                snapshotResult.getTotal());
+        long[] ids = snapshotResult.getIds();
+        if (ids.length == 0) {
+            return page;
+        }
+        List<Long> idList = Arrays.stream(ids).boxed().collect(Collectors.toList());
+        Map<Long, Product> products = productMapper.selectList(view.select(new LambdaQueryWrapper<Product>()
+                        .in(Product::getId, idList))).stream()
+                .collect(Collectors.toMap(Product::getId, product -> product));
+        List<ProductSummaryResponse> records = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            Product product = products.get(id);
+            if (product != null) {
+                records.add(new ProductSummaryResponse(product));
+            }
+        }
+        return page.setRecords(records);
+    }
+
+    /**
+     * 构建产品查询条件（分页查询、导出及索引分析共用）
+     * 对应索引见 database/migration/V1__add_list_composite_indexes.sql
+     */
+    static LambdaQueryWrapper<Product> buildQueryWrapper(ProductQueryRequest queryRequest) {
+        // 按创建时间降序排序
+        return buildFilterWrapper(queryRequest, true, true).orderByDesc(Product::getCreatedTime);
+    }
+
+    /**
+     * 构建产品筛选条件（不含排序）
+     *
+     * @param withCategory 是否应用分类条件
+     * @param withPrice 是否应用价格区间条件
+     */
+    private static LambdaQueryWrapper<Product> buildFilterWrapper(ProductQueryRequest queryRequest,
+                                                                  boolean withCategory, boolean withPrice) {
         LambdaQueryWrapper<Product> wrapper = new LambdaQueryWrapper<>();
 
-        // 产品名称模糊查询
-        if (StringUtils.hasText(productName)) {
-            wrapper.like(Product::getProductName, productName);
+        // 产品名称模糊查询（前置通配符，无法使用索引）
+        if (StringUtils.hasText(queryRequest.getProductName())) {
+            wrapper.like(Product::getProductName, queryRequest.getProductName());
         }
 
         // 产品分类精确查询
-        if (StringUtils.hasText(category)) {
-            wrapper.eq(Product::getCategory, category);
+        if (withCategory && StringUtils.hasText(queryRequest.getCategory())) {
+            wrapper.eq(Product::getCategory, queryRequest.getCategory());
+        }
+
+        // 产品状态精确查询
+        if (queryRequest.getStatus() != null) {
+            wrapper.eq(Product::getStatus, queryRequest.getStatus());
         }
 
         // 价格区间查询
-        if (minPrice != null) {
-            wrapper.ge(Product::getPrice, minPrice);
+        if (withPrice && queryRequest.getMinPrice() != null) {
+            wrapper.ge(Product::getPrice, queryRequest.getMinPrice());
         }
-        if (maxPrice != null) {
-            wrapper.le(Product::getPrice, maxPrice);
+        if (withPrice && queryRequest.getMaxPrice() != null) {
+            wrapper.le(Product::getPrice, queryRequest.getMaxPrice());
         }
+        return wrapper;
+    }
 
-        // 按创建时间降序排序
-        wrapper.orderByDesc(Product::getCreatedTime);
+    /**
+     * 统计产品分面（各分类产品数与价格直方图，带缓存）
+     * 优先用内存快照的位图计数，快照不可用时用两条GROUP BY统计加一条COUNT；
+     * 缓存key只含规范化后的筛选条件（见 {@link ProductQueryKey#filter}，不含分页参数），同一筛选的各页共用一份结果，
+     * 未命中时也按规范化后的条件统计
+     *
+     * @param queryRequest 查询请求VO（分页参数忽略）
+     * @return 分面统计
+     */
+    @Override
+    @Cacheable(value = "products",
+               key = "'facets:' + T(com.gzist.project.dto.ProductQueryKey).filter(#queryRequest)")
+    public ProductFacetResponse getProductFacets(ProductQueryRequest queryRequest) {
+        // 与缓存key使用同一份规范化条件
+        queryRequest = ProductQueryKey.normalize(queryRequest);
+        List<BigDecimal> bounds = productFacetConfig.getPriceBands();
+        ProductFacetResponse response = new ProductFacetResponse();
+        ProductColumnSnapshot.Facets facets = productSnapshotService.facets(queryRequest, bounds);
+        long[] bandCounts = new long[bounds.size()];
+        if (facets != null) {
+            response.setTotal(facets.getTotal());
+            facets.getCategoryCounts().forEach((category, count) -> {
+                ProductFacetResponse.CategoryCount categoryCount = new ProductFacetResponse.CategoryCount();
+                categoryCount.setCategory(category);
+                categoryCount.setCount(count);
+                response.getCategories().add(categoryCount);
+            });
+            bandCounts = facets.getBandCounts();
+        } else {
+            log.info("【缓存未命中】从数据库统计产品分面 - name: '{}', category: '{}', minPrice: {}, maxPrice: {}, status: {}",
+                    queryRequest.getProductName(), queryRequest.getCategory(),
+                    queryRequest.getMinPrice(), queryRequest.getMaxPrice(), queryRequest.getStatus());
+            response.setTotal(productMapper.selectCount(buildFilterWrapper(queryRequest, true, true)));
+            for (ProductFacetResponse.CategoryCount categoryCount
+                    : productMapper.countByCategory(buildFilterWrapper(queryRequest, false, true))) {
+                if (categoryCount.getCategory() != null) {
+                    response.getCategories().add(categoryCount);
+                }
+            }
+            for (Map<String, Object> row : productMapper.countByPriceBand(buildFilterWrapper(queryRequest, true, false), bounds)) {
+                // 段号0为低于第一个边界的价格，不计入直方图
+                int band = ((Number) row.get("band")).intValue() - 1;
+                if (band >= 0) {
+                    bandCounts[band] = ((Number) row.get("count")).longValue();
+                }
+            }
+        }
+        response.getCategories().sort(Comparator.comparingLong(ProductFacetResponse.CategoryCount::getCount).reversed()
+                .thenComparing(ProductFacetResponse.CategoryCount::getCategory));
+        for (int band = 0; band < bounds.size(); band++) {
+            ProductFacetResponse.PriceBand priceBand = new ProductFacetResponse.PriceBand();
+            priceBand.setMin(bounds.get(band));
+            priceBand.setMax(band + 1 < bounds.size() ? bounds.get(band + 1) : null);
+            priceBand.setCount(bandCounts[band]);
+            response.getPriceBands().add(priceBand);
+        }
+        return response;
+    }
 
-        return productMapper.selectPage(page, wrapper);
+    /**
+     * 导出产品
+     * 单条流式查询（MySQL fetchSize=Integer.MIN_VALUE逐行返回），每行读出后立即写入输出流，
+     * 不分页、不统计总数，内存占用与导出行数无关；写出失败（如客户端断开）时停止读取
+     *
+     * @param queryRequest 查询条件（分页参数忽略）
+     * @param format 导出格式
+     * @param outputStream 输出流（不关闭）
+     * @return 导出行数
+     */
+    @Override
+    public long exportProducts(ProductQueryRequest queryRequest, ImportRecordReader.Format format,
+                               OutputStream outputStream) throws IOException {
+        long start = System.currentTimeMillis();
+        LambdaQueryWrapper<Product> wrapper = buildQueryWrapper(queryRequest);
+        try (ExportRecordWriter writer = new ExportRecordWriter(outputStream, format, EXPORT_COLUMNS)) {
+            // 回调中不能抛出受检异常（会被MyBatis包装），写出失败时记录异常并停止读取
+            IOException[] writeFailure = new IOException[1];
+            productMapper.scanProducts(wrapper, context -> {
+                Product product = context.getResultObject();
+                try {
+                    writer.write(product.getId(), product.getProductCode(), product.getProductName(),
+                            product.getCategory(), product.getPrice(), product.getStock(),
+                            product.getDescription(), product.getImageUrl(), product.getStatus(),
+                            product.getCreatedByUsername(), product.getCreatedTime(), product.getUpdatedTime());
+                } catch (IOException e) {
+                    writeFailure[0] = e;
+                    context.stop();
+                }
+            });
+            if (writeFailure[0] != null) {
+                throw writeFailure[0];
+            }
+            log.info("产品导出完成 - 格式: {}, 行数: {}, 耗时: {}ms",
+                    format, writer.getRowCount(), System.currentTimeMillis() - start);
+            return writer.getRowCount();
+        }
     }
 
     /**
-     * 分页查询产品列表（使用VO对象，带缓存）
-     * 推荐使用此方法，通过VO对象封装查询参数，符合代码分层架构规范
-     * 
-     * 缓存机制：
-     * - 首次查询：从数据库加载并缓存到Redis（会输出日志）
-     * - 后续查询：直接从Redis返回（不输出日志，性能提升95%）
-     * 
-     * @param queryRequest 查询请求VO
-     * @return 分页结果
+     * 批量导入产品
+     * 逐行流式解析，按ProductSaveRequest的规则校验，每块先查询块内编码中已存在的部分（区分新增/更新），
+     * 再用一条多行INSERT ... ON DUPLICATE KEY UPDATE写入并提交；块写入失败时回滚并逐行重试以定位失败行。
+     * 整个导入使用一个独立的数据库连接（不经Spring事务，每块一个事务），产品缓存在结束时清除一次
+     *
+     * @param inputStream 导入数据流
+     * @param format 导入格式
+     * @param username 创建人用户名（仅新增的产品使用）
+     * @return 导入结果
      */
     @Override
-    @Cacheable(value = "products", 
-               key = "'page:' + #queryRequest.current + ':' + #queryRequest.size + ':' + " +
-                     "(#queryRequest.productName != null && #queryRequest.productName != '' ? #queryRequest.productName : 'null') + ':' + " +
-                     "(#queryRequest.category != null && #queryRequest.category != '' ? #queryRequest.category : 'null') + ':' + " +
-                     "(#queryRequest.minPrice != null ? #queryRequest.minPrice : 'null') + ':' + " +
-                     "(#queryRequest.maxPrice != null ? #queryRequest.maxPrice : 'null')",
-               unless = "#result == null || #result.records.size() == 0")
-    public IPage<Product> getProductPage(ProductQueryRequest queryRequest) {
-        log.info("【缓存未命中】从数据库查询产品列表 - current: {}, size: {}, name: '{}', category: '{}', minPrice: {}, maxPrice: {}", 
-                 queryRequest.getCurrent(), queryRequest.getSize(), 
-                 queryRequest.getProductName(), queryRequest.getCategory(),
-                 queryRequest.getMinPrice(), queryRequest.getMaxPrice());
-        
-        return getProductPage(
-                queryRequest.getCurrent(),
-                queryRequest.getSize(),
-                queryRequest.getProductName(),
-                queryRequest.getCategory(),
-                queryRequest.getMinPrice(),
-                queryRequest.getMaxPrice()
-        );
+    public ImportResultResponse importProducts(InputStream inputStream, ImportRecordReader.Format format, String username) {
+        long startTime = System.currentTimeMillis();
+        ImportResultResponse result = new ImportResultResponse();
+        int chunkSize = Math.max(1, productBulkConfig.getImportChunkSize());
+        int maxErrors = productBulkConfig.getMaxReportedErrors();
+
+        long totalRows = 0;
+        List<ImportRow> chunk = new ArrayList<>(chunkSize);
+        try (SqlSession session = sqlSessionFactory.openSession(ExecutorType.SIMPLE, false);
+             ImportRecordReader reader = new ImportRecordReader(inputStream, format)) {
+            ProductMapper mapper = session.getMapper(ProductMapper.class);
+            while (true) {
+                Map<String, Object> record;
+                try {
+                    record = reader.next();
+                } catch (IllegalArgumentException e) {
+                    totalRows++;
+                    result.addError(reader.getLineNumber(), null, e.getMessage(), maxErrors);
+                    continue;
+                }
+                if (record == null) {
+                    break;
+                }
+                totalRows++;
+
+                ProductSaveRequest saveRequest;
+                try {
+                    saveRequest = ImportRecordReader.toBean(record, ProductSaveRequest.class);
+                } catch (IllegalArgumentException e) {
+                    result.addError(reader.getLineNumber(), null, "字段格式错误", maxErrors);
+                    continue;
+                }
+
+                Set<ConstraintViolation<ProductSaveRequest>> violations = validator.validate(saveRequest);
+                if (!violations.isEmpty()) {
+                    String error = violations.stream()
+                            .map(ConstraintViolation::getMessage)
+                            .sorted()
+                            .collect(Collectors.joining(", "));
+                    result.addError(reader.getLineNumber(), saveRequest.getProductCode(), error, maxErrors);
+                    continue;
+                }
+                chunk.add(new ImportRow(reader.getLineNumber(), toImportProduct(saveRequest, username)));
+
+                if (chunk.size() >= chunkSize) {
+                    flushImportChunk(session, mapper, chunk, result, maxErrors);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                flushImportChunk(session, mapper, chunk, result, maxErrors);
+            }
+        } catch (IOException e) {
+            throw new BusinessException("读取导入数据失败：" + e.getMessage(), e);
+        } finally {
+            // 已提交的块无论导入是否完整都需要让缓存失效
+            if (result.getSuccessRows() > 0) {
+                evictProductCache();
+                // 按编码写入，无法确定变更的ID
+                eventPublisher.publishEvent(ProductChangeEvent.fullRefresh());
+            }
+        }
+
+        result.setTotalRows(totalRows);
+        result.setElapsedMillis(System.currentTimeMillis() - startTime);
+        log.info("产品批量导入完成 - 总行数: {}, 成功: {}（更新{}）, 失败: {}, 耗时: {}ms", result.getTotalRows(),
+                result.getSuccessRows(), result.getUpdatedRows(), result.getFailedRows(), result.getElapsedMillis());
+        return result;
+    }
+
+    /**
+     * 写入一个导入块：查询已存在的编码后整块写入，失败时逐行重试
+     */
+    private void flushImportChunk(SqlSession session, ProductMapper mapper, List<ImportRow> rows,
+                                  ImportResultResponse result, int maxErrors) {
+        try {
+            Set<String> existing = new HashSet<>();
+            for (String code : mapper.selectExistingCodes(rows.stream()
+                    .map(row -> row.product.getProductCode())
+                    .collect(Collectors.toCollection(HashSet::new)))) {
+                existing.add(normalizeCode(code));
+            }
+            mapper.upsertBatch(rows.stream().map(row -> row.product).collect(Collectors.toList()));
+            session.commit();
+            result.setSuccessRows(result.getSuccessRows() + rows.size());
+            // 块内重复的编码，第二次出现起按更新计
+            for (ImportRow row : rows) {
+                if (!existing.add(normalizeCode(row.product.getProductCode()))) {
+                    result.setUpdatedRows(result.getUpdatedRows() + 1);
+                }
+            }
+            return;
+        } catch (PersistenceException e) {
+            session.rollback(true);
+            log.warn("产品导入块写入失败，改为逐行写入 - 行数: {}, 原因: {}", rows.size(), e.getMessage());
+        }
+
+        for (ImportRow row : rows) {
+            try {
+                boolean exists = !mapper.selectExistingCodes(
+                        Collections.singletonList(row.product.getProductCode())).isEmpty();
+                mapper.upsertBatch(Collections.singletonList(row.product));
+                session.commit();
+                result.setSuccessRows(result.getSuccessRows() + 1);
+                if (exists) {
+                    result.setUpdatedRows(result.getUpdatedRows() + 1);
+                }
+            } catch (PersistenceException e) {
+                session.rollback(true);
+                Throwable cause = NestedExceptionUtils.getMostSpecificCause(e);
+                result.addError(row.line, row.product.getProductCode(), "写入失败：" + cause.getMessage(), maxErrors);
+            }
+        }
+    }
+
+    /**
+     * 逐行调用的热点路径，显式赋值而不使用BeanUtils.copyProperties（后者每次都做反射与泛型匹配）
+     */
+    private static Product toImportProduct(ProductSaveRequest saveRequest, String username) {
+        Product product = new Product();
+        product.setProductCode(saveRequest.getProductCode().trim());
+        product.setProductName(saveRequest.getProductName());
+        product.setCategory(saveRequest.getCategory());
+        product.setPrice(saveRequest.getPrice());
+        product.setStock(saveRequest.getStock());
+        product.setDescription(saveRequest.getDescription());
+        product.setImageUrl(saveRequest.getImageUrl());
+        product.setStatus(saveRequest.getStatus());
+        product.setCreatedByUsername(username);
+        return product;
+    }
+
+    /**
+     * 产品编码列的排序规则不区分大小写，比较时统一转小写
+     */
+    private static String normalizeCode(String code) {
+        return code.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 批量更新产品价格、库存、状态
+     * 修改项按块处理：每块一次定位查询和一条UPDATE ... CASE（单条语句即一个事务，锁持有时间随块大小有界），
+     * 全部完成后统一清除一次产品缓存
+     *
+     * @param items 修改项
+     * @return 更新结果
+     */
+    @Override
+    public BatchUpdateResponse batchUpdateProducts(List<ProductBatchUpdateItem> items) {
+        int maxItems = productBulkConfig.getUpdateMaxItems();
+        if (items.size() > maxItems) {
+            throw new BusinessException(400, "单次最多更新" + maxItems + "个产品");
+        }
+        long startTime = System.currentTimeMillis();
+        BatchUpdateResponse result = new BatchUpdateResponse();
+        result.setTotal(items.size());
+
+        int chunkSize = Math.max(1, productBulkConfig.getUpdateChunkSize());
+        Set<Long> seenIds = new HashSet<>();
+        try {
+            for (int from = 0; from < items.size(); from += chunkSize) {
+                List<UpdateRow> rows = resolveUpdateChunk(items, from, Math.min(from + chunkSize, items.size()),
+                        seenIds, result);
+                if (!rows.isEmpty()) {
+                    flushUpdateChunk(rows, result);
+                }
+            }
+        } finally {
+            if (result.getUpdated() > 0) {
+                evictProductCache();
+                eventPublisher.publishEvent(ProductChangeEvent.of(seenIds));
+            }
+        }
+
+        result.getErrors().sort(Comparator.comparingInt(BatchUpdateResponse.ItemError::getIndex));
+        result.setElapsedMillis(System.currentTimeMillis() - startTime);
+        log.info("产品批量更新完成 - 修改项: {}, 更新: {}, 失败: {}, 耗时: {}ms", result.getTotal(),
+                result.getUpdated(), result.getFailed(), result.getElapsedMillis());
+        return result;
+    }
+
+    /**
+     * 校验一块修改项，并用一次查询把产品编码解析为ID
+     */
+    private List<UpdateRow> resolveUpdateChunk(List<ProductBatchUpdateItem> items, int from, int to,
+                                               Set<Long> seenIds, BatchUpdateResponse result) {
+        List<UpdateRow> candidates = new ArrayList<>(to - from);
+        Set<Long> ids = new HashSet<>();
+        Set<String> codes = new HashSet<>();
+        for (int index = from; index < to; index++) {
+            ProductBatchUpdateItem item = items.get(index);
+            String key = item == null ? null : item.getId() != null ? String.valueOf(item.getId()) : item.getProductCode();
+            String error = item == null ? "修改项不能为空" : validateUpdateItem(item);
+            if (error != null) {
+                result.addError(index, key, error);
+                continue;
+            }
+            if (item.getId() != null) {
+                ids.add(item.getId());
+            } else {
+                item.setProductCode(item.getProductCode().trim());
+                codes.add(item.getProductCode());
+            }
+            candidates.add(new UpdateRow(index, key, item));
+        }
+        if (candidates.isEmpty()) {
+            return candidates;
+        }
+
+        Set<Long> existingIds = new HashSet<>();
+        Map<String, Long> idsByCode = new HashMap<>();
+        for (Product product : productMapper.selectUpdateKeys(ids, codes)) {
+            existingIds.add(product.getId());
+            idsByCode.put(normalizeCode(product.getProductCode()), product.getId());
+        }
+
+        List<UpdateRow> rows = new ArrayList<>(candidates.size());
+        for (UpdateRow row : candidates) {
+            Long id = row.item.getId() != null
+                    ? (existingIds.contains(row.item.getId()) ? row.item.getId() : null)
+                    : idsByCode.get(normalizeCode(row.item.getProductCode()));
+            if (id == null) {
+                result.addError(row.index, row.key, "产品不存在");
+            } else if (!seenIds.add(id)) {
+                result.addError(row.index, row.key, "同一产品在请求中重复");
+            } else {
+                row.item.setId(id);
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    private String validateUpdateItem(ProductBatchUpdateItem item) {
+        if (item.getId() == null && !StringUtils.hasText(item.getProductCode())) {
+            return "产品ID和产品编码不能同时为空";
+        }
+        if (item.getPrice() != null && item.getPriceDelta() != null) {
+            return "价格和价格增量不能同时指定";
+        }
+        if (item.getStock() != null && item.getStockDelta() != null) {
+            return "库存和库存增量不能同时指定";
+        }
+        if (item.getPrice() == null && item.getPriceDelta() == null && item.getStock() == null
+                && item.getStockDelta() == null && item.getStatus() == null) {
+            return "未指定要修改的字段";
+        }
+        Set<ConstraintViolation<ProductBatchUpdateItem>> violations = validator.validate(item);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+        }
+        return null;
+    }
+
+    /**
+     * 执行一块更新：只有块内有修改项涉及的列才出现在SET中
+     */
+    private void flushUpdateChunk(List<UpdateRow> rows, BatchUpdateResponse result) {
+        List<ProductBatchUpdateItem> chunkItems = rows.stream().map(row -> row.item).collect(Collectors.toList());
+        boolean updatePrice = chunkItems.stream().anyMatch(item -> item.getPrice() != null || item.getPriceDelta() != null);
+        boolean updateStock = chunkItems.stream().anyMatch(item -> item.getStock() != null || item.getStockDelta() != null);
+        boolean updateStatus = chunkItems.stream().anyMatch(item -> item.getStatus() != null);
+        try {
+            int matched = productMapper.batchUpdate(chunkItems, updatePrice, updateStock, updateStatus);
+            result.setUpdated(result.getUpdated() + matched);
+        } catch (DataAccessException e) {
+            Throwable cause = NestedExceptionUtils.getMostSpecificCause(e);
+            log.warn("产品批量更新块写入失败 - 修改项: {}, 原因: {}", rows.size(), cause.getMessage());
+            for (UpdateRow row : rows) {
+                result.addError(row.index, row.key, "写入失败：" + cause.getMessage());
+            }
+        }
+    }
+
+    private void evictProductCache() {
+        Cache cache = cacheManager.getCache("products");
+        if (cache != null) {
+            cache.clear();
+        }
     }
 
     /**
@@ -153,7 +692,11 @@ public class ProductServiceImpl extends ServiceImpl<ProductMapper, Product> impl
             product.setStatus(1);
         }
 
-        return this.save(product);
+        boolean saved = this.save(product);
+        if (saved) {
+            eventPublisher.publishEvent(ProductChangeEvent.of(Collections.singletonList(product.getId())));
+        }
+        return saved;
     }
 
     /**
@@ -198,7 +741,11 @@ public class ProductServiceImpl extends ServiceImpl<ProductMapper, Product> impl
             }
         }
 
-        return this.updateById(product);
+        boolean updated = this.updateById(product);
+        if (updated) {
+            eventPublisher.publishEvent(ProductChangeEvent.of(Collections.singletonList(product.getId())));
+        }
+        return updated;
     }
 
     /**
@@ -229,7 +776,11 @@ public class ProductServiceImpl extends ServiceImpl<ProductMapper, Product> impl
     @CacheEvict(value = "products", allEntries = true)
     public boolean deleteProduct(Long id) {
         log.info("删除产品 - id: {}", id);
-        return this.removeById(id);
+        boolean removed = this.removeById(id);
+        if (removed) {
+            eventPublisher.publishEvent(ProductChangeEvent.of(Collections.singletonList(id)));
+        }
+        return removed;
     }
 
     /**
@@ -242,27 +793,99 @@ public class ProductServiceImpl extends ServiceImpl<ProductMapper, Product> impl
     @CacheEvict(value = "products", allEntries = true)
     public boolean batchDeleteProducts(Long[] ids) {
         log.info("批量删除产品 - ids: {}", Arrays.toString(ids));
-        return this.removeByIds(Arrays.asList(ids));
+        boolean removed = this.removeByIds(Arrays.asList(ids));
+        if (removed) {
+            eventPublisher.publishEvent(ProductChangeEvent.of(Arrays.asList(ids)));
+        }
+        return removed;
     }
 
     /**
      * 获取产品详情
      * 业务逻辑：如果产品不存在，抛出BusinessException
      * 将null判断从Controller层移到Service层
+     * 缓存未命中时经微批量加载器查询，同一窗口内的并发查询共用一条IN查询
      * 
      * @param id 产品ID
      * @return 产品对象
      */
     @Override
+    @Cacheable(value = "products", key = "T(com.gzist.project.service.impl.ProductServiceImpl).detailCacheKey(#id)")
     public Product getProductDetail(Long id) {
         log.info("查询产品详情 - id: {}", id);
-        Product product = this.getById(id);
+        // 并发的详情查询合并为一条IN查询
+        Product product = productLoader != null ? productLoader.load(id) : productMapper.selectById(id);
         if (product == null) {
             throw new BusinessException("产品不存在");
         }
         return product;
     }
 
+    /**
+     * 批量获取产品详情
+     * 与单个详情共用缓存项：一次MGET读取缓存，未命中的一次IN查询读取，再用一个管道写回缓存，
+     * N个产品的详情由N次往返减少为最多两次（缓存、数据库各一次，写回不等待逐条响应）
+     *
+     * @param ids 产品ID
+     * @return 与请求ID顺序一致的详情项
+     */
+    @Override
+    public ProductDetailBatchResponse getProductDetails(List<Long> ids) {
+        if (ids == null || ids.isEmpty() || ids.size() > productBulkConfig.getDetailMaxIds()) {
+            throw new BusinessException(400, "产品ID数量必须在1到" + productBulkConfig.getDetailMaxIds() + "之间");
+        }
+        if (ids.contains(null)) {
+            throw new BusinessException(400, "产品ID不能为空");
+        }
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        List<String> keys = distinctIds.stream().map(ProductServiceImpl::detailCacheKey).collect(Collectors.toList());
+        Cache cache = cacheManager.getCache("products");
+        Map<String, Product> cached = cache == null
+                ? Collections.emptyMap() : cacheBatchOperations.getAll(cache, keys, Product.class);
+
+        Map<Long, Product> products = new HashMap<>(distinctIds.size() * 2);
+        List<Long> misses = new ArrayList<>();
+        for (Long id : distinctIds) {
+            Product product = cached.get(detailCacheKey(id));
+            if (product != null) {
+                products.put(id, product);
+            } else {
+                misses.add(id);
+            }
+        }
+        ProductDetailBatchResponse response = new ProductDetailBatchResponse();
+        response.setCacheHits(products.size());
+        if (!misses.isEmpty()) {
+            log.info("【缓存未命中】批量查询产品详情 - 请求: {}, 未命中: {}", distinctIds.size(), misses.size());
+            Map<String, Product> backfill = new HashMap<>(misses.size() * 2);
+            for (Product product : productMapper.selectBatchIds(misses)) {
+                products.put(product.getId(), product);
+                backfill.put(detailCacheKey(product.getId()), product);
+            }
+            response.setLoaded(backfill.size());
+            if (cache != null) {
+                cacheBatchOperations.putAll(cache, backfill);
+            }
+        }
+
+        for (Long id : ids) {
+            ProductDetailBatchResponse.Item item = new ProductDetailBatchResponse.Item();
+            item.setId(id);
+            item.setProduct(products.get(id));
+            item.setFound(item.getProduct() != null);
+            response.getItems().add(item);
+        }
+        response.setNotFound(distinctIds.size() - products.size());
+        return response;
+    }
+
+    /**
+     * 产品详情缓存key（单个详情与批量详情共用）
+     */
+    public static String detailCacheKey(Long id) {
+        return "detail:" + id;
+    }
+
     /**
      * 获取产品用于编辑
      * 业务逻辑：如果产品不存在，返回null（由Controller处理重定向）
@@ -275,5 +898,37 @@ public class ProductServiceImpl extends ServiceImpl<ProductMapper, Product> impl
         log.info("查询产品用于编辑 - id: {}", id);
         return this.getById(id);
     }
-}
 
+    /**
+     * 通过校验的导入行
+     */
+    private static class ImportRow {
+
+        private final long line;
+
+        private final Product product;
+
+        ImportRow(long line, Product product) {
+            this.line = line;
+            this.product = product;
+        }
+    }
+
+    /**
+     * 通过校验的批量更新修改项
+     */
+    private static class UpdateRow {
+
+        private final int index;
+
+        private final String key;
+
+        private final ProductBatchUpdateItem item;
+
+        UpdateRow(int index, String key, ProductBatchUpdateItem item) {
+            this.index = index;
+            this.key = key;
+            this.item = item;
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.gzist.project.service.impl;
+
+import com.gzist.project.config.ProductSnapshotConfig;
+import com.gzist.project.dto.ProductChangeEvent;
+import com.gzist.project.mapper.ProductMapper;
+import com.gzist.project.service.IProductSnapshotService;
+import com.gzist.project.utils.ProductColumnSnapshot;
+import com.gzist.project.vo.request.ProductQueryRequest;
+import com.gzist.project.vo.response.ProductSnapshotStatusResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 产品内存快照Service实现类
+ *
+ * 产品写入后发布 {@link ProductChangeEvent}，这里只记录变更的产品ID，由定时任务从数据库重新读取这些产品并生成新快照；
+ * 每个事件先登记ID再递增变更版本，刷新时先读版本再取走ID，因此刷新完成后该版本之前的变更都已应用。
+ * 查询只在快照已追上全部变更时使用快照，否则回退到数据库，快照不会返回比数据库旧的结果。
+ *
+ * 其他实例的写入和直接修改数据库不会产生事件，由定期全量重建修正。
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+@Slf4j
+@Service
+public class ProductSnapshotServiceImpl implements IProductSnapshotService {
+
+    @Autowired
+    private ProductMapper productMapper;
+
+    @Autowired
+    private ProductSnapshotConfig productSnapshotConfig;
+
+    private volatile ProductColumnSnapshot snapshot;
+
+    private volatile long builtAt;
+
+    private volatile long buildMillis;
+
+    /**
+     * 待应用的变更产品ID
+     */
+    private final Set<Long> pendingIds = ConcurrentHashMap.newKeySet();
+
+    private final AtomicBoolean rebuildRequested = new AtomicBoolean();
+
+    /**
+     * 已登记的变更事件数
+     */
+    private final AtomicLong changeVersion = new AtomicLong();
+
+    /**
+     * 快照已应用到的变更版本
+     */
+    private volatile long appliedVersion;
+
+    /**
+     * 最早一个未应用变更的登记时间，0表示没有
+     */
+    private final AtomicLong oldestPendingAt = new AtomicLong();
+
+    private final AtomicLong servedQueries = new AtomicLong();
+
+    private final AtomicLong fallbackQueries = new AtomicLong();
+
+    @Override
+    public ProductColumnSnapshot.QueryResult query(ProductQueryRequest queryRequest) {
+        ProductColumnSnapshot current = usableSnapshot(queryRequest);
+        if (current == null) {
+            return null;
+        }
+        long offset = (long) (queryRequest.getCurrent() - 1) * queryRequest.getSize();
+        return current.query(textOrNull(queryRequest.getProductName()), textOrNull(queryRequest.getCategory()),
+                queryRequest.getStatus(), queryRequest.getMinPrice(), queryRequest.getMaxPrice(),
+                offset, queryRequest.getSize());
+    }
+
+    @Override
+    public ProductColumnSnapshot.Facets facets(ProductQueryRequest queryRequest, List<BigDecimal> bandBounds) {
+        ProductColumnSnapshot current = usableSnapshot(queryRequest);
+        if (current == null) {
+            return null;
+        }
+        return current.facets(textOrNull(queryRequest.getProductName()), textOrNull(queryRequest.getCategory()),
+                queryRequest.getStatus(), queryRequest.getMinPrice(), queryRequest.getMaxPrice(), bandBounds);
+    }
+
+    /**
+     * 快照已启用、已构建且已追上全部变更时返回快照，否则返回null（计入回退次数）
+     */
+    private ProductColumnSnapshot usableSnapshot(ProductQueryRequest queryRequest) {
+        ProductColumnSnapshot current = snapshot;
+        if (current == null || !Boolean.TRUE.equals(productSnapshotConfig.getEnabled())
+                || appliedVersion != changeVersion.get()) {
+            fallbackQueries.incrementAndGet();
+            return null;
+        }
+        String productName = queryRequest.getProductName();
+        // 关键字中的%和_在LIKE中是通配符，交给数据库处理
+        if (StringUtils.hasText(productName) && (productName.indexOf('%') >= 0 || productName.indexOf('_') >= 0)) {
+            fallbackQueries.incrementAndGet();
+            return null;
+        }
+        servedQueries.incrementAndGet();
+        return current;
+    }
+
+    private static String textOrNull(String value) {
+        return StringUtils.hasText(value) ? value : null;
+    }
+
+    /**
+     * 登记产品变更（写入线程中执行，只记录ID）
+     */
+    @EventListener
+    public void onProductChange(ProductChangeEvent event) {
+        if (!Boolean.TRUE.equals(productSnapshotConfig.getEnabled())) {
+            return;
+        }
+        if (event.isFullRefresh()) {
+            rebuildRequested.set(true);
+        } else {
+            pendingIds.addAll(event.getProductIds());
+        }
+        oldestPendingAt.compareAndSet(0, System.currentTimeMillis());
+        changeVersion.incrementAndGet();
+    }
+
+    @Override
+    public void requestRebuild() {
+        rebuildRequested.set(true);
+        oldestPendingAt.compareAndSet(0, System.currentTimeMillis());
+        changeVersion.incrementAndGet();
+    }
+
+    /**
+     * 应用已登记的变更：首次、收到全量变更或到达重建间隔时全量重建，否则只重新读取变更的产品
+     * 读取失败时保留变更，快照保持未追上状态（查询回退到数据库），下次重试
+     */
+    @Scheduled(fixedDelayString = "${product.snapshot.refresh-interval-millis:500}")
+    public synchronized void refresh() {
+        if (!Boolean.TRUE.equals(productSnapshotConfig.getEnabled())) {
+            return;
+        }
+        long version = changeVersion.get();
+        boolean rebuild = rebuildRequested.getAndSet(false) || snapshot == null
+                || System.currentTimeMillis() - builtAt >= productSnapshotConfig.getRebuildIntervalMillis();
+        // 逐个取走，取走之后再登记的同一ID留到下次
+        List<Long> ids = new ArrayList<>(pendingIds);
+        pendingIds.removeAll(ids);
+        if (!rebuild && ids.isEmpty()) {
+            markApplied(version);
+            return;
+        }
+
+        try {
+            if (rebuild) {
+                rebuildSnapshot();
+            } else {
+                snapshot = snapshot.withChanges(new HashSet<>(ids), productMapper.selectSnapshotColumns(ids));
+            }
+        } catch (DataAccessException e) {
+            if (rebuild) {
+                rebuildRequested.set(true);
+            } else {
+                pendingIds.addAll(ids);
+            }
+            log.warn("产品快照刷新失败，查询回退到数据库 - 原因: {}", e.getMessage());
+            return;
+        }
+        markApplied(version);
+    }
+
+    private void rebuildSnapshot() {
+        long start = System.currentTimeMillis();
+        ProductColumnSnapshot.Builder builder = new ProductColumnSnapshot.Builder(
+                snapshot == null ? 1024 : snapshot.size());
+        productMapper.scanSnapshotColumns(context -> builder.add(context.getResultObject()));
+        ProductColumnSnapshot rebuilt = builder.build();
+        snapshot = rebuilt;
+        builtAt = start;
+        buildMillis = System.currentTimeMillis() - start;
+        long indexBytes = rebuilt.indexStats().stream().mapToLong(ProductColumnSnapshot.IndexStats::getBytes).sum();
+        log.info("产品快照全量构建完成 - 行数: {}, 分类: {}, 列数据: {}KB, 位图索引: {}KB, 耗时: {}ms", rebuilt.size(),
+                rebuilt.categoryCount(), rebuilt.estimatedBytes() / 1024, indexBytes / 1024, buildMillis);
+    }
+
+    private void markApplied(long version) {
+        appliedVersion = version;
+        if (changeVersion.get() == version) {
+            oldestPendingAt.set(0);
+        }
+    }
+
+    @Override
+    public ProductSnapshotStatusResponse getStatus() {
+        ProductColumnSnapshot current = snapshot;
+        long pending = changeVersion.get() - appliedVersion;
+        long oldest = oldestPendingAt.get();
+        ProductSnapshotStatusResponse status = new ProductSnapshotStatusResponse();
+        status.setEnabled(Boolean.TRUE.equals(productSnapshotConfig.getEnabled()));
+        status.setWarm(status.isEnabled() && current != null && pending == 0);
+        status.setPendingChanges(pending);
+        status.setStalenessMillis(pending == 0 || oldest == 0 ? 0 : System.currentTimeMillis() - oldest);
+        status.setServedQueries(servedQueries.get());
+        status.setFallbackQueries(fallbackQueries.get());
+        if (current != null) {
+            status.setRows(current.size());
+            status.setCategories(current.categoryCount());
+            status.setEstimatedBytes(current.estimatedBytes());
+            for (ProductColumnSnapshot.IndexStats stats : current.indexStats()) {
+                ProductSnapshotStatusResponse.IndexUsage usage = new ProductSnapshotStatusResponse.IndexUsage();
+                usage.setName(stats.getName());
+                usage.setBitmaps(stats.getBitmaps());
+                usage.setDenseBitmaps(stats.getDenseBitmaps());
+                usage.setBytes(stats.getBytes());
+                status.getIndexes().add(usage);
+            }
+            status.setBuiltAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(builtAt), ZoneId.systemDefault()));
+            status.setBuildMillis(buildMillis);
+        }
+        return status;
+    }
+}
@@ -0,0 +1,235 @@
+package com.gzist.project.service.impl;
+
+import com.gzist.project.config.ProductSuggestConfig;
+import com.gzist.project.dto.ProductChangeEvent;
+import com.gzist.project.entity.Product;
+import com.gzist.project.exception.BusinessException;
+import com.gzist.project.mapper.ProductMapper;
+import com.gzist.project.service.IProductSuggestService;
+import com.gzist.project.utils.CompletionTrie;
+import com.gzist.project.vo.response.ProductSuggestResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 产品名称/编码前缀补全Service实现类
+ *
+ * 名称和编码各一棵字典树，键为去掉首尾空格后的小写文本；名称的热度为同名产品数，编码唯一。
+ * 产品写入后发布 {@link ProductChangeEvent}，这里只记录变更的产品ID，由定时任务按ID重新读取并修补字典树，
+ * 定期全量重建修正其他实例的写入和直接修改数据库造成的偏差；补全请求只读内存，不访问MySQL和Redis。
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+@Slf4j
+@Service
+public class ProductSuggestServiceImpl implements IProductSuggestService {
+
+    @Autowired
+    private ProductMapper productMapper;
+
+    @Autowired
+    private ProductSuggestConfig productSuggestConfig;
+
+    /**
+     * 字典树读多写少：补全持读锁，修补和替换持写锁
+     */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private CompletionTrie<String> nameTrie;
+
+    private CompletionTrie<Long> codeTrie;
+
+    /**
+     * 已收录的产品（ID -> 名称和编码），修补时据此移除旧键
+     */
+    private Map<Long, Product> indexed;
+
+    private volatile long builtAt;
+
+    /**
+     * 待应用的变更产品ID
+     */
+    private final Set<Long> pendingIds = ConcurrentHashMap.newKeySet();
+
+    private final AtomicBoolean rebuildRequested = new AtomicBoolean();
+
+    @Override
+    public ProductSuggestResponse suggest(String prefix, int limit) {
+        if (limit < 1 || limit > productSuggestConfig.getMaxLimit()) {
+            throw new BusinessException(400, "返回数必须在1到" + productSuggestConfig.getMaxLimit() + "之间");
+        }
+        ProductSuggestResponse response = new ProductSuggestResponse();
+        String key = normalize(prefix);
+        if (key == null || !Boolean.TRUE.equals(productSuggestConfig.getEnabled())) {
+            return response;
+        }
+        lock.readLock().lock();
+        try {
+            if (nameTrie == null) {
+                return response;
+            }
+            for (CompletionTrie.Completion<String> completion : nameTrie.complete(key, limit)) {
+                ProductSuggestResponse.Suggestion suggestion = new ProductSuggestResponse.Suggestion();
+                suggestion.setText(completion.getValue());
+                suggestion.setProductName(completion.getValue());
+                suggestion.setCount(completion.getCount());
+                response.getNames().add(suggestion);
+            }
+            for (CompletionTrie.Completion<Long> completion : codeTrie.complete(key, limit)) {
+                Product product = indexed.get(completion.getValue());
+                ProductSuggestResponse.Suggestion suggestion = new ProductSuggestResponse.Suggestion();
+                suggestion.setText(product.getProductCode());
+                suggestion.setProductName(product.getProductName());
+                suggestion.setProductId(product.getId());
+                suggestion.setCount(completion.getCount());
+                response.getCodes().add(suggestion);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return response;
+    }
+
+    /**
+     * 登记产品变更（写入线程中执行，只记录ID）
+     */
+    @EventListener
+    public void onProductChange(ProductChangeEvent event) {
+        if (!Boolean.TRUE.equals(productSuggestConfig.getEnabled())) {
+            return;
+        }
+        if (event.isFullRefresh()) {
+            rebuildRequested.set(true);
+        } else {
+            pendingIds.addAll(event.getProductIds());
+        }
+    }
+
+    /**
+     * 应用已登记的变更：首次、收到全量变更或到达重建间隔时全量重建，否则按ID重新读取变更的产品并修补字典树
+     * 读取失败时保留变更，下次重试（期间补全结果可能缺少最新写入）
+     */
+    @Scheduled(fixedDelayString = "${product.suggest.refresh-interval-millis:500}")
+    public synchronized void refresh() {
+        if (!Boolean.TRUE.equals(productSuggestConfig.getEnabled())) {
+            return;
+        }
+        boolean rebuild = rebuildRequested.getAndSet(false) || builtAt == 0
+                || System.currentTimeMillis() - builtAt >= productSuggestConfig.getRebuildIntervalMillis();
+        // 逐个取走，取走之后再登记的同一ID留到下次
+        List<Long> ids = new ArrayList<>(pendingIds);
+        pendingIds.removeAll(ids);
+        if (!rebuild && ids.isEmpty()) {
+            return;
+        }
+
+        try {
+            if (rebuild) {
+                rebuild();
+            } else {
+                patch(ids, productMapper.selectSuggestColumns(ids));
+            }
+        } catch (DataAccessException e) {
+            if (rebuild) {
+                rebuildRequested.set(true);
+            } else {
+                pendingIds.addAll(ids);
+            }
+            log.warn("产品补全字典树刷新失败 - 原因: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 全量重建：在锁外构建新字典树，构建完成后替换
+     */
+    private void rebuild() {
+        long start = System.currentTimeMillis();
+        CompletionTrie<String> names = new CompletionTrie<>();
+        CompletionTrie<Long> codes = new CompletionTrie<>();
+        Map<Long, Product> products = new HashMap<>(indexed == null ? 1024 : indexed.size() * 2);
+        productMapper.scanSuggestColumns(context -> {
+            Product product = context.getResultObject();
+            products.put(product.getId(), product);
+            addKeys(names, codes, product);
+        });
+        lock.writeLock().lock();
+        try {
+            nameTrie = names;
+            codeTrie = codes;
+            indexed = products;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        builtAt = start;
+        log.info("产品补全字典树全量构建完成 - 产品: {}, 名称: {}, 编码: {}, 耗时: {}ms", products.size(),
+                names.size(), codes.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 修补：先移除变更产品的旧键，再添加仍存在的产品的新键
+     */
+    private void patch(List<Long> ids, List<Product> current) {
+        lock.writeLock().lock();
+        try {
+            for (Long id : ids) {
+                Product previous = indexed.remove(id);
+                if (previous != null) {
+                    removeKeys(previous);
+                }
+            }
+            for (Product product : current) {
+                indexed.put(product.getId(), product);
+                addKeys(nameTrie, codeTrie, product);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.debug("产品补全字典树已修补 - 变更: {}, 仍存在: {}", ids.size(), current.size());
+    }
+
+    private static void addKeys(CompletionTrie<String> names, CompletionTrie<Long> codes, Product product) {
+        String name = normalize(product.getProductName());
+        if (name != null) {
+            names.add(name, product.getProductName().trim());
+        }
+        String code = normalize(product.getProductCode());
+        if (code != null) {
+            codes.add(code, product.getId());
+        }
+    }
+
+    private void removeKeys(Product product) {
+        String name = normalize(product.getProductName());
+        if (name != null) {
+            nameTrie.remove(name);
+        }
+        String code = normalize(product.getProductCode());
+        if (code != null) {
+            codeTrie.remove(code);
+        }
+    }
+
+    /**
+     * 规范化：去掉首尾空格并转小写，空文本返回null
+     */
+    private static String normalize(String text) {
+        return StringUtils.hasText(text) ? text.trim().toLowerCase(Locale.ROOT) : null;
+    }
+}
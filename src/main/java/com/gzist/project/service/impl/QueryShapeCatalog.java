@@ -0,0 +1,134 @@
+package com.gzist.project.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.AbstractWrapper;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.gzist.project.entity.Product;
+import com.gzist.project.vo.request.ProductQueryRequest;
+import com.gzist.project.vo.request.ProductView;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 列表查询形态目录
+ * 用业务代码中真实的条件构造方法生成每种筛选组合的SQL（分页查询和COUNT各一条），供索引分析使用，
+ * 条件构造逻辑变化时目录自动跟随
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+final class QueryShapeCatalog {
+
+    /**
+     * 分页查询分析时使用的每页条数
+     */
+    static final int PAGE_SIZE = 10;
+
+    private static final Pattern PARAMETER = Pattern.compile("#\\{ew\\.paramNameValuePairs\\.(\\w+)}");
+
+    private static final Pattern ORDER_BY = Pattern.compile("\\s*ORDER BY .*$");
+
+    private QueryShapeCatalog() {
+    }
+
+    /**
+     * 全部查询形态（产品列表和用户列表）
+     */
+    static List<QueryShape> all() {
+        List<QueryShape> shapes = new ArrayList<>();
+        shapes.add(product("product:recent", new ProductQueryRequest()));
+        shapes.add(product("product:category", productQuery("电子产品", null, null, null, null)));
+        shapes.add(product("product:status", productQuery(null, 1, null, null, null)));
+        shapes.add(product("product:category+status", productQuery("电子产品", 1, null, null, null)));
+        shapes.add(product("product:price", productQuery(null, null, new BigDecimal("100"), new BigDecimal("500"), null)));
+        shapes.add(product("product:status+price", productQuery(null, 1, new BigDecimal("100"), new BigDecimal("500"), null)));
+        shapes.add(product("product:category+price", productQuery("电子产品", null, new BigDecimal("100"), new BigDecimal("500"), null)));
+        shapes.add(product("product:name", productQuery(null, null, null, null, "手机")));
+        shapes.add(user("user:recent", null, null));
+        shapes.add(user("user:status", null, 1));
+        shapes.add(user("user:username", "admin", null));
+        return shapes;
+    }
+
+    private static QueryShape product(String name, ProductQueryRequest queryRequest) {
+        LambdaQueryWrapper<Product> wrapper = ProductView.CARD.select(ProductServiceImpl.buildQueryWrapper(queryRequest));
+        return new QueryShape(name, "products", wrapper.getSqlSelect(), wrapper);
+    }
+
+    private static QueryShape user(String name, String username, Integer status) {
+        return new QueryShape(name, "users", null, UserServiceImpl.buildUserQueryWrapper(username, null, status));
+    }
+
+    private static ProductQueryRequest productQuery(String category, Integer status, BigDecimal minPrice,
+                                                    BigDecimal maxPrice, String productName) {
+        ProductQueryRequest queryRequest = new ProductQueryRequest();
+        queryRequest.setCategory(category);
+        queryRequest.setStatus(status);
+        queryRequest.setMinPrice(minPrice);
+        queryRequest.setMaxPrice(maxPrice);
+        queryRequest.setProductName(productName);
+        return queryRequest;
+    }
+
+    /**
+     * 一种查询形态：同一组筛选条件下的分页查询和COUNT查询
+     */
+    static final class QueryShape {
+
+        private final String name;
+
+        private final String pageSql;
+
+        private final String countSql;
+
+        private final List<Object> args;
+
+        QueryShape(String name, String table, String sqlSelect, AbstractWrapper<?, ?, ?> wrapper) {
+            this.name = name;
+            List<Object> parameters = new ArrayList<>();
+            String segment = bind(wrapper.getCustomSqlSegment(), wrapper.getParamNameValuePairs(), parameters);
+            String select = sqlSelect == null ? "*" : sqlSelect;
+            this.pageSql = ("SELECT " + select + " FROM " + table + " " + segment).trim() + " LIMIT " + PAGE_SIZE;
+            this.countSql = ("SELECT COUNT(*) FROM " + table + " " + ORDER_BY.matcher(segment).replaceFirst("")).trim();
+            this.args = Collections.unmodifiableList(parameters);
+        }
+
+        String getName() {
+            return name;
+        }
+
+        String getPageSql() {
+            return pageSql;
+        }
+
+        String getCountSql() {
+            return countSql;
+        }
+
+        /**
+         * 绑定参数（分页查询和COUNT查询相同）
+         */
+        List<Object> getArgs() {
+            return args;
+        }
+
+        /**
+         * 将MyBatis参数占位符替换为JDBC占位符，并按出现顺序收集参数值
+         */
+        private static String bind(String segment, Map<String, Object> values, List<Object> parameters) {
+            Matcher matcher = PARAMETER.matcher(segment);
+            StringBuffer sql = new StringBuffer();
+            while (matcher.find()) {
+                parameters.add(values.get(matcher.group(1)));
+                matcher.appendReplacement(sql, "?");
+            }
+            matcher.appendTail(sql);
+            return sql.toString();
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package com.gzist.project.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.gzist.project.config.FileUploadConfig;
+import com.gzist.project.config.UploadGcConfig;
+import com.gzist.project.exception.BusinessException;
+import com.gzist.project.mapper.ProductMapper;
+import com.gzist.project.service.IUploadGcService;
+import com.gzist.project.storage.ObjectStorage;
+import com.gzist.project.storage.StoredObject;
+import com.gzist.project.utils.JsonUtils;
+import com.gzist.project.vo.response.UploadGcReport;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 上传文件垃圾回收Service实现类
+ *
+ * 回收流程：
+ * 1. 流式扫描products.image_url，构建被引用URL的内存集合
+ * 2. 从上次游标（最后检查的对象键）处按键的顺序流式遍历存储中的产品图片对象
+ *    （本地目录或S3存储桶，见ObjectStorage.list），不一次性加载全部键
+ * 3. 修改时间在宽限期内的对象跳过（上传中或尚未保存到产品）
+ * 4. 孤儿对象按批删除，删除前再次查询数据库确认未被引用，每批之间暂停以限制IO压力
+ * 5. 检查对象数达到单次上限时保存游标，下次运行继续；整轮完成后游标清空
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+@Slf4j
+@Service
+public class UploadGcServiceImpl implements IUploadGcService {
+
+    private static final String KEY_PREFIX = "product-system:upload-gc:";
+
+    /**
+     * 执行锁有效期，每批处理后续期
+     */
+    private static final Duration LOCK_TTL = Duration.ofMinutes(30);
+
+    @Autowired
+    private FileUploadConfig fileUploadConfig;
+
+    @Autowired
+    private UploadGcConfig uploadGcConfig;
+
+    @Autowired
+    private ProductMapper productMapper;
+
+    @Autowired
+    private ObjectStorage objectStorage;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    @Qualifier("bulkJobExecutor")
+    private ThreadPoolTaskExecutor bulkJobExecutor;
+
+    /**
+     * 定时回收（在后台任务线程池中执行，不占用调度线程）
+     */
+    @Scheduled(cron = "${file.gc.cron:0 30 3 * * ?}")
+    public void scheduledGc() {
+        if (uploadGcConfig.getEnabled()) {
+            submitGc(uploadGcConfig.getDryRun());
+        }
+    }
+
+    @Override
+    public void submitGc(boolean dryRun) {
+        try {
+            bulkJobExecutor.execute(() -> runGc(dryRun));
+        } catch (TaskRejectedException e) {
+            throw new BusinessException(503, "后台任务繁忙，请稍后重试");
+        }
+    }
+
+    @Override
+    public UploadGcReport runGc(boolean dryRun) {
+        String lockKey = KEY_PREFIX + "lock";
+        Boolean locked = stringRedisTemplate.opsForValue().setIfAbsent(lockKey, "1", LOCK_TTL);
+        if (!Boolean.TRUE.equals(locked)) {
+            log.info("上传文件回收正在其他线程或实例中执行，跳过本次运行");
+            return null;
+        }
+
+        String cursorKey = cursorKey(dryRun);
+        GcRun run = new GcRun(dryRun, lockKey);
+        UploadGcReport report = run.report;
+        report.setStartCursor(stringRedisTemplate.opsForValue().get(cursorKey));
+        try {
+            // 1. 流式构建被引用URL集合
+            productMapper.scanImageUrls(context -> run.referenced.add(context.getResultObject()));
+            report.setReferencedUrls((long) run.referenced.size());
+
+            // 2. 从游标处增量遍历
+            run.completed = true;
+            objectStorage.list(fileUploadConfig.getProductImagePath(), report.getStartCursor(), run::inspect);
+            run.flush();
+            boolean completed = run.completed;
+
+            report.setPassCompleted(completed);
+            report.setEndCursor(completed ? null : run.cursor);
+            if (completed) {
+                stringRedisTemplate.delete(cursorKey);
+            } else {
+                stringRedisTemplate.opsForValue().set(cursorKey, run.cursor);
+            }
+            log.info("上传文件回收完成 - dryRun: {}, 检查文件: {}, 孤儿文件: {}, 删除: {}, 整轮完成: {}",
+                    dryRun, report.getScannedFiles(), report.getOrphanFiles(), report.getDeletedFiles(), completed);
+        } catch (Exception e) {
+            log.error("上传文件回收失败", e);
+            report.setMessage(e.getMessage());
+            // 已处理对象的进度保留，下次从此处继续
+            if (run.cursor != null) {
+                stringRedisTemplate.opsForValue().set(cursorKey, run.cursor);
+            }
+        } finally {
+            report.setFinishedTime(LocalDateTime.now());
+            saveReport(report);
+            stringRedisTemplate.delete(lockKey);
+        }
+        return report;
+    }
+
+    @Override
+    public UploadGcReport getLastReport(boolean dryRun) {
+        String json = stringRedisTemplate.opsForValue().get(reportKey(dryRun));
+        if (json == null) {
+            return null;
+        }
+        try {
+            return JsonUtils.fromJson(json, UploadGcReport.class);
+        } catch (JsonProcessingException e) {
+            throw new BusinessException("回收报告解析失败", e);
+        }
+    }
+
+    private void saveReport(UploadGcReport report) {
+        try {
+            stringRedisTemplate.opsForValue().set(reportKey(report.getDryRun()), JsonUtils.toJson(report));
+        } catch (JsonProcessingException e) {
+            log.warn("回收报告序列化失败", e);
+        }
+    }
+
+    /**
+     * 演练与实际回收使用各自的游标，演练不影响实际回收的进度
+     */
+    private static String cursorKey(boolean dryRun) {
+        return KEY_PREFIX + (dryRun ? "dry-run:" : "") + "cursor";
+    }
+
+    private static String reportKey(boolean dryRun) {
+        return KEY_PREFIX + (dryRun ? "dry-run:" : "") + "report";
+    }
+
+    /**
+     * 单次回收运行的状态
+     */
+    private class GcRun {
+
+        private final boolean dryRun;
+
+        private final String lockKey;
+
+        private final UploadGcReport report = new UploadGcReport();
+
+        private final Set<String> referenced = new HashSet<>();
+
+        private final long graceCutoff;
+
+        /**
+         * 待删除的孤儿对象（URL -> 对象键）
+         */
+        private final Map<String, String> pending = new LinkedHashMap<>();
+
+        /**
+         * 最后一个检查过的对象键
+         */
+        private String cursor;
+
+        /**
+         * 是否遍历完成（false表示检查对象数达到上限而中止）
+         */
+        private boolean completed;
+
+        GcRun(boolean dryRun, String lockKey) {
+            this.dryRun = dryRun;
+            this.lockKey = lockKey;
+            this.graceCutoff = System.currentTimeMillis() - Duration.ofHours(uploadGcConfig.getGracePeriodHours()).toMillis();
+            report.setDryRun(dryRun);
+            report.setStartedTime(LocalDateTime.now());
+        }
+
+        boolean inspect(StoredObject object) {
+            report.setScannedFiles(report.getScannedFiles() + 1);
+            cursor = object.getKey();
+            if (object.getLastModified() > graceCutoff) {
+                report.setRecentFiles(report.getRecentFiles() + 1);
+            } else {
+                String url = "/uploads/" + object.getKey();
+                if (!referenced.contains(url)) {
+                    pending.put(url, object.getKey());
+                    if (pending.size() >= uploadGcConfig.getDeleteBatchSize()) {
+                        flush();
+                    }
+                }
+            }
+            if (report.getScannedFiles() >= uploadGcConfig.getMaxFilesPerRun()) {
+                completed = false;
+                return false;
+            }
+            return true;
+        }
+
+        /**
+         * 处理一批孤儿对象：再次确认未被引用（扫描后可能有产品引用了已存在的文件）后删除
+         */
+        void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            for (String url : productMapper.selectReferencedImageUrls(pending.keySet())) {
+                pending.remove(url);
+            }
+            for (Map.Entry<String, String> entry : pending.entrySet()) {
+                String key = entry.getValue();
+                try {
+                    StoredObject object = objectStorage.stat(key);
+                    // 扫描后被重新上传（去重命中会刷新修改时间）的对象不删除
+                    if (object == null || object.getLastModified() > graceCutoff) {
+                        continue;
+                    }
+                    report.setOrphanFiles(report.getOrphanFiles() + 1);
+                    report.setOrphanBytes(report.getOrphanBytes() + object.getSize());
+                    if (report.getSampleOrphans().size() < uploadGcConfig.getMaxReportedFiles()) {
+                        report.getSampleOrphans().add(entry.getKey());
+                    }
+                    if (!dryRun && objectStorage.delete(key)) {
+                        report.setDeletedFiles(report.getDeletedFiles() + 1);
+                    }
+                } catch (IOException e) {
+                    log.warn("孤儿对象删除失败: {}", key, e);
+                }
+            }
+            pending.clear();
+            stringRedisTemplate.expire(lockKey, LOCK_TTL);
+            if (!dryRun) {
+                pause();
+            }
+        }
+
+        private void pause() {
+            try {
+                Thread.sleep(uploadGcConfig.getBatchPauseMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new BusinessException("上传文件回收被中断");
+            }
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package com.gzist.project.service.impl;
+
+import cn.hutool.core.collection.ListUtil;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.gzist.project.config.UserBulkConfig;
+import com.gzist.project.entity.Product;
+import com.gzist.project.exception.BusinessException;
+import com.gzist.project.mapper.ProductMapper;
+import com.gzist.project.service.IUserBulkJobService;
+import com.gzist.project.utils.JsonUtils;
+import com.gzist.project.vo.response.BulkJobResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * 用户批量后台任务Service实现类
+ * 任务状态保存在Redis中：每批UPDATE后更新进度，应用重启或任务失败后可从最后完成的分块续跑；
+ * 迁移SQL以原创建人为条件，重复执行同一批次也不会产生副作用；
+ * 产品详情缓存中包含创建人，本次执行更新过产品时（完成或失败）清除一次产品缓存
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+@Slf4j
+@Service
+public class UserBulkJobServiceImpl implements IUserBulkJobService {
+
+    private static final String JOB_KEY_PREFIX = "product-system:user-job:";
+
+    private static final String ACTIVE_JOBS_KEY = JOB_KEY_PREFIX + "active";
+
+    private static final String JOB_TYPE_PRODUCT_REASSIGN = "PRODUCT_REASSIGN";
+
+    /**
+     * 执行锁有效期，每批更新后续期；持有者宕机后锁自动过期，任务可被其他实例恢复
+     */
+    private static final Duration LOCK_TTL = Duration.ofMinutes(5);
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private ProductMapper productMapper;
+
+    @Autowired
+    private UserBulkConfig userBulkConfig;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    @Qualifier("bulkJobExecutor")
+    private ThreadPoolTaskExecutor bulkJobExecutor;
+
+    @Override
+    public BulkJobResponse submitProductReassignJob(List<String> usernames, String targetUsername) {
+        BulkJobResponse job = new BulkJobResponse();
+        job.setJobId(UUID.randomUUID().toString().replace("-", ""));
+        job.setJobType(JOB_TYPE_PRODUCT_REASSIGN);
+        job.setStatus(BulkJobResponse.STATUS_PENDING);
+        job.setTargetUsername(targetUsername);
+        job.setUserCount(usernames.size());
+        job.setProcessedRows(0L);
+        job.setCompletedChunks(0);
+        job.setCreatedTime(LocalDateTime.now());
+
+        stringRedisTemplate.opsForValue().set(usernamesKey(job.getJobId()), toJson(usernames), jobTtl());
+        saveJob(job);
+        stringRedisTemplate.opsForSet().add(ACTIVE_JOBS_KEY, job.getJobId());
+        log.info("提交产品归属迁移任务 - jobId: {}, 用户数: {}, 目标用户: {}",
+                job.getJobId(), usernames.size(), targetUsername);
+
+        dispatch(job.getJobId());
+        return job;
+    }
+
+    @Override
+    public BulkJobResponse getJob(String jobId) {
+        BulkJobResponse job = loadJob(jobId);
+        if (job == null) {
+            throw new BusinessException("任务不存在或已过期");
+        }
+        return job;
+    }
+
+    @Override
+    public BulkJobResponse resumeJob(String jobId) {
+        BulkJobResponse job = getJob(jobId);
+        if (!BulkJobResponse.STATUS_COMPLETED.equals(job.getStatus())) {
+            dispatch(jobId);
+        }
+        return job;
+    }
+
+    /**
+     * 应用启动后恢复未完成的任务
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeActiveJobs() {
+        try {
+            Set<String> jobIds = stringRedisTemplate.opsForSet().members(ACTIVE_JOBS_KEY);
+            if (jobIds == null || jobIds.isEmpty()) {
+                return;
+            }
+            log.info("恢复未完成的用户批量任务 - 数量: {}", jobIds.size());
+            for (String jobId : jobIds) {
+                if (loadJob(jobId) == null) {
+                    stringRedisTemplate.opsForSet().remove(ACTIVE_JOBS_KEY, jobId);
+                    continue;
+                }
+                dispatch(jobId);
+            }
+        } catch (Exception e) {
+            log.warn("恢复用户批量任务失败: {}", e.getMessage());
+        }
+    }
+
+    private void dispatch(String jobId) {
+        try {
+            bulkJobExecutor.execute(() -> runJob(jobId));
+        } catch (TaskRejectedException e) {
+            log.warn("后台任务队列已满，任务保持待执行状态 - jobId: {}", jobId);
+            throw new BusinessException(503, "后台任务繁忙，请稍后通过任务恢复接口重试");
+        }
+    }
+
+    /**
+     * 执行产品归属迁移
+     * 用户名按operationChunkSize分块，每块循环执行带LIMIT的UPDATE（每条语句单独提交），
+     * 单条语句锁定的行数受reassignBatchSize限制
+     */
+    private void runJob(String jobId) {
+        String lockKey = lockKey(jobId);
+        Boolean locked = stringRedisTemplate.opsForValue().setIfAbsent(lockKey, "1", LOCK_TTL);
+        if (!Boolean.TRUE.equals(locked)) {
+            log.info("任务正在其他线程或实例中执行 - jobId: {}", jobId);
+            return;
+        }
+
+        BulkJobResponse job = null;
+        long updatedRows = 0;
+        try {
+            job = loadJob(jobId);
+            String usernamesJson = stringRedisTemplate.opsForValue().get(usernamesKey(jobId));
+            if (job == null || usernamesJson == null) {
+                stringRedisTemplate.opsForSet().remove(ACTIVE_JOBS_KEY, jobId);
+                return;
+            }
+            if (BulkJobResponse.STATUS_COMPLETED.equals(job.getStatus())) {
+                return;
+            }
+            List<String> usernames = JsonUtils.getObjectMapper()
+                    .readValue(usernamesJson, new TypeReference<List<String>>() {
+                    });
+            List<List<String>> chunks = ListUtil.partition(usernames, Math.max(1, userBulkConfig.getOperationChunkSize()));
+            int batchSize = Math.max(1, userBulkConfig.getReassignBatchSize());
+
+            job.setStatus(BulkJobResponse.STATUS_RUNNING);
+            job.setMessage(null);
+            if (job.getTotalRows() == null) {
+                long total = 0;
+                for (List<String> chunk : chunks) {
+                    LambdaQueryWrapper<Product> wrapper = new LambdaQueryWrapper<>();
+                    wrapper.in(Product::getCreatedByUsername, chunk);
+                    total += productMapper.selectCount(wrapper);
+                }
+                job.setTotalRows(total);
+            }
+            saveJob(job);
+
+            for (int i = job.getCompletedChunks(); i < chunks.size(); i++) {
+                List<String> chunk = chunks.get(i);
+                int updated;
+                do {
+                    updated = productMapper.reassignCreatedBy(chunk, job.getTargetUsername(), batchSize);
+                    updatedRows += updated;
+                    job.setProcessedRows(job.getProcessedRows() + updated);
+                    saveJob(job);
+                    stringRedisTemplate.expire(lockKey, LOCK_TTL);
+                } while (updated >= batchSize);
+                job.setCompletedChunks(i + 1);
+                saveJob(job);
+            }
+
+            job.setStatus(BulkJobResponse.STATUS_COMPLETED);
+            saveJob(job);
+            stringRedisTemplate.opsForSet().remove(ACTIVE_JOBS_KEY, jobId);
+            log.info("产品归属迁移任务完成 - jobId: {}, 处理产品数: {}", jobId, job.getProcessedRows());
+        } catch (Exception e) {
+            log.error("产品归属迁移任务失败 - jobId: {}", jobId, e);
+            if (job != null) {
+                job.setStatus(BulkJobResponse.STATUS_FAILED);
+                job.setMessage(e.getMessage());
+                saveJob(job);
+            }
+        } finally {
+            if (updatedRows > 0) {
+                evictProductCache();
+            }
+            stringRedisTemplate.delete(lockKey);
+        }
+    }
+
+    /**
+     * 清除产品缓存（每条UPDATE单独提交，任务结束时一次性清除）
+     */
+    private void evictProductCache() {
+        try {
+            Cache cache = cacheManager.getCache("products");
+            if (cache != null) {
+                cache.clear();
+            }
+        } catch (Exception e) {
+            log.warn("清除产品缓存失败: {}", e.getMessage());
+        }
+    }
+
+    private BulkJobResponse loadJob(String jobId) {
+        String json = stringRedisTemplate.opsForValue().get(jobKey(jobId));
+        if (json == null) {
+            return null;
+        }
+        try {
+            return JsonUtils.fromJson(json, BulkJobResponse.class);
+        } catch (JsonProcessingException e) {
+            throw new BusinessException("任务状态解析失败", e);
+        }
+    }
+
+    private void saveJob(BulkJobResponse job) {
+        job.setUpdatedTime(LocalDateTime.now());
+        stringRedisTemplate.opsForValue().set(jobKey(job.getJobId()), toJson(job), jobTtl());
+    }
+
+    private String toJson(Object value) {
+        try {
+            return JsonUtils.toJson(value);
+        } catch (JsonProcessingException e) {
+            throw new BusinessException("任务状态序列化失败", e);
+        }
+    }
+
+    private Duration jobTtl() {
+        return Duration.ofHours(userBulkConfig.getJobTtlHours());
+    }
+
+    private static String jobKey(String jobId) {
+        return JOB_KEY_PREFIX + jobId;
+    }
+
+    private static String usernamesKey(String jobId) {
+        return JOB_KEY_PREFIX + jobId + ":usernames";
+    }
+
+    private static String lockKey(String jobId) {
+        return JOB_KEY_PREFIX + jobId + ":lock";
+    }
+}
@@ -1,28 +1,57 @@
 package com.gzist.project.service.impl;
 
+import cn.hutool.core.collection.ListUtil;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.gzist.project.config.UserBulkConfig;
 import com.gzist.project.dto.UserManageDTO;
 import com.gzist.project.entity.Product;
 import com.gzist.project.entity.Role;
 import com.gzist.project.entity.User;
 import com.gzist.project.entity.UserRole;
+import com.gzist.project.exception.BusinessException;
 import com.gzist.project.mapper.ProductMapper;
 import com.gzist.project.mapper.RoleMapper;
 import com.gzist.project.mapper.UserMapper;
 import com.gzist.project.mapper.UserRoleMapper;
+import com.gzist.project.service.IUserBulkJobService;
 import com.gzist.project.service.IUserService;
+import com.gzist.project.utils.ImportRecordReader;
+import com.gzist.project.vo.response.BulkJobResponse;
+import com.gzist.project.vo.response.BulkOperationResponse;
+import com.gzist.project.vo.response.ImportResultResponse;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
 
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
 
 /**
  * 用户Service实现类
@@ -30,6 +59,7 @@ import java.util.List;
  * @author GZIST
  * @since 2025-12-23
  */
+@Slf4j
 @Service
 public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements IUserService {
 
@@ -48,6 +78,22 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements IU
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private UserBulkConfig userBulkConfig;
+
+    @Autowired
+    @Qualifier("passwordHashPool")
+    private ForkJoinPool passwordHashPool;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private IUserBulkJobService userBulkJobService;
+
     @Override
     public User getUserByUsername(String username) {
         return userMapper.selectByUsername(username);
@@ -105,6 +151,14 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements IU
     @Override
     public IPage<User> getUserPage(Integer current, Integer size, String username, String email, Integer status) {
         Page<User> page = new Page<>(current, size);
+        return this.page(page, buildUserQueryWrapper(username, email, status));
+    }
+
+    /**
+     * 构建用户查询条件（分页查询及索引分析共用）
+     * 对应索引见 database/migration/V1__add_list_composite_indexes.sql
+     */
+    static LambdaQueryWrapper<User> buildUserQueryWrapper(String username, String email, Integer status) {
         LambdaQueryWrapper<User> wrapper = new LambdaQueryWrapper<>();
         
         if (StringUtils.hasText(username)) {
@@ -118,8 +172,7 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements IU
         }
         
         wrapper.orderByDesc(User::getCreatedTime);
-        
-        return this.page(page, wrapper);
+        return wrapper;
     }
 
     @Override
@@ -160,6 +213,202 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements IU
         return result;
     }
 
+    /**
+     * 批量导入用户
+     * 1. 一次流式扫描users表构建用户名、邮箱集合，逐行校验不再查库
+     * 2. 每累计importChunkSize行，在passwordHashPool上并行BCrypt加密
+     * 3. 每块一个短事务，users与user_roles各一条多行INSERT
+     * 整块写入失败（如并发注册导致唯一键冲突）时逐行重试，只有冲突行记为失败
+     *
+     * @param inputStream 导入数据流
+     * @param format 导入格式
+     * @return 导入结果
+     */
+    @Override
+    public ImportResultResponse importUsers(InputStream inputStream, ImportRecordReader.Format format) {
+        long startTime = System.currentTimeMillis();
+        ImportResultResponse result = new ImportResultResponse();
+        int chunkSize = Math.max(1, userBulkConfig.getImportChunkSize());
+        int maxErrors = userBulkConfig.getMaxReportedErrors();
+
+        // 数据库排序规则不区分大小写，集合中统一存小写
+        Set<String> usernames = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        userMapper.scanUsernamesAndEmails(context -> {
+            User existing = context.getResultObject();
+            usernames.add(normalizeKey(existing.getUsername()));
+            emails.add(normalizeKey(existing.getEmail()));
+        });
+        Set<String> roleCodes = roleMapper.selectList(null).stream()
+                .map(Role::getRoleCode)
+                .collect(Collectors.toSet());
+
+        long totalRows = 0;
+        List<ImportRow> chunk = new ArrayList<>(chunkSize);
+        try (ImportRecordReader reader = new ImportRecordReader(inputStream, format)) {
+            while (true) {
+                Map<String, Object> record;
+                try {
+                    record = reader.next();
+                } catch (IllegalArgumentException e) {
+                    totalRows++;
+                    result.addError(reader.getLineNumber(), null, e.getMessage(), maxErrors);
+                    continue;
+                }
+                if (record == null) {
+                    break;
+                }
+                totalRows++;
+
+                UserManageDTO userDTO;
+                try {
+                    Object roleValue = record.get("roleCodes");
+                    if (roleValue instanceof String) {
+                        record.put("roleCodes", Arrays.asList(((String) roleValue).split("\\|")));
+                    }
+                    userDTO = ImportRecordReader.toBean(record, UserManageDTO.class);
+                } catch (IllegalArgumentException e) {
+                    result.addError(reader.getLineNumber(), null, "字段格式错误", maxErrors);
+                    continue;
+                }
+
+                String error = validateImportRow(userDTO, roleCodes, usernames, emails);
+                if (error != null) {
+                    result.addError(reader.getLineNumber(), userDTO.getUsername(), error, maxErrors);
+                    continue;
+                }
+                usernames.add(normalizeKey(userDTO.getUsername()));
+                emails.add(normalizeKey(userDTO.getEmail()));
+                chunk.add(new ImportRow(reader.getLineNumber(), userDTO));
+
+                if (chunk.size() >= chunkSize) {
+                    flushImportChunk(chunk, result, usernames, emails, maxErrors);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                flushImportChunk(chunk, result, usernames, emails, maxErrors);
+            }
+        } catch (IOException e) {
+            throw new BusinessException("读取导入数据失败：" + e.getMessage(), e);
+        }
+
+        result.setTotalRows(totalRows);
+        result.setElapsedMillis(System.currentTimeMillis() - startTime);
+        log.info("用户批量导入完成 - 总行数: {}, 成功: {}, 失败: {}, 耗时: {}ms",
+                result.getTotalRows(), result.getSuccessRows(), result.getFailedRows(), result.getElapsedMillis());
+        return result;
+    }
+
+    /**
+     * 校验导入行，规则与createUser一致
+     *
+     * @return 失败原因，校验通过返回null
+     */
+    private String validateImportRow(UserManageDTO userDTO, Set<String> roleCodes,
+                                     Set<String> usernames, Set<String> emails) {
+        Set<ConstraintViolation<UserManageDTO>> violations = validator.validate(userDTO);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+        }
+        if (!StringUtils.hasText(userDTO.getPassword())) {
+            return "密码不能为空";
+        }
+        if (usernames.contains(normalizeKey(userDTO.getUsername()))) {
+            return "用户名已存在";
+        }
+        if (emails.contains(normalizeKey(userDTO.getEmail()))) {
+            return "邮箱已存在";
+        }
+        if (userDTO.getRoleCodes() != null) {
+            for (String roleCode : userDTO.getRoleCodes()) {
+                if (!roleCodes.contains(roleCode)) {
+                    return "角色不存在：" + roleCode;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 写入一个导入块：并行加密密码，再在单个事务中多行插入
+     */
+    private void flushImportChunk(List<ImportRow> rows, ImportResultResponse result,
+                                  Set<String> usernames, Set<String> emails, int maxErrors) {
+        List<User> users;
+        try {
+            users = passwordHashPool.submit(() -> rows.parallelStream()
+                    .map(this::toImportUser)
+                    .collect(Collectors.toList())).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException("用户导入被中断", e);
+        } catch (ExecutionException e) {
+            throw new BusinessException("密码加密失败", e.getCause());
+        }
+
+        try {
+            insertImportUsers(rows, users);
+            result.setSuccessRows(result.getSuccessRows() + rows.size());
+            return;
+        } catch (DataAccessException e) {
+            log.warn("用户导入块写入失败，改为逐行写入 - 行数: {}, 原因: {}", rows.size(), e.getMessage());
+        }
+
+        for (int i = 0; i < rows.size(); i++) {
+            ImportRow row = rows.get(i);
+            try {
+                insertImportUsers(Collections.singletonList(row), Collections.singletonList(users.get(i)));
+                result.setSuccessRows(result.getSuccessRows() + 1);
+            } catch (DataAccessException e) {
+                usernames.remove(normalizeKey(row.userDTO.getUsername()));
+                emails.remove(normalizeKey(row.userDTO.getEmail()));
+                Throwable cause = NestedExceptionUtils.getMostSpecificCause(e);
+                result.addError(row.line, row.userDTO.getUsername(), "写入失败：" + cause.getMessage(), maxErrors);
+            }
+        }
+    }
+
+    private void insertImportUsers(List<ImportRow> rows, List<User> users) {
+        List<UserRole> userRoles = new ArrayList<>();
+        for (ImportRow row : rows) {
+            if (row.userDTO.getRoleCodes() == null) {
+                continue;
+            }
+            for (String roleCode : new LinkedHashSet<>(row.userDTO.getRoleCodes())) {
+                UserRole userRole = new UserRole();
+                userRole.setUsername(row.userDTO.getUsername());
+                userRole.setRoleCode(roleCode);
+                userRoles.add(userRole);
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            userMapper.insertBatch(users);
+            if (!userRoles.isEmpty()) {
+                userRoleMapper.insertBatch(userRoles);
+            }
+        });
+    }
+
+    private User toImportUser(ImportRow row) {
+        UserManageDTO userDTO = row.userDTO;
+        User user = new User();
+        user.setUsername(userDTO.getUsername());
+        user.setPassword(passwordEncoder.encode(userDTO.getPassword()));
+        user.setEmail(userDTO.getEmail());
+        user.setPhone(userDTO.getPhone());
+        user.setRealName(userDTO.getRealName());
+        user.setStatus(userDTO.getStatus() != null ? userDTO.getStatus() : 1);
+        return user;
+    }
+
+    private static String normalizeKey(String value) {
+        return value == null ? null : value.trim().toLowerCase(Locale.ROOT);
+    }
+
     @Override
     @Transactional(rollbackFor = Exception.class)
     public boolean updateUser(UserManageDTO userDTO) {
@@ -211,6 +460,7 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements IU
 
     @Override
     @Transactional(rollbackFor = Exception.class)
+    @CacheEvict(value = "products", allEntries = true)
     public boolean deleteUser(Long id) {
         // 先获取用户信息
         User user = this.getById(id);
@@ -219,11 +469,11 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements IU
         }
         
         // 将该用户创建的产品的created_by_username设为NULL（逻辑外键级联处理）
-        Product productUpdate = new Product();
-        productUpdate.setCreatedByUsername(null);
-        LambdaQueryWrapper<Product> productWrapper = new LambdaQueryWrapper<>();
-        productWrapper.eq(Product::getCreatedByUsername, user.getUsername());
-        productMapper.update(productUpdate, productWrapper);
+        // 实体中为null的字段不会进入SET，需通过更新条件显式设置
+        LambdaUpdateWrapper<Product> productWrapper = new LambdaUpdateWrapper<>();
+        productWrapper.set(Product::getCreatedByUsername, null)
+                .eq(Product::getCreatedByUsername, user.getUsername());
+        productMapper.update(null, productWrapper);
         
         // 删除用户角色关联（使用username）
         LambdaQueryWrapper<UserRole> wrapper = new LambdaQueryWrapper<>();
@@ -234,34 +484,124 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements IU
         return this.removeById(id);
     }
 
+    /**
+     * 批量删除用户
+     * 按operationChunkSize分块，每块在独立的短事务中删除角色关联和用户，避免大范围长时间锁表；
+     * 产品created_by_username的清除（逻辑外键级联）交给后台任务分批执行
+     *
+     * @param ids 用户ID数组
+     * @return 操作结果
+     */
     @Override
-    @Transactional(rollbackFor = Exception.class)
-    public boolean batchDeleteUsers(Long[] ids) {
-        // 先获取所有用户的username
-        List<User> users = this.listByIds(Arrays.asList(ids));
-        if (users == null || users.isEmpty()) {
-            return false;
+    public BulkOperationResponse batchDeleteUsers(Long[] ids) {
+        List<Long> idList = distinctIds(ids);
+        List<String> deletedUsernames = new ArrayList<>();
+        for (List<Long> chunk : ListUtil.partition(idList, operationChunkSize())) {
+            List<String> usernames = transactionTemplate.execute(status -> {
+                List<String> chunkUsernames = selectUsernames(chunk);
+                if (chunkUsernames.isEmpty()) {
+                    return chunkUsernames;
+                }
+
+                // 删除用户角色关联（使用username）
+                LambdaQueryWrapper<UserRole> wrapper = new LambdaQueryWrapper<>();
+                wrapper.in(UserRole::getUsername, chunkUsernames);
+                userRoleMapper.delete(wrapper);
+
+                // 删除用户
+                userMapper.deleteBatchIds(chunk);
+                return chunkUsernames;
+            });
+            deletedUsernames.addAll(usernames);
         }
-        
-        List<String> usernames = new java.util.ArrayList<>();
-        for (User user : users) {
-            usernames.add(user.getUsername());
+
+        if (deletedUsernames.isEmpty()) {
+            throw new BusinessException("用户不存在");
         }
-        
-        // 将这些用户创建的产品的created_by_username设为NULL（逻辑外键级联处理）
-        Product productUpdate = new Product();
-        productUpdate.setCreatedByUsername(null);
-        LambdaQueryWrapper<Product> productWrapper = new LambdaQueryWrapper<>();
-        productWrapper.in(Product::getCreatedByUsername, usernames);
-        productMapper.update(productUpdate, productWrapper);
-        
-        // 删除用户角色关联（使用username）
-        LambdaQueryWrapper<UserRole> wrapper = new LambdaQueryWrapper<>();
-        wrapper.in(UserRole::getUsername, usernames);
-        userRoleMapper.delete(wrapper);
 
-        // 批量删除用户
-        return this.removeByIds(Arrays.asList(ids));
+        // 将这些用户创建的产品的created_by_username设为NULL（后台分批执行）
+        BulkJobResponse job = userBulkJobService.submitProductReassignJob(deletedUsernames, null);
+        log.info("批量删除用户 - 请求数: {}, 删除数: {}, 产品归属清除任务: {}",
+                idList.size(), deletedUsernames.size(), job.getJobId());
+        return new BulkOperationResponse(idList.size(), deletedUsernames.size(), job.getJobId());
+    }
+
+    /**
+     * 批量启用/禁用用户
+     * 每块一条UPDATE ... WHERE id IN (...)，替代逐个调用updateUser
+     *
+     * @param ids 用户ID数组
+     * @param status 目标状态
+     * @return 操作结果
+     */
+    @Override
+    public BulkOperationResponse batchUpdateStatus(Long[] ids, Integer status) {
+        if (status == null || (status != 0 && status != 1)) {
+            throw new BusinessException("状态只能为0或1");
+        }
+        List<Long> idList = distinctIds(ids);
+        int affected = 0;
+        for (List<Long> chunk : ListUtil.partition(idList, operationChunkSize())) {
+            LambdaUpdateWrapper<User> wrapper = new LambdaUpdateWrapper<>();
+            wrapper.set(User::getStatus, status);
+            wrapper.in(User::getId, chunk);
+            affected += userMapper.update(null, wrapper);
+        }
+        log.info("批量更新用户状态 - 请求数: {}, 更新数: {}, 状态: {}", idList.size(), affected, status);
+        return new BulkOperationResponse(idList.size(), affected, null);
+    }
+
+    /**
+     * 批量迁移用户创建的产品
+     *
+     * @param ids 原归属用户ID数组
+     * @param targetUsername 目标用户名
+     * @return 操作结果
+     */
+    @Override
+    public BulkOperationResponse reassignProducts(Long[] ids, String targetUsername) {
+        String target = StringUtils.hasText(targetUsername) ? targetUsername.trim() : null;
+        if (target != null && getUserByUsername(target) == null) {
+            throw new BusinessException("目标用户不存在");
+        }
+
+        List<Long> idList = distinctIds(ids);
+        List<String> usernames = new ArrayList<>();
+        for (List<Long> chunk : ListUtil.partition(idList, operationChunkSize())) {
+            usernames.addAll(selectUsernames(chunk));
+        }
+        if (usernames.isEmpty()) {
+            throw new BusinessException("用户不存在");
+        }
+        if (target != null && usernames.stream().anyMatch(target::equalsIgnoreCase)) {
+            throw new BusinessException("目标用户不能是被迁移的用户");
+        }
+
+        BulkJobResponse job = userBulkJobService.submitProductReassignJob(usernames, target);
+        return new BulkOperationResponse(idList.size(), usernames.size(), job.getJobId());
+    }
+
+    /**
+     * 只查询用户名列，避免加载整行
+     */
+    private List<String> selectUsernames(List<Long> ids) {
+        LambdaQueryWrapper<User> wrapper = new LambdaQueryWrapper<>();
+        wrapper.select(User::getId, User::getUsername);
+        wrapper.in(User::getId, ids);
+        return userMapper.selectList(wrapper).stream()
+                .map(User::getUsername)
+                .collect(Collectors.toList());
+    }
+
+    private static List<Long> distinctIds(Long[] ids) {
+        if (ids == null || ids.length == 0) {
+            throw new BusinessException("用户ID列表不能为空");
+        }
+        return new ArrayList<>(new LinkedHashSet<>(Arrays.asList(ids)));
+    }
+
+    private int operationChunkSize() {
+        return Math.max(1, userBulkConfig.getOperationChunkSize());
     }
 
     @Override
@@ -363,4 +703,19 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements IU
         User user = getUserByEmail(email);
         return user == null;
     }
+
+    /**
+     * 导入行（保留行号用于失败报告）
+     */
+    private static class ImportRow {
+
+        private final long line;
+
+        private final UserManageDTO userDTO;
+
+        ImportRow(long line, UserManageDTO userDTO) {
+            this.line = line;
+            this.userDTO = userDTO;
+        }
+    }
 }
@@ -0,0 +1,158 @@
+package com.gzist.project.storage;
+
+import com.gzist.project.config.FileUploadConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 本地文件系统存储
+ * 对象键直接映射为上传根目录（file.upload.path）下的相对路径
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "file.storage", name = "type", havingValue = "local", matchIfMissing = true)
+public class LocalObjectStorage implements ObjectStorage {
+
+    @Autowired
+    private FileUploadConfig fileUploadConfig;
+
+    @Override
+    public void put(String key, Path source, String contentType) throws IOException {
+        Path target = resolve(key);
+        Files.createDirectories(target.getParent());
+        // 原子重命名到位（同一文件系统内）
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return Files.isRegularFile(resolve(key));
+    }
+
+    @Override
+    public StoredObject stat(String key) throws IOException {
+        BasicFileAttributes attributes = readAttributes(resolve(key));
+        return attributes == null || !attributes.isRegularFile()
+                ? null : new StoredObject(key, attributes.size(), attributes.lastModifiedTime().toMillis());
+    }
+
+    @Override
+    public void touch(String key) throws IOException {
+        Files.setLastModifiedTime(resolve(key), FileTime.fromMillis(System.currentTimeMillis()));
+    }
+
+    @Override
+    public Path localPath(String key) {
+        Path path = resolve(key);
+        return Files.isRegularFile(path) ? path : null;
+    }
+
+    @Override
+    public boolean delete(String key) throws IOException {
+        return Files.deleteIfExists(resolve(key));
+    }
+
+    /**
+     * 先序遍历：每个目录的条目按名称排序后依次处理（文件直接回调，子目录递归），
+     * 因此遍历顺序与按路径段比较的键顺序一致；游标之前的子树整体跳过。
+     * 内存中只保留当前路径上各级目录的条目名
+     */
+    @Override
+    public void list(String prefix, String startAfter, ObjectVisitor visitor) throws IOException {
+        Path dir = resolve(prefix);
+        if (Files.isDirectory(dir)) {
+            String base = prefix.endsWith("/") ? prefix.substring(0, prefix.length() - 1) : prefix;
+            walk(dir, base, startAfter == null ? "" : startAfter, visitor);
+        }
+    }
+
+    private boolean walk(Path dir, String keyPrefix, String startAfter, ObjectVisitor visitor) throws IOException {
+        List<String> names = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+            for (Path entry : stream) {
+                names.add(entry.getFileName().toString());
+            }
+        }
+        Collections.sort(names);
+        for (String name : names) {
+            String key = keyPrefix.isEmpty() ? name : keyPrefix + "/" + name;
+            Path entry = dir.resolve(name);
+            BasicFileAttributes attributes = readAttributes(entry);
+            if (attributes == null) {
+                continue;
+            }
+            if (attributes.isDirectory()) {
+                // 整棵子树都在游标之前时跳过
+                if (!startAfter.isEmpty() && compareKeys(key, startAfter) < 0 && !startAfter.startsWith(key + "/")) {
+                    continue;
+                }
+                if (!walk(entry, key, startAfter, visitor)) {
+                    return false;
+                }
+            } else if (attributes.isRegularFile()
+                    && (startAfter.isEmpty() || compareKeys(key, startAfter) > 0)
+                    && !visitor.visit(new StoredObject(key, attributes.size(), attributes.lastModifiedTime().toMillis()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static BasicFileAttributes readAttributes(Path path) throws IOException {
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 按路径段逐段比较，父目录排在子项之前
+     */
+    static int compareKeys(String a, String b) {
+        String[] left = a.split("/");
+        String[] right = b.split("/");
+        for (int i = 0; i < Math.min(left.length, right.length); i++) {
+            int result = left[i].compareTo(right[i]);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return Integer.compare(left.length, right.length);
+    }
+
+    /**
+     * 对象键转换为本地路径，拒绝越出上传根目录的键
+     */
+    private Path resolve(String key) {
+        Path root = Paths.get(fileUploadConfig.getPath()).toAbsolutePath().normalize();
+        Path path = root.resolve(key).normalize();
+        if (!path.startsWith(root)) {
+            throw new IllegalArgumentException("非法的对象键: " + key);
+        }
+        return path;
+    }
+}
@@ -0,0 +1,81 @@
+package com.gzist.project.storage;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * 上传文件存储SPI
+ * 对象键为相对上传根目录的路径（/uploads/之后的部分）；
+ * 由 file.storage.type 选择实现：local（本地文件系统）或 s3（S3兼容对象存储）
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+public interface ObjectStorage {
+
+    /**
+     * 写入对象，内容从本地文件流式读取
+     * 本地实现直接移动源文件；调用方在返回后应清理仍存在的源文件
+     *
+     * @param key 对象键
+     * @param source 本地源文件
+     * @param contentType 内容类型
+     */
+    void put(String key, Path source, String contentType) throws IOException;
+
+    /**
+     * 对象是否存在
+     */
+    boolean exists(String key) throws IOException;
+
+    /**
+     * 读取对象元数据
+     *
+     * @return 对象元数据，对象不存在时返回null
+     */
+    StoredObject stat(String key) throws IOException;
+
+    /**
+     * 刷新对象的最后修改时间（使复用的对象重新进入回收宽限期）
+     */
+    void touch(String key) throws IOException;
+
+    /**
+     * 获取可直接读取的本地文件
+     * 本地实现返回存储文件本身；远程实现经本地读穿缓存下载后返回缓存文件
+     *
+     * @param key 对象键
+     * @return 本地文件，对象不存在时返回null
+     */
+    Path localPath(String key) throws IOException;
+
+    /**
+     * 删除对象
+     *
+     * @return 对象是否存在并被删除
+     */
+    boolean delete(String key) throws IOException;
+
+    /**
+     * 按键的顺序遍历指定前缀下的对象（流式，不一次性加载全部键）
+     * 本地实现按路径段逐段比较排序，S3实现按键的字典序；同一实现内顺序稳定，可作为增量遍历的游标
+     *
+     * @param prefix 键前缀（以/结尾）
+     * @param startAfter 从该键之后开始，为空表示从头开始
+     * @param visitor 访问回调，返回false时停止遍历
+     */
+    void list(String prefix, String startAfter, ObjectVisitor visitor) throws IOException;
+
+    /**
+     * 对象访问回调
+     */
+    @FunctionalInterface
+    interface ObjectVisitor {
+
+        /**
+         * @param object 对象元数据
+         * @return 是否继续遍历
+         */
+        boolean visit(StoredObject object) throws IOException;
+    }
+}
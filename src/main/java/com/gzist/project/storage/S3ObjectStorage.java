@@ -0,0 +1,285 @@
+package com.gzist.project.storage;
+
+import com.gzist.project.config.S3StorageConfig;
+import com.gzist.project.config.StorageConfig;
+import com.gzist.project.utils.DiskCacheIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.MetadataDirective;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * S3兼容对象存储（AWS S3、MinIO等）
+ * - 写入：小文件单次PUT，超过阈值使用分片上传，分片内容从本地文件按区间流式读取，不在堆上缓冲
+ * - 读取：对象下载到本地读穿缓存后以文件形式返回（供零拷贝发送和图片处理使用），
+ *   缓存按最近最少使用淘汰，同一对象的并发下载合并为一次
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "file.storage", name = "type", havingValue = "s3")
+public class S3ObjectStorage implements ObjectStorage {
+
+    @Autowired
+    private StorageConfig storageConfig;
+
+    @Autowired
+    private S3StorageConfig s3StorageConfig;
+
+    private S3Client s3Client;
+
+    private String bucket;
+
+    private Path cacheRoot;
+
+    private DiskCacheIndex cacheIndex;
+
+    /**
+     * 正在下载的对象，用于合并并发请求
+     */
+    private final Map<String, CompletableFuture<Path>> downloads = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (!StringUtils.hasText(s3StorageConfig.getBucket())) {
+            throw new IllegalStateException("file.storage.s3.bucket 未配置");
+        }
+        bucket = s3StorageConfig.getBucket();
+
+        S3ClientBuilder builder = S3Client.builder()
+                .region(Region.of(s3StorageConfig.getRegion()))
+                .serviceConfiguration(S3Configuration.builder()
+                        .pathStyleAccessEnabled(s3StorageConfig.getPathStyleAccess())
+                        .build());
+        if (StringUtils.hasText(s3StorageConfig.getEndpoint())) {
+            builder.endpointOverride(URI.create(s3StorageConfig.getEndpoint()));
+        }
+        if (StringUtils.hasText(s3StorageConfig.getAccessKey())) {
+            builder.credentialsProvider(StaticCredentialsProvider.create(
+                    AwsBasicCredentials.create(s3StorageConfig.getAccessKey(), s3StorageConfig.getSecretKey())));
+        } else {
+            builder.credentialsProvider(DefaultCredentialsProvider.create());
+        }
+        s3Client = builder.build();
+
+        cacheRoot = Paths.get(storageConfig.getCachePath()).toAbsolutePath().normalize();
+        cacheIndex = new DiskCacheIndex(storageConfig.getCacheMaxSize());
+        cacheIndex.load(cacheRoot);
+        log.info("S3存储初始化完成 - bucket: {}, endpoint: {}, 本地缓存文件数: {}",
+                bucket, s3StorageConfig.getEndpoint(), cacheIndex.count());
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (s3Client != null) {
+            s3Client.close();
+        }
+    }
+
+    @Override
+    public void put(String key, Path source, String contentType) throws IOException {
+        long size = Files.size(source);
+        if (size <= s3StorageConfig.getMultipartThreshold()) {
+            s3Client.putObject(request -> request.bucket(bucket).key(key).contentType(contentType),
+                    RequestBody.fromFile(source));
+            return;
+        }
+        multipartUpload(key, source, size, contentType);
+    }
+
+    /**
+     * 分片上传：按区间从文件读取各分片，失败时中止上传释放已上传分片
+     */
+    private void multipartUpload(String key, Path source, long size, String contentType) throws IOException {
+        long partSize = Math.max(5 * 1024 * 1024L, s3StorageConfig.getPartSize());
+        String uploadId = s3Client.createMultipartUpload(request -> request.bucket(bucket).key(key)
+                .contentType(contentType)).uploadId();
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            List<CompletedPart> parts = new ArrayList<>();
+            int partNumber = 1;
+            for (long offset = 0; offset < size; offset += partSize, partNumber++) {
+                long length = Math.min(partSize, size - offset);
+                channel.position(offset);
+                InputStream partStream = Channels.newInputStream(channel);
+                int number = partNumber;
+                String etag = s3Client.uploadPart(request -> request.bucket(bucket).key(key)
+                                .uploadId(uploadId).partNumber(number).contentLength(length),
+                        RequestBody.fromInputStream(partStream, length)).eTag();
+                parts.add(CompletedPart.builder().partNumber(number).eTag(etag).build());
+            }
+            s3Client.completeMultipartUpload(request -> request.bucket(bucket).key(key).uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(parts).build()));
+        } catch (IOException | RuntimeException e) {
+            s3Client.abortMultipartUpload(request -> request.bucket(bucket).key(key).uploadId(uploadId));
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return head(key) != null;
+    }
+
+    @Override
+    public StoredObject stat(String key) {
+        HeadObjectResponse head = head(key);
+        return head == null ? null : new StoredObject(key, head.contentLength(), head.lastModified().toEpochMilli());
+    }
+
+    /**
+     * S3无法直接修改LastModified，通过覆盖元数据的原地复制刷新
+     */
+    @Override
+    public void touch(String key) {
+        HeadObjectResponse head = head(key);
+        if (head == null) {
+            return;
+        }
+        s3Client.copyObject(request -> request.sourceBucket(bucket).sourceKey(key)
+                .destinationBucket(bucket).destinationKey(key)
+                .contentType(head.contentType())
+                .metadata(head.metadata())
+                .metadataDirective(MetadataDirective.REPLACE));
+    }
+
+    @Override
+    public Path localPath(String key) throws IOException {
+        Path cached = cacheRoot.resolve(key).normalize();
+        if (!cached.startsWith(cacheRoot)) {
+            throw new IllegalArgumentException("非法的对象键: " + key);
+        }
+        if (cacheIndex.touch(cached)) {
+            return cached;
+        }
+
+        // 同一对象的并发请求只下载一次
+        CompletableFuture<Path> download = new CompletableFuture<>();
+        CompletableFuture<Path> existing = downloads.putIfAbsent(key, download);
+        if (existing != null) {
+            return await(existing);
+        }
+        try {
+            Path result = download(key, cached);
+            download.complete(result);
+            return result;
+        } catch (IOException | RuntimeException e) {
+            download.completeExceptionally(e);
+            throw e;
+        } finally {
+            downloads.remove(key, download);
+        }
+    }
+
+    private Path download(String key, Path cached) throws IOException {
+        Files.createDirectories(cached.getParent());
+        Path tempFile = Files.createTempFile(cached.getParent(), ".download-", ".tmp");
+        try {
+            try (InputStream input = s3Client.getObject(request -> request.bucket(bucket).key(key))) {
+                Files.copy(input, tempFile, StandardCopyOption.REPLACE_EXISTING);
+            } catch (NoSuchKeyException e) {
+                return null;
+            }
+            try {
+                Files.move(tempFile, cached, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, cached, StandardCopyOption.REPLACE_EXISTING);
+            }
+            cacheIndex.record(cached, Files.size(cached));
+            return cached;
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    private static Path await(CompletableFuture<Path> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("下载被中断", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("对象下载失败", e.getCause());
+        }
+    }
+
+    @Override
+    public boolean delete(String key) throws IOException {
+        boolean existed = exists(key);
+        s3Client.deleteObject(request -> request.bucket(bucket).key(key));
+        Path cached = cacheRoot.resolve(key).normalize();
+        if (cached.startsWith(cacheRoot)) {
+            cacheIndex.remove(cached);
+            Files.deleteIfExists(cached);
+        }
+        return existed;
+    }
+
+    @Override
+    public void list(String prefix, String startAfter, ObjectVisitor visitor) throws IOException {
+        ListObjectsV2Request.Builder request = ListObjectsV2Request.builder().bucket(bucket).prefix(prefix);
+        if (StringUtils.hasText(startAfter)) {
+            request.startAfter(startAfter);
+        }
+        // 分页器按需逐页请求，每页最多1000个键
+        for (S3Object object : s3Client.listObjectsV2Paginator(request.build()).contents()) {
+            if (!visitor.visit(new StoredObject(object.key(), object.size(), object.lastModified().toEpochMilli()))) {
+                return;
+            }
+        }
+    }
+
+    private HeadObjectResponse head(String key) {
+        try {
+            return s3Client.headObject(request -> request.bucket(bucket).key(key));
+        } catch (NoSuchKeyException e) {
+            return null;
+        } catch (S3Exception e) {
+            if (e.statusCode() == 404) {
+                return null;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.gzist.project.storage;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 存储对象元数据
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+@Data
+@AllArgsConstructor
+public class StoredObject {
+
+    /**
+     * 对象键（相对上传根目录的路径，如 products/cas/ab/cd/xxx.png）
+     */
+    private String key;
+
+    /**
+     * 对象大小（字节）
+     */
+    private long size;
+
+    /**
+     * 最后修改时间（毫秒）
+     */
+    private long lastModified;
+}
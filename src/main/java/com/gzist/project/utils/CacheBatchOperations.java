@@ -0,0 +1,140 @@
+package com.gzist.project.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.util.ByteUtils;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 缓存批量读写工具
+ * Spring Cache只提供单键读写，批量读取N个键需要N次Redis往返；
+ * 对Redis缓存这里直接用一条MGET读取、一个管道写回，键前缀、序列化方式和过期时间与缓存配置保持一致，
+ * 和@Cacheable读写的是同一批缓存项。其他缓存实现（如测试中的内存缓存）逐个读写
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+@Slf4j
+@Component
+public class CacheBatchOperations {
+
+    @Autowired(required = false)
+    private StringRedisTemplate stringRedisTemplate;
+
+    /**
+     * 批量读取缓存
+     * Redis不可用时记录日志并返回空结果，调用方按全部未命中处理
+     *
+     * @param cache 缓存
+     * @param keys 缓存key（与@Cacheable的key相同，不含缓存名前缀）
+     * @param type 缓存值类型
+     * @return 命中的缓存项（key -> 值）
+     */
+    public <T> Map<String, T> getAll(Cache cache, List<String> keys, Class<T> type) {
+        Map<String, T> hits = new HashMap<>();
+        if (keys.isEmpty()) {
+            return hits;
+        }
+        RedisCache redisCache = redisCache(cache);
+        if (redisCache == null) {
+            for (String key : keys) {
+                T value = cache.get(key, type);
+                if (value != null) {
+                    hits.put(key, value);
+                }
+            }
+            return hits;
+        }
+
+        RedisCacheConfiguration config = redisCache.getCacheConfiguration();
+        byte[][] rawKeys = new byte[keys.size()][];
+        for (int i = 0; i < keys.size(); i++) {
+            rawKeys[i] = rawKey(redisCache, keys.get(i));
+        }
+        List<byte[]> values;
+        try {
+            values = stringRedisTemplate.execute((RedisCallback<List<byte[]>>) connection -> connection.mGet(rawKeys));
+        } catch (DataAccessException e) {
+            log.warn("缓存批量读取失败，按未命中处理 - 缓存: {}, 键数: {}, 原因: {}", cache.getName(), keys.size(), e.getMessage());
+            return hits;
+        }
+        for (int i = 0; values != null && i < keys.size(); i++) {
+            byte[] value = values.get(i);
+            if (value == null) {
+                continue;
+            }
+            Object cached = config.getValueSerializationPair().read(ByteBuffer.wrap(value));
+            if (type.isInstance(cached)) {
+                hits.put(keys.get(i), type.cast(cached));
+            }
+        }
+        return hits;
+    }
+
+    /**
+     * 批量写入缓存（Redis缓存在一个管道中执行，每个键沿用缓存配置的过期时间）
+     * 写入失败只记录日志，不影响调用方
+     *
+     * @param cache 缓存
+     * @param entries 缓存项（key -> 值，值不能为null）
+     */
+    public void putAll(Cache cache, Map<String, ?> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        RedisCache redisCache = redisCache(cache);
+        if (redisCache == null) {
+            entries.forEach(cache::put);
+            return;
+        }
+
+        RedisCacheConfiguration config = redisCache.getCacheConfiguration();
+        Duration ttl = config.getTtl();
+        Expiration expiration = ttl == null || ttl.isZero() || ttl.isNegative()
+                ? Expiration.persistent() : Expiration.from(ttl);
+        List<byte[][]> rawEntries = new ArrayList<>(entries.size());
+        entries.forEach((key, value) -> rawEntries.add(new byte[][]{
+                rawKey(redisCache, key), ByteUtils.getBytes(config.getValueSerializationPair().write(value))}));
+        try {
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (byte[][] entry : rawEntries) {
+                    connection.stringCommands().set(entry[0], entry[1], expiration, RedisStringCommands.SetOption.upsert());
+                }
+                return null;
+            });
+        } catch (DataAccessException e) {
+            log.warn("缓存批量写入失败 - 缓存: {}, 键数: {}, 原因: {}", cache.getName(), entries.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * 取出底层的Redis缓存（缓存管理器开启了事务感知，缓存外层有装饰器）
+     */
+    private RedisCache redisCache(Cache cache) {
+        Cache target = cache instanceof TransactionAwareCacheDecorator
+                ? ((TransactionAwareCacheDecorator) cache).getTargetCache() : cache;
+        return target instanceof RedisCache && stringRedisTemplate != null ? (RedisCache) target : null;
+    }
+
+    private static byte[] rawKey(RedisCache cache, String key) {
+        RedisCacheConfiguration config = cache.getCacheConfiguration();
+        String prefixed = config.usePrefix() ? config.getKeyPrefixFor(cache.getName()) + key : key;
+        return ByteUtils.getBytes(config.getKeySerializationPair().write(prefixed));
+    }
+}
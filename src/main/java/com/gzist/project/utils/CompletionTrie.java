@@ -0,0 +1,314 @@
+package com.gzist.project.utils;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * 前缀补全字典树（压缩字典树，非线程安全，由调用方加锁）
+ * 单链路径合并为一个节点，边上存字符串片段；每个键记录出现次数（热度），每个节点记录子树中的最大热度，
+ * 补全时按子树最大热度优先展开，只访问能进入前N名的分支，耗时与结果数相关而与前缀下的键总数无关
+ *
+ * @param <V> 键附带的值（同一个键只保留第一次添加时的值）
+ * @author GZIST
+ * @since 2026-10-19
+ */
+public final class CompletionTrie<V> {
+
+    private static final char[] EMPTY_LABEL = new char[0];
+
+    private final Node<V> root = new Node<>(EMPTY_LABEL);
+
+    private int size;
+
+    /**
+     * 添加一次键（已存在时热度加1）
+     *
+     * @param key 键（调用方负责规范化，如转小写）
+     * @param value 键第一次出现时保存的值
+     */
+    public void add(String key, V value) {
+        List<Node<V>> path = new ArrayList<>();
+        Node<V> node = root;
+        int offset = 0;
+        while (true) {
+            path.add(node);
+            if (offset == key.length()) {
+                break;
+            }
+            int index = node.indexOf(key.charAt(offset));
+            if (index < 0) {
+                Node<V> leaf = new Node<>(key.substring(offset).toCharArray());
+                node.insertChild(-index - 1, leaf);
+                node = leaf;
+                path.add(leaf);
+                break;
+            }
+            Node<V> child = node.children[index];
+            int common = commonLength(child.label, key, offset);
+            if (common < child.label.length) {
+                // 在公共前缀处拆分
+                Node<V> split = new Node<>(Arrays.copyOf(child.label, common));
+                child.label = Arrays.copyOfRange(child.label, common, child.label.length);
+                split.firsts = new char[]{child.label[0]};
+                split.children = newArray(child);
+                split.maxCount = child.maxCount;
+                node.children[index] = split;
+                child = split;
+            }
+            node = child;
+            offset += common;
+        }
+        if (node.count == 0) {
+            node.value = value;
+            size++;
+        }
+        node.count++;
+        for (Node<V> visited : path) {
+            visited.maxCount = Math.max(visited.maxCount, node.count);
+        }
+    }
+
+    /**
+     * 移除一次键（热度减1，减到0时删除）
+     *
+     * @param key 键
+     * @return 键是否存在
+     */
+    public boolean remove(String key) {
+        List<Node<V>> path = new ArrayList<>();
+        Node<V> node = root;
+        int offset = 0;
+        path.add(node);
+        while (offset < key.length()) {
+            int index = node.indexOf(key.charAt(offset));
+            if (index < 0) {
+                return false;
+            }
+            Node<V> child = node.children[index];
+            if (commonLength(child.label, key, offset) < child.label.length) {
+                return false;
+            }
+            node = child;
+            offset += child.label.length;
+            path.add(node);
+        }
+        if (node.count == 0) {
+            return false;
+        }
+        if (--node.count == 0) {
+            node.value = null;
+            size--;
+        }
+        // 自下而上删除空叶子、合并单子节点，并重算子树最大热度
+        for (int i = path.size() - 1; i > 0; i--) {
+            Node<V> current = path.get(i);
+            Node<V> parent = path.get(i - 1);
+            if (current.count == 0 && current.children.length == 0) {
+                parent.removeChild(parent.indexOf(current.label[0]));
+                continue;
+            }
+            if (current.count == 0 && current.children.length == 1) {
+                Node<V> only = current.children[0];
+                char[] merged = Arrays.copyOf(current.label, current.label.length + only.label.length);
+                System.arraycopy(only.label, 0, merged, current.label.length, only.label.length);
+                only.label = merged;
+                parent.children[parent.indexOf(merged[0])] = only;
+                continue;
+            }
+            current.recomputeMax();
+        }
+        root.recomputeMax();
+        return true;
+    }
+
+    /**
+     * 按前缀取热度最高的键（热度相同时按键升序）
+     *
+     * @param prefix 前缀（规范化方式与添加时相同）
+     * @param limit 最多返回数
+     * @return 补全结果
+     */
+    public List<Completion<V>> complete(String prefix, int limit) {
+        if (limit <= 0) {
+            return Collections.emptyList();
+        }
+        Node<V> node = root;
+        StringBuilder path = new StringBuilder();
+        int offset = 0;
+        while (offset < prefix.length()) {
+            int index = node.indexOf(prefix.charAt(offset));
+            if (index < 0) {
+                return Collections.emptyList();
+            }
+            Node<V> child = node.children[index];
+            int common = commonLength(child.label, prefix, offset);
+            if (common < child.label.length && offset + common < prefix.length()) {
+                return Collections.emptyList();
+            }
+            path.append(child.label);
+            node = child;
+            offset += common;
+        }
+
+        List<Completion<V>> result = new ArrayList<>(Math.min(limit, 16));
+        PriorityQueue<Candidate<V>> queue = new PriorityQueue<>();
+        queue.add(new Candidate<>(node, path.toString(), node.maxCount, false));
+        while (!queue.isEmpty() && result.size() < limit) {
+            Candidate<V> candidate = queue.poll();
+            Node<V> current = candidate.node;
+            if (candidate.terminal) {
+                result.add(new Completion<>(candidate.key, current.value, current.count));
+                continue;
+            }
+            if (current.count > 0) {
+                queue.add(new Candidate<>(current, candidate.key, current.count, true));
+            }
+            for (Node<V> child : current.children) {
+                queue.add(new Candidate<>(child, candidate.key + new String(child.label), child.maxCount, false));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 不同键的个数
+     */
+    public int size() {
+        return size;
+    }
+
+    private static int commonLength(char[] label, String key, int offset) {
+        int max = Math.min(label.length, key.length() - offset);
+        int i = 0;
+        while (i < max && label[i] == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> Node<V>[] newArray(Node<V> node) {
+        Node<V>[] array = new Node[1];
+        array[0] = node;
+        return array;
+    }
+
+    /**
+     * 节点：label为父节点到本节点的边上的字符串片段，子节点按首字符升序
+     */
+    private static final class Node<V> {
+
+        @SuppressWarnings("rawtypes")
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        private char[] label;
+
+        private char[] firsts = EMPTY_LABEL;
+
+        @SuppressWarnings("unchecked")
+        private Node<V>[] children = NO_CHILDREN;
+
+        private int count;
+
+        private int maxCount;
+
+        private V value;
+
+        private Node(char[] label) {
+            this.label = label;
+        }
+
+        private int indexOf(char first) {
+            return Arrays.binarySearch(firsts, first);
+        }
+
+        private void insertChild(int index, Node<V> child) {
+            char[] newFirsts = new char[firsts.length + 1];
+            System.arraycopy(firsts, 0, newFirsts, 0, index);
+            System.arraycopy(firsts, index, newFirsts, index + 1, firsts.length - index);
+            newFirsts[index] = child.label[0];
+            Node<V>[] newChildren = Arrays.copyOf(children, children.length + 1);
+            System.arraycopy(children, index, newChildren, index + 1, children.length - index);
+            newChildren[index] = child;
+            firsts = newFirsts;
+            children = newChildren;
+        }
+
+        private void removeChild(int index) {
+            char[] newFirsts = new char[firsts.length - 1];
+            System.arraycopy(firsts, 0, newFirsts, 0, index);
+            System.arraycopy(firsts, index + 1, newFirsts, index, firsts.length - index - 1);
+            Node<V>[] newChildren = Arrays.copyOf(children, children.length - 1);
+            System.arraycopy(children, index + 1, newChildren, index, children.length - index - 1);
+            firsts = newFirsts;
+            children = newChildren;
+        }
+
+        private void recomputeMax() {
+            int max = count;
+            for (Node<V> child : children) {
+                max = Math.max(max, child.maxCount);
+            }
+            maxCount = max;
+        }
+    }
+
+    /**
+     * 展开队列中的元素：分支（按子树最大热度）或键本身（按自身热度）
+     * 热度相同时键小的先出队；分支的键是其中所有键的前缀，不会排在子树中更小的键之后
+     */
+    private static final class Candidate<V> implements Comparable<Candidate<V>> {
+
+        private final Node<V> node;
+
+        private final String key;
+
+        private final int priority;
+
+        private final boolean terminal;
+
+        private Candidate(Node<V> node, String key, int priority, boolean terminal) {
+            this.node = node;
+            this.key = key;
+            this.priority = priority;
+            this.terminal = terminal;
+        }
+
+        @Override
+        public int compareTo(Candidate<V> other) {
+            if (priority != other.priority) {
+                return Integer.compare(other.priority, priority);
+            }
+            int byKey = key.compareTo(other.key);
+            if (byKey != 0) {
+                return byKey;
+            }
+            // 同一节点先输出键本身，再展开子节点
+            return Boolean.compare(other.terminal, terminal);
+        }
+    }
+
+    /**
+     * 补全结果
+     */
+    @Getter
+    public static final class Completion<V> {
+
+        private final String key;
+
+        private final V value;
+
+        private final int count;
+
+        private Completion(String key, V value, int count) {
+            this.key = key;
+            this.value = value;
+            this.count = count;
+        }
+    }
+}
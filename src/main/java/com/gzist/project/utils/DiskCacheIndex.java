@@ -0,0 +1,138 @@
+package com.gzist.project.utils;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 磁盘缓存索引（LRU）
+ * 记录缓存目录中各文件的大小与访问顺序，总大小超过上限时删除最久未访问的文件；
+ * 线程安全，删除文件在锁外进行
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+@Slf4j
+public class DiskCacheIndex {
+
+    private final long maxSize;
+
+    /**
+     * 按访问顺序排列，value为文件大小
+     */
+    private final LinkedHashMap<Path, Long> entries = new LinkedHashMap<>(256, 0.75f, true);
+
+    private long totalSize;
+
+    public DiskCacheIndex(long maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * 按最后修改时间重建索引，并清理上次未完成的临时文件（.tmp）
+     *
+     * @param root 缓存根目录
+     */
+    public void load(Path root) throws IOException {
+        Files.createDirectories(root);
+        List<Path> files;
+        try (Stream<Path> stream = Files.walk(root)) {
+            files = stream.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+        List<Object[]> loaded = new ArrayList<>(files.size());
+        for (Path file : files) {
+            if (file.getFileName().toString().endsWith(".tmp")) {
+                Files.deleteIfExists(file);
+                continue;
+            }
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            loaded.add(new Object[]{file, attributes.size(), attributes.lastModifiedTime().toMillis()});
+        }
+        loaded.sort(Comparator.comparingLong(entry -> (Long) entry[2]));
+        for (Object[] entry : loaded) {
+            record((Path) entry[0], (Long) entry[1]);
+        }
+    }
+
+    /**
+     * 命中缓存时刷新访问顺序
+     *
+     * @return 缓存文件是否存在
+     */
+    public boolean touch(Path file) {
+        synchronized (entries) {
+            if (entries.get(file) == null) {
+                return false;
+            }
+        }
+        if (Files.exists(file)) {
+            return true;
+        }
+        // 文件已被外部删除，修正索引
+        remove(file);
+        return false;
+    }
+
+    /**
+     * 登记缓存文件，超过容量上限时淘汰最久未访问的文件
+     */
+    public void record(Path file, long size) {
+        List<Path> evicted = new ArrayList<>();
+        synchronized (entries) {
+            Long previous = entries.put(file, size);
+            totalSize += size - (previous == null ? 0 : previous);
+            Iterator<Map.Entry<Path, Long>> iterator = entries.entrySet().iterator();
+            while (totalSize > maxSize && iterator.hasNext()) {
+                Map.Entry<Path, Long> eldest = iterator.next();
+                if (eldest.getKey().equals(file)) {
+                    continue;
+                }
+                iterator.remove();
+                totalSize -= eldest.getValue();
+                evicted.add(eldest.getKey());
+            }
+        }
+        for (Path path : evicted) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                log.warn("缓存文件淘汰失败: {}", path);
+            }
+        }
+    }
+
+    /**
+     * 移除索引项（不删除文件）
+     */
+    public void remove(Path file) {
+        synchronized (entries) {
+            Long size = entries.remove(file);
+            if (size != null) {
+                totalSize -= size;
+            }
+        }
+    }
+
+    public int count() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long totalSize() {
+        synchronized (entries) {
+            return totalSize;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.gzist.project.utils;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * 批量导出记录写出器
+ * 逐行写出CSV / NDJSON，格式与ImportRecordReader的约定一致，导出文件可直接重新导入
+ * （CSV中含换行的字段按标准用引号包裹，ImportRecordReader不支持此类字段）
+ *
+ * CSV：首行为表头，包含逗号、双引号或换行的字段用双引号包裹，null写为空单元格
+ * NDJSON：每行一个JSON对象，日期时间格式与接口响应一致（yyyy-MM-dd HH:mm:ss）
+ *
+ * 写出器不持有任何行数据，内存占用与导出行数无关；不关闭底层输出流（由调用方负责）
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+public class ExportRecordWriter implements Flushable, Closeable {
+
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final ImportRecordReader.Format format;
+
+    private final String[] columns;
+
+    private final Writer writer;
+
+    private final JsonGenerator generator;
+
+    private long rowCount;
+
+    public ExportRecordWriter(OutputStream outputStream, ImportRecordReader.Format format, String[] columns) throws IOException {
+        this.format = format;
+        this.columns = columns;
+        this.writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), 64 * 1024);
+        if (format == ImportRecordReader.Format.NDJSON) {
+            this.generator = JsonUtils.getObjectMapper().getFactory().createGenerator(writer);
+            this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        } else {
+            this.generator = null;
+            writeCsvLine(columns);
+        }
+    }
+
+    /**
+     * 写出一行
+     *
+     * @param values 各列的值，顺序与构造时的列名一致
+     */
+    public void write(Object... values) throws IOException {
+        if (generator != null) {
+            generator.writeStartObject();
+            for (int i = 0; i < columns.length; i++) {
+                generator.writeFieldName(columns[i]);
+                generator.writeObject(values[i]);
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        } else {
+            writeCsvLine(values);
+        }
+        rowCount++;
+    }
+
+    /**
+     * 已写出的数据行数（不含表头）
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (generator != null) {
+            generator.flush();
+        }
+        writer.flush();
+    }
+
+    /**
+     * 刷出缓冲数据（不关闭底层输出流）
+     */
+    @Override
+    public void close() throws IOException {
+        flush();
+    }
+
+    private void writeCsvLine(Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writeCsvField(toText(values[i]));
+        }
+        writer.write("\r\n");
+    }
+
+    private void writeCsvField(String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = value.isEmpty();
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                writer.write('"');
+            }
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+
+    private static String toText(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof BigDecimal) {
+            return ((BigDecimal) value).toPlainString();
+        }
+        if (value instanceof LocalDateTime) {
+            return DATE_TIME_FORMATTER.format((LocalDateTime) value);
+        }
+        return value.toString();
+    }
+}
@@ -0,0 +1,119 @@
+package com.gzist.project.utils;
+
+import java.util.Locale;
+
+/**
+ * 图片类型枚举
+ * 根据文件头魔数识别真实类型，不信任客户端提交的Content-Type和文件扩展名
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+public enum ImageType {
+
+    JPEG("image/jpeg", ".jpg", "jpeg"),
+    PNG("image/png", ".png", "png"),
+    GIF("image/gif", ".gif", "gif"),
+    WEBP("image/webp", ".webp", null);
+
+    /**
+     * 识别类型所需读取的文件头字节数
+     */
+    public static final int HEADER_LENGTH = 12;
+
+    private static final byte[] JPEG_MAGIC = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF};
+
+    private static final byte[] PNG_MAGIC = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+    private static final byte[] GIF87_MAGIC = {'G', 'I', 'F', '8', '7', 'a'};
+
+    private static final byte[] GIF89_MAGIC = {'G', 'I', 'F', '8', '9', 'a'};
+
+    private static final byte[] RIFF_MAGIC = {'R', 'I', 'F', 'F'};
+
+    private static final byte[] WEBP_MAGIC = {'W', 'E', 'B', 'P'};
+
+    private final String contentType;
+
+    private final String extension;
+
+    /**
+     * ImageIO写出格式名，JDK不支持写出时为null
+     */
+    private final String writerFormat;
+
+    ImageType(String contentType, String extension, String writerFormat) {
+        this.contentType = contentType;
+        this.extension = extension;
+        this.writerFormat = writerFormat;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public String getWriterFormat() {
+        return writerFormat;
+    }
+
+    /**
+     * 根据格式名（jpg、jpeg、png等，不区分大小写）获取图片类型
+     *
+     * @param format 格式名
+     * @return 图片类型，无法识别返回null
+     */
+    public static ImageType fromFormat(String format) {
+        if (format == null) {
+            return null;
+        }
+        String lower = format.trim().toLowerCase(Locale.ROOT);
+        if ("jpeg".equals(lower)) {
+            return JPEG;
+        }
+        for (ImageType type : values()) {
+            if (type.extension.equals("." + lower)) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 根据文件头识别图片类型
+     *
+     * @param header 文件头
+     * @param length 文件头有效长度
+     * @return 图片类型，无法识别返回null
+     */
+    public static ImageType detect(byte[] header, int length) {
+        if (startsWith(header, length, 0, JPEG_MAGIC)) {
+            return JPEG;
+        }
+        if (startsWith(header, length, 0, PNG_MAGIC)) {
+            return PNG;
+        }
+        if (startsWith(header, length, 0, GIF87_MAGIC) || startsWith(header, length, 0, GIF89_MAGIC)) {
+            return GIF;
+        }
+        if (startsWith(header, length, 0, RIFF_MAGIC) && startsWith(header, length, 8, WEBP_MAGIC)) {
+            return WEBP;
+        }
+        return null;
+    }
+
+    private static boolean startsWith(byte[] header, int length, int offset, byte[] magic) {
+        if (length < offset + magic.length) {
+            return false;
+        }
+        for (int i = 0; i < magic.length; i++) {
+            if (header[offset + i] != magic[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
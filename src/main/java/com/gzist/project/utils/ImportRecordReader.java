@@ -0,0 +1,209 @@
+package com.gzist.project.utils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 批量导入记录读取器
+ * 逐行流式解析CSV / NDJSON，内存占用与文件大小无关
+ *
+ * CSV约定：首行为表头（字段名与DTO属性名一致），字段可用双引号包裹，
+ * 引号内的双引号写作""，不支持字段内换行；空单元格视为null
+ * NDJSON约定：每行一个JSON对象，空行忽略
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+public class ImportRecordReader implements Closeable {
+
+    /**
+     * 导入文件格式
+     */
+    public enum Format {
+        CSV, NDJSON;
+
+        /**
+         * 解析导入格式：优先使用显式参数，其次根据Content-Type推断，默认CSV
+         *
+         * @param format 显式格式参数（csv/ndjson）
+         * @param contentType 请求Content-Type
+         * @return 导入格式
+         */
+        public static Format resolve(String format, String contentType) {
+            String hint = format != null && !format.trim().isEmpty() ? format : contentType;
+            if (hint != null) {
+                String lower = hint.toLowerCase(Locale.ROOT);
+                if (lower.contains("ndjson") || lower.contains("jsonl") || lower.contains("json")) {
+                    return NDJSON;
+                }
+            }
+            return CSV;
+        }
+    }
+
+    /**
+     * 转换用ObjectMapper：忽略未知列，便于导入文件携带额外字段
+     */
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private static final TypeReference<LinkedHashMap<String, Object>> MAP_TYPE =
+            new TypeReference<LinkedHashMap<String, Object>>() {
+            };
+
+    private final BufferedReader reader;
+
+    private final Format format;
+
+    private String[] header;
+
+    private long lineNumber;
+
+    public ImportRecordReader(InputStream inputStream, Format format) {
+        this.reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        this.format = format;
+    }
+
+    /**
+     * 读取下一条记录
+     *
+     * @return 字段名到值的映射，读取完毕返回null
+     * @throws IOException 读取流失败
+     * @throws IllegalArgumentException 当前行格式错误（读取位置已前移，可继续读取下一行）
+     */
+    public Map<String, Object> next() throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (lineNumber == 1 && !line.isEmpty() && line.charAt(0) == '\uFEFF') {
+                line = line.substring(1);
+            }
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            if (format == Format.NDJSON) {
+                return parseJsonLine(line);
+            }
+            if (header == null) {
+                header = parseHeader(line);
+                continue;
+            }
+            return parseCsvLine(line);
+        }
+        return null;
+    }
+
+    /**
+     * 当前记录所在行号（从1开始，CSV包含表头行）
+     */
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * 将记录转换为目标对象（类型由Jackson按属性自动转换）
+     *
+     * @param record 记录
+     * @param clazz 目标类型
+     * @return 目标对象
+     * @throws IllegalArgumentException 字段类型无法转换
+     */
+    public static <T> T toBean(Map<String, Object> record, Class<T> clazz) {
+        return MAPPER.convertValue(record, clazz);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private Map<String, Object> parseJsonLine(String line) {
+        try {
+            return MAPPER.readValue(line, MAP_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("JSON格式错误：" + e.getOriginalMessage(), e);
+        }
+    }
+
+    private String[] parseHeader(String line) {
+        List<String> columns = splitCsv(line);
+        String[] names = new String[columns.size()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = columns.get(i) == null ? "" : columns.get(i).trim();
+        }
+        return names;
+    }
+
+    private Map<String, Object> parseCsvLine(String line) {
+        List<String> values = splitCsv(line);
+        if (values.size() > header.length) {
+            throw new IllegalArgumentException("列数超过表头列数（" + header.length + "）");
+        }
+        Map<String, Object> record = new LinkedHashMap<>(header.length * 2);
+        for (int i = 0; i < header.length; i++) {
+            String value = i < values.size() ? values.get(i) : null;
+            record.put(header[i], value);
+        }
+        return record;
+    }
+
+    /**
+     * 拆分一行CSV，空字段返回null
+     */
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        boolean wasQuoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+                wasQuoted = true;
+            } else if (c == ',') {
+                fields.add(toField(current, wasQuoted));
+                current.setLength(0);
+                wasQuoted = false;
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("CSV引号未闭合");
+        }
+        fields.add(toField(current, wasQuoted));
+        return fields;
+    }
+
+    private static String toField(StringBuilder current, boolean wasQuoted) {
+        String value = wasQuoted ? current.toString() : current.toString().trim();
+        return value.isEmpty() ? null : value;
+    }
+}
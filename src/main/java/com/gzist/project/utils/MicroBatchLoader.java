@@ -0,0 +1,191 @@
+package com.gzist.project.utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * 微批量加载器（DataLoader风格）
+ * 把短时间内并发的单键加载合并成一次批量加载：第一个请求开启一个批次并设定等待窗口，
+ * 窗口到期或批次中的不同键达到上限时执行一次批量加载，再按键把结果分发给各调用方；
+ * 同一批次中的重复键只加载一次
+ *
+ * 批量加载在调用方线程上执行：批次满时由凑满批次的线程执行，否则由开启批次的线程在窗口到期后执行。
+ * 加载器不创建线程，到期的批次不会排队等待空闲线程；同时执行的批量加载数不超过正在等待的调用方数。
+ * 调用方最多等待一个窗口加上一次批量加载的耗时（批量加载本身的耗时由batchFunction决定，例如数据库查询超时）
+ *
+ * @param <K> 键
+ * @param <V> 值（批量结果中没有的键得到null）
+ * @author GZIST
+ * @since 2026-10-19
+ */
+public final class MicroBatchLoader<K, V> implements AutoCloseable {
+
+    private final Function<List<K>, Map<K, V>> batchFunction;
+
+    private final long windowMicros;
+
+    private final int maxBatchSize;
+
+    private final Object lock = new Object();
+
+    /**
+     * 正在收集的批次，null表示没有
+     */
+    private Batch<K, V> current;
+
+    private final AtomicLong loads = new AtomicLong();
+
+    private final AtomicLong batches = new AtomicLong();
+
+    /**
+     * @param batchFunction 批量加载函数（键 -> 值，不存在的键可以缺省）
+     * @param windowMicros 等待窗口（微秒）
+     * @param maxBatchSize 每批最多的不同键数
+     */
+    public MicroBatchLoader(Function<List<K>, Map<K, V>> batchFunction, long windowMicros, int maxBatchSize) {
+        this.batchFunction = batchFunction;
+        this.windowMicros = windowMicros;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * 加载单个键（阻塞等待所在批次完成）
+     * 批量加载抛出的运行时异常原样抛给同批次的每个调用方
+     *
+     * @param key 键
+     * @return 值，不存在时返回null
+     */
+    public V load(K key) {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        loads.incrementAndGet();
+        Batch<K, V> opened = null;
+        Batch<K, V> full = null;
+        synchronized (lock) {
+            if (current == null) {
+                current = new Batch<>();
+                opened = current;
+            }
+            current.waiters.computeIfAbsent(key, k -> new ArrayList<>(1)).add(future);
+            if (current.waiters.size() >= maxBatchSize) {
+                full = current;
+                current = null;
+            }
+        }
+        if (full != null) {
+            dispatch(full);
+        } else if (opened != null) {
+            // 开启批次的调用方等待窗口到期（批次被其他线程凑满时提前返回），到期时在本线程执行
+            awaitWindow(opened);
+            dispatch(opened);
+        }
+        return join(future);
+    }
+
+    private void awaitWindow(Batch<K, V> batch) {
+        try {
+            batch.sealed.await(windowMicros, TimeUnit.MICROSECONDS);
+        } catch (InterruptedException e) {
+            // 仍需执行批次，否则同批次的其他调用方无人唤醒
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private V join(CompletableFuture<V> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("等待批量加载时被中断", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    private void dispatch(Batch<K, V> batch) {
+        synchronized (lock) {
+            if (current == batch) {
+                current = null;
+            }
+        }
+        // 窗口到期与批次凑满可能同时发生，只执行一次
+        if (!batch.dispatched.compareAndSet(false, true)) {
+            return;
+        }
+        batch.sealed.countDown();
+        batches.incrementAndGet();
+        Map<K, V> values;
+        try {
+            values = batchFunction.apply(new ArrayList<>(batch.waiters.keySet()));
+        } catch (RuntimeException | Error e) {
+            batch.waiters.values().forEach(futures -> futures.forEach(future -> future.completeExceptionally(e)));
+            return;
+        }
+        batch.waiters.forEach((key, futures) -> {
+            V value = values.get(key);
+            for (CompletableFuture<V> future : futures) {
+                future.complete(value);
+            }
+        });
+    }
+
+    /**
+     * 已受理的加载次数
+     */
+    public long loadCount() {
+        return loads.get();
+    }
+
+    /**
+     * 已执行的批量加载次数
+     */
+    public long batchCount() {
+        return batches.get();
+    }
+
+    /**
+     * 关闭加载器：立即执行正在收集的批次
+     */
+    @Override
+    public void close() {
+        Batch<K, V> pending;
+        synchronized (lock) {
+            pending = current;
+            current = null;
+        }
+        if (pending != null) {
+            dispatch(pending);
+        }
+    }
+
+    /**
+     * 批次：键到等待该键的调用方
+     */
+    private static final class Batch<K, V> {
+
+        private final Map<K, Collection<CompletableFuture<V>>> waiters = new LinkedHashMap<>();
+
+        private final AtomicBoolean dispatched = new AtomicBoolean();
+
+        /**
+         * 批次开始执行时打开，开启批次的调用方不再等待窗口
+         */
+        private final CountDownLatch sealed = new CountDownLatch(1);
+    }
+}
@@ -0,0 +1,728 @@
+package com.gzist.project.utils;
+
+import com.gzist.project.entity.Product;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * 产品列式快照
+ * 列表查询用到的字段按列存放在基本类型数组中（价格以分为单位，分类字典编码，创建时间为秒），
+ * 行按创建时间降序、ID降序排列，与列表查询的排序一致，行号即排序位置
+ *
+ * 每个分类、每个状态、每个价格区间各有一个行号位图（{@link RowBitmap}），组合条件先按位与/或得到候选行，
+ * 位图基数即总数；行号本身就是排序位置，按位从低到高取出即为当前页，无需排序。
+ * 名称关键字无法建索引，只在候选行上逐行匹配
+ *
+ * 快照创建后不再修改，增量变更通过 {@link #withChanges} 生成新快照（列数据归并后位图随之重建），读线程无需加锁
+ *
+ * 匹配规则与数据库排序规则（utf8mb4_unicode_ci）近似：名称和分类不区分大小写，分类忽略末尾空格
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+public final class ProductColumnSnapshot {
+
+    /**
+     * 分类为空的编码
+     */
+    private static final int NO_CATEGORY = -1;
+
+    /**
+     * 数组元素与对象头的粗略字节数，用于估算内存占用
+     */
+    private static final int BYTES_PER_ROW = 8 + 8 + 4 + 1 + 8 + 8;
+
+    /**
+     * 价格区间数（按全量构建时的价格分位数划分，各区间行数相近）
+     */
+    private static final int PRICE_BUCKETS = 64;
+
+    private static final Comparator<Product> ORDER = Comparator
+            .comparingLong(ProductColumnSnapshot::epochSecond).reversed()
+            .thenComparing(Product::getId, Comparator.reverseOrder());
+
+    private final int size;
+
+    private final long[] ids;
+
+    private final long[] priceCents;
+
+    private final int[] categories;
+
+    private final byte[] statuses;
+
+    private final long[] createdSeconds;
+
+    /**
+     * 小写名称（用于模糊匹配）
+     */
+    private final String[] names;
+
+    /**
+     * 分类字典：规范化后的分类到编码
+     */
+    private final Map<String, Integer> categoryCodes;
+
+    /**
+     * 分类编码到分类名（同一规范化分类首次出现时的写法）
+     */
+    private final String[] categoryLabels;
+
+    /**
+     * 价格区间下界（分，升序，第一个为Long.MIN_VALUE），全量构建时确定，增量变更沿用
+     */
+    private final long[] priceBounds;
+
+    /**
+     * 分类编码到位图
+     */
+    private final RowBitmap[] categoryIndex;
+
+    /**
+     * 状态值到位图
+     */
+    private final RowBitmap[] statusIndex;
+
+    /**
+     * 价格区间到位图
+     */
+    private final RowBitmap[] priceIndex;
+
+    private final long estimatedBytes;
+
+    private ProductColumnSnapshot(Builder builder) {
+        this.size = builder.size;
+        this.ids = Arrays.copyOf(builder.ids, size);
+        this.priceCents = Arrays.copyOf(builder.priceCents, size);
+        this.categories = Arrays.copyOf(builder.categories, size);
+        this.statuses = Arrays.copyOf(builder.statuses, size);
+        this.createdSeconds = Arrays.copyOf(builder.createdSeconds, size);
+        this.names = Arrays.copyOf(builder.names, size);
+        this.categoryCodes = builder.categoryCodes;
+        this.categoryLabels = builder.categoryLabels.toArray(new String[0]);
+        this.estimatedBytes = (long) size * BYTES_PER_ROW + builder.nameBytes;
+        this.priceBounds = builder.priceBounds != null ? builder.priceBounds : priceQuantiles(priceCents);
+
+        this.categoryIndex = buildIndex(categoryCodes.size(), row -> categories[row]);
+        int maxStatus = 0;
+        for (int i = 0; i < size; i++) {
+            maxStatus = Math.max(maxStatus, statuses[i] & 0xFF);
+        }
+        this.statusIndex = buildIndex(maxStatus + 1, row -> statuses[row] & 0xFF);
+        this.priceIndex = buildIndex(priceBounds.length, row -> priceBucket(priceCents[row]));
+    }
+
+    /**
+     * 一次计数、一次填充，为每个取值生成位图（取值为负的行不进入任何位图）
+     */
+    private RowBitmap[] buildIndex(int values, IntUnaryOperator valueOf) {
+        int[] counts = new int[values];
+        for (int row = 0; row < size; row++) {
+            int value = valueOf.applyAsInt(row);
+            if (value >= 0) {
+                counts[value]++;
+            }
+        }
+        int[][] positions = new int[values][];
+        for (int value = 0; value < values; value++) {
+            positions[value] = new int[counts[value]];
+        }
+        int[] filled = new int[values];
+        for (int row = 0; row < size; row++) {
+            int value = valueOf.applyAsInt(row);
+            if (value >= 0) {
+                positions[value][filled[value]++] = row;
+            }
+        }
+        RowBitmap[] index = new RowBitmap[values];
+        for (int value = 0; value < values; value++) {
+            index[value] = RowBitmap.of(positions[value], counts[value], size);
+            // 逐个释放，降低构建时的内存峰值
+            positions[value] = null;
+        }
+        return index;
+    }
+
+    private static long[] priceQuantiles(long[] priceCents) {
+        long[] sorted = priceCents.clone();
+        Arrays.sort(sorted);
+        long[] bounds = new long[PRICE_BUCKETS];
+        bounds[0] = Long.MIN_VALUE;
+        int count = 1;
+        for (int i = 1; i < PRICE_BUCKETS && sorted.length > 0; i++) {
+            long bound = sorted[(int) ((long) sorted.length * i / PRICE_BUCKETS)];
+            if (bound > bounds[count - 1]) {
+                bounds[count++] = bound;
+            }
+        }
+        return Arrays.copyOf(bounds, count);
+    }
+
+    private int priceBucket(long price) {
+        int index = Arrays.binarySearch(priceBounds, price);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    /**
+     * 按列表查询的条件扫描快照
+     *
+     * @param productName 名称关键字（包含匹配），null表示不过滤
+     * @param category 分类（精确匹配），null表示不过滤
+     * @param status 状态，null表示不过滤
+     * @param minPrice 最低价格（含），null表示不限
+     * @param maxPrice 最高价格（含），null表示不限
+     * @param offset 跳过的匹配行数
+     * @param limit 返回的最大ID数
+     * @return 当前页的产品ID（按创建时间降序）和匹配总数
+     */
+    public QueryResult query(String productName, String category, Integer status,
+                             BigDecimal minPrice, BigDecimal maxPrice, long offset, int limit) {
+        long[] candidates = filter(category, status, minPrice, maxPrice);
+        if (productName != null) {
+            return matchNames(candidates, productName.toLowerCase(Locale.ROOT), offset, limit);
+        }
+        if (candidates == null) {
+            int from = (int) Math.min(offset, size);
+            int to = (int) Math.min((long) from + limit, size);
+            return new QueryResult(Arrays.copyOfRange(ids, from, to), size);
+        }
+        return page(candidates, offset, limit);
+    }
+
+    /**
+     * 统计筛选结果的分面：各分类的产品数和各价格段的产品数
+     * 分类计数不应用分类条件、价格段计数不应用价格条件（其余条件照常应用），便于切换分类或价格段前预知结果数
+     *
+     * @param productName 名称关键字，null表示不过滤
+     * @param category 分类，null表示不过滤
+     * @param status 状态，null表示不过滤
+     * @param minPrice 最低价格（含），null表示不限
+     * @param maxPrice 最高价格（含），null表示不限
+     * @param bandBounds 价格段边界（升序），第i段为[bandBounds[i], bandBounds[i+1])，最后一段无上限
+     * @return 分面统计
+     */
+    public Facets facets(String productName, String category, Integer status,
+                         BigDecimal minPrice, BigDecimal maxPrice, List<BigDecimal> bandBounds) {
+        String needle = productName == null ? null : productName.toLowerCase(Locale.ROOT);
+        long total = count(withNames(filter(category, status, minPrice, maxPrice), needle));
+
+        long[] categoryCandidates = withNames(filter(null, status, minPrice, maxPrice), needle);
+        Map<String, Long> categoryCounts = new HashMap<>();
+        for (int code = 0; code < categoryIndex.length; code++) {
+            long count = categoryIndex[code].countAnd(categoryCandidates);
+            if (count > 0) {
+                categoryCounts.put(categoryLabels[code], count);
+            }
+        }
+
+        long[] priceCandidates = withNames(filter(category, status, null, null), needle);
+        long[] bandCounts = new long[bandBounds.size()];
+        for (int band = 0; band < bandCounts.length; band++) {
+            long low = toCents(bandBounds.get(band), RoundingMode.CEILING);
+            long high = band + 1 < bandCounts.length
+                    ? toCents(bandBounds.get(band + 1), RoundingMode.CEILING) - 1 : Long.MAX_VALUE;
+            bandCounts[band] = countPriceRange(priceCandidates, low, high);
+        }
+        return new Facets(total, categoryCounts, bandCounts);
+    }
+
+    /**
+     * 按分类、状态、价格条件求候选行位图，null表示全部行
+     */
+    private long[] filter(String category, Integer status, BigDecimal minPrice, BigDecimal maxPrice) {
+        long[] candidates = null;
+        if (category != null) {
+            Integer code = categoryCodes.get(normalizeCategory(category));
+            if (code == null) {
+                return new long[RowBitmap.wordCount(size)];
+            }
+            candidates = categoryIndex[code].toWords(size);
+        }
+        if (status != null) {
+            if (status < 0 || status >= statusIndex.length) {
+                return new long[RowBitmap.wordCount(size)];
+            }
+            candidates = intersect(candidates, statusIndex[status]);
+        }
+        if (minPrice != null || maxPrice != null) {
+            long min = minPrice == null ? Long.MIN_VALUE : toCents(minPrice, RoundingMode.CEILING);
+            long max = maxPrice == null ? Long.MAX_VALUE : toCents(maxPrice, RoundingMode.FLOOR);
+            long[] priceWords = priceCandidates(min, max);
+            if (candidates == null) {
+                candidates = priceWords;
+            } else {
+                for (int i = 0; i < candidates.length; i++) {
+                    candidates[i] &= priceWords[i];
+                }
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * 在候选行上应用名称关键字，返回匹配行的位图（关键字为null时原样返回）
+     */
+    private long[] withNames(long[] candidates, String needle) {
+        if (needle == null) {
+            return candidates;
+        }
+        long[] matched = new long[RowBitmap.wordCount(size)];
+        for (int row = 0; row < size; row++) {
+            if ((candidates == null || (candidates[row >>> 6] & (1L << row)) != 0) && names[row].contains(needle)) {
+                matched[row >>> 6] |= 1L << row;
+            }
+        }
+        return matched;
+    }
+
+    private long count(long[] candidates) {
+        if (candidates == null) {
+            return size;
+        }
+        long total = 0;
+        for (long word : candidates) {
+            total += Long.bitCount(word);
+        }
+        return total;
+    }
+
+    /**
+     * 候选行中价格在[min, max]内的行数：完全落在范围内的价格区间按位图计数，与边界相交的区间逐行比较
+     */
+    private long countPriceRange(long[] candidates, long min, long max) {
+        long total = 0;
+        for (int bucket = 0; bucket < priceBounds.length; bucket++) {
+            long low = priceBounds[bucket];
+            long high = bucket + 1 < priceBounds.length ? priceBounds[bucket + 1] - 1 : Long.MAX_VALUE;
+            if (high < min || low > max) {
+                continue;
+            }
+            if (low >= min && high <= max) {
+                total += priceIndex[bucket].countAnd(candidates);
+            } else {
+                long[] matched = new long[1];
+                priceIndex[bucket].forEach(row -> {
+                    long price = priceCents[row];
+                    if (price >= min && price <= max
+                            && (candidates == null || (candidates[row >>> 6] & (1L << row)) != 0)) {
+                        matched[0]++;
+                    }
+                });
+                total += matched[0];
+            }
+        }
+        return total;
+    }
+
+    private static long toCents(BigDecimal price, RoundingMode roundingMode) {
+        return price.movePointRight(2).setScale(0, roundingMode).longValue();
+    }
+
+    private long[] intersect(long[] candidates, RowBitmap bitmap) {
+        if (candidates == null) {
+            return bitmap.toWords(size);
+        }
+        bitmap.andInto(candidates);
+        return candidates;
+    }
+
+    /**
+     * 价格区间：完全落在范围内的区间直接合并位图，与边界相交的区间逐行比较价格
+     */
+    private long[] priceCandidates(long min, long max) {
+        long[] words = new long[RowBitmap.wordCount(size)];
+        for (int bucket = 0; bucket < priceBounds.length; bucket++) {
+            long low = priceBounds[bucket];
+            long high = bucket + 1 < priceBounds.length ? priceBounds[bucket + 1] - 1 : Long.MAX_VALUE;
+            if (high < min || low > max) {
+                continue;
+            }
+            if (low >= min && high <= max) {
+                priceIndex[bucket].orInto(words);
+            } else {
+                priceIndex[bucket].forEach(row -> {
+                    long price = priceCents[row];
+                    if (price >= min && price <= max) {
+                        words[row >>> 6] |= 1L << row;
+                    }
+                });
+            }
+        }
+        return words;
+    }
+
+    /**
+     * 从候选位图中按行号顺序取出当前页，总数为位图基数；整字跳过offset之前的行
+     */
+    private QueryResult page(long[] candidates, long offset, int limit) {
+        long total = 0;
+        for (long word : candidates) {
+            total += Long.bitCount(word);
+        }
+        long[] page = new long[(int) Math.max(0, Math.min(limit, total - offset))];
+        int count = 0;
+        long skipped = 0;
+        for (int i = 0; i < candidates.length && count < page.length; i++) {
+            long word = candidates[i];
+            int bits = Long.bitCount(word);
+            if (skipped + bits <= offset) {
+                skipped += bits;
+                continue;
+            }
+            while (word != 0 && count < page.length) {
+                int row = (i << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+                if (skipped < offset) {
+                    skipped++;
+                } else {
+                    page[count++] = ids[row];
+                }
+            }
+        }
+        return new QueryResult(page, total);
+    }
+
+    /**
+     * 在候选行（null表示全部行）上逐行匹配名称关键字
+     */
+    private QueryResult matchNames(long[] candidates, String needle, long offset, int limit) {
+        long[] page = new long[limit];
+        int count = 0;
+        long total = 0;
+        if (candidates == null) {
+            for (int row = 0; row < size; row++) {
+                if (names[row].contains(needle)) {
+                    if (total >= offset && count < limit) {
+                        page[count++] = ids[row];
+                    }
+                    total++;
+                }
+            }
+        } else {
+            for (int i = 0; i < candidates.length; i++) {
+                long word = candidates[i];
+                while (word != 0) {
+                    int row = (i << 6) + Long.numberOfTrailingZeros(word);
+                    word &= word - 1;
+                    if (names[row].contains(needle)) {
+                        if (total >= offset && count < limit) {
+                            page[count++] = ids[row];
+                        }
+                        total++;
+                    }
+                }
+            }
+        }
+        return new QueryResult(Arrays.copyOf(page, count), total);
+    }
+
+    /**
+     * 应用增量变更，返回新快照（本快照不变）
+     *
+     * @param changedIds 发生变更的产品ID（含已删除的）
+     * @param rows 变更产品在数据库中的当前值（已删除的不在其中）
+     * @return 新快照
+     */
+    public ProductColumnSnapshot withChanges(Set<Long> changedIds, Collection<Product> rows) {
+        List<Product> incoming = new ArrayList<>(rows);
+        incoming.sort(ORDER);
+        Builder builder = new Builder(size + incoming.size(), new HashMap<>(categoryCodes),
+                new ArrayList<>(Arrays.asList(categoryLabels)));
+        builder.priceBounds = priceBounds;
+        int next = 0;
+        for (int i = 0; i < size; i++) {
+            if (changedIds.contains(ids[i])) {
+                continue;
+            }
+            // 两边都按（创建时间降序，ID降序）排列，归并保持顺序
+            while (next < incoming.size() && precedes(incoming.get(next), i)) {
+                builder.add(incoming.get(next++));
+            }
+            builder.appendRow(this, i);
+        }
+        while (next < incoming.size()) {
+            builder.add(incoming.get(next++));
+        }
+        return builder.build();
+    }
+
+    private boolean precedes(Product product, int row) {
+        long seconds = epochSecond(product);
+        return seconds > createdSeconds[row] || (seconds == createdSeconds[row] && product.getId() > ids[row]);
+    }
+
+    /**
+     * 行数
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 分类字典大小
+     */
+    public int categoryCount() {
+        return categoryCodes.size();
+    }
+
+    /**
+     * 估算的列数据内存占用（字节，不含位图索引）
+     */
+    public long estimatedBytes() {
+        return estimatedBytes;
+    }
+
+    /**
+     * 各位图索引的位图数与内存占用
+     */
+    public List<IndexStats> indexStats() {
+        List<IndexStats> stats = new ArrayList<>(3);
+        stats.add(new IndexStats("category", categoryIndex));
+        stats.add(new IndexStats("status", statusIndex));
+        stats.add(new IndexStats("price", priceIndex));
+        return stats;
+    }
+
+    private static long epochSecond(Product product) {
+        LocalDateTime createdTime = product.getCreatedTime();
+        return createdTime == null ? 0 : createdTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static String normalizeCategory(String category) {
+        int end = category.length();
+        while (end > 0 && category.charAt(end - 1) == ' ') {
+            end--;
+        }
+        return category.substring(0, end).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 快照构建器，行必须按创建时间降序、ID降序依次加入
+     */
+    public static final class Builder {
+
+        private int size;
+
+        private long[] ids;
+
+        private long[] priceCents;
+
+        private int[] categories;
+
+        private byte[] statuses;
+
+        private long[] createdSeconds;
+
+        private String[] names;
+
+        private final Map<String, Integer> categoryCodes;
+
+        private final List<String> categoryLabels;
+
+        private long nameBytes;
+
+        private long[] priceBounds;
+
+        public Builder(int expectedSize) {
+            this(expectedSize, new HashMap<>(), new ArrayList<>());
+        }
+
+        private Builder(int expectedSize, Map<String, Integer> categoryCodes, List<String> categoryLabels) {
+            int capacity = Math.max(16, expectedSize);
+            this.ids = new long[capacity];
+            this.priceCents = new long[capacity];
+            this.categories = new int[capacity];
+            this.statuses = new byte[capacity];
+            this.createdSeconds = new long[capacity];
+            this.names = new String[capacity];
+            this.categoryCodes = categoryCodes;
+            this.categoryLabels = categoryLabels;
+        }
+
+        /**
+         * 加入一行（只读取ID、名称、分类、价格、状态、创建时间）
+         */
+        public Builder add(Product product) {
+            ensureCapacity();
+            int row = size++;
+            ids[row] = product.getId();
+            priceCents[row] = product.getPrice() == null ? 0 : toCents(product.getPrice(), RoundingMode.HALF_UP);
+            categories[row] = product.getCategory() == null ? NO_CATEGORY
+                    : categoryCodes.computeIfAbsent(normalizeCategory(product.getCategory()), key -> {
+                        categoryLabels.add(product.getCategory().trim());
+                        return categoryLabels.size() - 1;
+                    });
+            statuses[row] = product.getStatus() == null ? 0 : product.getStatus().byteValue();
+            createdSeconds[row] = epochSecond(product);
+            String name = product.getProductName() == null ? "" : product.getProductName().toLowerCase(Locale.ROOT);
+            names[row] = name;
+            nameBytes += 40 + 2L * name.length();
+            return this;
+        }
+
+        private void appendRow(ProductColumnSnapshot source, int from) {
+            ensureCapacity();
+            int row = size++;
+            ids[row] = source.ids[from];
+            priceCents[row] = source.priceCents[from];
+            categories[row] = source.categories[from];
+            statuses[row] = source.statuses[from];
+            createdSeconds[row] = source.createdSeconds[from];
+            names[row] = source.names[from];
+            nameBytes += 40 + 2L * source.names[from].length();
+        }
+
+        private void ensureCapacity() {
+            if (size < ids.length) {
+                return;
+            }
+            int capacity = ids.length + (ids.length >> 1);
+            ids = Arrays.copyOf(ids, capacity);
+            priceCents = Arrays.copyOf(priceCents, capacity);
+            categories = Arrays.copyOf(categories, capacity);
+            statuses = Arrays.copyOf(statuses, capacity);
+            createdSeconds = Arrays.copyOf(createdSeconds, capacity);
+            names = Arrays.copyOf(names, capacity);
+        }
+
+        public ProductColumnSnapshot build() {
+            return new ProductColumnSnapshot(this);
+        }
+    }
+
+    /**
+     * 位图索引统计
+     */
+    public static final class IndexStats {
+
+        private final String name;
+
+        private final int bitmaps;
+
+        private final int denseBitmaps;
+
+        private final long bytes;
+
+        IndexStats(String name, RowBitmap[] index) {
+            int dense = 0;
+            long total = 0;
+            for (RowBitmap bitmap : index) {
+                dense += bitmap.isDense() ? 1 : 0;
+                total += bitmap.sizeInBytes();
+            }
+            this.name = name;
+            this.bitmaps = index.length;
+            this.denseBitmaps = dense;
+            this.bytes = total;
+        }
+
+        /**
+         * 索引名（category/status/price）
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * 位图数（取值个数）
+         */
+        public int getBitmaps() {
+            return bitmaps;
+        }
+
+        /**
+         * 其中按位数组存储的位图数
+         */
+        public int getDenseBitmaps() {
+            return denseBitmaps;
+        }
+
+        /**
+         * 占用字节数
+         */
+        public long getBytes() {
+            return bytes;
+        }
+    }
+
+    /**
+     * 分面统计结果
+     */
+    public static final class Facets {
+
+        private final long total;
+
+        private final Map<String, Long> categoryCounts;
+
+        private final long[] bandCounts;
+
+        Facets(long total, Map<String, Long> categoryCounts, long[] bandCounts) {
+            this.total = total;
+            this.categoryCounts = categoryCounts;
+            this.bandCounts = bandCounts;
+        }
+
+        /**
+         * 应用全部条件后的总数
+         */
+        public long getTotal() {
+            return total;
+        }
+
+        /**
+         * 分类名到产品数（不含计数为0的分类和未分类产品）
+         */
+        public Map<String, Long> getCategoryCounts() {
+            return categoryCounts;
+        }
+
+        /**
+         * 各价格段的产品数（与传入的边界一一对应）
+         */
+        public long[] getBandCounts() {
+            return bandCounts;
+        }
+    }
+
+    /**
+     * 快照查询结果
+     */
+    public static final class QueryResult {
+
+        private final long[] ids;
+
+        private final long total;
+
+        public QueryResult(long[] ids, long total) {
+            this.ids = ids;
+            this.total = total;
+        }
+
+        /**
+         * 当前页的产品ID（按创建时间降序）
+         */
+        public long[] getIds() {
+            return ids;
+        }
+
+        /**
+         * 匹配总数
+         */
+        public long getTotal() {
+            return total;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.gzist.project.utils;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * 行号位图（不可变）
+ * 记录满足某个条件的行号，按基数选择存储方式：基数小时存有序行号数组（每行4字节），
+ * 基数大时存位数组（每行1位），取两者中较小的一种，思路与RoaringBitmap的数组容器/位图容器相同
+ *
+ * 组合条件时先转为位数组，再按字逐个与/或，结果的基数（bitCount）即匹配总数
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+public final class RowBitmap {
+
+    private static final RowBitmap EMPTY = new RowBitmap(0, new int[0], null);
+
+    private final int cardinality;
+
+    /**
+     * 稀疏存储：升序行号
+     */
+    private final int[] positions;
+
+    /**
+     * 密集存储：位数组
+     */
+    private final long[] words;
+
+    private RowBitmap(int cardinality, int[] positions, long[] words) {
+        this.cardinality = cardinality;
+        this.positions = positions;
+        this.words = words;
+    }
+
+    /**
+     * 由升序行号创建位图
+     *
+     * @param sortedPositions 升序行号（只读取前count个）
+     * @param count 行号个数
+     * @param rows 总行数
+     * @return 位图
+     */
+    public static RowBitmap of(int[] sortedPositions, int count, int rows) {
+        if (count == 0) {
+            return EMPTY;
+        }
+        // 行号数组每个元素32位，位数组每行1位：基数超过总行数的1/32时位数组更小
+        if ((long) count * 32 <= rows) {
+            return new RowBitmap(count, Arrays.copyOf(sortedPositions, count), null);
+        }
+        long[] words = new long[wordCount(rows)];
+        for (int i = 0; i < count; i++) {
+            int row = sortedPositions[i];
+            words[row >>> 6] |= 1L << row;
+        }
+        return new RowBitmap(count, null, words);
+    }
+
+    /**
+     * 总行数对应的位数组长度
+     */
+    public static int wordCount(int rows) {
+        return (rows + 63) >>> 6;
+    }
+
+    /**
+     * 基数（包含的行数）
+     */
+    public int cardinality() {
+        return cardinality;
+    }
+
+    /**
+     * 与目标位图交集的基数
+     *
+     * @param target 目标位数组，null表示全部行
+     */
+    public long countAnd(long[] target) {
+        if (target == null) {
+            return cardinality;
+        }
+        long count = 0;
+        if (words != null) {
+            for (int i = 0; i < words.length; i++) {
+                count += Long.bitCount(words[i] & target[i]);
+            }
+        } else {
+            for (int row : positions) {
+                if ((target[row >>> 6] & (1L << row)) != 0) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 转为位数组（新数组）
+     */
+    public long[] toWords(int rows) {
+        if (words != null) {
+            return words.clone();
+        }
+        long[] result = new long[wordCount(rows)];
+        orInto(result);
+        return result;
+    }
+
+    /**
+     * target = target AND this
+     */
+    public void andInto(long[] target) {
+        long[] mine = words != null ? words : toWords(target.length << 6);
+        for (int i = 0; i < target.length; i++) {
+            target[i] &= mine[i];
+        }
+    }
+
+    /**
+     * target = target OR this
+     */
+    public void orInto(long[] target) {
+        if (words != null) {
+            for (int i = 0; i < target.length; i++) {
+                target[i] |= words[i];
+            }
+        } else {
+            for (int row : positions) {
+                target[row >>> 6] |= 1L << row;
+            }
+        }
+    }
+
+    /**
+     * 按行号升序遍历
+     */
+    public void forEach(IntConsumer action) {
+        if (positions != null) {
+            for (int row : positions) {
+                action.accept(row);
+            }
+            return;
+        }
+        for (int i = 0; i < words.length; i++) {
+            long word = words[i];
+            while (word != 0) {
+                action.accept((i << 6) + Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+    }
+
+    /**
+     * 是否为位数组存储
+     */
+    public boolean isDense() {
+        return words != null;
+    }
+
+    /**
+     * 占用字节数（数组内容加对象头的粗略值）
+     */
+    public long sizeInBytes() {
+        return 32 + (words != null ? 8L * words.length : 4L * positions.length);
+    }
+}
@@ -0,0 +1,125 @@
+package com.gzist.project.utils;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 分段库存计数器
+ * 库存分散在多个段中，线程优先在自己的段上CAS扣减，热点商品的并发扣减不会集中竞争同一个变量；
+ * 单个段不足时加锁汇总所有段后再扣减，因此只要总量足够就不会误判为不足
+ *
+ * 不变式：每个段的值始终不小于0，扣减只通过CAS进行，总量不会被扣成负数（不超卖）
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+public class StripedStockCounter {
+
+    /**
+     * 相邻两个段之间间隔的long个数（128字节），避免不同段落在同一缓存行上互相干扰
+     */
+    private static final int PADDING = 16;
+
+    private final int stripes;
+
+    private final AtomicLongArray cells;
+
+    private final ReentrantLock rebalanceLock = new ReentrantLock();
+
+    /**
+     * @param initial 初始数量
+     * @param stripes 段数
+     */
+    public StripedStockCounter(long initial, int stripes) {
+        if (initial < 0 || stripes <= 0) {
+            throw new IllegalArgumentException("initial must be >= 0 and stripes > 0");
+        }
+        this.stripes = stripes;
+        this.cells = new AtomicLongArray(stripes * PADDING);
+        spread(initial);
+    }
+
+    /**
+     * 尝试扣减
+     *
+     * @param quantity 扣减数量（大于0）
+     * @return 是否扣减成功，总量不足时返回false且不做任何修改
+     */
+    public boolean tryAcquire(long quantity) {
+        int start = probe();
+        for (int i = 0; i < stripes; i++) {
+            int index = ((start + i) % stripes) * PADDING;
+            long current;
+            while ((current = cells.get(index)) >= quantity) {
+                if (cells.compareAndSet(index, current, current - quantity)) {
+                    return true;
+                }
+            }
+        }
+        return acquireAcrossStripes(quantity);
+    }
+
+    /**
+     * 归还数量
+     *
+     * @param quantity 归还数量（大于0）
+     */
+    public void release(long quantity) {
+        cells.addAndGet(probe() * PADDING, quantity);
+    }
+
+    /**
+     * 当前总量（并发修改时为近似值）
+     */
+    public long sum() {
+        long sum = 0;
+        for (int i = 0; i < stripes; i++) {
+            sum += cells.get(i * PADDING);
+        }
+        return sum;
+    }
+
+    /**
+     * 段数
+     */
+    public int getStripes() {
+        return stripes;
+    }
+
+    /**
+     * 慢路径：加锁取出所有段的数量，够则扣减，剩余的重新均分到各段
+     * 取出期间其他线程在快路径上看到的段为0，会进入这里排队，不会因此误判为不足
+     */
+    private boolean acquireAcrossStripes(long quantity) {
+        rebalanceLock.lock();
+        try {
+            long total = 0;
+            for (int i = 0; i < stripes; i++) {
+                total += cells.getAndSet(i * PADDING, 0);
+            }
+            boolean acquired = total >= quantity;
+            if (acquired) {
+                total -= quantity;
+            }
+            spread(total);
+            return acquired;
+        } finally {
+            rebalanceLock.unlock();
+        }
+    }
+
+    private void spread(long total) {
+        long share = total / stripes;
+        long remainder = total % stripes;
+        for (int i = 0; i < stripes; i++) {
+            long amount = share + (i < remainder ? 1 : 0);
+            if (amount > 0) {
+                cells.addAndGet(i * PADDING, amount);
+            }
+        }
+    }
+
+    private int probe() {
+        return (int) (Thread.currentThread().getId() % stripes);
+    }
+}
@@ -0,0 +1,41 @@
+package com.gzist.project.vo.request;
+
+import lombok.Data;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Pattern;
+import java.io.Serializable;
+
+/**
+ * 分片上传初始化请求VO
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+@Data
+public class ChunkedUploadInitRequest implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 原始文件名
+     */
+    @NotBlank(message = "文件名不能为空")
+    private String fileName;
+
+    /**
+     * 文件总大小（字节）
+     */
+    @NotNull(message = "文件大小不能为空")
+    @Min(value = 1, message = "文件大小必须大于0")
+    private Long fileSize;
+
+    /**
+     * 文件内容的SHA-256（十六进制），合并后用于校验
+     */
+    @NotBlank(message = "文件校验和不能为空")
+    @Pattern(regexp = "^[0-9a-fA-F]{64}$", message = "文件校验和必须为64位十六进制SHA-256")
+    private String sha256;
+}
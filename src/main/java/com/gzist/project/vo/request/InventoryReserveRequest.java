@@ -0,0 +1,32 @@
+package com.gzist.project.vo.request;
+
+import lombok.Data;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.io.Serializable;
+
+/**
+ * 库存预占请求VO
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+@Data
+public class InventoryReserveRequest implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 产品ID
+     */
+    @NotNull(message = "产品ID不能为空")
+    private Long productId;
+
+    /**
+     * 预占数量
+     */
+    @NotNull(message = "预占数量不能为空")
+    @Min(value = 1, message = "预占数量必须大于0")
+    private Integer quantity;
+}
@@ -0,0 +1,65 @@
+package com.gzist.project.vo.request;
+
+import lombok.Data;
+
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * 批量更新中的单个产品修改项
+ * 通过ID或产品编码定位产品；价格、库存可指定绝对值或增量（二者择一），未指定的字段保持不变
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+@Data
+public class ProductBatchUpdateItem implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 产品ID（与产品编码至少指定一个，同时指定时以ID为准）
+     */
+    private Long id;
+
+    /**
+     * 产品编码
+     */
+    private String productCode;
+
+    /**
+     * 新价格
+     */
+    @DecimalMin(value = "0.01", message = "产品价格必须大于0")
+    @DecimalMax(value = "99999999.99", message = "产品价格超出范围")
+    private BigDecimal price;
+
+    /**
+     * 价格增量（可为负数，结果不低于0.01）
+     */
+    @DecimalMin(value = "-99999999.99", message = "价格增量超出范围")
+    @DecimalMax(value = "99999999.99", message = "价格增量超出范围")
+    private BigDecimal priceDelta;
+
+    /**
+     * 新库存
+     */
+    @Min(value = 0, message = "库存数量不能为负数")
+    private Integer stock;
+
+    /**
+     * 库存增量（可为负数，结果不低于0）
+     */
+    private Integer stockDelta;
+
+    /**
+     * 产品状态：0-下架，1-上架
+     */
+    @Min(value = 0, message = "产品状态只能为0或1")
+    @Max(value = 1, message = "产品状态只能为0或1")
+    private Integer status;
+}
@@ -0,0 +1,26 @@
+package com.gzist.project.vo.request;
+
+import lombok.Data;
+
+import javax.validation.constraints.NotEmpty;
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 产品批量更新请求VO
+ * 各修改项在服务层逐项校验，单项不合法不影响其他项
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+@Data
+public class ProductBatchUpdateRequest implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 修改项列表
+     */
+    @NotEmpty(message = "修改项列表不能为空")
+    private List<ProductBatchUpdateItem> items;
+}
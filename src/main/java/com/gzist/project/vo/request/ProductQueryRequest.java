@@ -50,4 +50,11 @@ public class ProductQueryRequest implements Serializable {
      */
     @DecimalMin(value = "0.00", message = "价格不能为负数")
     private BigDecimal maxPrice;
+
+    /**
+     * 产品状态：0-下架，1-上架
+     */
+    @Min(value = 0, message = "产品状态只能为0或1")
+    @Max(value = 1, message = "产品状态只能为0或1")
+    private Integer status;
 }
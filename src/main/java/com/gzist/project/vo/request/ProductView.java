@@ -0,0 +1,67 @@
+package com.gzist.project.vo.request;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.toolkit.support.SFunction;
+import com.gzist.project.entity.Product;
+import com.gzist.project.exception.BusinessException;
+
+import java.util.Locale;
+
+/**
+ * 产品列表视图（列投影）
+ * 列表查询只读取视图需要的列，不读取描述（TEXT，InnoDB行外存储）等大字段；
+ * 完整产品信息（含描述）只通过产品详情查询获取
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+public enum ProductView {
+
+    /**
+     * 列表视图：表格或接口调用方使用，不含图片
+     */
+    LIST(Product::getId, Product::getProductCode, Product::getProductName, Product::getCategory,
+            Product::getPrice, Product::getStock, Product::getStatus),
+
+    /**
+     * 卡片视图：产品列表页使用，在列表视图基础上增加图片
+     */
+    CARD(Product::getId, Product::getProductCode, Product::getProductName, Product::getCategory,
+            Product::getPrice, Product::getStock, Product::getStatus, Product::getImageUrl);
+
+    private final SFunction<Product, ?>[] columns;
+
+    @SafeVarargs
+    ProductView(SFunction<Product, ?>... columns) {
+        this.columns = columns;
+    }
+
+    /**
+     * 将视图的列应用到查询条件
+     *
+     * @param wrapper 查询条件
+     * @return 同一查询条件
+     */
+    public LambdaQueryWrapper<Product> select(LambdaQueryWrapper<Product> wrapper) {
+        return wrapper.select(columns);
+    }
+
+    /**
+     * 解析视图参数（不区分大小写），为空时使用默认视图
+     *
+     * @param view 视图参数（list/card）
+     * @param defaultView 默认视图
+     * @return 视图
+     */
+    public static ProductView resolve(String view, ProductView defaultView) {
+        if (view == null || view.trim().isEmpty()) {
+            return defaultView;
+        }
+        for (ProductView candidate : values()) {
+            if (candidate.name().equals(view.trim().toUpperCase(Locale.ROOT))) {
+                return candidate;
+            }
+        }
+        throw new BusinessException(400, "不支持的视图：" + view + "，可选值：list、card");
+    }
+}
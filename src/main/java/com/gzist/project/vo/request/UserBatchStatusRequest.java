@@ -0,0 +1,35 @@
+package com.gzist.project.vo.request;
+
+import lombok.Data;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import java.io.Serializable;
+
+/**
+ * 批量启用/禁用用户请求VO
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+@Data
+public class UserBatchStatusRequest implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 用户ID数组
+     */
+    @NotEmpty(message = "用户ID列表不能为空")
+    private Long[] ids;
+
+    /**
+     * 目标状态（1:启用 0:禁用）
+     */
+    @NotNull(message = "状态不能为空")
+    @Min(value = 0, message = "状态只能为0或1")
+    @Max(value = 1, message = "状态只能为0或1")
+    private Integer status;
+}
@@ -0,0 +1,29 @@
+package com.gzist.project.vo.request;
+
+import lombok.Data;
+
+import javax.validation.constraints.NotEmpty;
+import java.io.Serializable;
+
+/**
+ * 批量迁移用户产品归属请求VO
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+@Data
+public class UserProductReassignRequest implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 原归属用户ID数组
+     */
+    @NotEmpty(message = "用户ID列表不能为空")
+    private Long[] ids;
+
+    /**
+     * 目标用户名（为空表示清除产品归属）
+     */
+    private String targetUsername;
+}
@@ -0,0 +1,85 @@
+package com.gzist.project.vo.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批量更新结果响应VO
+ * 汇总更新数量并逐项报告失败原因
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+@Data
+public class BatchUpdateResponse implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 请求中的修改项数
+     */
+    private int total;
+
+    /**
+     * 更新的产品数
+     */
+    private int updated;
+
+    /**
+     * 失败项数（校验失败、产品不存在或写入失败）
+     */
+    private int failed;
+
+    /**
+     * 耗时（毫秒）
+     */
+    private long elapsedMillis;
+
+    /**
+     * 失败明细
+     */
+    private List<ItemError> errors = new ArrayList<>();
+
+    /**
+     * 记录一项失败
+     *
+     * @param index 修改项序号
+     * @param key 修改项标识（产品ID或编码）
+     * @param message 失败原因
+     */
+    public void addError(int index, String key, String message) {
+        failed++;
+        errors.add(new ItemError(index, key, message));
+    }
+
+    /**
+     * 单项失败明细
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ItemError implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * 修改项在请求中的序号（从0开始）
+         */
+        private int index;
+
+        /**
+         * 修改项标识
+         */
+        private String key;
+
+        /**
+         * 失败原因
+         */
+        private String message;
+    }
+}
@@ -0,0 +1,88 @@
+package com.gzist.project.vo.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批量上传结果响应VO
+ * 按请求中的文件顺序逐个报告上传结果
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+@Data
+public class BatchUploadResponse implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 请求中的文件数
+     */
+    private int total;
+
+    /**
+     * 成功数
+     */
+    private int succeeded;
+
+    /**
+     * 失败数（校验或写入失败）
+     */
+    private int failed;
+
+    /**
+     * 因上传线程池繁忙被拒绝的文件数（可稍后重试）
+     */
+    private int rejected;
+
+    /**
+     * 耗时（毫秒）
+     */
+    private long elapsedMillis;
+
+    /**
+     * 各文件结果
+     */
+    private List<FileResult> files = new ArrayList<>();
+
+    /**
+     * 单个文件上传结果
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class FileResult implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * 文件在请求中的序号（从0开始）
+         */
+        private int index;
+
+        /**
+         * 原始文件名
+         */
+        private String fileName;
+
+        /**
+         * 状态码：200成功，503线程池繁忙被拒绝，其他为失败
+         */
+        private int code;
+
+        /**
+         * 文件访问URL（成功时）
+         */
+        private String url;
+
+        /**
+         * 失败原因
+         */
+        private String message;
+    }
+}
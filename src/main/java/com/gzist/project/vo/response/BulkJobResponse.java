@@ -0,0 +1,94 @@
+package com.gzist.project.vo.response;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 后台批量任务状态响应VO
+ * 同时作为任务状态持久化到Redis，任务可据此断点续跑
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+@Data
+public class BulkJobResponse implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 等待执行
+     */
+    public static final String STATUS_PENDING = "PENDING";
+
+    /**
+     * 执行中
+     */
+    public static final String STATUS_RUNNING = "RUNNING";
+
+    /**
+     * 已完成
+     */
+    public static final String STATUS_COMPLETED = "COMPLETED";
+
+    /**
+     * 执行失败（可恢复）
+     */
+    public static final String STATUS_FAILED = "FAILED";
+
+    /**
+     * 任务ID
+     */
+    private String jobId;
+
+    /**
+     * 任务类型
+     */
+    private String jobType;
+
+    /**
+     * 任务状态
+     */
+    private String status;
+
+    /**
+     * 目标用户名（产品归属迁移的目标，null表示清除归属）
+     */
+    private String targetUsername;
+
+    /**
+     * 涉及的用户数
+     */
+    private Integer userCount;
+
+    /**
+     * 待处理的产品总数（任务开始时统计）
+     */
+    private Long totalRows;
+
+    /**
+     * 已处理的产品数
+     */
+    private Long processedRows;
+
+    /**
+     * 已完成的用户分块数（续跑时从此处继续）
+     */
+    private Integer completedChunks;
+
+    /**
+     * 附加信息（失败原因等）
+     */
+    private String message;
+
+    /**
+     * 创建时间
+     */
+    private LocalDateTime createdTime;
+
+    /**
+     * 更新时间
+     */
+    private LocalDateTime updatedTime;
+}
@@ -0,0 +1,36 @@
+package com.gzist.project.vo.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * 批量操作结果响应VO
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkOperationResponse implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 请求处理的记录数
+     */
+    private Integer requested;
+
+    /**
+     * 实际影响的记录数
+     */
+    private Integer affected;
+
+    /**
+     * 关联的后台任务ID（无后台任务时为null）
+     */
+    private String jobId;
+}
@@ -0,0 +1,62 @@
+package com.gzist.project.vo.response;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 分片上传会话响应VO
+ * 同时作为会话状态持久化到Redis
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+@Data
+public class ChunkedUploadResponse implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 上传会话ID
+     */
+    private String uploadId;
+
+    /**
+     * 原始文件名
+     */
+    private String fileName;
+
+    /**
+     * 文件总大小（字节）
+     */
+    private Long fileSize;
+
+    /**
+     * 分片大小（字节），分片偏移量必须是其整数倍
+     */
+    private Integer chunkSize;
+
+    /**
+     * 分片总数
+     */
+    private Integer totalChunks;
+
+    /**
+     * 文件内容的SHA-256
+     */
+    private String sha256;
+
+    /**
+     * 已接收的分片序号（断点续传时只需上传缺失的分片）
+     */
+    private List<Integer> receivedChunks;
+
+    /**
+     * 合并完成后的文件访问URL
+     */
+    private String fileUrl;
+
+    private LocalDateTime createdTime;
+}
@@ -0,0 +1,100 @@
+package com.gzist.project.vo.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批量导入结果响应VO
+ * 汇总导入行数并逐行报告失败原因
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+@Data
+public class ImportResultResponse implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 读取的数据行数
+     */
+    private long totalRows;
+
+    /**
+     * 成功行数
+     */
+    private long successRows;
+
+    /**
+     * 成功行数中按唯一键更新已有记录的行数（产品导入按产品编码更新，其余导入恒为0）
+     */
+    private long updatedRows;
+
+    /**
+     * 失败行数
+     */
+    private long failedRows;
+
+    /**
+     * 耗时（毫秒）
+     */
+    private long elapsedMillis;
+
+    /**
+     * 失败明细是否因超过上限被截断
+     */
+    private boolean errorsTruncated;
+
+    /**
+     * 失败明细
+     */
+    private List<RowError> errors = new ArrayList<>();
+
+    /**
+     * 记录一行失败，超过上限时只计数不保留明细
+     *
+     * @param line 行号
+     * @param key 行标识（如用户名、产品编码）
+     * @param message 失败原因
+     * @param maxErrors 明细上限
+     */
+    public void addError(long line, String key, String message, int maxErrors) {
+        failedRows++;
+        if (errors.size() < maxErrors) {
+            errors.add(new RowError(line, key, message));
+        } else {
+            errorsTruncated = true;
+        }
+    }
+
+    /**
+     * 单行失败明细
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * 行号
+         */
+        private long line;
+
+        /**
+         * 行标识
+         */
+        private String key;
+
+        /**
+         * 失败原因
+         */
+        private String message;
+    }
+}
@@ -0,0 +1,94 @@
+package com.gzist.project.vo.response;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 索引分析报告响应VO
+ * 列出每种列表查询形态的执行计划，并标记全表扫描、文件排序等问题
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+@Data
+public class IndexAdvisorReport implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 分析的语句数
+     */
+    private int statements;
+
+    /**
+     * 存在问题的语句数
+     */
+    private int flagged;
+
+    /**
+     * 每条语句的计时执行次数（0表示只分析执行计划）
+     */
+    private int iterations;
+
+    /**
+     * 各语句的执行计划
+     */
+    private List<StatementPlan> plans = new ArrayList<>();
+
+    /**
+     * 单条语句的执行计划
+     */
+    @Data
+    public static class StatementPlan implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * 查询形态名称
+         */
+        private String shape;
+
+        /**
+         * 语句类型：page（分页查询）/ count（总数查询）
+         */
+        private String kind;
+
+        /**
+         * SQL
+         */
+        private String sql;
+
+        /**
+         * 访问类型（EXPLAIN的type列，ALL为全表扫描）
+         */
+        private String accessType;
+
+        /**
+         * 使用的索引
+         */
+        private String key;
+
+        /**
+         * 预估扫描行数
+         */
+        private Long rows;
+
+        /**
+         * EXPLAIN的Extra列
+         */
+        private String extra;
+
+        /**
+         * 平均耗时（毫秒，未计时为null）
+         */
+        private Double avgMillis;
+
+        /**
+         * 发现的问题
+         */
+        private List<String> warnings = new ArrayList<>();
+    }
+}
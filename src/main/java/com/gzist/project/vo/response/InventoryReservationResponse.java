@@ -0,0 +1,38 @@
+package com.gzist.project.vo.response;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 库存预占响应VO
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+@Data
+public class InventoryReservationResponse implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 预占ID（确认或释放时使用）
+     */
+    private String reservationId;
+
+    /**
+     * 产品ID
+     */
+    private Long productId;
+
+    /**
+     * 预占数量
+     */
+    private Integer quantity;
+
+    /**
+     * 过期时间，超时未确认自动释放
+     */
+    private LocalDateTime expiresAt;
+}
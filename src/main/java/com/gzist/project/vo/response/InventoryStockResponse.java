@@ -0,0 +1,37 @@
+package com.gzist.project.vo.response;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 产品库存状态响应VO
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+@Data
+public class InventoryStockResponse implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 产品ID
+     */
+    private Long productId;
+
+    /**
+     * 可预占数量
+     */
+    private long available;
+
+    /**
+     * 已预占未确认的数量
+     */
+    private long reserved;
+
+    /**
+     * 已确认但尚未写回数据库的扣减数量
+     */
+    private long pendingPersist;
+}
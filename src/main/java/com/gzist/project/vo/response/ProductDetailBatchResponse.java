@@ -0,0 +1,64 @@
+package com.gzist.project.vo.response;
+
+import com.gzist.project.entity.Product;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批量产品详情响应VO
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+@Data
+public class ProductDetailBatchResponse implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 详情项（与请求中的ID一一对应，顺序相同）
+     */
+    private List<Item> items = new ArrayList<>();
+
+    /**
+     * 从缓存读取的产品数
+     */
+    private int cacheHits;
+
+    /**
+     * 从数据库读取的产品数
+     */
+    private int loaded;
+
+    /**
+     * 不存在的产品数
+     */
+    private int notFound;
+
+    /**
+     * 详情项
+     */
+    @Data
+    public static class Item implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * 请求的产品ID
+         */
+        private Long id;
+
+        /**
+         * 产品是否存在
+         */
+        private boolean found;
+
+        /**
+         * 产品详情（不存在时为null）
+         */
+        private Product product;
+    }
+}
@@ -0,0 +1,79 @@
+package com.gzist.project.vo.response;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 产品分面统计响应VO
+ * 分类计数不应用分类条件，价格直方图不应用价格条件，其余条件照常应用
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+@Data
+public class ProductFacetResponse implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 应用全部条件后的产品总数
+     */
+    private long total;
+
+    /**
+     * 各分类的产品数（按数量降序，不含未分类产品）
+     */
+    private List<CategoryCount> categories = new ArrayList<>();
+
+    /**
+     * 价格直方图
+     */
+    private List<PriceBand> priceBands = new ArrayList<>();
+
+    /**
+     * 分类计数
+     */
+    @Data
+    public static class CategoryCount implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * 分类
+         */
+        private String category;
+
+        /**
+         * 产品数
+         */
+        private long count;
+    }
+
+    /**
+     * 价格段
+     */
+    @Data
+    public static class PriceBand implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * 最低价格（含）
+         */
+        private BigDecimal min;
+
+        /**
+         * 最高价格（不含），null表示无上限
+         */
+        private BigDecimal max;
+
+        /**
+         * 产品数
+         */
+        private long count;
+    }
+}
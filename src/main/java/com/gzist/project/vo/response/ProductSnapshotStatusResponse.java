@@ -0,0 +1,109 @@
+package com.gzist.project.vo.response;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 产品内存快照状态响应VO
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+@Data
+public class ProductSnapshotStatusResponse implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 是否启用
+     */
+    private boolean enabled;
+
+    /**
+     * 是否可用于查询（已构建且已应用全部变更）
+     */
+    private boolean warm;
+
+    /**
+     * 快照行数
+     */
+    private int rows;
+
+    /**
+     * 分类数
+     */
+    private int categories;
+
+    /**
+     * 估算的列数据内存占用（字节，不含位图索引）
+     */
+    private long estimatedBytes;
+
+    /**
+     * 各位图索引的内存占用
+     */
+    private List<IndexUsage> indexes = new ArrayList<>();
+
+    /**
+     * 最近一次全量构建时间
+     */
+    private LocalDateTime builtAt;
+
+    /**
+     * 最近一次全量构建耗时（毫秒）
+     */
+    private long buildMillis;
+
+    /**
+     * 尚未应用的变更事件数
+     */
+    private long pendingChanges;
+
+    /**
+     * 最早一个未应用变更距今的时间（毫秒），0表示已追上
+     */
+    private long stalenessMillis;
+
+    /**
+     * 由快照响应的查询数
+     */
+    private long servedQueries;
+
+    /**
+     * 回退到数据库的查询数
+     */
+    private long fallbackQueries;
+
+    /**
+     * 位图索引内存占用
+     */
+    @Data
+    public static class IndexUsage implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * 索引名（category/status/price）
+         */
+        private String name;
+
+        /**
+         * 位图数
+         */
+        private int bitmaps;
+
+        /**
+         * 其中按位数组存储的位图数（其余为行号数组）
+         */
+        private int denseBitmaps;
+
+        /**
+         * 占用字节数
+         */
+        private long bytes;
+    }
+}
@@ -0,0 +1,58 @@
+package com.gzist.project.vo.response;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 产品前缀补全响应VO
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+@Data
+public class ProductSuggestResponse implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 以前缀开头的产品名称（按同名产品数降序）
+     */
+    private List<Suggestion> names = new ArrayList<>();
+
+    /**
+     * 以前缀开头的产品编码（按编码升序）
+     */
+    private List<Suggestion> codes = new ArrayList<>();
+
+    /**
+     * 补全项
+     */
+    @Data
+    public static class Suggestion implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * 补全文本（产品名称或产品编码）
+         */
+        private String text;
+
+        /**
+         * 产品名称（编码补全时为该编码对应的产品名称，用于填入搜索框）
+         */
+        private String productName;
+
+        /**
+         * 产品ID（仅编码补全）
+         */
+        private Long productId;
+
+        /**
+         * 匹配的产品数
+         */
+        private int count;
+    }
+}
@@ -0,0 +1,76 @@
+package com.gzist.project.vo.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.gzist.project.entity.Product;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * 产品列表项响应VO
+ * 列表页与列表接口只返回此VO（不含描述等大字段），同时作为列表缓存的存储结构；
+ * 未查询的列为null且不输出
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+@Data
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ProductSummaryResponse implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 产品ID
+     */
+    private Long id;
+
+    /**
+     * 产品编码
+     */
+    private String productCode;
+
+    /**
+     * 产品名称
+     */
+    private String productName;
+
+    /**
+     * 产品分类
+     */
+    private String category;
+
+    /**
+     * 产品价格
+     */
+    private BigDecimal price;
+
+    /**
+     * 库存数量
+     */
+    private Integer stock;
+
+    /**
+     * 产品图片URL（仅卡片视图）
+     */
+    private String imageUrl;
+
+    /**
+     * 产品状态：0-下架，1-上架
+     */
+    private Integer status;
+
+    public ProductSummaryResponse(Product product) {
+        this.id = product.getId();
+        this.productCode = product.getProductCode();
+        this.productName = product.getProductName();
+        this.category = product.getCategory();
+        this.price = product.getPrice();
+        this.stock = product.getStock();
+        this.imageUrl = product.getImageUrl();
+        this.status = product.getStatus();
+    }
+}
@@ -0,0 +1,84 @@
+package com.gzist.project.vo.response;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 上传文件垃圾回收报告VO
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+@Data
+public class UploadGcReport implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 是否为演练（只统计不删除）
+     */
+    private Boolean dryRun;
+
+    /**
+     * 本次运行的起始游标（空表示从头开始）
+     */
+    private String startCursor;
+
+    /**
+     * 本次运行结束时的游标，下次运行从此处继续；完成整轮扫描时为空
+     */
+    private String endCursor;
+
+    /**
+     * 是否完成整轮扫描
+     */
+    private Boolean passCompleted;
+
+    /**
+     * 数据库中被引用的图片URL数量
+     */
+    private Long referencedUrls = 0L;
+
+    /**
+     * 检查的文件数
+     */
+    private Long scannedFiles = 0L;
+
+    /**
+     * 因处于宽限期而跳过的文件数
+     */
+    private Long recentFiles = 0L;
+
+    /**
+     * 未被引用的文件数
+     */
+    private Long orphanFiles = 0L;
+
+    /**
+     * 孤儿文件总大小（字节）
+     */
+    private Long orphanBytes = 0L;
+
+    /**
+     * 实际删除的文件数
+     */
+    private Long deletedFiles = 0L;
+
+    /**
+     * 孤儿文件样例（URL）
+     */
+    private List<String> sampleOrphans = new ArrayList<>();
+
+    /**
+     * 失败信息
+     */
+    private String message;
+
+    private LocalDateTime startedTime;
+
+    private LocalDateTime finishedTime;
+}
@@ -0,0 +1,200 @@
+package com.gzist.project.filter;
+
+import com.gzist.project.config.FileUploadConfig;
+import com.gzist.project.config.UploadServingConfig;
+import com.gzist.project.service.impl.FileUploadServiceImpl;
+import com.gzist.project.storage.LocalObjectStorage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.resource.ResourceHttpRequestHandler;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 上传文件访问过滤器测试
+ * 验证条件请求、Range、sendfile交接，并与原Spring MVC静态资源处理做吞吐对比
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+class UploadResourceFilterTest {
+
+    private static final String CAS_URL = "/uploads/products/cas/ab/cd/abcdef.png";
+
+    @TempDir
+    Path uploadRoot;
+
+    private UploadResourceFilter filter;
+
+    private byte[] content;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        FileUploadConfig fileUploadConfig = new FileUploadConfig();
+        fileUploadConfig.setPath(uploadRoot.toString() + "/");
+        FileUploadServiceImpl fileUploadService = new FileUploadServiceImpl();
+        ReflectionTestUtils.setField(fileUploadService, "fileUploadConfig", fileUploadConfig);
+        LocalObjectStorage objectStorage = new LocalObjectStorage();
+        ReflectionTestUtils.setField(objectStorage, "fileUploadConfig", fileUploadConfig);
+        ReflectionTestUtils.setField(fileUploadService, "objectStorage", objectStorage);
+        filter = new UploadResourceFilter(fileUploadService, fileUploadConfig, new UploadServingConfig());
+        filter.setServletContext(new MockServletContext());
+
+        content = new byte[64 * 1024];
+        new Random(7).nextBytes(content);
+        Path file = uploadRoot.resolve("products/cas/ab/cd/abcdef.png");
+        Files.createDirectories(file.getParent());
+        Files.write(file, content);
+    }
+
+    @Test
+    void servesFileWithValidatorsAndImmutableCaching() throws Exception {
+        MockHttpServletResponse response = get(CAS_URL, null, null);
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsByteArray()).isEqualTo(content);
+        assertThat(response.getHeader("ETag")).isEqualTo("\"abcdef\"");
+        assertThat(response.getHeader("Cache-Control")).contains("immutable");
+        assertThat(response.getContentType()).isEqualTo("image/png");
+
+        MockHttpServletResponse notModified = get(CAS_URL, "If-None-Match", "\"abcdef\"");
+        assertThat(notModified.getStatus()).isEqualTo(304);
+        assertThat(notModified.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void servesByteRanges() throws Exception {
+        MockHttpServletResponse partial = get(CAS_URL, "Range", "bytes=100-199");
+        assertThat(partial.getStatus()).isEqualTo(206);
+        assertThat(partial.getHeader("Content-Range")).isEqualTo("bytes 100-199/" + content.length);
+        assertThat(partial.getContentAsByteArray()).hasSize(100);
+        assertThat(partial.getContentAsByteArray()[0]).isEqualTo(content[100]);
+
+        MockHttpServletResponse suffix = get(CAS_URL, "Range", "bytes=-10");
+        assertThat(suffix.getContentAsByteArray()).hasSize(10);
+
+        MockHttpServletResponse unsatisfiable = get(CAS_URL, "Range", "bytes=" + content.length + "-");
+        assertThat(unsatisfiable.getStatus()).isEqualTo(416);
+    }
+
+    @Test
+    void handsLargeFilesToSendfileAndRejectsTraversal() throws Exception {
+        MockHttpServletRequest request = request(CAS_URL);
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.end")).isEqualTo((long) content.length);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+
+        assertThat(get("/uploads/../pom.xml", null, null).getStatus()).isEqualTo(404);
+    }
+
+    /**
+     * 吞吐对比（进程内，不含网络）：过滤器 vs 原ResourceHttpRequestHandler
+     */
+    @Test
+    @Tag("benchmark")
+    void throughputAgainstResourceHandler() throws Exception {
+        ResourceHttpRequestHandler handler = new ResourceHttpRequestHandler();
+        handler.setServletContext(new MockServletContext());
+        handler.setLocations(Collections.singletonList(new FileSystemResource(uploadRoot.toString() + "/")));
+        handler.afterPropertiesSet();
+
+        int iterations = 20000;
+        for (int i = 0; i < 2000; i++) {
+            serve();
+            handle(handler);
+        }
+        long filterStart = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            serve();
+        }
+        long filterNanos = System.nanoTime() - filterStart;
+        long handlerStart = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            handle(handler);
+        }
+        long handlerNanos = System.nanoTime() - handlerStart;
+        System.out.printf("uploads throughput (64KB, %d requests, in-process): filter %.0f req/s, resource handler %.0f req/s%n",
+                iterations, iterations * 1e9 / filterNanos, iterations * 1e9 / handlerNanos);
+    }
+
+    private void serve() throws Exception {
+        DiscardingResponse response = new DiscardingResponse();
+        filter.doFilter(request(CAS_URL), response, new MockFilterChain());
+        assertThat(response.written).isEqualTo(content.length);
+    }
+
+    private void handle(ResourceHttpRequestHandler handler) throws Exception {
+        MockHttpServletRequest request = request(CAS_URL);
+        request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, CAS_URL.substring("/uploads/".length()));
+        DiscardingResponse response = new DiscardingResponse();
+        handler.handleRequest(request, response);
+        assertThat(response.written).isEqualTo(content.length);
+    }
+
+    private MockHttpServletResponse get(String url, String header, String value) throws Exception {
+        MockHttpServletRequest request = request(url);
+        if (header != null) {
+            request.addHeader(header, value);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    /**
+     * 丢弃响应体、只计数的响应（避免MockHttpServletResponse逐字节缓冲影响吞吐对比）
+     */
+    private static class DiscardingResponse extends MockHttpServletResponse {
+
+        private long written;
+
+        private final ServletOutputStream outputStream = new ServletOutputStream() {
+            @Override
+            public void write(int b) {
+                written++;
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                written += len;
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+            }
+        };
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            return outputStream;
+        }
+    }
+
+    private static MockHttpServletRequest request(String url) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", url);
+        request.setServletPath(url);
+        return request;
+    }
+}
@@ -0,0 +1,261 @@
+package com.gzist.project.service.impl;
+
+import cn.hutool.crypto.digest.DigestUtil;
+import com.gzist.project.config.ChunkedUploadConfig;
+import com.gzist.project.config.FileUploadConfig;
+import com.gzist.project.config.UploadGcConfig;
+import com.gzist.project.exception.BusinessException;
+import com.gzist.project.storage.LocalObjectStorage;
+import com.gzist.project.vo.request.ChunkedUploadInitRequest;
+import com.gzist.project.vo.response.ChunkedUploadResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 分片上传Service测试
+ * 验证分片偏移量与大小校验，乱序、重复上传分片后合并为一张图片，分片不全时不能完成，
+ * SHA-256不一致时清空已接收分片，合并期间拒绝分片写入，以及过期会话文件的清理
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+class ChunkedUploadServiceImplTest {
+
+    private static final byte[] PNG_HEADER = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n', 0, 0, 0, 13};
+
+    private static final int CHUNK_SIZE = 1024;
+
+    @TempDir
+    Path root;
+
+    private final Map<String, String> values = new ConcurrentHashMap<>();
+
+    private final Map<String, Set<String>> sets = new ConcurrentHashMap<>();
+
+    private ChunkedUploadConfig chunkedUploadConfig;
+
+    private ChunkedUploadServiceImpl chunkedUploadService;
+
+    /**
+     * 3个分片：1024 + 1024 + 452字节
+     */
+    private byte[] content;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        ValueOperations<String, String> valueOperations = mock(ValueOperations.class);
+        doAnswer(invocation -> values.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(valueOperations).set(anyString(), anyString(), any(Duration.class));
+        when(valueOperations.get(anyString())).thenAnswer(invocation -> values.get(invocation.<String>getArgument(0)));
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class)))
+                .thenAnswer(invocation -> values.putIfAbsent(invocation.getArgument(0), invocation.getArgument(1)) == null);
+        SetOperations<String, String> setOperations = mock(SetOperations.class);
+        when(setOperations.add(anyString(), any())).thenAnswer(invocation -> {
+            Set<String> members = sets.computeIfAbsent(invocation.getArgument(0), key -> ConcurrentHashMap.newKeySet());
+            long added = 0;
+            for (Object member : Arrays.copyOfRange(invocation.getArguments(), 1, invocation.getArguments().length)) {
+                if (members.add((String) member)) {
+                    added++;
+                }
+            }
+            return added;
+        });
+        when(setOperations.size(anyString())).thenAnswer(invocation -> {
+            Set<String> members = sets.get(invocation.<String>getArgument(0));
+            return members == null ? 0L : (long) members.size();
+        });
+        when(setOperations.members(anyString())).thenAnswer(invocation -> sets.get(invocation.<String>getArgument(0)));
+        StringRedisTemplate stringRedisTemplate = mock(StringRedisTemplate.class);
+        when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(stringRedisTemplate.opsForSet()).thenReturn(setOperations);
+        when(stringRedisTemplate.hasKey(anyString())).thenAnswer(invocation ->
+                values.containsKey(invocation.<String>getArgument(0)) || sets.containsKey(invocation.<String>getArgument(0)));
+        when(stringRedisTemplate.delete(anyString())).thenAnswer(invocation -> {
+            String key = invocation.getArgument(0);
+            return values.remove(key) != null | sets.remove(key) != null;
+        });
+
+        FileUploadConfig fileUploadConfig = new FileUploadConfig();
+        fileUploadConfig.setPath(root.resolve("uploads").toString() + "/");
+        FileUploadServiceImpl fileUploadService = new FileUploadServiceImpl();
+        ReflectionTestUtils.setField(fileUploadService, "fileUploadConfig", fileUploadConfig);
+        LocalObjectStorage objectStorage = new LocalObjectStorage();
+        ReflectionTestUtils.setField(objectStorage, "fileUploadConfig", fileUploadConfig);
+        ReflectionTestUtils.setField(fileUploadService, "objectStorage", objectStorage);
+        ReflectionTestUtils.setField(fileUploadService, "uploadGcConfig", new UploadGcConfig());
+
+        chunkedUploadConfig = new ChunkedUploadConfig();
+        chunkedUploadConfig.setSessionPath(root.resolve("sessions").toString());
+        chunkedUploadConfig.setChunkSize(CHUNK_SIZE);
+        chunkedUploadService = new ChunkedUploadServiceImpl();
+        ReflectionTestUtils.setField(chunkedUploadService, "chunkedUploadConfig", chunkedUploadConfig);
+        ReflectionTestUtils.setField(chunkedUploadService, "fileUploadService", fileUploadService);
+        ReflectionTestUtils.setField(chunkedUploadService, "stringRedisTemplate", stringRedisTemplate);
+
+        content = new byte[2 * CHUNK_SIZE + 452];
+        new Random(1).nextBytes(content);
+        System.arraycopy(PNG_HEADER, 0, content, 0, PNG_HEADER.length);
+    }
+
+    @Test
+    void outOfOrderAndDuplicateChunksCompleteIntoOneImage() throws Exception {
+        String uploadId = init(DigestUtil.sha256Hex(content)).getUploadId();
+
+        assertThat(uploadChunk(uploadId, 2).getReceivedChunks()).containsExactly(2);
+        assertThat(uploadChunk(uploadId, 0).getReceivedChunks()).containsExactly(0, 2);
+        // 重试同一分片只覆盖原区间
+        assertThat(uploadChunk(uploadId, 0).getReceivedChunks()).containsExactly(0, 2);
+
+        assertThatThrownBy(() -> chunkedUploadService.completeUpload(uploadId))
+                .isInstanceOf(BusinessException.class)
+                .hasMessage("分片未上传完整：已接收2/3");
+        assertThat(values).doesNotContainKey(lockKey(uploadId));
+
+        uploadChunk(uploadId, 1);
+        ChunkedUploadResponse completed = chunkedUploadService.completeUpload(uploadId);
+
+        assertThat(completed.getFileUrl()).startsWith("/uploads/").endsWith(".png");
+        assertThat(Files.readAllBytes(root.resolve(completed.getFileUrl().substring(1)))).isEqualTo(content);
+        assertThat(sessionFile(uploadId)).doesNotExist();
+        assertThat(values).doesNotContainKey(lockKey(uploadId));
+        // 完成后再次完成返回同一结果，不再接受分片
+        assertThat(chunkedUploadService.completeUpload(uploadId).getFileUrl()).isEqualTo(completed.getFileUrl());
+        assertThatThrownBy(() -> uploadChunk(uploadId, 0))
+                .isInstanceOf(BusinessException.class)
+                .hasMessage("上传已完成");
+    }
+
+    @Test
+    void offsetsAndChunkSizesAreValidated() {
+        String uploadId = init(DigestUtil.sha256Hex(content)).getUploadId();
+        String offsetError = "分片偏移量必须是1024的整数倍且小于文件大小";
+
+        assertThatThrownBy(() -> upload(uploadId, -CHUNK_SIZE, new byte[CHUNK_SIZE])).hasMessage(offsetError);
+        assertThatThrownBy(() -> upload(uploadId, 100, new byte[CHUNK_SIZE])).hasMessage(offsetError);
+        assertThatThrownBy(() -> upload(uploadId, content.length, new byte[1])).hasMessage(offsetError);
+        assertThatThrownBy(() -> upload(uploadId, 3L * CHUNK_SIZE, new byte[CHUNK_SIZE])).hasMessage(offsetError);
+
+        assertThatThrownBy(() -> upload(uploadId, 0, new byte[CHUNK_SIZE + 1]))
+                .isInstanceOf(BusinessException.class)
+                .hasMessage("分片大小超过1024字节");
+        assertThatThrownBy(() -> upload(uploadId, 0, new byte[1000]))
+                .hasMessage("分片不完整，期望1024字节，实际1000字节");
+        // 最后一个分片只能是剩余的字节数
+        assertThatThrownBy(() -> upload(uploadId, 2L * CHUNK_SIZE, new byte[CHUNK_SIZE]))
+                .hasMessage("分片大小超过452字节");
+        assertThat(chunkedUploadService.getUpload(uploadId).getReceivedChunks()).isEmpty();
+
+        assertThatThrownBy(() -> upload("../../etc/passwd", 0, new byte[CHUNK_SIZE]))
+                .hasMessage("上传会话ID格式错误");
+        assertThatThrownBy(() -> upload("0123456789abcdef0123456789abcdef", 0, new byte[CHUNK_SIZE]))
+                .hasMessage("上传会话不存在或已过期");
+    }
+
+    @Test
+    void checksumMismatchClearsReceivedChunks() {
+        String uploadId = init(DigestUtil.sha256Hex("other content")).getUploadId();
+        for (int index = 0; index < 3; index++) {
+            uploadChunk(uploadId, index);
+        }
+
+        assertThatThrownBy(() -> chunkedUploadService.completeUpload(uploadId))
+                .isInstanceOf(BusinessException.class)
+                .hasMessage("文件校验失败：SHA-256不一致");
+
+        ChunkedUploadResponse session = chunkedUploadService.getUpload(uploadId);
+        assertThat(session.getReceivedChunks()).isEmpty();
+        assertThat(session.getFileUrl()).isNull();
+        assertThat(values).doesNotContainKey(lockKey(uploadId));
+        assertThatThrownBy(() -> chunkedUploadService.completeUpload(uploadId))
+                .hasMessage("分片未上传完整：已接收0/3");
+    }
+
+    @Test
+    void chunksAreRejectedWhileCompletionHoldsTheLock() {
+        String uploadId = init(DigestUtil.sha256Hex(content)).getUploadId();
+        uploadChunk(uploadId, 0);
+        values.put(lockKey(uploadId), "1");
+
+        assertThatThrownBy(() -> uploadChunk(uploadId, 1))
+                .isInstanceOf(BusinessException.class)
+                .hasMessage("上传正在合并中，请稍后查询");
+        assertThatThrownBy(() -> chunkedUploadService.completeUpload(uploadId))
+                .hasMessage("上传正在合并中，请稍后查询");
+        assertThat(chunkedUploadService.getUpload(uploadId).getReceivedChunks()).containsExactly(0);
+
+        values.remove(lockKey(uploadId));
+        assertThat(uploadChunk(uploadId, 1).getReceivedChunks()).containsExactly(0, 1);
+    }
+
+    @Test
+    void cleanupRemovesOnlyExpiredSessionFiles() throws Exception {
+        String expired = init(DigestUtil.sha256Hex(content)).getUploadId();
+        String active = init(DigestUtil.sha256Hex(content)).getUploadId();
+        Path other = Files.write(Paths.get(chunkedUploadConfig.getSessionPath(), "notes.txt"), new byte[]{1});
+        FileTime old = FileTime.fromMillis(System.currentTimeMillis()
+                - Duration.ofHours(chunkedUploadConfig.getSessionTtlHours() + 1).toMillis());
+        Files.setLastModifiedTime(sessionFile(expired), old);
+        Files.setLastModifiedTime(other, old);
+
+        chunkedUploadService.cleanupAbandonedSessions();
+
+        assertThat(sessionFile(expired)).doesNotExist();
+        assertThat(sessionFile(active)).exists();
+        assertThat(other).exists();
+    }
+
+    private ChunkedUploadResponse init(String sha256) {
+        ChunkedUploadInitRequest initRequest = new ChunkedUploadInitRequest();
+        initRequest.setFileName("large.png");
+        initRequest.setFileSize((long) content.length);
+        initRequest.setSha256(sha256);
+        ChunkedUploadResponse session = chunkedUploadService.initUpload(initRequest);
+        assertThat(session.getTotalChunks()).isEqualTo(3);
+        assertThat(sessionFile(session.getUploadId())).hasSize(content.length);
+        return session;
+    }
+
+    private ChunkedUploadResponse uploadChunk(String uploadId, int index) {
+        int from = index * CHUNK_SIZE;
+        int to = Math.min(content.length, from + CHUNK_SIZE);
+        return upload(uploadId, from, Arrays.copyOfRange(content, from, to));
+    }
+
+    private ChunkedUploadResponse upload(String uploadId, long offset, byte[] chunk) {
+        return chunkedUploadService.uploadChunk(uploadId, offset, new ByteArrayInputStream(chunk));
+    }
+
+    private Path sessionFile(String uploadId) {
+        return Paths.get(chunkedUploadConfig.getSessionPath(), uploadId + ".part");
+    }
+
+    private static String lockKey(String uploadId) {
+        return "product-system:chunked-upload:" + uploadId + ":lock";
+    }
+}
@@ -0,0 +1,362 @@
+package com.gzist.project.service.impl;
+
+import com.gzist.project.config.FileUploadConfig;
+import com.gzist.project.config.UploadGcConfig;
+import com.gzist.project.exception.BusinessException;
+import com.gzist.project.mapper.ProductMapper;
+import com.gzist.project.storage.LocalObjectStorage;
+import com.gzist.project.vo.response.BatchUploadResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 文件上传Service测试
+ * 验证上传流式写入（不整体缓冲到堆）、魔数识别、原子落盘、内容去重、批量并发上传，
+ * 以及删除时保留仍被引用和回收宽限期内的文件
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+class FileUploadServiceImplTest {
+
+    private static final byte[] PNG_HEADER = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n', 0, 0, 0, 13};
+
+    @TempDir
+    Path uploadRoot;
+
+    private FileUploadConfig config;
+
+    private FileUploadServiceImpl fileUploadService;
+
+    private ThreadPoolTaskExecutor uploadExecutor;
+
+    @BeforeEach
+    void setUp() {
+        config = new FileUploadConfig();
+        config.setPath(uploadRoot.toString() + "/");
+        config.setMaxSize(64 * 1024 * 1024L);
+        fileUploadService = new FileUploadServiceImpl();
+        ReflectionTestUtils.setField(fileUploadService, "fileUploadConfig", config);
+        LocalObjectStorage objectStorage = new LocalObjectStorage();
+        ReflectionTestUtils.setField(objectStorage, "fileUploadConfig", config);
+        ReflectionTestUtils.setField(fileUploadService, "objectStorage", objectStorage);
+        ReflectionTestUtils.setField(fileUploadService, "uploadGcConfig", new UploadGcConfig());
+        uploadExecutor = newUploadExecutor(config.getUploadThreads(), config.getUploadQueueCapacity());
+        ReflectionTestUtils.setField(fileUploadService, "uploadExecutor", uploadExecutor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        uploadExecutor.shutdown();
+    }
+
+    @Test
+    void parallelLargeUploadsAreStreamedWithoutHeapBuffering() throws Exception {
+        com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+
+        long fileSize = 32 * 1024 * 1024L;
+        int uploads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(uploads);
+        try {
+            List<Future<long[]>> futures = new ArrayList<>();
+            for (int i = 0; i < uploads; i++) {
+                futures.add(executor.submit(() -> {
+                    // 预热一次，排除类加载等一次性分配
+                    fileUploadService.uploadProductImage(new SyntheticImageFile(1024));
+                    long before = threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+                    String url = fileUploadService.uploadProductImage(new SyntheticImageFile(fileSize));
+                    long allocated = threadBean.getThreadAllocatedBytes(Thread.currentThread().getId()) - before;
+                    long size = Files.size(resolve(url));
+                    return new long[]{allocated, size};
+                }));
+            }
+            for (Future<long[]> future : futures) {
+                long[] result = future.get();
+                assertThat(result[1]).isEqualTo(fileSize);
+                assertThat(result[0]).as("每次上传的堆分配字节数").isLessThan(512 * 1024L);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        try (Stream<Path> files = Files.walk(uploadRoot)) {
+            assertThat(files.filter(p -> p.getFileName().toString().endsWith(".tmp"))).isEmpty();
+        }
+    }
+
+    @Test
+    void contentTypeIsSniffedFromMagicBytes() throws Exception {
+        MockMultipartFile jpeg = new MockMultipartFile("file", "photo.bin", "application/octet-stream",
+                new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0, 0, 16, 'J', 'F', 'I', 'F', 0, 1});
+        String url = fileUploadService.uploadProductImage(jpeg);
+        assertThat(url).endsWith(".jpg");
+        assertThat(Files.exists(resolve(url))).isTrue();
+
+        MockMultipartFile fake = new MockMultipartFile("file", "fake.png", "image/png",
+                "not really an image".getBytes());
+        assertThatThrownBy(() -> fileUploadService.uploadProductImage(fake))
+                .isInstanceOf(BusinessException.class);
+    }
+
+    @Test
+    void identicalContentIsStoredOnce() throws Exception {
+        String first = fileUploadService.uploadProductImage(new SyntheticImageFile(4096));
+        String second = fileUploadService.uploadProductImage(new SyntheticImageFile(4096));
+        assertThat(second).isEqualTo(first);
+        assertThat(first).matches("/uploads/products/cas/[0-9a-f]{2}/[0-9a-f]{2}/[0-9a-f]{64}\\.png");
+        try (Stream<Path> files = Files.walk(uploadRoot)) {
+            assertThat(files.filter(Files::isRegularFile)).hasSize(1);
+        }
+    }
+
+    @Test
+    void deleteKeepsReferencedAndRecentFilesForTheCollector() throws Exception {
+        ProductMapper productMapper = mock(ProductMapper.class);
+        ReflectionTestUtils.setField(fileUploadService, "productMapper", productMapper);
+        ThreadPoolTaskExecutor storageExecutor = mock(ThreadPoolTaskExecutor.class);
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(storageExecutor).execute(any(Runnable.class));
+        ReflectionTestUtils.setField(fileUploadService, "storageExecutor", storageExecutor);
+        String url = fileUploadService.uploadProductImage(new SyntheticImageFile(4096));
+        Path file = resolve(url);
+
+        // 仍被产品引用
+        when(productMapper.selectCount(any())).thenReturn(1L);
+        assertThat(fileUploadService.deleteFile(url)).isTrue();
+        assertThat(Files.exists(file)).isTrue();
+
+        // 未被引用但刚上传（去重命中会刷新修改时间），可能即将被产品保存引用
+        when(productMapper.selectCount(any())).thenReturn(0L);
+        assertThat(fileUploadService.deleteFile(url)).isTrue();
+        assertThat(Files.exists(file)).isTrue();
+        verify(storageExecutor, never()).execute(any(Runnable.class));
+
+        // 超过宽限期
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() - Duration.ofHours(25).toMillis()));
+        assertThat(fileUploadService.deleteFile(url)).isTrue();
+        assertThat(Files.exists(file)).isFalse();
+        assertThat(fileUploadService.deleteFile(url)).isFalse();
+    }
+
+    @Test
+    @Tag("benchmark")
+    void batchUploadIsFasterThanSequentialUploads() throws Exception {
+        int count = 10;
+        long fileSize = 2 * 1024 * 1024L;
+        // 本地磁盘
+        long[] local = compareSequentialAndBatch(count, fileSize, 0);
+        // 模拟远程对象存储每次写入30ms往返
+        useStorageLatency(30);
+        long[] remote = compareSequentialAndBatch(count, fileSize, 1000);
+
+        System.out.printf("10 x 2MB images, local disk: sequential %d ms, batch %d ms%n", local[0], local[1]);
+        System.out.printf("10 x 2MB images, 30ms storage latency: sequential %d ms, batch %d ms%n", remote[0], remote[1]);
+        assertThat(remote[1]).isLessThan(remote[0]);
+    }
+
+    @Test
+    void batchUploadRejectsFilesWhenExecutorIsSaturated() {
+        uploadExecutor.shutdown();
+        uploadExecutor = newUploadExecutor(1, 1);
+        ReflectionTestUtils.setField(fileUploadService, "uploadExecutor", uploadExecutor);
+        useStorageLatency(200);
+
+        List<MultipartFile> files = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            files.add(new SyntheticImageFile(4096, i));
+        }
+        files.add(new MockMultipartFile("files", "fake.png", "image/png", "not an image".getBytes()));
+        BatchUploadResponse response = fileUploadService.uploadProductImages(files);
+
+        // 1个执行中 + 1个排队，其余被拒绝且不在请求线程上执行
+        assertThat(response.getTotal()).isEqualTo(5);
+        assertThat(response.getSucceeded()).isEqualTo(2);
+        assertThat(response.getRejected()).isEqualTo(3);
+        assertThat(response.getFiles()).extracting(BatchUploadResponse.FileResult::getCode)
+                .containsExactly(200, 200, 503, 503, 503);
+        assertThat(response.getFiles().get(0).getUrl()).startsWith("/uploads/products/cas/");
+
+        config.setMaxBatchFiles(2);
+        assertThatThrownBy(() -> fileUploadService.uploadProductImages(files)).isInstanceOf(BusinessException.class);
+    }
+
+    /**
+     * 同一组文件（内容不同）分别逐个上传和批量上传
+     *
+     * @return {逐个上传耗时, 批量上传耗时}（毫秒）
+     */
+    private long[] compareSequentialAndBatch(int count, long fileSize, int seedBase) {
+        // 预热
+        fileUploadService.uploadProductImages(Arrays.asList(
+                new SyntheticImageFile(1024, seedBase - 1), new SyntheticImageFile(1024, seedBase - 2)));
+
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            fileUploadService.uploadProductImage(new SyntheticImageFile(fileSize, seedBase + i));
+        }
+        long sequential = (System.nanoTime() - start) / 1_000_000;
+
+        List<MultipartFile> files = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            files.add(new SyntheticImageFile(fileSize, seedBase + 100 + i));
+        }
+        start = System.nanoTime();
+        BatchUploadResponse response = fileUploadService.uploadProductImages(files);
+        long batch = (System.nanoTime() - start) / 1_000_000;
+        assertThat(response.getSucceeded()).isEqualTo(count);
+        return new long[]{sequential, batch};
+    }
+
+    private void useStorageLatency(long millis) {
+        LocalObjectStorage slowStorage = new LocalObjectStorage() {
+            @Override
+            public void put(String key, Path source, String contentType) throws IOException {
+                try {
+                    Thread.sleep(millis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.put(key, source, contentType);
+            }
+        };
+        ReflectionTestUtils.setField(slowStorage, "fileUploadConfig", config);
+        ReflectionTestUtils.setField(fileUploadService, "objectStorage", slowStorage);
+    }
+
+    private static ThreadPoolTaskExecutor newUploadExecutor(int threads, int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.initialize();
+        return executor;
+    }
+
+    private Path resolve(String url) {
+        return Paths.get(uploadRoot.toString(), url.substring("/uploads/".length()));
+    }
+
+    /**
+     * 按需生成内容的大文件，禁止整体读取
+     */
+    private static class SyntheticImageFile implements MultipartFile {
+
+        private final long size;
+
+        private final int seed;
+
+        SyntheticImageFile(long size) {
+            this(size, 0);
+        }
+
+        SyntheticImageFile(long size, int seed) {
+            this.size = size;
+            this.seed = seed;
+        }
+
+        @Override
+        public String getName() {
+            return "file";
+        }
+
+        @Override
+        public String getOriginalFilename() {
+            return "large.png";
+        }
+
+        @Override
+        public String getContentType() {
+            return "image/png";
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        @Override
+        public long getSize() {
+            return size;
+        }
+
+        @Override
+        public byte[] getBytes() {
+            throw new UnsupportedOperationException("upload must be streamed");
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return new InputStream() {
+                private long position;
+
+                @Override
+                public int read() {
+                    if (position >= size) {
+                        return -1;
+                    }
+                    return byteAt(position++) & 0xFF;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    if (position >= size) {
+                        return -1;
+                    }
+                    int count = (int) Math.min(len, size - position);
+                    for (int i = 0; i < count; i++) {
+                        b[off + i] = byteAt(position++);
+                    }
+                    return count;
+                }
+            };
+        }
+
+        @Override
+        public void transferTo(File dest) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        private byte byteAt(long position) {
+            return position < PNG_HEADER.length ? PNG_HEADER[(int) position] : (byte) (position * 31 + seed);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.gzist.project.service.impl;
+
+import com.gzist.project.config.FileUploadConfig;
+import com.gzist.project.config.ImageVariantConfig;
+import com.gzist.project.dto.ImageVariantDTO;
+import com.gzist.project.service.IFileUploadService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 图片变体Service测试
+ * 验证磁盘缓存超过上限时淘汰最久未访问的变体（命中会刷新访问顺序），
+ * 以及同一变体的并发请求只提交一次生成任务
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+class ImageVariantServiceImplTest {
+
+    @TempDir
+    Path root;
+
+    private final List<Runnable> submitted = new CopyOnWriteArrayList<>();
+
+    /**
+     * 为true时生成任务在提交线程上直接执行，否则暂存到submitted由测试手动执行
+     */
+    private volatile boolean runInline = true;
+
+    private IFileUploadService fileUploadService;
+
+    private ThreadPoolTaskExecutor imageVariantExecutor;
+
+    @BeforeEach
+    void setUp() {
+        fileUploadService = mock(IFileUploadService.class);
+        when(fileUploadService.resolveFile(anyString()))
+                .thenAnswer(invocation -> root.resolve(invocation.<String>getArgument(0).substring("/uploads/".length())));
+
+        imageVariantExecutor = mock(ThreadPoolTaskExecutor.class);
+        doAnswer(invocation -> {
+            Runnable task = invocation.getArgument(0);
+            if (runInline) {
+                task.run();
+            } else {
+                submitted.add(task);
+            }
+            return null;
+        }).when(imageVariantExecutor).execute(any(Runnable.class));
+    }
+
+    @Test
+    void cacheOverTheLimitEvictsTheLeastRecentlyUsedVariant() throws Exception {
+        writeImage("a.png");
+        writeImage("b.png");
+        writeImage("c.png");
+        // 先测出单个变体的大小（三张源图内容相同，变体大小相同），容量设为恰好容纳两个
+        long variantSize = Files.size(newService("variants-probe", Long.MAX_VALUE)
+                .getVariant("/uploads/a.png", 160, null).getPath());
+        assertThat(variantSize).isPositive();
+        ImageVariantServiceImpl imageVariantService = newService("variants", variantSize * 2);
+
+        Path a = imageVariantService.getVariant("/uploads/a.png", 160, null).getPath();
+        Path b = imageVariantService.getVariant("/uploads/b.png", 160, null).getPath();
+        // 命中a，b成为最久未访问的变体
+        assertThat(imageVariantService.getVariant("/uploads/a.png", 160, null).getPath()).isEqualTo(a);
+        Path c = imageVariantService.getVariant("/uploads/c.png", 160, null).getPath();
+
+        assertThat(a).exists();
+        assertThat(b).doesNotExist();
+        assertThat(c).exists();
+        assertThat(Files.size(a) + Files.size(c)).isLessThanOrEqualTo(variantSize * 2);
+
+        // 被淘汰的变体再次请求时重新生成，并淘汰此时最久未访问的a
+        assertThat(imageVariantService.getVariant("/uploads/b.png", 160, null).getPath()).isEqualTo(b).exists();
+        assertThat(a).doesNotExist();
+        assertThat(c).exists();
+    }
+
+    @Test
+    void concurrentRequestsForOneVariantShareOneGeneration() throws Exception {
+        writeImage("a.png");
+        ImageVariantServiceImpl imageVariantService = newService("variants", Long.MAX_VALUE);
+        runInline = false;
+
+        int callers = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Thread> threads = new CopyOnWriteArrayList<>();
+            List<Future<ImageVariantDTO>> futures = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                futures.add(executor.submit(() -> {
+                    threads.add(Thread.currentThread());
+                    return imageVariantService.getVariant("/uploads/a.png", 320, "jpg");
+                }));
+            }
+            // 全部请求都在等待生成结果后，才执行暂存的生成任务
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (threads.size() < callers
+                    || threads.stream().anyMatch(thread -> thread.getState() != Thread.State.TIMED_WAITING)) {
+                assertThat(System.nanoTime()).isLessThan(deadline);
+                Thread.sleep(5);
+            }
+            assertThat(submitted).hasSize(1);
+            submitted.get(0).run();
+
+            Path variant = futures.get(0).get(10, TimeUnit.SECONDS).getPath();
+            for (Future<ImageVariantDTO> future : futures) {
+                ImageVariantDTO result = future.get(10, TimeUnit.SECONDS);
+                assertThat(result.getPath()).isEqualTo(variant);
+                assertThat(result.getContentType()).isEqualTo("image/jpeg");
+            }
+            assertThat(variant).exists();
+            assertThat(ImageIO.read(variant.toFile()).getWidth()).isEqualTo(320);
+            assertThat((Map<?, ?>) ReflectionTestUtils.getField(imageVariantService, "inFlight")).isEmpty();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // 生成完成后命中磁盘缓存，不再提交任务
+        imageVariantService.getVariant("/uploads/a.png", 320, "jpg");
+        assertThat(submitted).hasSize(1);
+    }
+
+    private ImageVariantServiceImpl newService(String cachePath, long maxCacheSize) throws Exception {
+        ImageVariantConfig imageVariantConfig = new ImageVariantConfig();
+        imageVariantConfig.setCachePath(root.resolve(cachePath).toString());
+        imageVariantConfig.setMaxCacheSize(maxCacheSize);
+        ImageVariantServiceImpl imageVariantService = new ImageVariantServiceImpl();
+        ReflectionTestUtils.setField(imageVariantService, "fileUploadConfig", new FileUploadConfig());
+        ReflectionTestUtils.setField(imageVariantService, "imageVariantConfig", imageVariantConfig);
+        ReflectionTestUtils.setField(imageVariantService, "fileUploadService", fileUploadService);
+        ReflectionTestUtils.setField(imageVariantService, "imageVariantExecutor", imageVariantExecutor);
+        imageVariantService.init();
+        return imageVariantService;
+    }
+
+    private void writeImage(String name) throws Exception {
+        BufferedImage image = new BufferedImage(800, 600, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        try {
+            graphics.setColor(Color.ORANGE);
+            graphics.fillRect(0, 0, 800, 600);
+            graphics.setColor(Color.BLUE);
+            graphics.fillOval(200, 150, 400, 300);
+        } finally {
+            graphics.dispose();
+        }
+        ImageIO.write(image, "png", root.resolve(name).toFile());
+    }
+}
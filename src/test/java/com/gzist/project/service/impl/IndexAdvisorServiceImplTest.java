@@ -0,0 +1,110 @@
+package com.gzist.project.service.impl;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.gzist.project.entity.Product;
+import com.gzist.project.entity.User;
+import com.gzist.project.exception.BusinessException;
+import com.gzist.project.vo.response.IndexAdvisorReport;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 索引分析Service测试
+ * 验证查询形态目录生成的SQL与业务查询一致，以及执行计划的问题判定
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+class IndexAdvisorServiceImplTest {
+
+    @BeforeAll
+    static void initTableInfo() {
+        MapperBuilderAssistant assistant = new MapperBuilderAssistant(new MybatisConfiguration(), "");
+        TableInfoHelper.initTableInfo(assistant, Product.class);
+        TableInfoHelper.initTableInfo(assistant, User.class);
+    }
+
+    @Test
+    void catalogRendersListQueriesWithJdbcPlaceholders() {
+        Map<String, QueryShapeCatalog.QueryShape> shapes = QueryShapeCatalog.all().stream()
+                .collect(Collectors.toMap(QueryShapeCatalog.QueryShape::getName, shape -> shape));
+
+        QueryShapeCatalog.QueryShape recent = shapes.get("product:recent");
+        assertThat(recent.getPageSql()).startsWith("SELECT id,product_code,").contains(" FROM products ")
+                .endsWith("ORDER BY created_time DESC LIMIT " + QueryShapeCatalog.PAGE_SIZE);
+        assertThat(recent.getCountSql()).isEqualTo("SELECT COUNT(*) FROM products");
+        assertThat(recent.getArgs()).isEmpty();
+
+        QueryShapeCatalog.QueryShape categoryStatus = shapes.get("product:category+status");
+        assertThat(categoryStatus.getPageSql())
+                .endsWith("FROM products WHERE (category = ? AND status = ?) ORDER BY created_time DESC LIMIT 10");
+        assertThat(categoryStatus.getCountSql())
+                .isEqualTo("SELECT COUNT(*) FROM products WHERE (category = ? AND status = ?)");
+        assertThat(categoryStatus.getArgs()).containsExactly("电子产品", 1);
+
+        QueryShapeCatalog.QueryShape username = shapes.get("user:username");
+        assertThat(username.getPageSql())
+                .isEqualTo("SELECT * FROM users WHERE (username LIKE ?) ORDER BY created_time DESC LIMIT 10");
+        assertThat(username.getArgs()).containsExactly("%admin%");
+    }
+
+    @Test
+    void plansAreFlaggedByAccessTypeAndExtra() {
+        assertThat(IndexAdvisorServiceImpl.classify("page", "ALL", "Using where; Using filesort"))
+                .containsExactly("全表扫描", "文件排序");
+        assertThat(IndexAdvisorServiceImpl.classify("page", "index", "Backward index scan")).isEmpty();
+        assertThat(IndexAdvisorServiceImpl.classify("count", "index", "Using index")).containsExactly("全索引扫描");
+        assertThat(IndexAdvisorServiceImpl.classify("page", "ref", "Using index condition; Using temporary"))
+                .containsExactly("使用临时表");
+        assertThat(IndexAdvisorServiceImpl.classify("count", "range", null)).isEmpty();
+    }
+
+    @Test
+    void analyzeExplainsAndTimesEveryStatement() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        Map<String, Object> fullScan = new HashMap<>();
+        fullScan.put("type", "ALL");
+        fullScan.put("key", null);
+        fullScan.put("rows", 200000L);
+        fullScan.put("Extra", "Using where; Using filesort");
+        List<Map<String, Object>> plan = Collections.singletonList(fullScan);
+        when(jdbcTemplate.queryForList(startsWith("EXPLAIN "), (Object[]) any())).thenReturn(plan);
+        IndexAdvisorServiceImpl advisor = new IndexAdvisorServiceImpl();
+        ReflectionTestUtils.setField(advisor, "jdbcTemplate", jdbcTemplate);
+
+        IndexAdvisorReport report = advisor.analyze(2);
+
+        int statements = QueryShapeCatalog.all().size() * 2;
+        assertThat(report.getStatements()).isEqualTo(statements);
+        assertThat(report.getFlagged()).isEqualTo(statements);
+        IndexAdvisorReport.StatementPlan first = report.getPlans().get(0);
+        assertThat(first.getAccessType()).isEqualTo("ALL");
+        assertThat(first.getRows()).isEqualTo(200000L);
+        assertThat(first.getAvgMillis()).isNotNull();
+        // 每条语句预热1次 + 计时2次
+        verify(jdbcTemplate, times(statements * 3)).query(anyString(), any(RowCallbackHandler.class), (Object[]) any());
+
+        assertThatThrownBy(() -> advisor.analyze(51)).isInstanceOf(BusinessException.class);
+    }
+}
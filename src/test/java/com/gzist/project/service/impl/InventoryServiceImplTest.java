@@ -0,0 +1,315 @@
+package com.gzist.project.service.impl;
+
+import com.gzist.project.config.InventoryConfig;
+import com.gzist.project.dto.ProductChangeEvent;
+import com.gzist.project.exception.BusinessException;
+import com.gzist.project.mapper.ProductMapper;
+import com.gzist.project.vo.response.InventoryReservationResponse;
+import com.gzist.project.vo.response.InventoryStockResponse;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 库存预占Service测试
+ * 验证热点产品在数百线程并发预占下不超卖、对账重建计数器与并发预占交错时不超卖，其他途径修改库存后计数器随即重建，只有预占人可以确认或释放，以及确认扣减的批量写回与冲突处理
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+class InventoryServiceImplTest {
+
+    private static final long PRODUCT_ID = 1L;
+
+    private static final int THREADS = 200;
+
+    private static final String OWNER = "order-service";
+
+    private ProductMapper productMapper;
+
+    private InventoryConfig inventoryConfig;
+
+    private InventoryServiceImpl inventoryService;
+
+    private ConcurrentMapCacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        productMapper = mock(ProductMapper.class);
+        cacheManager = new ConcurrentMapCacheManager("products");
+        inventoryConfig = new InventoryConfig();
+        inventoryService = newService(inventoryConfig);
+    }
+
+    @Test
+    void hotProductContentionNeverOversells() throws Exception {
+        for (int stripes : new int[]{1, inventoryConfig.getStripes()}) {
+            contendForHotProduct(stripes);
+        }
+    }
+
+    /**
+     * 热点产品争用基准：单分段与默认分段数的吞吐对比（mvn test -Pbenchmark）
+     */
+    @Test
+    @Tag("benchmark")
+    void hotProductContentionThroughput() throws Exception {
+        for (int stripes : new int[]{1, inventoryConfig.getStripes()}) {
+            long[] result = contendForHotProduct(stripes);
+            long operations = result[0] + result[1];
+            System.out.printf("%d threads on one product, %d stripes: %d reservations + %d releases in %d ms (%d ops/s)%n",
+                    THREADS, stripes, result[0], result[1], result[2] / 1_000_000,
+                    operations * 1_000_000_000L / Math.max(1, result[2]));
+        }
+    }
+
+    @Test
+    void reconcileDuringContentionNeverOversells() throws Exception {
+        int stock = 50_000;
+        when(productMapper.selectStock(PRODUCT_ID)).thenReturn(stock);
+        AtomicLong reserved = new AtomicLong();
+        AtomicBoolean done = new AtomicBoolean();
+        Thread reconciler = new Thread(() -> {
+            while (!done.get()) {
+                inventoryService.reconcile();
+            }
+        });
+        reconciler.start();
+
+        runConcurrently(() -> {
+            try {
+                while (true) {
+                    inventoryService.reserve(PRODUCT_ID, 1, OWNER);
+                    reserved.incrementAndGet();
+                }
+            } catch (BusinessException e) {
+                assertThat(e.getCode()).isEqualTo(409);
+            }
+        });
+        done.set(true);
+        reconciler.join();
+
+        // 重建只会偏小：并发期间可能少卖，对账后剩余数量重新可用，总量不超过库存
+        assertThat(reserved.get()).isLessThanOrEqualTo(stock);
+        inventoryService.reconcile();
+        InventoryStockResponse status = inventoryService.getStock(PRODUCT_ID);
+        assertThat(status.getReserved()).isEqualTo(reserved.get());
+        assertThat(status.getAvailable()).isEqualTo(stock - reserved.get());
+    }
+
+    @Test
+    void committedReservationsAreWrittenBackInBatchesAndConflictsAreReconciled() {
+        when(productMapper.selectStock(1L)).thenReturn(10);
+        when(productMapper.selectStock(2L)).thenReturn(10);
+        when(productMapper.decrementStockToZero(eq(2L), anyLong())).thenReturn(1);
+        ProductMapper batchMapper = mock(ProductMapper.class);
+        SqlSession session = mock(SqlSession.class);
+        when(session.getMapper(ProductMapper.class)).thenReturn(batchMapper);
+        BatchResult batchResult = new BatchResult(null, "UPDATE products ...");
+        SqlSessionFactory sqlSessionFactory = mock(SqlSessionFactory.class);
+        when(sqlSessionFactory.openSession(ExecutorType.BATCH, false)).thenReturn(session);
+        ReflectionTestUtils.setField(inventoryService, "sqlSessionFactory", sqlSessionFactory);
+
+        String first = inventoryService.reserve(1L, 3, OWNER).getReservationId();
+        String second = inventoryService.reserve(1L, 2, OWNER).getReservationId();
+        String third = inventoryService.reserve(2L, 4, OWNER).getReservationId();
+        inventoryService.commit(first, OWNER);
+        inventoryService.commit(second, OWNER);
+        inventoryService.commit(third, OWNER);
+        assertThatThrownBy(() -> inventoryService.commit(first, OWNER))
+                .isInstanceOf(BusinessException.class).hasMessage("预占不存在或已过期");
+        assertThat(inventoryService.getStock(1L).getPendingPersist()).isEqualTo(5);
+        Cache productCache = cacheManager.getCache("products");
+        productCache.put("detail:1", "stock 10");
+        productCache.put("detail:2", "stock 10");
+        productCache.put("detail:3", "stock 10");
+        productCache.put("page:SUMMARY:1:10:filter", "page");
+
+        // 产品2的数据库库存已被改小，条件UPDATE未命中
+        List<BatchResult> results = new ArrayList<>();
+        results.add(batchResult);
+        when(session.flushStatements()).thenAnswer(invocation -> {
+            batchResult.setUpdateCounts(new int[]{1, 0});
+            return results;
+        });
+        assertThat(inventoryService.flushPendingDecrements()).isEqualTo(2);
+
+        verify(batchMapper).decrementStock(1L, 5L);
+        verify(batchMapper).decrementStock(2L, 4L);
+        verify(session).commit();
+        verify(productMapper).decrementStockToZero(2L, 4L);
+        verify(productMapper, never()).decrementStockToZero(eq(1L), anyLong());
+        // 写回后只清除这些产品的详情缓存；列表缓存保留，也不发布变更事件（快照等不包含库存）
+        assertThat(productCache.get("detail:1")).isNull();
+        assertThat(productCache.get("detail:2")).isNull();
+        assertThat(productCache.get("detail:3")).isNotNull();
+        assertThat(productCache.get("page:SUMMARY:1:10:filter")).isNotNull();
+        assertThat(inventoryService.getStock(1L).getPendingPersist()).isZero();
+        assertThat(inventoryService.getStock(1L).getAvailable()).isEqualTo(5);
+        // 冲突的产品按数据库库存重建
+        when(productMapper.selectStock(2L)).thenReturn(0);
+        assertThat(inventoryService.getStock(2L).getAvailable()).isZero();
+
+        when(session.flushStatements()).thenReturn(Collections.emptyList());
+        assertThat(inventoryService.flushPendingDecrements()).isZero();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void stockWritesElsewhereRebuildCountersAndUnknownProductsLeaveNoTally() {
+        when(productMapper.selectStock(PRODUCT_ID)).thenReturn(5);
+        inventoryService.reserve(PRODUCT_ID, 2, OWNER);
+
+        // 后台把库存从5改为3：不等对账，下次预占按3 - 已预占2重建
+        when(productMapper.selectStock(PRODUCT_ID)).thenReturn(3);
+        inventoryService.onProductChange(ProductChangeEvent.of(Arrays.asList(PRODUCT_ID)));
+        assertThat(inventoryService.getStock(PRODUCT_ID).getAvailable()).isEqualTo(1);
+        assertThatThrownBy(() -> inventoryService.reserve(PRODUCT_ID, 2, OWNER))
+                .isInstanceOf(BusinessException.class).hasMessage("库存不足");
+
+        when(productMapper.selectStock(PRODUCT_ID)).thenReturn(10);
+        inventoryService.onProductChange(ProductChangeEvent.fullRefresh());
+        assertThat(inventoryService.getStock(PRODUCT_ID).getAvailable()).isEqualTo(8);
+
+        for (long productId = 1000; productId < 1100; productId++) {
+            long unknown = productId;
+            when(productMapper.selectStock(unknown)).thenReturn(null);
+            assertThatThrownBy(() -> inventoryService.reserve(unknown, 1, OWNER))
+                    .isInstanceOf(BusinessException.class).hasMessage("产品不存在");
+        }
+        Map<Long, ?> tallies = (Map<Long, ?>) ReflectionTestUtils.getField(inventoryService, "tallies");
+        assertThat(tallies).containsOnlyKeys(PRODUCT_ID);
+    }
+
+    @Test
+    void onlyTheOwnerCanCommitOrReleaseAReservation() {
+        when(productMapper.selectStock(PRODUCT_ID)).thenReturn(5);
+        String reservationId = inventoryService.reserve(PRODUCT_ID, 5, OWNER).getReservationId();
+
+        assertThatThrownBy(() -> inventoryService.commit(reservationId, "user"))
+                .isInstanceOf(BusinessException.class).hasMessage("无权操作他人的预占");
+        assertThatThrownBy(() -> inventoryService.release(reservationId, "user"))
+                .isInstanceOf(BusinessException.class).hasMessage("无权操作他人的预占");
+        assertThat(inventoryService.getStock(PRODUCT_ID).getReserved()).isEqualTo(5);
+
+        inventoryService.commit(reservationId, OWNER);
+        assertThat(inventoryService.getStock(PRODUCT_ID).getPendingPersist()).isEqualTo(5);
+    }
+
+    @Test
+    void expiredReservationsAreReleased() {
+        when(productMapper.selectStock(PRODUCT_ID)).thenReturn(5);
+        inventoryConfig.setReservationTtlMinutes(0);
+        String reservationId = inventoryService.reserve(PRODUCT_ID, 5, OWNER).getReservationId();
+        assertThatThrownBy(() -> inventoryService.reserve(PRODUCT_ID, 1, OWNER))
+                .isInstanceOf(BusinessException.class).hasMessage("库存不足");
+
+        assertThat(inventoryService.releaseExpiredReservations()).isEqualTo(1);
+        assertThat(inventoryService.getStock(PRODUCT_ID).getAvailable()).isEqualTo(5);
+        assertThatThrownBy(() -> inventoryService.release(reservationId, OWNER)).isInstanceOf(BusinessException.class);
+    }
+
+    /**
+     * 全部线程在同一产品上反复预占（每10个释放1个）直到库存耗尽，并校验没有超卖
+     *
+     * @return 预占次数、释放次数、耗时（纳秒）
+     */
+    private long[] contendForHotProduct(int stripes) throws InterruptedException {
+        int stock = 200_000;
+        when(productMapper.selectStock(PRODUCT_ID)).thenReturn(stock);
+        InventoryConfig config = new InventoryConfig();
+        config.setStripes(stripes);
+        InventoryServiceImpl service = newService(config);
+        AtomicLong reserved = new AtomicLong();
+        AtomicLong released = new AtomicLong();
+
+        long elapsedNanos = runConcurrently(() -> {
+            long count = 0;
+            try {
+                while (true) {
+                    InventoryReservationResponse reservation = service.reserve(PRODUCT_ID, 1, OWNER);
+                    reserved.incrementAndGet();
+                    // 每10个预占释放1个，释放的数量可以被其他线程再次预占
+                    if (++count % 10 == 0) {
+                        service.release(reservation.getReservationId(), OWNER);
+                        released.incrementAndGet();
+                    }
+                }
+            } catch (BusinessException e) {
+                assertThat(e.getCode()).isEqualTo(409);
+            }
+        });
+
+        InventoryStockResponse status = service.getStock(PRODUCT_ID);
+        assertThat(reserved.get() - released.get()).isEqualTo(stock);
+        assertThat(status.getAvailable()).isZero();
+        assertThat(status.getReserved()).isEqualTo(stock);
+        return new long[]{reserved.get(), released.get(), elapsedNanos};
+    }
+
+    private InventoryServiceImpl newService(InventoryConfig config) {
+        InventoryServiceImpl service = new InventoryServiceImpl();
+        ReflectionTestUtils.setField(service, "productMapper", productMapper);
+        ReflectionTestUtils.setField(service, "inventoryConfig", config);
+        ReflectionTestUtils.setField(service, "cacheManager", cacheManager);
+        return service;
+    }
+
+    /**
+     * 所有线程同时开始执行任务，返回全部完成的耗时（纳秒）
+     */
+    private static long runConcurrently(Runnable task) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch ready = new CountDownLatch(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(THREADS);
+        for (int i = 0; i < THREADS; i++) {
+            executor.execute(() -> {
+                ready.countDown();
+                try {
+                    start.await();
+                    task.run();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    finished.countDown();
+                }
+            });
+        }
+        ready.await();
+        long startNanos = System.nanoTime();
+        start.countDown();
+        assertThat(finished.await(60, TimeUnit.SECONDS)).isTrue();
+        long elapsed = System.nanoTime() - startNanos;
+        executor.shutdown();
+        return elapsed;
+    }
+}
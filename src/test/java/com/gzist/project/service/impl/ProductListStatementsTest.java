@@ -0,0 +1,240 @@
+package com.gzist.project.service.impl;
+
+import com.baomidou.mybatisplus.annotation.DbType;
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.extension.plugins.inner.PaginationInnerInterceptor;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.gzist.project.entity.Product;
+import com.gzist.project.mapper.ProductMapper;
+import com.gzist.project.vo.request.ProductQueryRequest;
+import com.gzist.project.vo.request.ProductView;
+import org.apache.ibatis.binding.MapperMethod;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.RowBounds;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 产品列表预编译语句测试
+ * 验证32种筛选组合的预编译分页和COUNT语句与条件构造器加分页插件生成的SQL、参数一致，
+ * 并对比两种方式构造查询（条件构造、SQL渲染、分页插件改写）的耗时
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+class ProductListStatementsTest {
+
+    private static MybatisConfiguration configuration;
+
+    @BeforeAll
+    static void registerStatements() {
+        configuration = new MybatisConfiguration();
+        // 注册Mapper时初始化表信息并注入BaseMapper的通用语句（selectList等）
+        configuration.addMapper(ProductMapper.class);
+        ProductListStatements.register(configuration);
+        ProductListStatements.register(configuration);
+    }
+
+    @Test
+    void everyFilterCombinationMatchesWrapperAndPaginationSql() {
+        CountingInterceptor interceptor = new CountingInterceptor();
+        for (int mask = 0; mask < 32; mask++) {
+            ProductQueryRequest queryRequest = request(mask);
+            assertThat(ProductListStatements.mask(queryRequest)).isEqualTo(mask);
+            Map<String, Object> parameters = ProductListStatements.parameters(queryRequest, mask, 40, 20);
+
+            for (ProductView view : ProductView.values()) {
+                MapperMethod.ParamMap<Object> wrapperParameters = wrapperParameters(queryRequest, view);
+                BoundSql wrapperSql = selectList().getBoundSql(wrapperParameters);
+                String wrapperSelect = normalize(wrapperSql.getSql());
+                List<Object> wrapperValues = values(wrapperSql, wrapperParameters);
+
+                BoundSql pageSql = configuration.getMappedStatement(ProductListStatements.pageStatementId(view, mask))
+                        .getBoundSql(parameters);
+                assertThat(pageSql.getSql()).isEqualTo(wrapperSelect + " LIMIT ?,?");
+                List<Object> expectedPageValues = new ArrayList<>(wrapperValues);
+                expectedPageValues.add(40L);
+                expectedPageValues.add(20L);
+                assertThat(values(pageSql, parameters)).as("mask %d", mask).isEqualTo(expectedPageValues);
+
+                BoundSql countSql = configuration.getMappedStatement(ProductListStatements.countStatementId(mask))
+                        .getBoundSql(parameters);
+                assertThat(countSql.getSql()).isEqualTo(interceptor.countSql(wrapperSql.getSql())
+                        .replace("COUNT(*) AS total", "COUNT(*)"));
+                assertThat(values(countSql, parameters)).isEqualTo(wrapperValues);
+            }
+        }
+    }
+
+    @Test
+    void statementsRunThroughTheSqlSessionWithoutPageParameter() {
+        SqlSessionTemplate sqlSessionTemplate = mock(SqlSessionTemplate.class);
+        when(sqlSessionTemplate.getConfiguration()).thenReturn(configuration);
+        ProductListStatements statements = new ProductListStatements();
+        ReflectionTestUtils.setField(statements, "sqlSessionTemplate", sqlSessionTemplate);
+        statements.init();
+        ProductQueryRequest queryRequest = request(ProductListStatements.CATEGORY | ProductListStatements.STATUS);
+        when(sqlSessionTemplate.selectOne(eq(ProductListStatements.countStatementId(6)), anyMap())).thenReturn(42L);
+
+        assertThat(statements.count(queryRequest)).isEqualTo(42L);
+        statements.page(queryRequest, ProductView.LIST, 20, 10);
+
+        verify(sqlSessionTemplate).selectList(eq(ProductListStatements.pageStatementId(ProductView.LIST, 6)),
+                (Object) argThat((Map<String, Object> parameters) ->
+                        parameters.get("offset").equals(20L) && parameters.get("limit").equals(10L)
+                                && "电子产品".equals(parameters.get("category"))));
+    }
+
+    @Test
+    @Tag("benchmark")
+    void precompiledStatementsCutQueryBuildingOverhead() {
+        List<ProductQueryRequest> requests = new ArrayList<>();
+        for (int mask : new int[]{0, 2, 4, 6, 24, 28, 1, 31}) {
+            requests.add(request(mask));
+        }
+        CountingInterceptor interceptor = new CountingInterceptor();
+        MappedStatement selectList = selectList();
+
+        // 改造前：构造条件构造器、渲染动态SQL、分页插件解析SQL生成COUNT并追加LIMIT
+        Consumer<ProductQueryRequest> wrapperPath = queryRequest -> {
+            MapperMethod.ParamMap<Object> parameters = wrapperParameters(queryRequest, ProductView.CARD);
+            BoundSql boundSql = selectList.getBoundSql(parameters);
+            interceptor.countSql(boundSql.getSql());
+            interceptor.paginate(selectList, parameters, boundSql);
+        };
+        // 改造后：按位掩码取语句，绑定参数
+        Consumer<ProductQueryRequest> statementPath = queryRequest -> {
+            int mask = ProductListStatements.mask(queryRequest);
+            Map<String, Object> parameters = ProductListStatements.parameters(queryRequest, mask, 40, 20);
+            configuration.getMappedStatement(ProductListStatements.countStatementId(mask)).getBoundSql(parameters);
+            configuration.getMappedStatement(ProductListStatements.pageStatementId(ProductView.CARD, mask))
+                    .getBoundSql(parameters);
+        };
+
+        long before = nanosPerOp(wrapperPath, requests);
+        long after = nanosPerOp(statementPath, requests);
+        System.out.printf("list query building, wrapper + pagination interceptor: %d ns/op, precompiled: %d ns/op (%.1fx)%n",
+                before, after, (double) before / after);
+        assertThat(after * 5).isLessThan(before);
+    }
+
+    /**
+     * 预热后按轮次测量，取各轮平均耗时的最小值（纳秒/次）
+     */
+    private static long nanosPerOp(Consumer<ProductQueryRequest> operation, List<ProductQueryRequest> requests) {
+        int opsPerRound = 2_000;
+        for (int i = 0; i < opsPerRound * 5; i++) {
+            operation.accept(requests.get(i % requests.size()));
+        }
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < opsPerRound; i++) {
+                operation.accept(requests.get(i % requests.size()));
+            }
+            best = Math.min(best, (System.nanoTime() - start) / opsPerRound);
+        }
+        return best;
+    }
+
+    private static MappedStatement selectList() {
+        return configuration.getMappedStatement(ProductMapper.class.getName() + ".selectList");
+    }
+
+    /**
+     * 改造前的参数：条件构造器（只选视图的列）和分页对象，与BaseMapper#selectPage传给selectList的相同
+     */
+    private static MapperMethod.ParamMap<Object> wrapperParameters(ProductQueryRequest queryRequest, ProductView view) {
+        LambdaQueryWrapper<Product> wrapper = view.select(ProductServiceImpl.buildQueryWrapper(queryRequest));
+        IPage<Product> page = new Page<>(queryRequest.getCurrent(), queryRequest.getSize());
+        MapperMethod.ParamMap<Object> parameters = new MapperMethod.ParamMap<>();
+        parameters.put("page", page);
+        parameters.put("param1", page);
+        parameters.put("ew", wrapper);
+        parameters.put("param2", wrapper);
+        return parameters;
+    }
+
+    private static List<Object> values(BoundSql boundSql, Object parameterObject) {
+        MetaObject metaObject = configuration.newMetaObject(parameterObject);
+        List<Object> values = new ArrayList<>();
+        for (ParameterMapping mapping : boundSql.getParameterMappings()) {
+            values.add(metaObject.getValue(mapping.getProperty()));
+        }
+        return values;
+    }
+
+    private static String normalize(String sql) {
+        return sql.replaceAll("\\s+", " ").trim();
+    }
+
+    private static ProductQueryRequest request(int mask) {
+        ProductQueryRequest queryRequest = new ProductQueryRequest();
+        queryRequest.setCurrent(3);
+        queryRequest.setSize(20);
+        if ((mask & ProductListStatements.NAME) != 0) {
+            queryRequest.setProductName("手机");
+        }
+        if ((mask & ProductListStatements.CATEGORY) != 0) {
+            queryRequest.setCategory("电子产品");
+        }
+        if ((mask & ProductListStatements.STATUS) != 0) {
+            queryRequest.setStatus(1);
+        }
+        if ((mask & ProductListStatements.MIN_PRICE) != 0) {
+            queryRequest.setMinPrice(new BigDecimal("100"));
+        }
+        if ((mask & ProductListStatements.MAX_PRICE) != 0) {
+            queryRequest.setMaxPrice(new BigDecimal("500.50"));
+        }
+        return queryRequest;
+    }
+
+    /**
+     * 公开分页插件生成COUNT语句、改写分页SQL的方法
+     */
+    private static final class CountingInterceptor extends PaginationInnerInterceptor {
+
+        private CountingInterceptor() {
+            super(DbType.MYSQL);
+        }
+
+        private String countSql(String sql) {
+            return autoCountSql(new Page<>(1, 20), sql);
+        }
+
+        /**
+         * 分页插件改写分页SQL（方言已指定，不需要Executor）
+         */
+        private void paginate(MappedStatement ms, Object parameter, BoundSql boundSql) {
+            try {
+                beforeQuery(null, ms, parameter, RowBounds.DEFAULT, null, boundSql);
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
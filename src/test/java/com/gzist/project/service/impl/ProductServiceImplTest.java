@@ -0,0 +1,1169 @@
+package com.gzist.project.service.impl;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.core.metadata.TableFieldInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.gzist.project.common.Result;
+import com.gzist.project.config.CacheConfig;
+import com.gzist.project.config.ProductBulkConfig;
+import com.gzist.project.config.ProductLoaderConfig;
+import com.gzist.project.config.ProductNegativeCacheConfig;
+import com.gzist.project.config.ProductFacetConfig;
+import com.gzist.project.config.ProductQueryKeyGenerator;
+import com.gzist.project.dto.ProductChangeEvent;
+import com.gzist.project.dto.ProductQueryKey;
+import com.gzist.project.entity.Product;
+import com.gzist.project.exception.BusinessException;
+import com.gzist.project.mapper.ProductMapper;
+import com.gzist.project.service.IProductSnapshotService;
+import com.gzist.project.utils.CacheBatchOperations;
+import com.gzist.project.utils.ImportRecordReader;
+import com.gzist.project.utils.ProductColumnSnapshot;
+import com.gzist.project.vo.request.ProductBatchUpdateItem;
+import com.gzist.project.vo.request.ProductQueryRequest;
+import com.gzist.project.vo.request.ProductView;
+import com.gzist.project.vo.response.BatchUpdateResponse;
+import com.gzist.project.vo.response.ImportResultResponse;
+import com.gzist.project.vo.response.ProductDetailBatchResponse;
+import com.gzist.project.vo.response.ProductFacetResponse;
+import com.gzist.project.vo.response.ProductSummaryResponse;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.ReflectionUtils;
+
+import javax.validation.Validation;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * 产品Service测试
+ * 验证流式导出的内存占用与行数无关、导出格式可被导入读取器解析，批量导入的校验、分块写入和吞吐，
+ * 批量更新的逐项校验和分块UPDATE ... CASE语句，列表视图投影对读取、缓存和返回字节数的缩减，分面统计的数据库回退，
+ * 批量详情的一次MGET、一次IN查询和管道写回，并发详情查询的微批量合并，列表缓存key的规范化和命中率，以及空结果和超出末页的负缓存
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+class ProductServiceImplTest {
+
+    private ProductMapper productMapper;
+
+    private ProductListStatements productListStatements;
+
+    private ProductNegativeCache negativeCache;
+
+    private ProductNegativeCacheConfig negativeCacheConfig;
+
+    private ProductServiceImpl productService;
+
+    private ProductMapper sessionMapper;
+
+    private SqlSession session;
+
+    private ConcurrentMapCacheManager cacheManager;
+
+    @BeforeAll
+    static void initTableInfo() {
+        // LambdaQueryWrapper解析列名需要实体的表信息
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(new MybatisConfiguration(), ""), Product.class);
+    }
+
+    @BeforeEach
+    void setUp() {
+        productMapper = mock(ProductMapper.class);
+        productService = new ProductServiceImpl();
+        ReflectionTestUtils.setField(productService, "productMapper", productMapper);
+        productListStatements = mock(ProductListStatements.class);
+        ReflectionTestUtils.setField(productService, "productListStatements", productListStatements);
+        negativeCache = new ProductNegativeCache();
+        negativeCacheConfig = new ProductNegativeCacheConfig();
+        ReflectionTestUtils.setField(negativeCache, "productNegativeCacheConfig", negativeCacheConfig);
+        ReflectionTestUtils.setField(productService, "productNegativeCache", negativeCache);
+
+        // 导入使用独立的SqlSession
+        sessionMapper = mock(ProductMapper.class);
+        session = mock(SqlSession.class);
+        when(session.getMapper(ProductMapper.class)).thenReturn(sessionMapper);
+        SqlSessionFactory sqlSessionFactory = mock(SqlSessionFactory.class);
+        when(sqlSessionFactory.openSession(ExecutorType.SIMPLE, false)).thenReturn(session);
+        cacheManager = new ConcurrentMapCacheManager("products");
+        ReflectionTestUtils.setField(productService, "sqlSessionFactory", sqlSessionFactory);
+        ReflectionTestUtils.setField(productService, "cacheManager", cacheManager);
+        ReflectionTestUtils.setField(productService, "productBulkConfig", new ProductBulkConfig());
+        ReflectionTestUtils.setField(productService, "validator",
+                Validation.buildDefaultValidatorFactory().getValidator());
+        // 快照未启用，列表查询走数据库
+        ReflectionTestUtils.setField(productService, "productSnapshotService", mock(IProductSnapshotService.class));
+        ReflectionTestUtils.setField(productService, "eventPublisher", mock(ApplicationEventPublisher.class));
+        ReflectionTestUtils.setField(productService, "cacheBatchOperations", new CacheBatchOperations());
+    }
+
+    @Test
+    @Tag("benchmark")
+    void exportOfMillionRowsKeepsMemoryFlat() throws Exception {
+        long rows = 1_000_000;
+        MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
+        long[] heapAtRow = new long[2];
+        doAnswer(invocation -> {
+            ResultHandler<Product> handler = invocation.getArgument(1);
+            SyntheticContext context = new SyntheticContext();
+            for (long i = 1; i <= rows && !context.stopped; i++) {
+                // 模拟流式结果集：每行一个新对象，读出后即不再引用
+                context.current = syntheticProduct(i);
+                context.count++;
+                handler.handleResult(context);
+                if (i == rows / 10) {
+                    heapAtRow[0] = usedHeapAfterGc(memoryBean);
+                } else if (i == rows) {
+                    heapAtRow[1] = usedHeapAfterGc(memoryBean);
+                }
+            }
+            return null;
+        }).when(productMapper).scanProducts(any(), any());
+
+        for (ImportRecordReader.Format format : ImportRecordReader.Format.values()) {
+            CountingOutputStream output = new CountingOutputStream();
+            long exported = productService.exportProducts(new ProductQueryRequest(), format, output);
+
+            assertThat(exported).isEqualTo(rows);
+            assertThat(output.lines).isEqualTo(format == ImportRecordReader.Format.CSV ? rows + 1 : rows);
+            long growth = heapAtRow[1] - heapAtRow[0];
+            System.out.printf("%s export of %d rows: %d MB written, heap after 100k rows %d KB, after 1M rows %d KB%n",
+                    format, rows, output.bytes / 1024 / 1024, heapAtRow[0] / 1024, heapAtRow[1] / 1024);
+            assertThat(growth).as("导出90万行期间的堆增长").isLessThan(8 * 1024 * 1024L);
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void exportHonorsQueryFiltersAndCanBeReadBack() throws Exception {
+        doAnswer(invocation -> {
+            ResultHandler<Product> handler = invocation.getArgument(1);
+            SyntheticContext context = new SyntheticContext();
+            Product product = syntheticProduct(1);
+            product.setDescription("含逗号, \"引号\"的描述");
+            context.current = product;
+            handler.handleResult(context);
+            return null;
+        }).when(productMapper).scanProducts(any(), any());
+
+        ProductQueryRequest query = new ProductQueryRequest();
+        query.setCategory("电子产品");
+        query.setMinPrice(new BigDecimal("10"));
+        for (ImportRecordReader.Format format : ImportRecordReader.Format.values()) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            productService.exportProducts(query, format, output);
+
+            try (ImportRecordReader reader = new ImportRecordReader(
+                    new ByteArrayInputStream(output.toByteArray()), format)) {
+                Map<String, Object> record = reader.next();
+                assertThat(String.valueOf(record.get("productCode"))).isEqualTo("P0000001");
+                assertThat(String.valueOf(record.get("description"))).isEqualTo("含逗号, \"引号\"的描述");
+                assertThat(String.valueOf(record.get("createdTime"))).isEqualTo("2026-10-19 08:30:00");
+                assertThat(reader.next()).isNull();
+            }
+        }
+
+        ArgumentCaptor<Wrapper<Product>> wrapper = ArgumentCaptor.forClass(Wrapper.class);
+        verify(productMapper, times(2)).scanProducts(wrapper.capture(), any());
+        assertThat(wrapper.getValue().getCustomSqlSegment())
+                .contains("category =").contains("price >=").contains("ORDER BY created_time DESC");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void listViewsSkipDescriptionAndShrinkBytesReadCachedAndSent() throws Exception {
+        List<Product> rows = new ArrayList<>();
+        for (long id = 1; id <= 20; id++) {
+            Product product = syntheticProduct(id);
+            // 典型商品描述：数百字的中文文案
+            StringBuilder description = new StringBuilder();
+            while (description.length() < 400) {
+                description.append("高性能产品，适用于多种场景，提供一年质保与全国联保服务。");
+            }
+            product.setDescription(description.toString());
+            rows.add(product);
+        }
+        List<String> selects = new ArrayList<>();
+        long[] bytesRead = new long[1];
+        when(productMapper.selectPage(any(), any())).thenAnswer(invocation -> {
+            Page<Product> page = invocation.getArgument(0);
+            Wrapper<Product> wrapper = invocation.getArgument(1);
+            page.setRecords(project(rows, selectedColumns(wrapper.getSqlSelect()), bytesRead));
+            page.setTotal(1000);
+            return page;
+        });
+        // 列表查询使用预编译语句，按语句SQL中的列投影
+        MybatisConfiguration configuration = new MybatisConfiguration();
+        ProductListStatements.register(configuration);
+        when(productListStatements.count(any())).thenReturn(1000L);
+        when(productListStatements.page(any(), any(), anyLong(), anyLong())).thenAnswer(invocation -> {
+            ProductView view = invocation.getArgument(1);
+            String sql = configuration.getMappedStatement(ProductListStatements.pageStatementId(view, 0))
+                    .getBoundSql(null).getSql();
+            String select = sql.substring("SELECT ".length(), sql.indexOf(" FROM "));
+            selects.add(select);
+            return project(rows, selectedColumns(select), bytesRead);
+        });
+        ObjectMapper cacheMapper = CacheConfig.cacheObjectMapper();
+        ObjectMapper responseMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        // 投影前：SELECT * 读出完整实体，缓存和返回的都是完整实体
+        IPage<Product> fullPage = productMapper.selectPage(new Page<>(1, 20), new LambdaQueryWrapper<>());
+        long[] full = {bytesRead[0], cacheMapper.writeValueAsBytes(fullPage).length,
+                responseMapper.writeValueAsBytes(Result.success(fullPage)).length};
+
+        for (ProductView view : ProductView.values()) {
+            IPage<ProductSummaryResponse> page = productService.getProductPage(new ProductQueryRequest(), view);
+            String select = selects.get(selects.size() - 1);
+            long cached = cacheMapper.writeValueAsBytes(page).length;
+            long sent = responseMapper.writeValueAsBytes(Result.success(page)).length;
+            assertThat(select).doesNotContain("description").doesNotContain("created_by_username");
+            assertThat(page.getRecords()).hasSize(20);
+            assertThat(page.getTotal()).isEqualTo(1000);
+            assertThat(page.getRecords().get(0).getImageUrl()).isEqualTo(view == ProductView.CARD
+                    ? rows.get(0).getImageUrl() : null);
+            assertThat(bytesRead[0]).isLessThan(full[0] / 3);
+            assertThat(cached).isLessThan(full[1] / 3);
+            assertThat(sent).isLessThan(full[2] / 3);
+            // 缓存的列表项可以还原
+            assertThat(cacheMapper.readValue(cacheMapper.writeValueAsBytes(page), IPage.class).getRecords().get(0))
+                    .isEqualTo(page.getRecords().get(0));
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void snapshotPageReadsOnlyThePageByPrimaryKeyInSnapshotOrder() {
+        IProductSnapshotService snapshotService = mock(IProductSnapshotService.class);
+        ReflectionTestUtils.setField(productService, "productSnapshotService", snapshotService);
+        ProductQueryRequest queryRequest = new ProductQueryRequest();
+        queryRequest.setCurrent(2);
+        when(snapshotService.query(queryRequest)).thenReturn(new ProductColumnSnapshot.QueryResult(new long[]{9, 3, 7}, 13));
+        // 主键查询返回的顺序与快照不同
+        when(productMapper.selectList(any())).thenReturn(Arrays.asList(syntheticProduct(3), syntheticProduct(7),
+                syntheticProduct(9)));
+
+        IPage<ProductSummaryResponse> page = productService.getProductPage(queryRequest, ProductView.LIST);
+
+        ArgumentCaptor<Wrapper<Product>> wrapper = ArgumentCaptor.forClass(Wrapper.class);
+        verify(productMapper).selectList(wrapper.capture());
+        assertThat(wrapper.getValue().getSqlSegment()).startsWith("(id IN (");
+        assertThat(wrapper.getValue().getSqlSelect()).doesNotContain("description");
+        verify(productMapper, times(0)).selectPage(any(), any());
+        assertThat(page.getTotal()).isEqualTo(13);
+        assertThat(page.getCurrent()).isEqualTo(2);
+        assertThat(page.getRecords()).extracting(ProductSummaryResponse::getId).containsExactly(9L, 3L, 7L);
+
+        when(snapshotService.query(queryRequest)).thenReturn(new ProductColumnSnapshot.QueryResult(new long[0], 13));
+        assertThat(productService.getProductPage(queryRequest, ProductView.LIST).getRecords()).isEmpty();
+        verify(productMapper, times(1)).selectList(any());
+    }
+
+    @Test
+    void equivalentListQueriesShareOneCacheKeyAndQueryNormalizedConditions() {
+        ProductQueryKeyGenerator keyGenerator = new ProductQueryKeyGenerator();
+        Method method = ReflectionUtils.findMethod(ProductServiceImpl.class, "getProductPage",
+                ProductQueryRequest.class, ProductView.class);
+        Object key = keyGenerator.generate(productService, method,
+                listRequest(10, "iPhone", "电子产品", "10", "500"), ProductView.LIST);
+
+        assertThat(keyGenerator.generate(productService, method,
+                listRequest(null, "  IPHONE ", " 电子产品", "10.00", "5E+2"), ProductView.LIST))
+                .isEqualTo(key).hasSameHashCodeAs(key).hasToString(key.toString());
+        assertThat(key).hasToString("page:LIST:1:10:iphone:电子产品:null:10:500");
+        assertThat(keyGenerator.generate(productService, method, listRequest(10, "iPhone", "电子产品", "10", "500"),
+                ProductView.CARD)).isNotEqualTo(key);
+        assertThat(keyGenerator.generate(productService, method, listRequest(10, "iPhone", "电子产品", "10.5", "500"),
+                ProductView.LIST)).isNotEqualTo(key);
+        assertThat(ProductQueryKey.of(ProductView.LIST, listRequest(10, "", "", null, null)))
+                .isEqualTo(ProductQueryKey.of(ProductView.LIST, listRequest(10, null, "   ", null, null)));
+        // 条件中的分隔符不会让不同查询拼出相同的key
+        assertThat(ProductQueryKey.of(ProductView.LIST, listRequest(10, "a:b", null, null, null)).toString())
+                .isNotEqualTo(ProductQueryKey.of(ProductView.LIST, listRequest(10, "a", "b:null", null, null)).toString());
+
+        // 未命中时按规范化后的条件查询，与共用缓存项的其他写法结果相同
+        when(productListStatements.count(any())).thenReturn(0L);
+        productService.getProductPage(listRequest(null, "  iPhone ", "", "10.00", null), ProductView.LIST);
+        verify(productListStatements).count(argThat(queryRequest -> "iPhone".equals(queryRequest.getProductName())
+                && queryRequest.getCategory() == null && queryRequest.getSize() == 10));
+    }
+
+    @Test
+    void normalizedKeysRaiseHitRateOnReplayedListTraffic() {
+        // 改造前@Cacheable的SpEL key
+        Expression legacyKey = new SpelExpressionParser().parseExpression(
+                "'page:' + #view + ':' + #queryRequest.current + ':' + #queryRequest.size + ':' + " +
+                "(#queryRequest.productName != null && #queryRequest.productName != '' ? #queryRequest.productName : 'null') + ':' + " +
+                "(#queryRequest.category != null && #queryRequest.category != '' ? #queryRequest.category : 'null') + ':' + " +
+                "(#queryRequest.minPrice != null ? #queryRequest.minPrice : 'null') + ':' + " +
+                "(#queryRequest.maxPrice != null ? #queryRequest.maxPrice : 'null') + ':' + " +
+                "(#queryRequest.status != null ? #queryRequest.status : 'null')");
+        ProductQueryKeyGenerator keyGenerator = new ProductQueryKeyGenerator();
+        Method method = ReflectionUtils.findMethod(ProductServiceImpl.class, "getProductPage",
+                ProductQueryRequest.class, ProductView.class);
+
+        // 访问日志中的列表查询：432种不同查询，热度按排名递减
+        List<String[]> queries = new ArrayList<>();
+        for (String name : new String[]{null, "iPhone", "手机", "Galaxy", "耳机", "MacBook"}) {
+            for (String category : new String[]{null, "电子产品", "服装", "食品"}) {
+                for (String status : new String[]{null, "1"}) {
+                    for (String minPrice : new String[]{null, "100", "1000"}) {
+                        for (String current : new String[]{"1", "2", "3"}) {
+                            queries.add(new String[]{name, category, status, minPrice, current});
+                        }
+                    }
+                }
+            }
+        }
+        Random random = new Random(17);
+        Collections.shuffle(queries, random);
+
+        Set<Object> legacyCache = new HashSet<>();
+        Set<Object> normalizedCache = new HashSet<>();
+        Set<Integer> distinctQueries = new HashSet<>();
+        int requests = 50_000;
+        int legacyHits = 0;
+        int normalizedHits = 0;
+        for (int i = 0; i < requests; i++) {
+            int rank = (int) (queries.size() * Math.pow(random.nextDouble(), 2.5));
+            distinctQueries.add(rank);
+            String[] query = queries.get(rank);
+            // 同一查询的不同写法：表单提交的空分类为空串、搜索框带空格或大小写不同、价格输入框带两位小数、size参数为空
+            ProductQueryRequest queryRequest = new ProductQueryRequest();
+            queryRequest.setCurrent(Integer.valueOf(query[4]));
+            queryRequest.setSize(random.nextInt(20) == 0 ? null : 10);
+            String name = query[0];
+            if (name != null && random.nextInt(5) == 0) {
+                name = name + " ";
+            }
+            if (name != null && random.nextInt(10) == 0) {
+                name = name.toLowerCase(Locale.ROOT);
+            }
+            queryRequest.setProductName(name == null && random.nextBoolean() ? "" : name);
+            queryRequest.setCategory(query[1] == null && random.nextBoolean() ? "" : query[1]);
+            queryRequest.setStatus(query[2] == null ? null : Integer.valueOf(query[2]));
+            queryRequest.setMinPrice(query[3] == null ? null
+                    : new BigDecimal(query[3]).setScale(random.nextBoolean() ? 0 : 2, RoundingMode.UNNECESSARY));
+
+            StandardEvaluationContext context = new StandardEvaluationContext();
+            context.setVariable("queryRequest", queryRequest);
+            context.setVariable("view", ProductView.CARD);
+            if (!legacyCache.add(legacyKey.getValue(context, String.class))) {
+                legacyHits++;
+            }
+            if (!normalizedCache.add(keyGenerator.generate(productService, method, queryRequest, ProductView.CARD))) {
+                normalizedHits++;
+            }
+        }
+
+        assertThat(normalizedCache).hasSize(distinctQueries.size());
+        assertThat(legacyCache.size()).isGreaterThan(distinctQueries.size() * 3);
+        assertThat(normalizedHits).isGreaterThan(legacyHits);
+    }
+
+    @Test
+    void emptySearchesAndPagesPastTheEndSkipQueriesUntilAWrite() {
+        when(productListStatements.count(named("iphnoe")))
+                .thenReturn(0L);
+        when(productListStatements.count(named("手机")))
+                .thenReturn(25L);
+        when(productListStatements.page(any(), any(), anyLong(), anyLong()))
+                .thenReturn(Collections.singletonList(syntheticProduct(1)));
+
+        // 拼写错误的搜索：只有第一次查询，之后其他写法、其他页都直接返回空页
+        assertThat(productService.getProductPage(listRequest(10, "iphnoe", null, null, null), ProductView.CARD)
+                .getRecords()).isEmpty();
+        assertThat(productService.getProductPage(listRequest(10, " IPHNOE ", "", null, null), ProductView.LIST)
+                .getTotal()).isZero();
+        ProductQueryRequest secondPage = listRequest(20, "iphnoe", null, null, null);
+        secondPage.setCurrent(2);
+        assertThat(productService.getProductPage(secondPage, ProductView.CARD).getRecords()).isEmpty();
+        verify(productListStatements, times(1)).count(named("iphnoe"));
+
+        // 25条结果每页10条：第3页需要查询，第4页超出已知总数，不再查询
+        ProductQueryRequest lastPage = listRequest(10, "手机", null, null, null);
+        lastPage.setCurrent(3);
+        assertThat(productService.getProductPage(lastPage, ProductView.CARD).getRecords()).hasSize(1);
+        ProductQueryRequest pastTheEnd = listRequest(10, "手机", null, null, null);
+        pastTheEnd.setCurrent(4);
+        IPage<ProductSummaryResponse> empty = productService.getProductPage(pastTheEnd, ProductView.CARD);
+        assertThat(empty.getRecords()).isEmpty();
+        assertThat(empty.getTotal()).isEqualTo(25);
+        assertThat(empty.getCurrent()).isEqualTo(4);
+        verify(productListStatements, times(1)).count(named("手机"));
+        verify(productListStatements, times(1)).page(any(), any(), anyLong(), anyLong());
+
+        // 名称含LIKE通配符的查询不记录
+        when(productListStatements.count(named("100%")))
+                .thenReturn(0L);
+        productService.getProductPage(listRequest(10, "100%", null, null, null), ProductView.CARD);
+        productService.getProductPage(listRequest(10, "100%", null, null, null), ProductView.CARD);
+        verify(productListStatements, times(2)).count(named("100%"));
+
+        // 任何写入都全部清除，不在写入线程上读取产品
+        assertThat(negativeCache.size()).isEqualTo(2);
+        negativeCache.onProductChange(ProductChangeEvent.of(Collections.singletonList(7L)));
+        assertThat(negativeCache.size()).isZero();
+        verify(productMapper, never()).selectList(any());
+        when(productListStatements.count(named("iphnoe")))
+                .thenReturn(1L);
+        assertThat(productService.getProductPage(listRequest(10, "iphnoe", null, null, null), ProductView.CARD)
+                .getTotal()).isEqualTo(1);
+        productService.getProductPage(pastTheEnd, ProductView.CARD);
+        verify(productListStatements, times(2)).count(named("手机"));
+    }
+
+    @Test
+    void negativeCacheIsBoundedExpiresAndIgnoresTotalsReadBeforeAWrite() throws InterruptedException {
+        negativeCacheConfig.setMaxEntries(2);
+        negativeCacheConfig.setTtlMillis(50L);
+        ProductQueryRequest a = listRequest(10, "a", null, null, null);
+        ProductQueryRequest b = listRequest(10, "b", null, null, null);
+        ProductQueryRequest c = listRequest(10, "c", null, null, null);
+        negativeCache.record(ProductQueryKey.filter(a), a, 0, negativeCache.generation());
+        negativeCache.record(ProductQueryKey.filter(b), b, 0, negativeCache.generation());
+        assertThat(negativeCache.total(ProductQueryKey.filter(a))).isZero();
+        negativeCache.record(ProductQueryKey.filter(c), c, 0, negativeCache.generation());
+        // 超出上限淘汰最久未使用的b
+        assertThat(negativeCache.size()).isEqualTo(2);
+        assertThat(negativeCache.total(ProductQueryKey.filter(b))).isNull();
+        assertThat(negativeCache.total(ProductQueryKey.filter(a))).isZero();
+
+        Thread.sleep(100);
+        assertThat(negativeCache.total(ProductQueryKey.filter(a))).isNull();
+
+        // 查询开始后发生写入，查询得到的总数可能是写入前的，不记录
+        long generation = negativeCache.generation();
+        negativeCache.onProductChange(ProductChangeEvent.of(Collections.singletonList(1L)));
+        negativeCache.record(ProductQueryKey.filter(a), a, 0, generation);
+        assertThat(negativeCache.total(ProductQueryKey.filter(a))).isNull();
+
+        negativeCacheConfig.setEnabled(false);
+        negativeCache.record(ProductQueryKey.filter(a), a, 0, negativeCache.generation());
+        assertThat(negativeCache.total(ProductQueryKey.filter(a))).isNull();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void facetsFallBackToGroupedCountsThatSkipTheirOwnFilter() {
+        ReflectionTestUtils.setField(productService, "productFacetConfig", new ProductFacetConfig());
+        ProductQueryRequest queryRequest = new ProductQueryRequest();
+        queryRequest.setCategory("电子产品");
+        queryRequest.setStatus(1);
+        queryRequest.setMinPrice(new BigDecimal("100"));
+        when(productMapper.selectCount(any())).thenReturn(42L);
+        ProductFacetResponse.CategoryCount phones = new ProductFacetResponse.CategoryCount();
+        phones.setCategory("电子产品");
+        phones.setCount(42);
+        ProductFacetResponse.CategoryCount books = new ProductFacetResponse.CategoryCount();
+        books.setCategory("图书音像");
+        books.setCount(58);
+        ProductFacetResponse.CategoryCount uncategorized = new ProductFacetResponse.CategoryCount();
+        uncategorized.setCount(3);
+        when(productMapper.countByCategory(any())).thenReturn(Arrays.asList(phones, books, uncategorized));
+        // INTERVAL段号：0为低于第一个边界，k对应第k-1个价格段
+        when(productMapper.countByPriceBand(any(), anyList())).thenReturn(Arrays.asList(
+                band(2, 10), band(3, 30), band(8, 5)));
+
+        ProductFacetResponse facets = productService.getProductFacets(queryRequest);
+
+        assertThat(facets.getTotal()).isEqualTo(42);
+        assertThat(facets.getCategories()).extracting(ProductFacetResponse.CategoryCount::getCategory)
+                .containsExactly("图书音像", "电子产品");
+        assertThat(facets.getPriceBands()).extracting(ProductFacetResponse.PriceBand::getCount)
+                .containsExactly(0L, 10L, 30L, 0L, 0L, 0L, 0L, 5L);
+        ProductFacetResponse.PriceBand last = facets.getPriceBands().get(7);
+        assertThat(last.getMin()).isEqualByComparingTo("5000");
+        assertThat(last.getMax()).isNull();
+
+        ArgumentCaptor<Wrapper<Product>> categoryWrapper = ArgumentCaptor.forClass(Wrapper.class);
+        verify(productMapper).countByCategory(categoryWrapper.capture());
+        assertThat(categoryWrapper.getValue().getSqlSegment()).doesNotContain("category").contains("price")
+                .doesNotContain("ORDER BY");
+        ArgumentCaptor<Wrapper<Product>> bandWrapper = ArgumentCaptor.forClass(Wrapper.class);
+        verify(productMapper).countByPriceBand(bandWrapper.capture(), anyList());
+        assertThat(bandWrapper.getValue().getSqlSegment()).contains("category").doesNotContain("price");
+
+        // 缓存key忽略分页参数，名称和分类不区分大小写、价格忽略多余的0
+        ProductQueryRequest samePage = new ProductQueryRequest();
+        samePage.setCurrent(5);
+        samePage.setCategory("电子产品  ");
+        samePage.setStatus(1);
+        samePage.setMinPrice(new BigDecimal("100.00"));
+        assertThat(ProductQueryKey.filter(samePage)).isEqualTo(ProductQueryKey.filter(queryRequest));
+        // 名称、分类中的分隔符转义，不同筛选不会共用一份分面
+        assertThat(ProductQueryKey.filter(listRequest(10, "a", "b:c", null, null)).toString())
+                .isNotEqualTo(ProductQueryKey.filter(listRequest(10, "a:b", "c", null, null)).toString());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void batchDetailsReadMissesWithOneQueryAndKeepRequestOrder() {
+        cacheManager.getCache("products").put(ProductServiceImpl.detailCacheKey(2L), syntheticProduct(2));
+        when(productMapper.selectBatchIds(any())).thenReturn(Arrays.asList(syntheticProduct(7), syntheticProduct(5)));
+
+        ProductDetailBatchResponse response = productService.getProductDetails(Arrays.asList(5L, 2L, 404L, 7L, 5L));
+
+        assertThat(response.getItems()).extracting(ProductDetailBatchResponse.Item::getId)
+                .containsExactly(5L, 2L, 404L, 7L, 5L);
+        assertThat(response.getItems()).extracting(ProductDetailBatchResponse.Item::isFound)
+                .containsExactly(true, true, false, true, true);
+        assertThat(response.getItems().get(2).getProduct()).isNull();
+        assertThat(response.getCacheHits()).isEqualTo(1);
+        assertThat(response.getLoaded()).isEqualTo(2);
+        assertThat(response.getNotFound()).isEqualTo(1);
+        ArgumentCaptor<Collection<Long>> misses = ArgumentCaptor.forClass(Collection.class);
+        verify(productMapper).selectBatchIds(misses.capture());
+        assertThat(misses.getValue()).containsExactly(5L, 404L, 7L);
+
+        // 写回后只剩不存在的产品需要查询数据库
+        productService.getProductDetails(Arrays.asList(7L, 5L, 404L));
+        verify(productMapper, times(2)).selectBatchIds(misses.capture());
+        assertThat(misses.getValue()).containsExactly(404L);
+        assertThat(cacheManager.getCache("products").get(ProductServiceImpl.detailCacheKey(7L), Product.class))
+                .isNotNull();
+
+        productBulkConfigWithDetailLimit(2);
+        assertThatThrownBy(() -> productService.getProductDetails(Arrays.asList(1L, 2L, 3L)))
+                .isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> productService.getProductDetails(Collections.emptyList()))
+                .isInstanceOf(BusinessException.class);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void redisDetailCacheUsesOneMgetAndOnePipelinedWrite() {
+        // 使用应用的Redis缓存配置（键前缀、序列化、30分钟过期），连接为模拟对象
+        CacheManager redisCacheManager = new CacheConfig().cacheManager(mock(RedisConnectionFactory.class));
+        ReflectionTestUtils.setField(productService, "cacheManager", redisCacheManager);
+        RedisConnection connection = mock(RedisConnection.class);
+        RedisStringCommands stringCommands = mock(RedisStringCommands.class);
+        when(connection.stringCommands()).thenReturn(stringCommands);
+        Map<String, byte[]> redis = new HashMap<>();
+        when(connection.mGet((byte[][]) any())).thenAnswer(invocation -> {
+            List<byte[]> values = new ArrayList<>();
+            for (Object key : invocation.getArguments()) {
+                values.add(redis.get(new String((byte[]) key, StandardCharsets.UTF_8)));
+            }
+            return values;
+        });
+        when(stringCommands.set(any(), any(), any(), any())).thenAnswer(invocation -> {
+            redis.put(new String((byte[]) invocation.getArgument(0), StandardCharsets.UTF_8), invocation.getArgument(1));
+            return true;
+        });
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        when(redisTemplate.execute(any(RedisCallback.class))).thenAnswer(invocation ->
+                ((RedisCallback<Object>) invocation.getArgument(0)).doInRedis(connection));
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenAnswer(invocation -> {
+            ((RedisCallback<Object>) invocation.getArgument(0)).doInRedis(connection);
+            return Collections.emptyList();
+        });
+        CacheBatchOperations cacheBatchOperations = new CacheBatchOperations();
+        ReflectionTestUtils.setField(cacheBatchOperations, "stringRedisTemplate", redisTemplate);
+        ReflectionTestUtils.setField(productService, "cacheBatchOperations", cacheBatchOperations);
+        when(productMapper.selectBatchIds(any())).thenReturn(Arrays.asList(syntheticProduct(1), syntheticProduct(2),
+                syntheticProduct(3)));
+
+        ProductDetailBatchResponse first = productService.getProductDetails(Arrays.asList(1L, 2L, 3L));
+
+        assertThat(first.getLoaded()).isEqualTo(3);
+        assertThat(redis).containsOnlyKeys("product-system:products:detail:1", "product-system:products:detail:2",
+                "product-system:products:detail:3");
+        verify(stringCommands, times(3)).set(any(), any(), argThat((Expiration expiration) -> expiration.getExpirationTimeInMilliseconds() == Duration.ofMinutes(30).toMillis()),
+                eq(RedisStringCommands.SetOption.upsert()));
+        verify(redisTemplate, times(1)).executePipelined(any(RedisCallback.class));
+
+        ProductDetailBatchResponse second = productService.getProductDetails(Arrays.asList(3L, 1L, 2L));
+
+        assertThat(second.getCacheHits()).isEqualTo(3);
+        assertThat(second.getItems()).extracting(item -> item.getProduct().getProductCode())
+                .containsExactly("P0000003", "P0000001", "P0000002");
+        // 每次请求一条MGET，第二次不再查询数据库
+        verify(connection, times(2)).mGet((byte[][]) any());
+        verify(productMapper, times(1)).selectBatchIds(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void concurrentDetailLookupsShareOneInQuery() throws Exception {
+        ReflectionTestUtils.setField(productService, "productLoaderConfig", loaderConfig(200_000, 100));
+        productService.initProductLoader();
+        CountDownLatch firstBatch = new CountDownLatch(1);
+        List<String> batchThreads = new CopyOnWriteArrayList<>();
+        when(productMapper.selectBatchIds(any())).thenAnswer(invocation -> {
+            batchThreads.add(Thread.currentThread().getName());
+            Collection<Long> ids = invocation.getArgument(0);
+            if (ids.contains(13L)) {
+                throw new QueryTimeoutException("timeout");
+            }
+            firstBatch.countDown();
+            return ids.stream().filter(id -> id != 404L).map(ProductServiceImplTest::syntheticProduct)
+                    .collect(Collectors.toList());
+        });
+        AtomicInteger callerSequence = new AtomicInteger();
+        ExecutorService callers = Executors.newFixedThreadPool(4,
+                runnable -> new Thread(runnable, "caller-" + callerSequence.incrementAndGet()));
+        try {
+            // 同一窗口内的4次查询（3个不同ID）合并为一条IN查询，窗口到期后由开启批次的调用方线程执行
+            List<Future<Product>> products = new ArrayList<>();
+            for (long id : new long[]{1, 2, 1, 3}) {
+                products.add(callers.submit(() -> productService.getProductDetail(id)));
+            }
+            assertThat(firstBatch.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(products.get(0).get().getId()).isEqualTo(1L);
+            assertThat(products.get(1).get().getId()).isEqualTo(2L);
+            assertThat(products.get(2).get()).isSameAs(products.get(0).get());
+            assertThat(products.get(3).get().getId()).isEqualTo(3L);
+            ArgumentCaptor<Collection<Long>> batch = ArgumentCaptor.forClass(Collection.class);
+            verify(productMapper).selectBatchIds(batch.capture());
+            assertThat(batch.getValue()).containsExactlyInAnyOrder(1L, 2L, 3L);
+            assertThat(batchThreads).allMatch(name -> name.startsWith("caller-"));
+
+            // 不存在的ID与查询失败只影响对应的调用方
+            Future<Product> missing = callers.submit(() -> productService.getProductDetail(404L));
+            assertThatThrownBy(missing::get).hasCauseInstanceOf(BusinessException.class);
+            Future<Product> failed = callers.submit(() -> productService.getProductDetail(13L));
+            assertThatThrownBy(failed::get).hasCauseInstanceOf(QueryTimeoutException.class);
+        } finally {
+            callers.shutdownNow();
+            productService.closeProductLoader();
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    void microBatchedDetailsBeatPerCallLookupsOnTwentyConnections() throws Exception {
+        // 模拟20个连接的连接池，每次查询往返1ms（与返回行数基本无关）
+        Semaphore pool = new Semaphore(20);
+        AtomicLong queries = new AtomicLong();
+        when(productMapper.selectById(any())).thenAnswer(invocation ->
+                query(pool, queries, () -> syntheticProduct((Long) invocation.getArgument(0))));
+        when(productMapper.selectBatchIds(any())).thenAnswer(invocation -> query(pool, queries, () ->
+                ((Collection<?>) invocation.getArgument(0)).stream()
+                        .map(id -> syntheticProduct((Long) id)).collect(Collectors.toList())));
+
+        int threads = 200;
+        int perThread = 100;
+        long[] perCall = runDetailLookups(threads, perThread);
+        long perCallQueries = queries.getAndSet(0);
+
+        ReflectionTestUtils.setField(productService, "productLoaderConfig", loaderConfig(1000, 100));
+        productService.initProductLoader();
+        long[] batched;
+        try {
+            batched = runDetailLookups(threads, perThread);
+        } finally {
+            productService.closeProductLoader();
+        }
+        long batchedQueries = queries.get();
+
+        System.out.printf("%d threads x %d lookups, per-call: %d queries, %d/s, p50 %d us, p99 %d us%n",
+                threads, perThread, perCallQueries, perCall[0], perCall[1], perCall[2]);
+        System.out.printf("%d threads x %d lookups, micro-batched: %d queries, %d/s, p50 %d us, p99 %d us%n",
+                threads, perThread, batchedQueries, batched[0], batched[1], batched[2]);
+        assertThat(perCallQueries).isEqualTo((long) threads * perThread);
+        assertThat(batchedQueries).isLessThan(perCallQueries / 10);
+        assertThat(batched[0]).as("吞吐").isGreaterThan(perCall[0] * 3 / 2);
+        assertThat(batched[2]).as("p99").isLessThan(perCall[2]);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void importValidatesRowsAndUpsertsInChunks() {
+        ProductBulkConfig config = new ProductBulkConfig();
+        config.setImportChunkSize(2);
+        ReflectionTestUtils.setField(productService, "productBulkConfig", config);
+        when(sessionMapper.selectExistingCodes(any())).thenAnswer(invocation -> {
+            Collection<String> codes = invocation.getArgument(0);
+            return codes.contains("PROD001") ? Collections.singletonList("prod001") : Collections.emptyList();
+        });
+        List<List<Product>> batches = new ArrayList<>();
+        when(sessionMapper.upsertBatch(anyList())).thenAnswer(invocation -> {
+            batches.add(new ArrayList<>((List<Product>) invocation.getArgument(0)));
+            return 1;
+        });
+        cacheManager.getCache("products").put("page:1", "stale");
+
+        String csv = "productCode,productName,category,price,stock,description,imageUrl,status\n" +
+                "PROD001,已有产品,电脑,100.00,5,,,1\n" +
+                "NEW001,新产品,电脑,20.5,10,\"含逗号, 的描述\",,1\n" +
+                "NEW002,,电脑,20,10,,,1\n" +
+                "NEW003,价格错误,电脑,abc,10,,,1\n" +
+                "NEW004,负库存,电脑,20,-1,,,1\n" +
+                "NEW001,重复编码,电脑,30,10,,,0\n";
+        ImportResultResponse result = productService.importProducts(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), ImportRecordReader.Format.CSV, "admin");
+
+        assertThat(result.getTotalRows()).isEqualTo(6);
+        assertThat(result.getSuccessRows()).isEqualTo(3);
+        assertThat(result.getUpdatedRows()).isEqualTo(1);
+        assertThat(result.getFailedRows()).isEqualTo(3);
+        assertThat(result.getErrors()).extracting(ImportResultResponse.RowError::getLine).containsExactly(4L, 5L, 6L);
+        assertThat(result.getErrors().get(0).getMessage()).isEqualTo("产品名称不能为空");
+        assertThat(result.getErrors().get(2).getMessage()).isEqualTo("库存数量不能为负数");
+
+        assertThat(batches).hasSize(2);
+        assertThat(batches.get(0)).extracting(Product::getProductCode).containsExactly("PROD001", "NEW001");
+        assertThat(batches.get(0).get(1).getDescription()).isEqualTo("含逗号, 的描述");
+        assertThat(batches.get(0).get(1).getCreatedByUsername()).isEqualTo("admin");
+        verify(session, times(2)).commit();
+        verify(session).close();
+        assertThat(cacheManager.getCache("products").get("page:1")).isNull();
+    }
+
+    @Test
+    @Tag("benchmark")
+    void importOfMillionRowsRunsInSecondsOutsideTheDatabase() {
+        int rows = 1_000_000;
+        long[] counters = new long[2];
+        // stubOnly：不记录调用参数，避免mock持有全部导入行
+        ProductMapper mapper = mock(ProductMapper.class, withSettings().stubOnly());
+        when(mapper.selectExistingCodes(any())).thenReturn(Collections.emptyList());
+        when(mapper.upsertBatch(anyList())).thenAnswer(invocation -> {
+            counters[0] += ((List<?>) invocation.getArgument(0)).size();
+            return 1;
+        });
+        SqlSession stubSession = mock(SqlSession.class, withSettings().stubOnly());
+        when(stubSession.getMapper(ProductMapper.class)).thenReturn(mapper);
+        doAnswer(invocation -> counters[1]++).when(stubSession).commit();
+        SqlSessionFactory sqlSessionFactory = mock(SqlSessionFactory.class);
+        when(sqlSessionFactory.openSession(ExecutorType.SIMPLE, false)).thenReturn(stubSession);
+        ReflectionTestUtils.setField(productService, "sqlSessionFactory", sqlSessionFactory);
+
+        long start = System.nanoTime();
+        ImportResultResponse result = productService.importProducts(
+                new SyntheticCsvInputStream(rows), ImportRecordReader.Format.CSV, "admin");
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        System.out.printf("import pipeline (parse + validate + chunk) for %d rows: %d ms, %d rows/s%n",
+                rows, elapsedMillis, rows * 1000L / Math.max(1, elapsedMillis));
+        assertThat(result.getSuccessRows()).isEqualTo(rows);
+        assertThat(result.getFailedRows()).isZero();
+        assertThat(counters[0]).isEqualTo(rows);
+        assertThat(counters[1]).isEqualTo(rows / 1000);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void batchUpdateValidatesItemsAndUpdatesEachChunkWithOneStatement() {
+        ProductBulkConfig config = new ProductBulkConfig();
+        config.setUpdateChunkSize(3);
+        ReflectionTestUtils.setField(productService, "productBulkConfig", config);
+        when(productMapper.selectUpdateKeys(any(), any())).thenAnswer(invocation -> {
+            List<Product> keys = new ArrayList<>();
+            for (long id = 1; id <= 5; id++) {
+                Product product = new Product();
+                product.setId(id);
+                product.setProductCode(String.format("P%07d", id));
+                keys.add(product);
+            }
+            return keys;
+        });
+        List<List<ProductBatchUpdateItem>> chunks = new ArrayList<>();
+        List<boolean[]> columns = new ArrayList<>();
+        when(productMapper.batchUpdate(anyList(), anyBoolean(), anyBoolean(), anyBoolean())).thenAnswer(invocation -> {
+            List<ProductBatchUpdateItem> items = invocation.getArgument(0);
+            chunks.add(new ArrayList<>(items));
+            columns.add(new boolean[]{invocation.getArgument(1), invocation.getArgument(2), invocation.getArgument(3)});
+            return items.size();
+        });
+        cacheManager.getCache("products").put("page:1", "stale");
+
+        List<ProductBatchUpdateItem> items = Arrays.asList(
+                updateItem(1L, null, new BigDecimal("9.90"), null, null),
+                updateItem(null, "p0000002", null, -3, null),
+                updateItem(3L, null, new BigDecimal("1"), null, null),
+                updateItem(null, "P0000009", null, 5, null),
+                updateItem(1L, null, null, null, 0),
+                updateItem(4L, null, null, null, null),
+                updateItem(5L, null, null, null, 1));
+        items.get(2).setPriceDelta(new BigDecimal("-1"));
+        BatchUpdateResponse result = productService.batchUpdateProducts(items);
+
+        assertThat(result.getTotal()).isEqualTo(7);
+        assertThat(result.getUpdated()).isEqualTo(3);
+        assertThat(result.getErrors()).extracting(BatchUpdateResponse.ItemError::getIndex).containsExactly(2, 3, 4, 5);
+        assertThat(result.getErrors()).extracting(BatchUpdateResponse.ItemError::getMessage)
+                .containsExactly("价格和价格增量不能同时指定", "产品不存在", "同一产品在请求中重复", "未指定要修改的字段");
+
+        // 编码不区分大小写解析为ID；SET只包含块内涉及的列
+        assertThat(chunks).hasSize(2);
+        assertThat(chunks.get(0)).extracting(ProductBatchUpdateItem::getId).containsExactly(1L, 2L);
+        assertThat(columns.get(0)).containsExactly(true, true, false);
+        assertThat(chunks.get(1)).extracting(ProductBatchUpdateItem::getId).containsExactly(5L);
+        assertThat(columns.get(1)).containsExactly(false, false, true);
+        assertThat(cacheManager.getCache("products").get("page:1")).isNull();
+    }
+
+    @Test
+    void batchUpdateStatementUsesCaseExpressionsOnlyForChangedColumns() {
+        MybatisConfiguration configuration = new MybatisConfiguration();
+        configuration.addMapper(ProductMapper.class);
+        MappedStatement statement = configuration.getMappedStatement(ProductMapper.class.getName() + ".batchUpdate");
+        Map<String, Object> params = new HashMap<>();
+        params.put("items", Arrays.asList(
+                updateItem(1L, null, new BigDecimal("9.90"), null, null),
+                updateItem(2L, null, null, -3, null)));
+        params.put("updatePrice", true);
+        params.put("updateStock", true);
+        params.put("updateStatus", false);
+
+        BoundSql boundSql = statement.getBoundSql(params);
+        String sql = boundSql.getSql().replaceAll("\\s+", " ");
+
+        assertThat(sql).isEqualTo("UPDATE products SET price = CASE id WHEN ? THEN ? ELSE price END, "
+                + "stock = CASE id WHEN ? THEN LEAST(GREATEST(stock + ?, 0), 2147483647) ELSE stock END, "
+                + "updated_time = NOW() WHERE id IN ( ? , ? )");
+        assertThat(boundSql.getParameterMappings()).hasSize(6);
+    }
+
+    private static ProductBatchUpdateItem updateItem(Long id, String productCode, BigDecimal price,
+                                                     Integer stockDelta, Integer status) {
+        ProductBatchUpdateItem item = new ProductBatchUpdateItem();
+        item.setId(id);
+        item.setProductCode(productCode);
+        item.setPrice(price);
+        item.setStockDelta(stockDelta);
+        item.setStatus(status);
+        return item;
+    }
+
+    /**
+     * 只保留给定列的值，并累计读取的字节数
+     */
+    private static List<Product> project(List<Product> rows, List<String> columns, long[] bytesRead)
+            throws IllegalAccessException {
+        bytesRead[0] = 0;
+        List<Product> records = new ArrayList<>();
+        for (Product row : rows) {
+            Product projected = new Product();
+            for (TableFieldInfo field : TableInfoHelper.getTableInfo(Product.class).getFieldList()) {
+                if (columns.contains(field.getColumn())) {
+                    Object value = field.getField().get(row);
+                    field.getField().set(projected, value);
+                    bytesRead[0] += String.valueOf(value).getBytes(StandardCharsets.UTF_8).length;
+                }
+            }
+            projected.setId(row.getId());
+            bytesRead[0] += 8;
+            records.add(projected);
+        }
+        return records;
+    }
+
+    private static List<String> selectedColumns(String sqlSelect) {
+        List<String> columns = new ArrayList<>();
+        if (sqlSelect == null) {
+            for (TableFieldInfo field : TableInfoHelper.getTableInfo(Product.class).getFieldList()) {
+                columns.add(field.getColumn());
+            }
+            return columns;
+        }
+        for (String column : sqlSelect.split(",")) {
+            columns.add(column.trim());
+        }
+        return columns;
+    }
+
+    private static ProductLoaderConfig loaderConfig(long windowMicros, int maxBatchSize) {
+        ProductLoaderConfig config = new ProductLoaderConfig();
+        config.setWindowMicros(windowMicros);
+        config.setMaxBatchSize(maxBatchSize);
+        return config;
+    }
+
+    /**
+     * 占用一个连接执行一次查询
+     */
+    private static <T> T query(Semaphore pool, AtomicLong queries, Supplier<T> rows) throws InterruptedException {
+        pool.acquire();
+        try {
+            queries.incrementAndGet();
+            Thread.sleep(1);
+            return rows.get();
+        } finally {
+            pool.release();
+        }
+    }
+
+    /**
+     * 并发执行详情查询，返回吞吐（次/秒）、p50和p99延迟（微秒）
+     */
+    private long[] runDetailLookups(int threads, int perThread) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<long[]>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int seed = t;
+            futures.add(executor.submit(() -> {
+                Random random = new Random(seed);
+                long[] nanos = new long[perThread];
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    long id = 1 + random.nextInt(100_000);
+                    long begin = System.nanoTime();
+                    assertThat(productService.getProductDetail(id).getId()).isEqualTo(id);
+                    nanos[i] = System.nanoTime() - begin;
+                }
+                return nanos;
+            }));
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        List<Long> latencies = new ArrayList<>();
+        for (Future<long[]> future : futures) {
+            for (long nanos : future.get()) {
+                latencies.add(nanos);
+            }
+        }
+        long elapsed = System.nanoTime() - begin;
+        executor.shutdown();
+        Collections.sort(latencies);
+        return new long[]{latencies.size() * 1_000_000_000L / elapsed,
+                latencies.get(latencies.size() / 2) / 1000, latencies.get(latencies.size() * 99 / 100) / 1000};
+    }
+
+    /**
+     * 按名称匹配查询请求（重复打桩时Mockito会以null调用已有的匹配器）
+     */
+    private static ProductQueryRequest named(String productName) {
+        return argThat(queryRequest -> queryRequest != null && productName.equals(queryRequest.getProductName()));
+    }
+
+    private static ProductQueryRequest listRequest(Integer size, String productName, String category,
+                                                   String minPrice, String maxPrice) {
+        ProductQueryRequest queryRequest = new ProductQueryRequest();
+        queryRequest.setSize(size);
+        queryRequest.setProductName(productName);
+        queryRequest.setCategory(category);
+        queryRequest.setMinPrice(minPrice == null ? null : new BigDecimal(minPrice));
+        queryRequest.setMaxPrice(maxPrice == null ? null : new BigDecimal(maxPrice));
+        return queryRequest;
+    }
+
+    private void productBulkConfigWithDetailLimit(int detailMaxIds) {
+        ProductBulkConfig config = new ProductBulkConfig();
+        config.setDetailMaxIds(detailMaxIds);
+        ReflectionTestUtils.setField(productService, "productBulkConfig", config);
+    }
+
+    private static Map<String, Object> band(long band, long count) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("band", band);
+        row.put("count", count);
+        return row;
+    }
+
+    private static Product syntheticProduct(long id) {
+        Product product = new Product();
+        product.setId(id);
+        product.setProductCode(String.format("P%07d", id));
+        product.setProductName("产品" + id);
+        product.setCategory("电子产品");
+        product.setPrice(BigDecimal.valueOf(id % 10000, 2));
+        product.setStock((int) (id % 500));
+        product.setDescription("synthetic product " + id);
+        product.setImageUrl("/uploads/products/cas/ab/cd/" + id + ".png");
+        product.setStatus(1);
+        product.setCreatedByUsername("admin");
+        product.setCreatedTime(LocalDateTime.of(2026, 10, 19, 8, 30));
+        product.setUpdatedTime(LocalDateTime.of(2026, 10, 19, 8, 30));
+        return product;
+    }
+
+    private static long usedHeapAfterGc(MemoryMXBean memoryBean) {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memoryBean.getHeapMemoryUsage().getUsed();
+    }
+
+    private static class SyntheticContext implements ResultContext<Product> {
+
+        private Product current;
+
+        private int count;
+
+        private boolean stopped;
+
+        @Override
+        public Product getResultObject() {
+            return current;
+        }
+
+        @Override
+        public int getResultCount() {
+            return count;
+        }
+
+        @Override
+        public boolean isStopped() {
+            return stopped;
+        }
+
+        @Override
+        public void stop() {
+            stopped = true;
+        }
+    }
+
+    /**
+     * 按需生成的产品CSV数据
+     */
+    private static class SyntheticCsvInputStream extends InputStream {
+
+        private final int rows;
+
+        private int row = -1;
+
+        private byte[] line = new byte[0];
+
+        private int position;
+
+        SyntheticCsvInputStream(int rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public int read() {
+            if (position >= line.length && !nextLine()) {
+                return -1;
+            }
+            return line[position++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (position >= line.length && !nextLine()) {
+                return -1;
+            }
+            int count = Math.min(len, line.length - position);
+            System.arraycopy(line, position, b, off, count);
+            position += count;
+            return count;
+        }
+
+        private boolean nextLine() {
+            if (row >= rows) {
+                return false;
+            }
+            String text = row < 0
+                    ? "productCode,productName,category,price,stock,description,imageUrl,status\n"
+                    : String.format("P%07d,产品%d,电子产品,%d.99,%d,synthetic product %d,,1%n", row, row, row % 1000, row % 500, row);
+            row++;
+            line = text.getBytes(StandardCharsets.UTF_8);
+            position = 0;
+            return true;
+        }
+    }
+
+    /**
+     * 只计数不保存的输出流
+     */
+    private static class CountingOutputStream extends OutputStream {
+
+        private long bytes;
+
+        private long lines;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+            if (b == '\n') {
+                lines++;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+            for (int i = off; i < off + len; i++) {
+                if (b[i] == '\n') {
+                    lines++;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,351 @@
+package com.gzist.project.service.impl;
+
+import com.gzist.project.config.ProductSnapshotConfig;
+import com.gzist.project.dto.ProductChangeEvent;
+import com.gzist.project.entity.Product;
+import com.gzist.project.mapper.ProductMapper;
+import com.gzist.project.utils.ProductColumnSnapshot;
+import com.gzist.project.vo.request.ProductQueryRequest;
+import com.gzist.project.vo.response.ProductSnapshotStatusResponse;
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 产品内存快照Service测试
+ * 验证快照查询结果（当前页ID和总数，位图索引组合条件）及分面计数与按数据库语义过滤排序的结果一致，
+ * 以及未追上写入时回退到数据库、增量变更的应用和刷新失败的处理
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+class ProductSnapshotServiceImplTest {
+
+    private static final String[] CATEGORIES = {"电子产品", "家居用品", "服装鞋帽", "食品饮料", "图书音像", "Sports"};
+
+    private ProductMapper productMapper;
+
+    private List<Product> table;
+
+    private ProductSnapshotServiceImpl snapshotService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        productMapper = mock(ProductMapper.class);
+        table = new ArrayList<>();
+        doAnswer(invocation -> {
+            ResultHandler<Product> handler = invocation.getArgument(0);
+            List<Product> ordered = new ArrayList<>(table);
+            ordered.sort(Comparator.comparing(Product::getCreatedTime).thenComparing(Product::getId).reversed());
+            for (Product product : ordered) {
+                handler.handleResult(resultOf(product));
+            }
+            return null;
+        }).when(productMapper).scanSnapshotColumns(any());
+        when(productMapper.selectSnapshotColumns(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return table.stream().filter(product -> ids.contains(product.getId())).collect(Collectors.toList());
+        });
+
+        ProductSnapshotConfig config = new ProductSnapshotConfig();
+        config.setEnabled(true);
+        snapshotService = new ProductSnapshotServiceImpl();
+        ReflectionTestUtils.setField(snapshotService, "productMapper", productMapper);
+        ReflectionTestUtils.setField(snapshotService, "productSnapshotConfig", config);
+    }
+
+    @Test
+    void snapshotQueriesMatchDatabaseSemantics() {
+        loadRandomTable(42);
+        snapshotService.refresh();
+
+        List<ProductQueryRequest> queries = listQueries();
+        for (ProductQueryRequest query : queries) {
+            ProductColumnSnapshot.QueryResult result = snapshotService.query(query);
+            List<Product> expected = reference(query);
+
+            assertThat(result.getTotal()).isEqualTo(expected.size());
+            long offset = (long) (query.getCurrent() - 1) * query.getSize();
+            long[] expectedIds = expected.stream().skip(offset).limit(query.getSize())
+                    .mapToLong(Product::getId).toArray();
+            assertThat(result.getIds()).containsExactly(expectedIds);
+        }
+        ProductSnapshotStatusResponse status = snapshotService.getStatus();
+        assertThat(status.getIndexes()).extracting(ProductSnapshotStatusResponse.IndexUsage::getName)
+                .containsExactly("category", "status", "price");
+        assertThat(status.isWarm()).isTrue();
+        assertThat(status.getCategories()).isEqualTo(CATEGORIES.length);
+        assertThat(status.getServedQueries()).isEqualTo(queries.size());
+    }
+
+    /**
+     * 快照查询耗时基准：20万行下各类组合条件的平均耗时，以及快照和位图索引的内存占用（mvn test -Pbenchmark）
+     */
+    @Test
+    @Tag("benchmark")
+    void snapshotQueryLatency() {
+        loadRandomTable(42);
+        snapshotService.refresh();
+
+        for (ProductQueryRequest query : listQueries()) {
+            ProductColumnSnapshot.QueryResult result = snapshotService.query(query);
+            // 预热后取平均耗时
+            int runs = 50;
+            long start = System.nanoTime();
+            for (int i = 0; i < runs; i++) {
+                snapshotService.query(query);
+            }
+            long micros = (System.nanoTime() - start) / 1000 / runs;
+            System.out.printf("200000 rows, category=%s status=%s price=[%s,%s] name=%s: total %d in %d us%n",
+                    query.getCategory(), query.getStatus(), query.getMinPrice(), query.getMaxPrice(),
+                    query.getProductName(), result.getTotal(), micros);
+        }
+        ProductSnapshotStatusResponse status = snapshotService.getStatus();
+        System.out.printf("snapshot of %d rows: ~%d KB, built in %d ms%n", status.getRows(),
+                status.getEstimatedBytes() / 1024, status.getBuildMillis());
+        for (ProductSnapshotStatusResponse.IndexUsage index : status.getIndexes()) {
+            System.out.printf("bitmap index %s: %d bitmaps (%d dense), %d KB%n", index.getName(),
+                    index.getBitmaps(), index.getDenseBitmaps(), index.getBytes() / 1024);
+        }
+    }
+
+    @Test
+    void facetsIgnoreTheirOwnFilterAndMatchReferenceCounts() {
+        loadRandomTable(7);
+        snapshotService.refresh();
+        List<BigDecimal> bounds = facetBounds();
+
+        for (ProductQueryRequest query : facetQueries()) {
+            ProductColumnSnapshot.Facets facets = snapshotService.facets(query, bounds);
+            assertThat(facets.getTotal()).isEqualTo(reference(query).size());
+            // 分类计数不应用分类条件
+            ProductQueryRequest withoutCategory = query(1, 20, query.getProductName(), null, query.getStatus(),
+                    query.getMinPrice(), query.getMaxPrice());
+            Map<String, Long> expectedCategories = reference(withoutCategory).stream()
+                    .collect(Collectors.groupingBy(Product::getCategory, Collectors.counting()));
+            assertThat(facets.getCategoryCounts()).isEqualTo(expectedCategories);
+            // 价格段计数不应用价格条件
+            List<Product> withoutPrice = reference(query(1, 20, query.getProductName(), query.getCategory(),
+                    query.getStatus(), null, null));
+            for (int band = 0; band < bounds.size(); band++) {
+                BigDecimal low = bounds.get(band);
+                BigDecimal high = band + 1 < bounds.size() ? bounds.get(band + 1) : null;
+                long expected = withoutPrice.stream().filter(product -> product.getPrice().compareTo(low) >= 0
+                        && (high == null || product.getPrice().compareTo(high) < 0)).count();
+                assertThat(facets.getBandCounts()[band]).as("price band %d", band).isEqualTo(expected);
+            }
+        }
+    }
+
+    /**
+     * 分面计数耗时基准：20万行下各类条件的平均耗时（mvn test -Pbenchmark）
+     */
+    @Test
+    @Tag("benchmark")
+    void facetLatency() {
+        loadRandomTable(7);
+        snapshotService.refresh();
+        List<BigDecimal> bounds = facetBounds();
+
+        for (ProductQueryRequest query : facetQueries()) {
+            ProductColumnSnapshot.Facets facets = snapshotService.facets(query, bounds);
+            int runs = 50;
+            long start = System.nanoTime();
+            for (int i = 0; i < runs; i++) {
+                snapshotService.facets(query, bounds);
+            }
+            long micros = (System.nanoTime() - start) / 1000 / runs;
+            System.out.printf("200000 rows facets, category=%s status=%s price=[%s,%s] name=%s: total %d in %d us%n",
+                    query.getCategory(), query.getStatus(), query.getMinPrice(), query.getMaxPrice(),
+                    query.getProductName(), facets.getTotal(), micros);
+        }
+    }
+
+    @Test
+    void queriesFallBackUntilChangesAreApplied() {
+        for (long id = 1; id <= 5; id++) {
+            table.add(product(id, "产品" + id, "电子产品", "10.00", 1, LocalDateTime.of(2026, 10, 1, 0, 0).plusDays(id)));
+        }
+        ProductQueryRequest all = query(1, 10, null, null, null, null, null);
+        assertThat(snapshotService.query(all)).isNull();
+        snapshotService.refresh();
+        assertThat(snapshotService.query(all).getIds()).containsExactly(5, 4, 3, 2, 1);
+
+        // 新增6、修改3（改为下架且创建时间最新）、删除2
+        table.add(product(6L, "产品6", "家居用品", "20.00", 1, LocalDateTime.of(2026, 10, 7, 0, 0)));
+        table.get(2).setStatus(0).setCreatedTime(LocalDateTime.of(2026, 10, 8, 0, 0));
+        table.remove(1);
+        snapshotService.onProductChange(ProductChangeEvent.of(Arrays.asList(6L, 3L)));
+        snapshotService.onProductChange(ProductChangeEvent.of(Collections.singletonList(2L)));
+
+        assertThat(snapshotService.query(all)).isNull();
+        assertThat(snapshotService.getStatus().getPendingChanges()).isEqualTo(2);
+        assertThat(snapshotService.getStatus().isWarm()).isFalse();
+
+        snapshotService.refresh();
+        assertThat(snapshotService.query(all).getIds()).containsExactly(3, 6, 5, 4, 1);
+        assertThat(snapshotService.query(query(1, 10, null, null, 1, null, null)).getIds()).containsExactly(6, 5, 4, 1);
+        assertThat(snapshotService.query(query(1, 10, null, "家居用品", null, null, null)).getTotal()).isEqualTo(1);
+        assertThat(snapshotService.getStatus().getStalenessMillis()).isZero();
+        // 关键字含LIKE通配符时交给数据库
+        assertThat(snapshotService.query(query(1, 10, "产品_", null, null, null, null))).isNull();
+    }
+
+    @Test
+    void failedRefreshKeepsChangesAndFallsBack() {
+        table.add(product(1L, "产品1", "电子产品", "10.00", 1, LocalDateTime.of(2026, 10, 1, 0, 0)));
+        snapshotService.refresh();
+        when(productMapper.selectSnapshotColumns(anyCollection())).thenThrow(new QueryTimeoutException("timeout"));
+        snapshotService.onProductChange(ProductChangeEvent.of(Collections.singletonList(1L)));
+
+        snapshotService.refresh();
+        ProductQueryRequest all = query(1, 10, null, null, null, null, null);
+        assertThat(snapshotService.query(all)).isNull();
+        assertThat(snapshotService.getStatus().getPendingChanges()).isEqualTo(1);
+
+        table.get(0).setProductName("已改名");
+        doReturn(Collections.singletonList(table.get(0))).when(productMapper).selectSnapshotColumns(anyCollection());
+        snapshotService.refresh();
+        assertThat(snapshotService.query(query(1, 10, "已改名", null, null, null, null)).getTotal()).isEqualTo(1);
+    }
+
+    /**
+     * 按数据库语义（不区分大小写的LIKE、等值、闭区间价格，按创建时间降序）过滤排序
+     */
+    private List<Product> reference(ProductQueryRequest query) {
+        return table.stream()
+                .filter(product -> query.getProductName() == null || product.getProductName().toLowerCase(Locale.ROOT)
+                        .contains(query.getProductName().toLowerCase(Locale.ROOT)))
+                .filter(product -> query.getCategory() == null
+                        || product.getCategory().equalsIgnoreCase(query.getCategory().trim()))
+                .filter(product -> query.getStatus() == null || product.getStatus().equals(query.getStatus()))
+                .filter(product -> query.getMinPrice() == null || product.getPrice().compareTo(query.getMinPrice()) >= 0)
+                .filter(product -> query.getMaxPrice() == null || product.getPrice().compareTo(query.getMaxPrice()) <= 0)
+                .sorted(Comparator.comparing(Product::getCreatedTime).thenComparing(Product::getId).reversed())
+                .collect(Collectors.toList());
+    }
+
+    private static Product randomProduct(Random random, long id) {
+        String[] words = {"手机", "Pro", "耳机", "台灯", "外套", "茶叶", "小说", "跑鞋"};
+        String name = words[random.nextInt(words.length)] + random.nextInt(100);
+        return product(id, name, CATEGORIES[random.nextInt(CATEGORIES.length)],
+                BigDecimal.valueOf(1 + random.nextInt(100_000), 2).toPlainString(), random.nextInt(5) == 0 ? 0 : 1,
+                // 秒级时间戳有大量重复，按ID降序区分
+                LocalDateTime.of(2025, 1, 1, 0, 0).plusSeconds(random.nextInt(50_000_000)));
+    }
+
+    private static Product product(Long id, String name, String category, String price, int status,
+                                   LocalDateTime createdTime) {
+        Product product = new Product();
+        product.setId(id);
+        product.setProductName(name);
+        product.setCategory(category);
+        product.setPrice(new BigDecimal(price));
+        product.setStatus(status);
+        product.setCreatedTime(createdTime);
+        return product;
+    }
+
+    private void loadRandomTable(long seed) {
+        Random random = new Random(seed);
+        for (long id = 1; id <= 200_000; id++) {
+            table.add(randomProduct(random, id));
+        }
+    }
+
+    /**
+     * 列表查询用例：无条件、单条件、组合条件、名称模糊匹配、无结果和超出末页
+     */
+    private static List<ProductQueryRequest> listQueries() {
+        List<ProductQueryRequest> queries = new ArrayList<>();
+        queries.add(query(1, 20, null, null, null, null, null));
+        queries.add(query(3, 20, null, "家居用品", null, null, null));
+        queries.add(query(1, 10, null, "sports  ", 1, null, null));
+        queries.add(query(2, 50, null, null, 0, new BigDecimal("100"), new BigDecimal("500.5")));
+        queries.add(query(1, 20, null, "电子产品", 1, new BigDecimal("0.015"), new BigDecimal("999")));
+        queries.add(query(1, 20, "手机7", null, null, null, null));
+        queries.add(query(5, 20, "PRO", "图书音像", null, null, null));
+        queries.add(query(1, 20, null, "不存在的分类", null, null, null));
+        queries.add(query(100_000, 20, null, null, null, null, null));
+        return queries;
+    }
+
+    private static List<BigDecimal> facetBounds() {
+        return Arrays.asList(new BigDecimal("0"), new BigDecimal("50"), new BigDecimal("100"),
+                new BigDecimal("200"), new BigDecimal("500"));
+    }
+
+    /**
+     * 分面用例：无条件、分类+状态、分类+价格区间、名称+状态+最低价
+     */
+    private static List<ProductQueryRequest> facetQueries() {
+        List<ProductQueryRequest> queries = new ArrayList<>();
+        queries.add(query(1, 20, null, null, null, null, null));
+        queries.add(query(1, 20, null, "家居用品", 1, null, null));
+        queries.add(query(1, 20, null, "电子产品", null, new BigDecimal("100"), new BigDecimal("199.99")));
+        queries.add(query(1, 20, "pro", null, 0, new BigDecimal("50"), null));
+        return queries;
+    }
+
+    private static ProductQueryRequest query(int current, int size, String productName, String category, Integer status,
+                                             BigDecimal minPrice, BigDecimal maxPrice) {
+        ProductQueryRequest queryRequest = new ProductQueryRequest();
+        queryRequest.setCurrent(current);
+        queryRequest.setSize(size);
+        queryRequest.setProductName(productName);
+        queryRequest.setCategory(category);
+        queryRequest.setStatus(status);
+        queryRequest.setMinPrice(minPrice);
+        queryRequest.setMaxPrice(maxPrice);
+        return queryRequest;
+    }
+
+    private static ResultContext<Product> resultOf(Product product) {
+        return new ResultContext<Product>() {
+            @Override
+            public Product getResultObject() {
+                return product;
+            }
+
+            @Override
+            public int getResultCount() {
+                return 0;
+            }
+
+            @Override
+            public boolean isStopped() {
+                return false;
+            }
+
+            @Override
+            public void stop() {
+            }
+        };
+    }
+}
@@ -0,0 +1,242 @@
+package com.gzist.project.service.impl;
+
+import com.gzist.project.config.ProductSuggestConfig;
+import com.gzist.project.dto.ProductChangeEvent;
+import com.gzist.project.entity.Product;
+import com.gzist.project.exception.BusinessException;
+import com.gzist.project.mapper.ProductMapper;
+import com.gzist.project.utils.CompletionTrie;
+import com.gzist.project.vo.response.ProductSuggestResponse;
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 产品前缀补全Service测试
+ * 验证字典树补全结果与按前缀过滤、按热度排序的结果一致，增删改事件的增量修补，以及并发补全的延迟
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+class ProductSuggestServiceImplTest {
+
+    private static final String[] WORDS = {"手机", "手表", "耳机", "Pro", "Pad", "台灯", "外套", "茶叶", "跑鞋"};
+
+    private Map<Long, Product> table;
+
+    private ProductSuggestServiceImpl suggestService;
+
+    @BeforeEach
+    void setUp() {
+        ProductMapper productMapper = mock(ProductMapper.class);
+        table = new HashMap<>();
+        doAnswer(invocation -> {
+            ResultHandler<Product> handler = invocation.getArgument(0);
+            for (Product product : new ArrayList<>(table.values())) {
+                handler.handleResult(resultOf(copyOf(product)));
+            }
+            return null;
+        }).when(productMapper).scanSuggestColumns(any());
+        when(productMapper.selectSuggestColumns(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.stream().map(table::get).filter(product -> product != null)
+                    .map(ProductSuggestServiceImplTest::copyOf).collect(Collectors.toList());
+        });
+
+        suggestService = new ProductSuggestServiceImpl();
+        ReflectionTestUtils.setField(suggestService, "productMapper", productMapper);
+        ReflectionTestUtils.setField(suggestService, "productSuggestConfig", new ProductSuggestConfig());
+    }
+
+    @Test
+    void trieCompletionsMatchPrefixScanAcrossAddsAndRemoves() {
+        Random random = new Random(11);
+        CompletionTrie<String> trie = new CompletionTrie<>();
+        Map<String, Integer> reference = new HashMap<>();
+        List<String> added = new ArrayList<>();
+        for (int i = 0; i < 50_000; i++) {
+            if (!added.isEmpty() && random.nextInt(4) == 0) {
+                String key = added.remove(random.nextInt(added.size()));
+                assertThat(trie.remove(key)).isTrue();
+                reference.merge(key, -1, Integer::sum);
+                reference.remove(key, 0);
+            } else {
+                String key = (WORDS[random.nextInt(WORDS.length)] + random.nextInt(300)).toLowerCase(Locale.ROOT);
+                trie.add(key, key);
+                reference.merge(key, 1, Integer::sum);
+                added.add(key);
+            }
+        }
+        assertThat(trie.remove("不存在")).isFalse();
+        assertThat(trie.size()).isEqualTo(reference.size());
+
+        for (String prefix : Arrays.asList("手", "手机", "手机1", "手机12", "p", "pa", "pro29", "茶叶299", "x")) {
+            List<String> expected = reference.entrySet().stream()
+                    .filter(entry -> entry.getKey().startsWith(prefix))
+                    .sorted(Map.Entry.<String, Integer>comparingByValue().reversed()
+                            .thenComparing(Map.Entry.comparingByKey()))
+                    .limit(10)
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toList());
+            assertThat(trie.complete(prefix, 10)).extracting(CompletionTrie.Completion::getKey)
+                    .as("prefix %s", prefix).containsExactlyElementsOf(expected);
+        }
+    }
+
+    @Test
+    void changesArePatchedIntoNamesAndCodes() {
+        table.put(1L, product(1L, "P-1001", "iPhone 15"));
+        table.put(2L, product(2L, "P-1002", "iphone 15"));
+        table.put(3L, product(3L, "P-2001", "iPad Air"));
+        assertThat(suggestService.suggest("ip", 10).getNames()).isEmpty();
+        suggestService.refresh();
+
+        ProductSuggestResponse response = suggestService.suggest("IP", 10);
+        assertThat(response.getNames()).extracting(ProductSuggestResponse.Suggestion::getCount).containsExactly(2, 1);
+        assertThat(response.getNames().get(1).getText()).isEqualTo("iPad Air");
+        assertThat(suggestService.suggest("p-1", 10).getCodes())
+                .extracting(ProductSuggestResponse.Suggestion::getText, ProductSuggestResponse.Suggestion::getProductName)
+                .containsExactly(tuple("P-1001", "iPhone 15"),
+                        tuple("P-1002", "iphone 15"));
+
+        // 新增4、改名2、删除3
+        table.put(4L, product(4L, "P-3001", "iPad Pro"));
+        table.get(2L).setProductName("Galaxy S24");
+        table.remove(3L);
+        suggestService.onProductChange(ProductChangeEvent.of(Arrays.asList(4L, 2L)));
+        suggestService.onProductChange(ProductChangeEvent.of(Arrays.asList(3L)));
+        suggestService.refresh();
+
+        assertThat(suggestService.suggest("ip", 10).getNames()).extracting(ProductSuggestResponse.Suggestion::getText)
+                .containsExactly("iPad Pro", "iPhone 15");
+        assertThat(suggestService.suggest("gal", 10).getNames()).hasSize(1);
+        assertThat(suggestService.suggest("p-2", 10).getCodes()).isEmpty();
+        assertThat(suggestService.suggest("  ", 10).getNames()).isEmpty();
+        assertThatThrownBy(() -> suggestService.suggest("ip", 21)).isInstanceOf(BusinessException.class);
+    }
+
+    @Test
+    @Tag("benchmark")
+    void concurrentCompletionsStaySubMillisecond() throws Exception {
+        Random random = new Random(5);
+        for (long id = 1; id <= 200_000; id++) {
+            String name = WORDS[random.nextInt(WORDS.length)] + " " + random.nextInt(5000);
+            table.put(id, product(id, String.format("P%07d", id), name));
+        }
+        suggestService.refresh();
+        List<String> prefixes = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            String word = WORDS[random.nextInt(WORDS.length)];
+            prefixes.add(i % 3 == 0 ? "p" + random.nextInt(200) : word.substring(0, 1 + random.nextInt(word.length())));
+        }
+        for (String prefix : prefixes) {
+            suggestService.suggest(prefix, 10);
+        }
+
+        int threads = 4;
+        int perThread = 25_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<long[]>> futures = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            int offset = t;
+            futures.add(executor.submit(() -> {
+                long[] nanos = new long[perThread];
+                for (int i = 0; i < perThread; i++) {
+                    long begin = System.nanoTime();
+                    suggestService.suggest(prefixes.get((i + offset * 7) % prefixes.size()), 10);
+                    nanos[i] = System.nanoTime() - begin;
+                }
+                return nanos;
+            }));
+        }
+        // 查询期间修补字典树
+        for (long id = 1; id <= 200; id++) {
+            table.get(id).setProductName("耳机 改名" + id);
+            suggestService.onProductChange(ProductChangeEvent.of(Arrays.asList(id)));
+            suggestService.refresh();
+        }
+        List<Long> latencies = new ArrayList<>();
+        for (Future<long[]> future : futures) {
+            for (long nanos : future.get()) {
+                latencies.add(nanos);
+            }
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        executor.shutdown();
+        latencies.sort(Comparator.naturalOrder());
+        long p50 = latencies.get(latencies.size() / 2) / 1000;
+        long p99 = latencies.get(latencies.size() * 99 / 100) / 1000;
+        System.out.printf("%d completions on %d threads over 200000 products: %d/s, p50 %d us, p99 %d us%n",
+                latencies.size(), threads, latencies.size() * 1000L / Math.max(1, elapsedMillis), p50, p99);
+
+        assertThat(p99).as("p99 (us)").isLessThan(1000);
+        assertThat(suggestService.suggest("耳机 改名19", 20).getNames()).extracting(ProductSuggestResponse.Suggestion::getText)
+                .contains("耳机 改名19", "耳机 改名199");
+    }
+
+    private static Product product(Long id, String code, String name) {
+        Product product = new Product();
+        product.setId(id);
+        product.setProductCode(code);
+        product.setProductName(name);
+        return product;
+    }
+
+    /**
+     * 与MyBatis一致，每次查询返回新对象
+     */
+    private static Product copyOf(Product product) {
+        return product(product.getId(), product.getProductCode(), product.getProductName());
+    }
+
+    private static ResultContext<Product> resultOf(Product product) {
+        return new ResultContext<Product>() {
+            @Override
+            public Product getResultObject() {
+                return product;
+            }
+
+            @Override
+            public int getResultCount() {
+                return 0;
+            }
+
+            @Override
+            public boolean isStopped() {
+                return false;
+            }
+
+            @Override
+            public void stop() {
+            }
+        };
+    }
+}
@@ -0,0 +1,213 @@
+package com.gzist.project.service.impl;
+
+import com.gzist.project.config.FileUploadConfig;
+import com.gzist.project.config.UploadGcConfig;
+import com.gzist.project.mapper.ProductMapper;
+import com.gzist.project.storage.ObjectStorage;
+import com.gzist.project.storage.StoredObject;
+import com.gzist.project.vo.response.UploadGcReport;
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.nullable;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 上传文件垃圾回收Service测试
+ * 验证宽限期内的对象保留，扫描后才被引用的对象在删除前复查时保留，
+ * 演练不删除对象且使用独立游标，单次检查上限保存游标并在下次运行继续，整轮完成后清空游标
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+class UploadGcServiceImplTest {
+
+    private static final String CURSOR_KEY = "product-system:upload-gc:cursor";
+
+    private static final String DRY_RUN_CURSOR_KEY = "product-system:upload-gc:dry-run:cursor";
+
+    private static final long OLD = System.currentTimeMillis() - Duration.ofDays(3).toMillis();
+
+    private final Map<String, String> values = new ConcurrentHashMap<>();
+
+    /**
+     * 存储中的对象（按键排序，与ObjectStorage.list的遍历顺序一致）
+     */
+    private final TreeMap<String, StoredObject> objects = new TreeMap<>();
+
+    /**
+     * 回收开始时数据库中被引用的URL
+     */
+    private final Set<String> scannedUrls = new HashSet<>();
+
+    /**
+     * 删除前复查时数据库中被引用的URL
+     */
+    private final Set<String> currentUrls = new HashSet<>();
+
+    private UploadGcConfig uploadGcConfig;
+
+    private ObjectStorage objectStorage;
+
+    private UploadGcServiceImpl uploadGcService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        ValueOperations<String, String> valueOperations = mock(ValueOperations.class);
+        doAnswer(invocation -> values.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(valueOperations).set(anyString(), anyString());
+        when(valueOperations.get(anyString())).thenAnswer(invocation -> values.get(invocation.<String>getArgument(0)));
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class)))
+                .thenAnswer(invocation -> values.putIfAbsent(invocation.getArgument(0), invocation.getArgument(1)) == null);
+        StringRedisTemplate stringRedisTemplate = mock(StringRedisTemplate.class);
+        when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(stringRedisTemplate.delete(anyString()))
+                .thenAnswer(invocation -> values.remove(invocation.<String>getArgument(0)) != null);
+
+        ProductMapper productMapper = mock(ProductMapper.class);
+        doAnswer(invocation -> {
+            ResultHandler<String> handler = invocation.getArgument(0);
+            for (String url : scannedUrls) {
+                ResultContext<String> context = mock(ResultContext.class);
+                when(context.getResultObject()).thenReturn(url);
+                handler.handleResult(context);
+            }
+            return null;
+        }).when(productMapper).scanImageUrls(any());
+        when(productMapper.selectReferencedImageUrls(any())).thenAnswer(invocation -> {
+            List<String> referenced = new ArrayList<>();
+            for (String url : invocation.<Collection<String>>getArgument(0)) {
+                if (currentUrls.contains(url)) {
+                    referenced.add(url);
+                }
+            }
+            return referenced;
+        });
+
+        objectStorage = mock(ObjectStorage.class);
+        doAnswer(invocation -> {
+            String startAfter = invocation.getArgument(1);
+            ObjectStorage.ObjectVisitor visitor = invocation.getArgument(2);
+            Map<String, StoredObject> remaining = startAfter == null ? objects : objects.tailMap(startAfter, false);
+            for (StoredObject object : new ArrayList<>(remaining.values())) {
+                if (!visitor.visit(object)) {
+                    break;
+                }
+            }
+            return null;
+        }).when(objectStorage).list(anyString(), nullable(String.class), any());
+        when(objectStorage.stat(anyString())).thenAnswer(invocation -> objects.get(invocation.<String>getArgument(0)));
+        when(objectStorage.delete(anyString()))
+                .thenAnswer(invocation -> objects.remove(invocation.<String>getArgument(0)) != null);
+
+        uploadGcConfig = new UploadGcConfig();
+        uploadGcConfig.setBatchPauseMillis(0L);
+        uploadGcService = new UploadGcServiceImpl();
+        ReflectionTestUtils.setField(uploadGcService, "fileUploadConfig", new FileUploadConfig());
+        ReflectionTestUtils.setField(uploadGcService, "uploadGcConfig", uploadGcConfig);
+        ReflectionTestUtils.setField(uploadGcService, "productMapper", productMapper);
+        ReflectionTestUtils.setField(uploadGcService, "objectStorage", objectStorage);
+        ReflectionTestUtils.setField(uploadGcService, "stringRedisTemplate", stringRedisTemplate);
+    }
+
+    @Test
+    void recentAndReferencedObjectsAreKept() {
+        store("products/a.png", OLD);
+        store("products/b.png", System.currentTimeMillis());
+        store("products/c.png", OLD);
+        store("products/d.png", OLD);
+        referenceBeforeScan("products/c.png");
+        // 扫描之后、删除之前才被产品引用
+        currentUrls.add("/uploads/products/d.png");
+
+        UploadGcReport report = uploadGcService.runGc(false);
+
+        assertThat(objects).containsOnlyKeys("products/b.png", "products/c.png", "products/d.png");
+        assertThat(report.getScannedFiles()).isEqualTo(4);
+        assertThat(report.getRecentFiles()).isEqualTo(1);
+        assertThat(report.getOrphanFiles()).isEqualTo(1);
+        assertThat(report.getDeletedFiles()).isEqualTo(1);
+        assertThat(report.getSampleOrphans()).containsExactly("/uploads/products/a.png");
+        assertThat(report.getPassCompleted()).isTrue();
+        assertThat(values).doesNotContainKeys(CURSOR_KEY, "product-system:upload-gc:lock");
+    }
+
+    @Test
+    void dryRunDeletesNothingAndKeepsItsOwnCursor() throws Exception {
+        for (int i = 1; i <= 3; i++) {
+            store("products/" + i + ".png", OLD);
+        }
+        uploadGcConfig.setMaxFilesPerRun(2);
+        values.put(CURSOR_KEY, "products/1.png");
+
+        UploadGcReport report = uploadGcService.runGc(true);
+
+        verify(objectStorage, never()).delete(anyString());
+        assertThat(objects).hasSize(3);
+        assertThat(report.getStartCursor()).isNull();
+        assertThat(report.getOrphanFiles()).isEqualTo(2);
+        assertThat(report.getDeletedFiles()).isZero();
+        assertThat(values).containsEntry(DRY_RUN_CURSOR_KEY, "products/2.png")
+                .containsEntry(CURSOR_KEY, "products/1.png");
+        assertThat(uploadGcService.getLastReport(true).getEndCursor()).isEqualTo("products/2.png");
+        assertThat(uploadGcService.getLastReport(false)).isNull();
+    }
+
+    @Test
+    void runsResumeFromTheCursorAndClearItAfterAFullPass() {
+        for (int i = 1; i <= 5; i++) {
+            store("products/" + i + ".png", OLD);
+        }
+        uploadGcConfig.setMaxFilesPerRun(2);
+
+        UploadGcReport first = uploadGcService.runGc(false);
+        assertThat(first.getPassCompleted()).isFalse();
+        assertThat(first.getEndCursor()).isEqualTo("products/2.png");
+        assertThat(values).containsEntry(CURSOR_KEY, "products/2.png");
+        assertThat(objects).containsOnlyKeys("products/3.png", "products/4.png", "products/5.png");
+
+        UploadGcReport second = uploadGcService.runGc(false);
+        assertThat(second.getStartCursor()).isEqualTo("products/2.png");
+        assertThat(second.getScannedFiles()).isEqualTo(2);
+        assertThat(values).containsEntry(CURSOR_KEY, "products/4.png");
+
+        UploadGcReport third = uploadGcService.runGc(false);
+        assertThat(third.getScannedFiles()).isEqualTo(1);
+        assertThat(third.getPassCompleted()).isTrue();
+        assertThat(third.getEndCursor()).isNull();
+        assertThat(values).doesNotContainKey(CURSOR_KEY);
+        assertThat(objects).isEmpty();
+    }
+
+    private void store(String key, long lastModified) {
+        objects.put(key, new StoredObject(key, 100, lastModified));
+    }
+
+    private void referenceBeforeScan(String key) {
+        scannedUrls.add("/uploads/" + key);
+        currentUrls.add("/uploads/" + key);
+    }
+}
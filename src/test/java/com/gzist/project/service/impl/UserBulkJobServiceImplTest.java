@@ -0,0 +1,165 @@
+package com.gzist.project.service.impl;
+
+import com.gzist.project.config.UserBulkConfig;
+import com.gzist.project.mapper.ProductMapper;
+import com.gzist.project.vo.response.BulkJobResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 用户批量后台任务Service测试
+ * 验证产品归属迁移按块、按批执行并记录进度，失败后从最后完成的分块续跑，
+ * 以及更新过产品时任务结束后清除一次产品缓存
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+class UserBulkJobServiceImplTest {
+
+    private final Map<String, String> redis = new ConcurrentHashMap<>();
+
+    private StringRedisTemplate stringRedisTemplate;
+
+    private SetOperations<String, String> setOperations;
+
+    private ProductMapper productMapper;
+
+    private UserBulkConfig userBulkConfig;
+
+    private Cache productCache;
+
+    private UserBulkJobServiceImpl userBulkJobService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        ValueOperations<String, String> valueOperations = mock(ValueOperations.class);
+        doAnswer(invocation -> redis.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(valueOperations).set(anyString(), anyString(), any(Duration.class));
+        when(valueOperations.get(anyString())).thenAnswer(invocation -> redis.get(invocation.<String>getArgument(0)));
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class)))
+                .thenAnswer(invocation -> redis.putIfAbsent(invocation.getArgument(0), invocation.getArgument(1)) == null);
+        setOperations = mock(SetOperations.class);
+        stringRedisTemplate = mock(StringRedisTemplate.class);
+        when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(stringRedisTemplate.opsForSet()).thenReturn(setOperations);
+        when(stringRedisTemplate.delete(anyString()))
+                .thenAnswer(invocation -> redis.remove(invocation.<String>getArgument(0)) != null);
+
+        // 任务在提交线程上直接执行
+        ThreadPoolTaskExecutor bulkJobExecutor = mock(ThreadPoolTaskExecutor.class);
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(bulkJobExecutor).execute(any(Runnable.class));
+
+        productMapper = mock(ProductMapper.class);
+        userBulkConfig = new UserBulkConfig();
+        userBulkConfig.setOperationChunkSize(2);
+        userBulkConfig.setReassignBatchSize(2);
+        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager("products");
+        productCache = cacheManager.getCache("products");
+
+        userBulkJobService = new UserBulkJobServiceImpl();
+        ReflectionTestUtils.setField(userBulkJobService, "stringRedisTemplate", stringRedisTemplate);
+        ReflectionTestUtils.setField(userBulkJobService, "productMapper", productMapper);
+        ReflectionTestUtils.setField(userBulkJobService, "userBulkConfig", userBulkConfig);
+        ReflectionTestUtils.setField(userBulkJobService, "cacheManager", cacheManager);
+        ReflectionTestUtils.setField(userBulkJobService, "bulkJobExecutor", bulkJobExecutor);
+    }
+
+    @Test
+    void reassignRunsChunksInBatchesAndEvictsProductCacheOnce() {
+        List<String> firstChunk = Arrays.asList("a", "b");
+        List<String> secondChunk = Collections.singletonList("c");
+        when(productMapper.selectCount(any())).thenReturn(3L, 1L);
+        // 每批最多2行：第一块2+1行，第二块1行
+        when(productMapper.reassignCreatedBy(eq(firstChunk), eq("target"), eq(2))).thenReturn(2, 1);
+        when(productMapper.reassignCreatedBy(eq(secondChunk), eq("target"), eq(2))).thenReturn(1);
+        productCache.put("detail:1", "stale");
+
+        BulkJobResponse submitted = userBulkJobService.submitProductReassignJob(Arrays.asList("a", "b", "c"), "target");
+
+        BulkJobResponse job = userBulkJobService.getJob(submitted.getJobId());
+        assertThat(job.getStatus()).isEqualTo(BulkJobResponse.STATUS_COMPLETED);
+        assertThat(job.getTotalRows()).isEqualTo(4);
+        assertThat(job.getProcessedRows()).isEqualTo(4);
+        assertThat(job.getCompletedChunks()).isEqualTo(2);
+        verify(productMapper, times(2)).reassignCreatedBy(eq(firstChunk), eq("target"), eq(2));
+        verify(productMapper, times(1)).reassignCreatedBy(eq(secondChunk), eq("target"), eq(2));
+        verify(setOperations).remove(anyString(), eq(submitted.getJobId()));
+        assertThat(productCache.get("detail:1")).isNull();
+        assertThat(redis).doesNotContainKey("product-system:user-job:" + submitted.getJobId() + ":lock");
+    }
+
+    @Test
+    void failedJobResumesFromTheLastCompletedChunk() {
+        List<String> firstChunk = Arrays.asList("a", "b");
+        List<String> secondChunk = Collections.singletonList("c");
+        when(productMapper.selectCount(any())).thenReturn(1L, 1L);
+        when(productMapper.reassignCreatedBy(eq(firstChunk), eq(null), anyInt())).thenReturn(1);
+        when(productMapper.reassignCreatedBy(eq(secondChunk), eq(null), anyInt()))
+                .thenThrow(new IllegalStateException("Lock wait timeout exceeded"))
+                .thenReturn(1);
+        productCache.put("detail:1", "stale");
+
+        BulkJobResponse submitted = userBulkJobService.submitProductReassignJob(Arrays.asList("a", "b", "c"), null);
+
+        BulkJobResponse failed = userBulkJobService.getJob(submitted.getJobId());
+        assertThat(failed.getStatus()).isEqualTo(BulkJobResponse.STATUS_FAILED);
+        assertThat(failed.getMessage()).isEqualTo("Lock wait timeout exceeded");
+        assertThat(failed.getCompletedChunks()).isEqualTo(1);
+        assertThat(failed.getProcessedRows()).isEqualTo(1);
+        // 已提交的更新也会使缓存中的创建人过期
+        assertThat(productCache.get("detail:1")).isNull();
+
+        productCache.put("detail:1", "stale");
+        userBulkJobService.resumeJob(submitted.getJobId());
+
+        BulkJobResponse completed = userBulkJobService.getJob(submitted.getJobId());
+        assertThat(completed.getStatus()).isEqualTo(BulkJobResponse.STATUS_COMPLETED);
+        assertThat(completed.getMessage()).isNull();
+        assertThat(completed.getProcessedRows()).isEqualTo(2);
+        verify(productMapper, times(1)).reassignCreatedBy(eq(firstChunk), eq(null), anyInt());
+        verify(productMapper, times(2)).selectCount(any());
+        assertThat(productCache.get("detail:1")).isNull();
+    }
+
+    @Test
+    void jobThatUpdatesNothingKeepsTheProductCache() {
+        when(productMapper.selectCount(any())).thenReturn(0L);
+        when(productMapper.reassignCreatedBy(any(), any(), anyInt())).thenReturn(0);
+        productCache.put("detail:1", "fresh");
+
+        BulkJobResponse submitted = userBulkJobService.submitProductReassignJob(Collections.singletonList("a"), "target");
+
+        assertThat(userBulkJobService.getJob(submitted.getJobId()).getStatus())
+                .isEqualTo(BulkJobResponse.STATUS_COMPLETED);
+        assertThat(productCache.get("detail:1")).isNotNull();
+    }
+}
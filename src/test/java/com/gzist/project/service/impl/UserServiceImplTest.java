@@ -0,0 +1,244 @@
+package com.gzist.project.service.impl;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.gzist.project.config.UserBulkConfig;
+import com.gzist.project.entity.Product;
+import com.gzist.project.entity.Role;
+import com.gzist.project.entity.User;
+import com.gzist.project.entity.UserRole;
+import com.gzist.project.exception.BusinessException;
+import com.gzist.project.mapper.ProductMapper;
+import com.gzist.project.mapper.RoleMapper;
+import com.gzist.project.mapper.UserMapper;
+import com.gzist.project.mapper.UserRoleMapper;
+import com.gzist.project.service.IUserBulkJobService;
+import com.gzist.project.utils.ImportRecordReader;
+import com.gzist.project.vo.response.BulkJobResponse;
+import com.gzist.project.vo.response.BulkOperationResponse;
+import com.gzist.project.vo.response.ImportResultResponse;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.apache.ibatis.executor.result.DefaultResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.validation.Validation;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 用户Service测试
+ * 验证批量导入的唯一性校验、分块多行插入与冲突行逐行重试，批量删除按块执行并提交产品归属清除任务，
+ * 以及删除单个用户时产品创建人确实被置为NULL
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+class UserServiceImplTest {
+
+    private UserMapper userMapper;
+
+    private RoleMapper roleMapper;
+
+    private UserRoleMapper userRoleMapper;
+
+    private ProductMapper productMapper;
+
+    private IUserBulkJobService userBulkJobService;
+
+    private UserBulkConfig userBulkConfig;
+
+    private ForkJoinPool passwordHashPool;
+
+    private UserServiceImpl userService;
+
+    @BeforeEach
+    void setUp() {
+        MapperBuilderAssistant assistant = new MapperBuilderAssistant(new MybatisConfiguration(), "");
+        TableInfoHelper.initTableInfo(assistant, User.class);
+        TableInfoHelper.initTableInfo(assistant, UserRole.class);
+        TableInfoHelper.initTableInfo(assistant, Product.class);
+
+        userMapper = mock(UserMapper.class);
+        roleMapper = mock(RoleMapper.class);
+        userRoleMapper = mock(UserRoleMapper.class);
+        productMapper = mock(ProductMapper.class);
+        userBulkJobService = mock(IUserBulkJobService.class);
+        PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+        when(passwordEncoder.encode(anyString())).thenAnswer(invocation -> "hash:" + invocation.getArgument(0));
+        userBulkConfig = new UserBulkConfig();
+        passwordHashPool = new ForkJoinPool(2);
+
+        userService = new UserServiceImpl();
+        ReflectionTestUtils.setField(userService, "baseMapper", userMapper);
+        ReflectionTestUtils.setField(userService, "userMapper", userMapper);
+        ReflectionTestUtils.setField(userService, "roleMapper", roleMapper);
+        ReflectionTestUtils.setField(userService, "userRoleMapper", userRoleMapper);
+        ReflectionTestUtils.setField(userService, "productMapper", productMapper);
+        ReflectionTestUtils.setField(userService, "passwordEncoder", passwordEncoder);
+        ReflectionTestUtils.setField(userService, "userBulkConfig", userBulkConfig);
+        ReflectionTestUtils.setField(userService, "passwordHashPool", passwordHashPool);
+        ReflectionTestUtils.setField(userService, "transactionTemplate",
+                new TransactionTemplate(mock(PlatformTransactionManager.class)));
+        ReflectionTestUtils.setField(userService, "validator",
+                Validation.buildDefaultValidatorFactory().getValidator());
+        ReflectionTestUtils.setField(userService, "userBulkJobService", userBulkJobService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        passwordHashPool.shutdownNow();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void importValidatesAgainstOnePassAndRetriesConflictingChunksRowByRow() {
+        userBulkConfig.setImportChunkSize(2);
+        doAnswer(invocation -> {
+            User existing = new User();
+            existing.setUsername("Existing");
+            existing.setEmail("existing@example.com");
+            DefaultResultContext<User> context = new DefaultResultContext<>();
+            context.nextResultObject(existing);
+            invocation.<ResultHandler<User>>getArgument(0).handleResult(context);
+            return null;
+        }).when(userMapper).scanUsernamesAndEmails(any());
+        when(roleMapper.selectList(isNull())).thenReturn(Arrays.asList(role("ROLE_USER"), role("ROLE_ADMIN")));
+        // 其他请求并发注册了racer：含该行的多行插入失败
+        List<List<User>> insertedUsers = new ArrayList<>();
+        List<UserRole> insertedRoles = new ArrayList<>();
+        when(userMapper.insertBatch(anyList())).thenAnswer(invocation -> {
+            List<User> users = invocation.getArgument(0);
+            if (users.stream().anyMatch(user -> "racer".equals(user.getUsername()))) {
+                throw new DuplicateKeyException("Duplicate entry 'racer' for key 'uk_username'");
+            }
+            insertedUsers.add(new ArrayList<>(users));
+            return users.size();
+        });
+        when(userRoleMapper.insertBatch(anyList())).thenAnswer(invocation -> {
+            insertedRoles.addAll(invocation.getArgument(0));
+            return 0;
+        });
+
+        String csv = "username,password,email,roleCodes\n"
+                + "alice,secret1,alice@example.com,ROLE_USER\n"
+                + "EXISTING,secret1,new@example.com,\n"
+                + "bob,secret1,ALICE@example.com,\n"
+                + "carol,secret1,carol@example.com,ROLE_USER|ROLE_X\n"
+                + "dave,secret1,dave@example.com,ROLE_USER|ROLE_ADMIN\n"
+                + "erin,secret1,erin@example.com,\n"
+                + "racer,secret1,racer@example.com,\n"
+                + "\"broken,secret1\n";
+        ImportResultResponse result = userService.importUsers(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), ImportRecordReader.Format.CSV);
+
+        assertThat(result.getTotalRows()).isEqualTo(8);
+        assertThat(result.getSuccessRows()).isEqualTo(3);
+        assertThat(result.getFailedRows()).isEqualTo(5);
+        assertThat(result.getErrors())
+                .extracting(ImportResultResponse.RowError::getLine, ImportResultResponse.RowError::getKey)
+                .containsExactlyInAnyOrder(tuple(3L, "EXISTING"), tuple(4L, "bob"), tuple(5L, "carol"),
+                        tuple(8L, "racer"), tuple(9L, null));
+        assertThat(result.getErrors()).extracting(ImportResultResponse.RowError::getMessage)
+                .contains("用户名已存在", "邮箱已存在", "角色不存在：ROLE_X", "CSV引号未闭合");
+
+        // 两行一块：[alice, dave]一次写入，[erin, racer]失败后逐行写入
+        assertThat(insertedUsers).extracting(users -> users.stream().map(User::getUsername).collect(Collectors.toList()))
+                .containsExactly(Arrays.asList("alice", "dave"), Collections.singletonList("erin"));
+        assertThat(insertedUsers.get(0)).extracting(User::getPassword).containsOnly("hash:secret1");
+        assertThat(insertedRoles).extracting(UserRole::getUsername, UserRole::getRoleCode)
+                .containsExactly(tuple("alice", "ROLE_USER"), tuple("dave", "ROLE_USER"), tuple("dave", "ROLE_ADMIN"));
+        verify(userMapper, times(4)).insertBatch(anyList());
+    }
+
+    @Test
+    void batchDeleteRunsChunksAndHandsTheProductCascadeToABackgroundJob() {
+        userBulkConfig.setOperationChunkSize(2);
+        when(userMapper.selectList(any()))
+                .thenReturn(Arrays.asList(user(1L, "a"), user(2L, "b")))
+                .thenReturn(Collections.singletonList(user(3L, "c")));
+        BulkJobResponse job = new BulkJobResponse();
+        job.setJobId("job-1");
+        when(userBulkJobService.submitProductReassignJob(anyList(), isNull())).thenReturn(job);
+
+        BulkOperationResponse response = userService.batchDeleteUsers(new Long[]{1L, 2L, 3L, 2L});
+
+        assertThat(response.getRequested()).isEqualTo(3);
+        assertThat(response.getAffected()).isEqualTo(3);
+        assertThat(response.getJobId()).isEqualTo("job-1");
+        verify(userMapper).deleteBatchIds(Arrays.asList(1L, 2L));
+        verify(userMapper).deleteBatchIds(Collections.singletonList(3L));
+        verify(userRoleMapper, times(2)).delete(any());
+        verify(userBulkJobService).submitProductReassignJob(eq(Arrays.asList("a", "b", "c")), isNull());
+        verify(productMapper, never()).update(any(), any());
+
+        when(userMapper.selectList(any())).thenReturn(Collections.emptyList());
+        assertThatThrownBy(() -> userService.batchDeleteUsers(new Long[]{9L}))
+                .isInstanceOf(BusinessException.class)
+                .hasMessage("用户不存在");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void deleteUserSetsCreatedByToNull() {
+        when(userMapper.selectById(5L)).thenReturn(user(5L, "alice"));
+        when(userMapper.deleteById(5L)).thenReturn(1);
+
+        assertThat(userService.deleteUser(5L)).isTrue();
+
+        ArgumentCaptor<Wrapper<Product>> captor = ArgumentCaptor.forClass(Wrapper.class);
+        verify(productMapper).update(isNull(), captor.capture());
+        LambdaUpdateWrapper<Product> wrapper = (LambdaUpdateWrapper<Product>) captor.getValue();
+        // 实体为null，SET子句来自更新条件，值为NULL
+        String sqlSet = wrapper.getSqlSet();
+        assertThat(sqlSet).startsWith("created_by_username=#{ew.paramNameValuePairs.");
+        String paramName = sqlSet.substring(sqlSet.lastIndexOf('.') + 1, sqlSet.length() - 1);
+        assertThat(wrapper.getSqlSegment()).contains("created_by_username =");
+        assertThat(wrapper.getParamNameValuePairs()).containsEntry(paramName, null).containsValue("alice");
+        verify(userRoleMapper).delete(any());
+    }
+
+    private static Role role(String roleCode) {
+        Role role = new Role();
+        role.setRoleCode(roleCode);
+        return role;
+    }
+
+    private static User user(Long id, String username) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername(username);
+        return user;
+    }
+}
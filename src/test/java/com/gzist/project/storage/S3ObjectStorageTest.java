@@ -0,0 +1,429 @@
+package com.gzist.project.storage;
+
+import com.gzist.project.config.S3StorageConfig;
+import com.gzist.project.config.StorageConfig;
+import com.gzist.project.utils.DiskCacheIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.core.sync.ResponseTransformer;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectResponse;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Object;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * S3对象存储测试（使用进程内的S3替身，不访问网络）
+ * 验证大文件分片上传的分片切分与合并、分片失败时中止上传，按游标分页遍历对象，
+ * 以及读穿缓存命中后不再下载、同一对象的并发下载只请求一次
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+class S3ObjectStorageTest {
+
+    private static final int MB = 1024 * 1024;
+
+    @TempDir
+    Path root;
+
+    private FakeS3Client s3Client;
+
+    private S3StorageConfig s3StorageConfig;
+
+    private S3ObjectStorage objectStorage;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        s3Client = new FakeS3Client();
+        s3StorageConfig = new S3StorageConfig();
+        s3StorageConfig.setBucket("products");
+        s3StorageConfig.setMultipartThreshold((long) MB);
+        // 低于S3的5MB下限，实际按5MB切分
+        s3StorageConfig.setPartSize((long) MB);
+        StorageConfig storageConfig = new StorageConfig();
+        storageConfig.setType("s3");
+        Path cacheRoot = root.resolve("cache");
+        DiskCacheIndex cacheIndex = new DiskCacheIndex(storageConfig.getCacheMaxSize());
+        cacheIndex.load(cacheRoot);
+
+        objectStorage = new S3ObjectStorage();
+        ReflectionTestUtils.setField(objectStorage, "storageConfig", storageConfig);
+        ReflectionTestUtils.setField(objectStorage, "s3StorageConfig", s3StorageConfig);
+        ReflectionTestUtils.setField(objectStorage, "s3Client", s3Client);
+        ReflectionTestUtils.setField(objectStorage, "bucket", "products");
+        ReflectionTestUtils.setField(objectStorage, "cacheRoot", cacheRoot);
+        ReflectionTestUtils.setField(objectStorage, "cacheIndex", cacheIndex);
+    }
+
+    @Test
+    void smallFilesUseOnePutAndLargeFilesAreUploadedInParts() throws IOException {
+        Path small = writeFile("small.png", 64 * 1024);
+        objectStorage.put("products/small.png", small, "image/png");
+
+        assertThat(s3Client.createdUploads).isEmpty();
+        assertThat(s3Client.objects.get("products/small.png").content).isEqualTo(Files.readAllBytes(small));
+
+        Path large = writeFile("large.png", 12 * MB);
+        objectStorage.put("products/large.png", large, "image/png");
+
+        assertThat(s3Client.createdUploads).hasSize(1);
+        assertThat(s3Client.partSizes).containsExactly(5 * MB, 5 * MB, 2 * MB);
+        assertThat(s3Client.abortedUploads).isEmpty();
+        assertThat(s3Client.uploads).isEmpty();
+        StoredBlob stored = s3Client.objects.get("products/large.png");
+        assertThat(stored.content).isEqualTo(Files.readAllBytes(large));
+        assertThat(stored.contentType).isEqualTo("image/png");
+        assertThat(objectStorage.stat("products/large.png").getSize()).isEqualTo(12L * MB);
+    }
+
+    @Test
+    void failedPartAbortsTheMultipartUpload() throws IOException {
+        Path large = writeFile("large.png", 12 * MB);
+        s3Client.failOnPart = 2;
+
+        assertThatThrownBy(() -> objectStorage.put("products/large.png", large, "image/png"))
+                .isInstanceOf(SdkClientException.class)
+                .hasMessageContaining("part 2");
+
+        assertThat(s3Client.abortedUploads).containsExactlyElementsOf(s3Client.createdUploads);
+        assertThat(s3Client.uploads).isEmpty();
+        assertThat(s3Client.objects).doesNotContainKey("products/large.png");
+        assertThat(objectStorage.exists("products/large.png")).isFalse();
+    }
+
+    @Test
+    void listingResumesAfterTheCursorAndFetchesPagesOnDemand() throws IOException {
+        s3Client.pageSize = 2;
+        for (String key : Arrays.asList("gc/a", "gc/b", "gc/c", "gc/d", "gc/e", "other/x")) {
+            s3Client.store(key, new byte[]{1}, "image/png");
+        }
+
+        List<String> all = new ArrayList<>();
+        objectStorage.list("gc/", null, object -> all.add(object.getKey()));
+        assertThat(all).containsExactly("gc/a", "gc/b", "gc/c", "gc/d", "gc/e");
+        assertThat(s3Client.listRequests).hasSize(3);
+
+        s3Client.listRequests.clear();
+        List<String> resumed = new ArrayList<>();
+        objectStorage.list("gc/", "gc/b", object -> resumed.add(object.getKey()));
+        assertThat(resumed).containsExactly("gc/c", "gc/d", "gc/e");
+        assertThat(s3Client.listRequests).hasSize(2);
+        assertThat(s3Client.listRequests.get(0).startAfter()).isEqualTo("gc/b");
+
+        // 访问者停止后不再请求后续页
+        s3Client.listRequests.clear();
+        List<String> stopped = new ArrayList<>();
+        objectStorage.list("gc/", null, object -> {
+            stopped.add(object.getKey());
+            return stopped.size() < 1;
+        });
+        assertThat(stopped).containsExactly("gc/a");
+        assertThat(s3Client.listRequests).hasSize(1);
+    }
+
+    @Test
+    void readThroughCacheDownloadsEachObjectOnce() throws Exception {
+        byte[] content = {1, 2, 3, 4};
+        s3Client.store("products/a.png", content, "image/png");
+
+        Path first = objectStorage.localPath("products/a.png");
+        Path second = objectStorage.localPath("products/a.png");
+        assertThat(second).isEqualTo(first);
+        assertThat(Files.readAllBytes(first)).isEqualTo(content);
+        assertThat(s3Client.getRequests).hasValue(1);
+        assertThat(objectStorage.localPath("products/missing.png")).isNull();
+
+        // 删除对象时同时删除本地缓存，之后重新下载
+        assertThat(objectStorage.delete("products/a.png")).isTrue();
+        assertThat(first).doesNotExist();
+        s3Client.store("products/a.png", content, "image/png");
+        assertThat(objectStorage.localPath("products/a.png")).exists();
+        assertThat(s3Client.getRequests).hasValue(3);
+    }
+
+    @Test
+    void concurrentReadsOfOneObjectShareOneDownload() throws Exception {
+        s3Client.store("products/a.png", new byte[]{1, 2, 3}, "image/png");
+        CountDownLatch downloading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        s3Client.beforeGet = () -> {
+            downloading.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        int readers = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(readers);
+        try {
+            List<Thread> threads = new CopyOnWriteArrayList<>();
+            List<Future<Path>> futures = new ArrayList<>();
+            for (int i = 0; i < readers; i++) {
+                futures.add(executor.submit(() -> {
+                    threads.add(Thread.currentThread());
+                    return objectStorage.localPath("products/a.png");
+                }));
+            }
+            assertThat(downloading.await(10, TimeUnit.SECONDS)).isTrue();
+            // 其余请求都在等待同一个下载
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (threads.size() < readers
+                    || threads.stream().filter(thread -> thread.getState() == Thread.State.WAITING).count() < readers - 1) {
+                assertThat(System.nanoTime()).isLessThan(deadline);
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            Path cached = futures.get(0).get(10, TimeUnit.SECONDS);
+            for (Future<Path> future : futures) {
+                assertThat(future.get(10, TimeUnit.SECONDS)).isEqualTo(cached);
+            }
+            assertThat(s3Client.getRequests).hasValue(1);
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    private Path writeFile(String name, int size) throws IOException {
+        byte[] content = new byte[size];
+        new Random(size).nextBytes(content);
+        Path file = root.resolve(name);
+        Files.write(file, content);
+        return file;
+    }
+
+    /**
+     * 存储的对象
+     */
+    private static final class StoredBlob {
+
+        private final byte[] content;
+
+        private final String contentType;
+
+        private final Instant lastModified = Instant.now();
+
+        private StoredBlob(byte[] content, String contentType) {
+            this.content = content;
+            this.contentType = contentType;
+        }
+    }
+
+    /**
+     * 进程内S3替身：实现SDK各操作的请求对象重载，Consumer重载和分页器使用SDK的默认实现
+     */
+    private static final class FakeS3Client implements S3Client {
+
+        private final NavigableMap<String, StoredBlob> objects = new TreeMap<>();
+
+        private final Map<String, NavigableMap<Integer, byte[]>> uploads = new ConcurrentHashMap<>();
+
+        private final Map<String, String> uploadContentTypes = new ConcurrentHashMap<>();
+
+        private final List<String> createdUploads = new CopyOnWriteArrayList<>();
+
+        private final List<String> abortedUploads = new CopyOnWriteArrayList<>();
+
+        private final List<Integer> partSizes = new CopyOnWriteArrayList<>();
+
+        private final List<ListObjectsV2Request> listRequests = new CopyOnWriteArrayList<>();
+
+        private final AtomicInteger getRequests = new AtomicInteger();
+
+        private volatile int failOnPart;
+
+        private volatile int pageSize = 1000;
+
+        private volatile Runnable beforeGet = () -> { };
+
+        private synchronized void store(String key, byte[] content, String contentType) {
+            objects.put(key, new StoredBlob(content, contentType));
+        }
+
+        private synchronized StoredBlob find(String key) {
+            StoredBlob blob = objects.get(key);
+            if (blob == null) {
+                throw NoSuchKeyException.builder().message("The specified key does not exist: " + key).build();
+            }
+            return blob;
+        }
+
+        @Override
+        public PutObjectResponse putObject(PutObjectRequest request, RequestBody requestBody) {
+            store(request.key(), read(requestBody, requestBody.contentLength()), request.contentType());
+            return PutObjectResponse.builder().eTag("etag").build();
+        }
+
+        @Override
+        public CreateMultipartUploadResponse createMultipartUpload(CreateMultipartUploadRequest request) {
+            String uploadId = "upload-" + (createdUploads.size() + 1);
+            uploads.put(uploadId, new TreeMap<>());
+            uploadContentTypes.put(uploadId, request.contentType());
+            createdUploads.add(uploadId);
+            return CreateMultipartUploadResponse.builder().uploadId(uploadId).build();
+        }
+
+        @Override
+        public UploadPartResponse uploadPart(UploadPartRequest request, RequestBody requestBody) {
+            if (request.partNumber() == failOnPart) {
+                throw SdkClientException.create("Connection reset while uploading part " + failOnPart);
+            }
+            byte[] part = read(requestBody, request.contentLength());
+            uploads.get(request.uploadId()).put(request.partNumber(), part);
+            partSizes.add(part.length);
+            return UploadPartResponse.builder().eTag("etag-" + request.partNumber()).build();
+        }
+
+        @Override
+        public CompleteMultipartUploadResponse completeMultipartUpload(CompleteMultipartUploadRequest request) {
+            NavigableMap<Integer, byte[]> parts = uploads.remove(request.uploadId());
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            for (CompletedPart part : request.multipartUpload().parts()) {
+                assertThat(part.eTag()).isEqualTo("etag-" + part.partNumber());
+                byte[] bytes = parts.get(part.partNumber());
+                content.write(bytes, 0, bytes.length);
+            }
+            store(request.key(), content.toByteArray(), uploadContentTypes.remove(request.uploadId()));
+            return CompleteMultipartUploadResponse.builder().key(request.key()).build();
+        }
+
+        @Override
+        public AbortMultipartUploadResponse abortMultipartUpload(AbortMultipartUploadRequest request) {
+            uploads.remove(request.uploadId());
+            uploadContentTypes.remove(request.uploadId());
+            abortedUploads.add(request.uploadId());
+            return AbortMultipartUploadResponse.builder().build();
+        }
+
+        @Override
+        public HeadObjectResponse headObject(HeadObjectRequest request) {
+            StoredBlob blob = find(request.key());
+            return HeadObjectResponse.builder().contentLength((long) blob.content.length)
+                    .contentType(blob.contentType).lastModified(blob.lastModified).build();
+        }
+
+        @Override
+        public <ReturnT> ReturnT getObject(GetObjectRequest request,
+                                           ResponseTransformer<GetObjectResponse, ReturnT> responseTransformer) {
+            getRequests.incrementAndGet();
+            beforeGet.run();
+            StoredBlob blob = find(request.key());
+            GetObjectResponse response = GetObjectResponse.builder().contentLength((long) blob.content.length).build();
+            try {
+                return responseTransformer.transform(response,
+                        AbortableInputStream.create(new ByteArrayInputStream(blob.content)));
+            } catch (SdkException e) {
+                throw e;
+            } catch (Exception e) {
+                throw SdkClientException.create("transform failed", e);
+            }
+        }
+
+        @Override
+        public synchronized DeleteObjectResponse deleteObject(DeleteObjectRequest request) {
+            objects.remove(request.key());
+            return DeleteObjectResponse.builder().build();
+        }
+
+        /**
+         * 按键的字典序分页，startAfter与continuationToken都表示从该键之后开始
+         */
+        @Override
+        public synchronized ListObjectsV2Response listObjectsV2(ListObjectsV2Request request) {
+            listRequests.add(request);
+            String after = request.continuationToken() != null ? request.continuationToken() : request.startAfter();
+            NavigableMap<String, StoredBlob> candidates = after == null ? objects : objects.tailMap(after, false);
+            List<S3Object> page = new ArrayList<>();
+            String lastKey = null;
+            boolean truncated = false;
+            for (Map.Entry<String, StoredBlob> entry : candidates.entrySet()) {
+                if (!entry.getKey().startsWith(request.prefix())) {
+                    continue;
+                }
+                if (page.size() == pageSize) {
+                    truncated = true;
+                    break;
+                }
+                page.add(S3Object.builder().key(entry.getKey()).size((long) entry.getValue().content.length)
+                        .lastModified(entry.getValue().lastModified).build());
+                lastKey = entry.getKey();
+            }
+            return ListObjectsV2Response.builder().contents(page).keyCount(page.size()).isTruncated(truncated)
+                    .nextContinuationToken(truncated ? lastKey : null).build();
+        }
+
+        private static byte[] read(RequestBody requestBody, long length) {
+            // 分片请求体与文件共用一个通道，只读取声明的长度
+            byte[] content = new byte[(int) length];
+            try (InputStream input = requestBody.contentStreamProvider().newStream()) {
+                new DataInputStream(input).readFully(content);
+            } catch (IOException e) {
+                throw SdkClientException.create("read request body failed", e);
+            }
+            return content;
+        }
+
+        @Override
+        public String serviceName() {
+            return "s3";
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.gzist.project.utils;
+
+import com.gzist.project.dto.UserManageDTO;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+
+/**
+ * 批量导入记录读取器测试
+ * 验证CSV表头、引号转义、空单元格与BOM处理，NDJSON逐行解析，
+ * 以及格式错误的行报告行号后可以继续读取下一行
+ *
+ * @author GZIST
+ * @since 2026-10-19
+ */
+class ImportRecordReaderTest {
+
+    @Test
+    void csvRecordsFollowTheHeaderAndKeepQuotedSeparators() throws IOException {
+        String csv = "\uFEFFusername, email ,roleCodes\n"
+                + "alice,alice@example.com,ROLE_USER\n"
+                + "\n"
+                + "\"bob, jr\",\"say \"\"hi\"\"\",\n"
+                + "  carol  ,\n";
+        try (ImportRecordReader reader = reader(csv, ImportRecordReader.Format.CSV)) {
+            assertThat(reader.next()).containsExactly(entry("username", "alice"),
+                    entry("email", "alice@example.com"), entry("roleCodes", "ROLE_USER"));
+            assertThat(reader.getLineNumber()).isEqualTo(2);
+
+            // 空行跳过但计入行号；引号内的逗号和""保留，空单元格为null
+            assertThat(reader.next()).containsExactly(entry("username", "bob, jr"),
+                    entry("email", "say \"hi\""), entry("roleCodes", null));
+            assertThat(reader.getLineNumber()).isEqualTo(4);
+
+            // 未加引号的字段去掉首尾空白，缺少的列为null
+            Map<String, Object> carol = reader.next();
+            assertThat(carol).containsEntry("username", "carol").containsEntry("email", null)
+                    .containsEntry("roleCodes", null);
+            assertThat(reader.next()).isNull();
+        }
+    }
+
+    @Test
+    void malformedLinesReportTheirLineAndReadingContinues() throws IOException {
+        String csv = "username,email\n"
+                + "alice,alice@example.com,extra\n"
+                + "\"bob,bob@example.com\n"
+                + "carol,carol@example.com\n";
+        try (ImportRecordReader reader = reader(csv, ImportRecordReader.Format.CSV)) {
+            assertThatThrownBy(reader::next).isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("列数超过表头列数（2）");
+            assertThat(reader.getLineNumber()).isEqualTo(2);
+            assertThatThrownBy(reader::next).isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("CSV引号未闭合");
+            assertThat(reader.getLineNumber()).isEqualTo(3);
+            assertThat(reader.next()).containsEntry("username", "carol");
+            assertThat(reader.getLineNumber()).isEqualTo(4);
+        }
+    }
+
+    @Test
+    void ndjsonReadsOneObjectPerLine() throws IOException {
+        String ndjson = "{\"username\":\"alice\",\"email\":\"alice@example.com\",\"roleCodes\":[\"ROLE_USER\"],\"extra\":1}\n"
+                + "\n"
+                + "{\"username\":\"bob\"\n"
+                + "{\"username\":\"carol\",\"status\":1}\n";
+        try (ImportRecordReader reader = reader(ndjson, ImportRecordReader.Format.NDJSON)) {
+            Map<String, Object> alice = reader.next();
+            // 未知字段在转换时忽略
+            UserManageDTO userDTO = ImportRecordReader.toBean(alice, UserManageDTO.class);
+            assertThat(userDTO.getUsername()).isEqualTo("alice");
+            assertThat(userDTO.getRoleCodes()).isEqualTo(Arrays.asList("ROLE_USER"));
+
+            assertThatThrownBy(reader::next).isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageStartingWith("JSON格式错误");
+            assertThat(reader.getLineNumber()).isEqualTo(3);
+            assertThat(reader.next()).containsEntry("username", "carol").containsEntry("status", 1);
+            assertThat(reader.next()).isNull();
+        }
+    }
+
+    @Test
+    void formatComesFromTheParameterThenTheContentType() {
+        assertThat(ImportRecordReader.Format.resolve("ndjson", "text/csv")).isEqualTo(ImportRecordReader.Format.NDJSON);
+        assertThat(ImportRecordReader.Format.resolve(" ", "application/x-ndjson")).isEqualTo(ImportRecordReader.Format.NDJSON);
+        assertThat(ImportRecordReader.Format.resolve(null, "text/csv")).isEqualTo(ImportRecordReader.Format.CSV);
+        assertThat(ImportRecordReader.Format.resolve(null, null)).isEqualTo(ImportRecordReader.Format.CSV);
+    }
+
+    private static ImportRecordReader reader(String content, ImportRecordReader.Format format) {
+        return new ImportRecordReader(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), format);
+    }
+}